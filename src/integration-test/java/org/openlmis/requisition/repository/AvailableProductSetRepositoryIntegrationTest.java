@@ -0,0 +1,78 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.requisition.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.google.common.collect.Lists;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import javax.persistence.EntityManager;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.openlmis.requisition.domain.requisition.ApprovedProductReference;
+import org.openlmis.requisition.domain.requisition.AvailableProductSet;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Transactional;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+public class AvailableProductSetRepositoryIntegrationTest {
+
+  @Autowired
+  private AvailableProductSetRepository repository;
+
+  @Autowired
+  private EntityManager entityManager;
+
+  private List<ApprovedProductReference> products = Lists.newArrayList(
+      new ApprovedProductReference(UUID.randomUUID(), 1L, UUID.randomUUID(), 2L),
+      new ApprovedProductReference(UUID.randomUUID(), 3L, UUID.randomUUID(), 4L));
+
+  @Test
+  public void shouldStoreSetWithProducts() {
+    AvailableProductSet set = repository.findOrCreate(products);
+    entityManager.flush();
+    entityManager.clear();
+
+    AvailableProductSet found = repository.findById(set.getId()).orElse(null);
+
+    assertThat(found).isNotNull();
+    assertThat(found.getProducts()).containsOnlyElementsOf(products).hasSize(2);
+  }
+
+  @Test
+  public void shouldReuseSetWithTheSameProducts() {
+    AvailableProductSet first = repository.findOrCreate(products);
+    AvailableProductSet second = repository.findOrCreate(Lists.reverse(products));
+    entityManager.flush();
+    entityManager.clear();
+
+    assertThat(second.getId()).isEqualTo(first.getId());
+    assertThat(repository.findById(first.getId()).get().getProducts()).hasSize(2);
+  }
+
+  @Test
+  public void shouldNotStoreEmptySet() {
+    assertThat(repository.findOrCreate(Collections.emptyList())).isNull();
+  }
+}
@@ -47,6 +47,9 @@ public abstract class BaseRequisitionRepositoryIntegrationTest extends
   @Autowired
   protected RequisitionTemplateRepository templateRepository;
 
+  @Autowired
+  protected StockAdjustmentReasonRepository stockAdjustmentReasonRepository;
+
   @Autowired
   protected EntityManager entityManager;
 
@@ -94,7 +97,8 @@ public abstract class BaseRequisitionRepositoryIntegrationTest extends
     requisition.getStatusChanges().add(statusChange);
 
     StockAdjustmentReason reason = generateStockAdjustmentReason();
-    requisition.setStockAdjustmentReasons(newArrayList(reason));
+    requisition.setStockAdjustmentReasons(
+        stockAdjustmentReasonRepository.findOrCreateSnapshots(newArrayList(reason)));
 
     programNodePairs.add(new ImmutablePair<>(programId, requisition.getSupervisoryNodeId()));
 
@@ -22,12 +22,14 @@ import static java.util.Collections.emptySet;
 import static java.util.Collections.singleton;
 import static java.util.Collections.singletonList;
 import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.hasProperty;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.isIn;
 import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
@@ -45,6 +47,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.EnumSet;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -62,6 +65,7 @@ import org.openlmis.requisition.domain.RequisitionTemplateColumn;
 import org.openlmis.requisition.domain.RequisitionTemplateColumnDataBuilder;
 import org.openlmis.requisition.domain.RequisitionTemplateDataBuilder;
 import org.openlmis.requisition.domain.requisition.Requisition;
+import org.openlmis.requisition.domain.requisition.RequisitionApproval;
 import org.openlmis.requisition.domain.requisition.RequisitionDataBuilder;
 import org.openlmis.requisition.domain.requisition.RequisitionLineItem;
 import org.openlmis.requisition.domain.requisition.RequisitionLineItemDataBuilder;
@@ -73,6 +77,7 @@ import org.openlmis.requisition.domain.requisition.StockAdjustmentDataBuilder;
 import org.openlmis.requisition.dto.OrderableDto;
 import org.openlmis.requisition.dto.VersionIdentityDto;
 import org.openlmis.requisition.repository.custom.DefaultRequisitionSearchParams;
+import org.openlmis.requisition.repository.custom.RequisitionKeyset;
 import org.openlmis.requisition.repository.custom.RequisitionSearchParams;
 import org.openlmis.requisition.testutils.AvailableRequisitionColumnDataBuilder;
 import org.openlmis.requisition.testutils.DefaultRequisitionSearchParamsDataBuilder;
@@ -82,6 +87,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.domain.Sort.Direction;
 
@@ -305,6 +311,30 @@ public class RequisitionRepositoryIntegrationTest
     assertEquals(5, receivedRequisitions.size());
   }
 
+  @Test
+  public void testSearchRequisitionsWithKeyset() {
+    RequisitionSearchParams searchParams = new DefaultRequisitionSearchParams();
+    List<Requisition> receivedRequisitions = new ArrayList<>();
+
+    Slice<Requisition> slice = repository
+        .searchRequisitions(searchParams, userPermissionStrings, programNodePairs, null, 2);
+    receivedRequisitions.addAll(slice.getContent());
+
+    while (slice.hasNext()) {
+      Requisition last = slice.getContent().get(slice.getNumberOfElements() - 1);
+      slice = repository.searchRequisitions(searchParams, userPermissionStrings,
+          programNodePairs, RequisitionKeyset.of(last), 2);
+      receivedRequisitions.addAll(slice.getContent());
+    }
+
+    assertEquals(5, receivedRequisitions.size());
+    assertThat(receivedRequisitions, containsInAnyOrder(requisitions.toArray()));
+    for (int i = 1; i < receivedRequisitions.size(); ++i) {
+      assertFalse(receivedRequisitions.get(i).getCreatedDate()
+          .isBefore(receivedRequisitions.get(i - 1).getCreatedDate()));
+    }
+  }
+
   @Test
   public void testSearchEmergencyRequsitions() {
     RequisitionSearchParams searchParams = new DefaultRequisitionSearchParamsDataBuilder()
@@ -988,6 +1018,104 @@ public class RequisitionRepositoryIntegrationTest
     assertEquals(requisition.getCreatedDate(), requisition.getModifiedDate());
   }
 
+  @Test
+  public void shouldFindRegularRequisitionsForManyPeriods() {
+    UUID facilityId = UUID.randomUUID();
+    UUID programId = UUID.randomUUID();
+    UUID period1 = UUID.randomUUID();
+    UUID period2 = UUID.randomUUID();
+
+    Requisition regular1 = generateInstance(facilityId, programId, period1);
+    regular1.setEmergency(false);
+    Requisition regular2 = generateInstance(facilityId, programId, period2);
+    regular2.setEmergency(false);
+    Requisition emergency = generateInstance(facilityId, programId, period1);
+    emergency.setEmergency(true);
+    Requisition otherFacility = generateInstance(UUID.randomUUID(), programId, period1);
+    otherFacility.setEmergency(false);
+    repository.saveAll(asList(regular1, regular2, emergency, otherFacility));
+    repository.flush();
+
+    List<Requisition> found = repository.findRegularRequisitions(
+        asList(period1, period2, UUID.randomUUID()), facilityId, programId);
+
+    assertThat(found, hasSize(2));
+    assertThat(found, hasItem(hasProperty("id", is(regular1.getId()))));
+    assertThat(found, hasItem(hasProperty("id", is(regular2.getId()))));
+  }
+
+  @Test
+  public void shouldNotFindRegularRequisitionsIfNoPeriodsGiven() {
+    Requisition requisition = requisitions.get(0);
+
+    List<Requisition> found = repository.findRegularRequisitions(emptySet(),
+        requisition.getFacilityId(), requisition.getProgramId());
+
+    assertThat(found, hasSize(0));
+  }
+
+  @Test
+  public void shouldSearchRegularRequisitionApprovals() {
+    UUID programId = UUID.randomUUID();
+    UUID periodId = UUID.randomUUID();
+
+    Requisition approved = generateRegularRequisition(APPROVED, programId, periodId);
+    Requisition initiated = generateRegularRequisition(INITIATED, programId, periodId);
+    generateRegularRequisition(APPROVED, UUID.randomUUID(), periodId);
+
+    List<RequisitionApproval> approvals = repository.searchRegularRequisitionApprovals(
+        programId, singleton(periodId),
+        asList(approved.getFacilityId(), initiated.getFacilityId()));
+
+    assertThat(approvals, hasSize(2));
+    assertThat(approvals, hasItem(allOf(
+        hasProperty("requisitionId", is(approved.getId())),
+        hasProperty("facilityId", is(approved.getFacilityId())),
+        hasProperty("periodId", is(periodId)),
+        hasProperty("approvedDate", notNullValue()))));
+    assertThat(approvals, hasItem(allOf(
+        hasProperty("requisitionId", is(initiated.getId())),
+        hasProperty("approvedDate", nullValue()))));
+  }
+
+  @Test
+  public void shouldSearchFacilitiesWithoutRequisition() {
+    UUID programId = UUID.randomUUID();
+    UUID periodId = UUID.randomUUID();
+
+    Requisition approved = generateRegularRequisition(APPROVED, programId, periodId);
+    Requisition released = generateRegularRequisition(RELEASED, programId, periodId);
+    Requisition initiated = generateRegularRequisition(INITIATED, programId, periodId);
+    Requisition otherProgram = generateRegularRequisition(APPROVED, UUID.randomUUID(), periodId);
+    UUID withoutRequisition = UUID.randomUUID();
+
+    Set<UUID> facilities = repository.searchFacilitiesWithoutRequisition(programId, periodId,
+        asList(approved.getFacilityId(), released.getFacilityId(),
+            initiated.getFacilityId(), otherProgram.getFacilityId(), withoutRequisition),
+        EnumSet.of(APPROVED, RELEASED));
+
+    assertThat(facilities, containsInAnyOrder(initiated.getFacilityId(),
+        otherProgram.getFacilityId(), withoutRequisition));
+  }
+
+  @Test
+  public void shouldNotSearchFacilitiesWithoutRequisitionIfNoFacilitiesGiven() {
+    Set<UUID> facilities = repository.searchFacilitiesWithoutRequisition(
+        requisitions.get(0).getProgramId(), requisitions.get(0).getProcessingPeriodId(),
+        emptySet(), EnumSet.of(APPROVED));
+
+    assertThat(facilities, hasSize(0));
+  }
+
+  @Test
+  public void shouldNotSearchRegularRequisitionApprovalsIfNoFacilitiesGiven() {
+    List<RequisitionApproval> approvals = repository.searchRegularRequisitionApprovals(
+        requisitions.get(0).getProgramId(),
+        singleton(requisitions.get(0).getProcessingPeriodId()), emptySet());
+
+    assertThat(approvals, hasSize(0));
+  }
+
   @Test
   public void shouldGetAllApprovedRequisitions() {
     Requisition requisition1 = generateRequisition(RequisitionStatus.APPROVED);
@@ -1055,6 +1183,24 @@ public class RequisitionRepositoryIntegrationTest
     assertTrue(requisitionIds.contains(requisition1.getId()));
   }
 
+  @Test
+  public void shouldFilterApprovedRequisitionsByManyProgramAndSupervisoryNodePairs() {
+    Requisition requisition1 = generateRequisition(RequisitionStatus.APPROVED);
+    generateRequisition(RequisitionStatus.APPROVED);
+
+    Set<Pair<UUID, UUID>> pairs = new HashSet<>();
+    for (int i = 0; i < 300; ++i) {
+      pairs.add(Pair.of(UUID.randomUUID(), UUID.randomUUID()));
+    }
+    pairs.add(Pair.of(requisition1.getProgramId(), requisition1.getSupervisoryNodeId()));
+
+    Page<Requisition> requisitions = repository.searchApprovedRequisitions(
+        null, pairs, createPageable(10, 0));
+
+    assertEquals(1, requisitions.getTotalElements());
+    assertThat(requisitions, hasItem(hasProperty("id", is(requisition1.getId()))));
+  }
+
   @Test
   public void shouldReturnEmptyPageWhenNoRequisitionsWithGivenParametersFound() {
     Requisition requisition1 = generateRequisition(RequisitionStatus.APPROVED);
@@ -1152,6 +1298,19 @@ public class RequisitionRepositoryIntegrationTest
         Collections.singletonMap(RequisitionLineItem.BEGINNING_BALANCE, column)));
   }
 
+  private Requisition generateRegularRequisition(RequisitionStatus status, UUID program,
+      UUID period) {
+    Requisition requisition = generateInstance(UUID.randomUUID(), program, period);
+    requisition.setEmergency(false);
+
+    if (INITIATED != status) {
+      requisition.setStatus(status);
+      requisition.getStatusChanges().add(StatusChange.newStatusChange(requisition, null));
+    }
+
+    return repository.saveAndFlush(requisition);
+  }
+
   private Requisition generateRequisition(RequisitionStatus status) {
     return generateRequisition(status, UUID.randomUUID(), UUID.randomUUID());
   }
@@ -0,0 +1,96 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.requisition.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.google.common.collect.Lists;
+import java.util.List;
+import javax.persistence.EntityManager;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.openlmis.requisition.domain.requisition.StockAdjustmentReason;
+import org.openlmis.requisition.testutils.StockAdjustmentReasonDataBuilder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Transactional;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+public class StockAdjustmentReasonRepositoryIntegrationTest {
+
+  @Autowired
+  private StockAdjustmentReasonRepository repository;
+
+  @Autowired
+  private EntityManager entityManager;
+
+  private StockAdjustmentReasonDataBuilder builder = new StockAdjustmentReasonDataBuilder();
+
+  @Test
+  public void shouldStoreSnapshots() {
+    List<StockAdjustmentReason> snapshots = repository
+        .findOrCreateSnapshots(Lists.newArrayList(builder.build()));
+    entityManager.flush();
+    entityManager.clear();
+
+    StockAdjustmentReason found = repository.findById(snapshots.get(0).getId()).orElse(null);
+
+    assertThat(found).isNotNull();
+    assertThat(found.getReasonId()).isEqualTo(builder.build().getReasonId());
+    assertThat(found.getName()).isEqualTo(builder.build().getName());
+  }
+
+  @Test
+  public void shouldReuseSnapshotsWithTheSameData() {
+    List<StockAdjustmentReason> first = repository
+        .findOrCreateSnapshots(Lists.newArrayList(builder.build()));
+    List<StockAdjustmentReason> second = repository
+        .findOrCreateSnapshots(Lists.newArrayList(builder.build(), builder.build()));
+
+    assertThat(second).hasSize(1);
+    assertThat(second.get(0).getId()).isEqualTo(first.get(0).getId());
+  }
+
+  @Test
+  public void shouldCreateNewSnapshotWhenReasonChanges() {
+    List<StockAdjustmentReason> first = repository
+        .findOrCreateSnapshots(Lists.newArrayList(builder.build()));
+    List<StockAdjustmentReason> second = repository
+        .findOrCreateSnapshots(Lists.newArrayList(builder.withName("changed").build()));
+
+    assertThat(second.get(0).getId()).isNotEqualTo(first.get(0).getId());
+  }
+
+  @Test
+  public void shouldStoreSnapshotAgainAfterItWasRemoved() {
+    final List<StockAdjustmentReason> first = repository
+        .findOrCreateSnapshots(Lists.newArrayList(builder.build()));
+    entityManager.flush();
+    repository.deleteAll();
+    entityManager.flush();
+    entityManager.clear();
+
+    repository.findOrCreateSnapshots(Lists.newArrayList(builder.build()));
+    entityManager.flush();
+
+    assertThat(repository.existsById(first.get(0).getId())).isTrue();
+  }
+}
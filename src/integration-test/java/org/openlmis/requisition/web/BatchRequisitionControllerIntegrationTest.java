@@ -20,9 +20,11 @@ import static org.hamcrest.Matchers.allOf;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.hasItems;
+import static org.hamcrest.Matchers.isOneOf;
 import static org.hamcrest.Matchers.not;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertThat;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyBoolean;
@@ -39,6 +41,9 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.mockito.internal.verification.VerificationModeFactory.atLeastOnce;
 import static org.openlmis.requisition.i18n.MessageKeys.ERROR_NO_FOLLOWING_PERMISSION;
+import static org.openlmis.requisition.i18n.MessageKeys.ERROR_STOCK_EVENT_BATCH_ROLLED_BACK;
+import static org.openlmis.requisition.i18n.MessageKeys.ERROR_STOCK_EVENT_BATCH_ROLLED_BACK_AFTER_SUBMISSION;
+import static org.openlmis.requisition.i18n.MessageKeys.ERROR_STOCK_EVENT_SUBMISSION_FAILED;
 import static org.openlmis.requisition.service.PermissionService.REQUISITION_APPROVE;
 import static org.openlmis.requisition.service.PermissionService.REQUISITION_VIEW;
 
@@ -76,6 +81,7 @@ import org.openlmis.requisition.dto.ReleasableRequisitionBatchDto;
 import org.openlmis.requisition.dto.ReleasableRequisitionDto;
 import org.openlmis.requisition.dto.UserDto;
 import org.openlmis.requisition.dto.VersionIdentityDto;
+import org.openlmis.requisition.dto.stockmanagement.StockEventDto;
 import org.openlmis.requisition.errorhandling.ValidationResult;
 import org.openlmis.requisition.exception.ValidationMessageException;
 import org.openlmis.requisition.i18n.MessageKeys;
@@ -303,6 +309,47 @@ public class BatchRequisitionControllerIntegrationTest extends BaseRequisitionWe
         "some-key");
   }
 
+  @Test
+  public void shouldHaveErrorIfStockEventCouldNotBeSubmitted() throws IOException {
+    mockRequisitionValidatonsAndStubRepository();
+
+    UUID failingId = requisitions.get(0).getId();
+    StockEventDto failingEvent = new StockEventDto();
+    when(stockEventBuilder.fromRequisition(
+        argThat(requisition -> failingId.equals(requisition.getId())), any(), anyMap()))
+        .thenReturn(failingEvent);
+    doThrow(new ValidationMessageException(new Message("some-key")))
+        .when(stockEventStockManagementService)
+        .submit(argThat(event -> event == failingEvent));
+
+    Response response = post(APPROVE_ALL, requisitionIds);
+
+    String jsonString = response
+        .then()
+        .statusCode(400)
+        .extract()
+        .asString();
+
+    assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
+
+    JsonNode body = objectMapper.readTree(jsonString);
+    assertThat(body.get("requisitionDtos").size(), equalTo(0));
+
+    ArrayNode requisitionErrors = (ArrayNode) body.get("requisitionErrors");
+    assertThat(requisitionErrors.size(), equalTo(requisitions.size()));
+
+    for (JsonNode error : requisitionErrors) {
+      String messageKey = error.get("errorMessage").get("messageKey").asText();
+
+      if (failingId.toString().equals(error.get("requisitionId").asText())) {
+        assertThat(messageKey, equalTo(ERROR_STOCK_EVENT_SUBMISSION_FAILED));
+      } else {
+        assertThat(messageKey, isOneOf(ERROR_STOCK_EVENT_BATCH_ROLLED_BACK,
+            ERROR_STOCK_EVENT_BATCH_ROLLED_BACK_AFTER_SUBMISSION));
+      }
+    }
+  }
+
   // PUT /api/requisitions?saveAll
 
   @Test
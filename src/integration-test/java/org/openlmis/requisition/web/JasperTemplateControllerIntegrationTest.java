@@ -20,6 +20,7 @@ import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertThat;
 import static org.mockito.ArgumentMatchers.anyMap;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.atLeastOnce;
@@ -37,6 +38,7 @@ import org.openlmis.requisition.domain.JasperTemplate;
 import org.openlmis.requisition.dto.JasperTemplateDto;
 import org.openlmis.requisition.errorhandling.ValidationResult;
 import org.openlmis.requisition.exception.JasperReportViewException;
+import org.openlmis.requisition.service.JasperReportsViewService.ReportOutput;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
@@ -238,9 +240,12 @@ public class JasperTemplateControllerIntegrationTest extends BaseWebIntegrationT
     JasperTemplate template = generateTemplate();
 
     given(jasperTemplateRepository.findById(template.getId())).willReturn(Optional.of(template));
-    given(jasperReportsViewService
-        .generateReport(any(JasperTemplate.class), anyMap()))
-        .willReturn(new byte[1]);
+    willAnswer(invocation -> {
+      ReportOutput output = invocation.getArgument(2);
+      output.open().write(new byte[1]);
+      return null;
+    }).given(jasperReportsViewService)
+        .generateReport(any(JasperTemplate.class), anyMap(), any(ReportOutput.class));
 
     // when
     restAssured.given()
@@ -250,7 +255,8 @@ public class JasperTemplateControllerIntegrationTest extends BaseWebIntegrationT
         .when()
         .get(REPORT_URL)
         .then()
-        .statusCode(200);
+        .statusCode(200)
+        .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=name." + formatParam);
   }
 
   private JasperTemplate generateTemplate() {
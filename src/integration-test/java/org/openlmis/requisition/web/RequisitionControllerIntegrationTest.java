@@ -51,6 +51,7 @@ import static org.openlmis.requisition.i18n.MessageKeys.ERROR_NO_PERMISSION_TO_A
 import static org.openlmis.requisition.i18n.MessageKeys.ERROR_PERIOD_END_DATE_WRONG;
 import static org.openlmis.requisition.i18n.MessageKeys.ERROR_PROGRAM_NOT_FOUND;
 import static org.openlmis.requisition.i18n.MessageKeys.ERROR_REQUISITION_NOT_FOUND;
+import static org.openlmis.requisition.i18n.MessageKeys.ERROR_SEARCH_CONTINUATION_TOKEN_PAGEABLE;
 import static org.openlmis.requisition.i18n.MessageKeys.ERROR_SERVICE_REQUIRED;
 import static org.openlmis.requisition.service.PermissionService.REQUISITION_APPROVE;
 import static org.openlmis.requisition.service.PermissionService.REQUISITION_AUTHORIZE;
@@ -61,6 +62,7 @@ import static org.openlmis.requisition.web.BaseRequisitionController.IDEMPOTENCY
 import com.google.common.collect.Lists;
 import guru.nidi.ramltester.junit.RamlMatchers;
 import java.time.LocalDate;
+import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -99,6 +101,7 @@ import org.openlmis.requisition.errorhandling.ValidationResult;
 import org.openlmis.requisition.exception.ValidationMessageException;
 import org.openlmis.requisition.i18n.MessageKeys;
 import org.openlmis.requisition.i18n.MessageService;
+import org.openlmis.requisition.repository.custom.RequisitionKeyset;
 import org.openlmis.requisition.repository.custom.RequisitionSearchParams;
 import org.openlmis.requisition.service.DataRetrievalException;
 import org.openlmis.requisition.service.PageDto;
@@ -117,6 +120,7 @@ import org.postgresql.util.ServerErrorMessage;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
@@ -225,6 +229,31 @@ public class RequisitionControllerIntegrationTest extends BaseRequisitionWebInte
     assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
   }
 
+  @Test
+  public void shouldNotReturnChosenRequisitionIfNotModified() {
+    // given
+    Requisition requisition = generateRequisition(RequisitionStatus.INITIATED);
+    doReturn(ValidationResult.success())
+        .when(permissionService).canViewRequisition(requisition);
+
+    // when
+    restAssured.given()
+        .header(HttpHeaders.AUTHORIZATION, getTokenHeader())
+        .header(HttpHeaders.IF_NONE_MATCH, "W/1")
+        .contentType(MediaType.APPLICATION_JSON_VALUE)
+        .pathParam("id", requisition.getId())
+        .when()
+        .get(ID_URL)
+        .then()
+        .statusCode(304)
+        .header(HttpHeaders.ETAG, "W/1");
+
+    // then
+    verify(facilityReferenceDataService, never()).findOne(anyUuid());
+    verify(programReferenceDataService, never()).findOne(anyUuid());
+    assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
+  }
+
   @Test
   public void shouldNotGetChosenRequisitionWhenUserHasNoRightForView() {
     // given
@@ -489,6 +518,52 @@ public class RequisitionControllerIntegrationTest extends BaseRequisitionWebInte
     assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
   }
 
+  @Test
+  public void shouldFindRequisitionsWithContinuationToken() {
+    // given
+    Requisition requisition = generateRequisition();
+    RequisitionKeyset keyset = new RequisitionKeyset(
+        ZonedDateTime.of(2021, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC), UUID.randomUUID());
+
+    given(requisitionService
+        .searchRequisitions(any(RequisitionSearchParams.class), eq(keyset), eq(1)))
+        .willReturn(new SliceImpl<>(singletonList(requisition), PageRequest.of(0, 1), true));
+
+    // when
+    String continuationToken = restAssured.given()
+        .header(HttpHeaders.AUTHORIZATION, getTokenHeader())
+        .queryParam("continuationToken", keyset.toToken())
+        .queryParam("size", 1)
+        .when()
+        .get(SEARCH_URL)
+        .then()
+        .statusCode(200)
+        .extract().header(RequisitionController.CONTINUATION_TOKEN_HEADER);
+
+    // then
+    assertEquals(RequisitionKeyset.of(requisition).toToken(), continuationToken);
+    verify(requisitionService, never())
+        .searchRequisitions(any(RequisitionSearchParams.class), any(Pageable.class));
+    assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
+  }
+
+  @Test
+  public void shouldRejectSortWithContinuationToken() {
+    // when
+    restAssured.given()
+        .header(HttpHeaders.AUTHORIZATION, getTokenHeader())
+        .queryParam("continuationToken", "")
+        .queryParam("sort", "createdDate,desc")
+        .when()
+        .get(SEARCH_URL)
+        .then()
+        .statusCode(400)
+        .body(MESSAGE, equalTo(getMessage(ERROR_SEARCH_CONTINUATION_TOKEN_PAGEABLE)));
+
+    // then
+    assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
+  }
+
   // POST /api/requisitions/{id}/submit
 
   @Test
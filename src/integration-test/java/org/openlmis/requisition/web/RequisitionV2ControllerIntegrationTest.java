@@ -26,6 +26,7 @@ import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.atLeastOnce;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -305,6 +306,31 @@ public class RequisitionV2ControllerIntegrationTest extends BaseRequisitionWebIn
     assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
   }
 
+  @Test
+  public void shouldNotReturnRequisitionIfNotModified() {
+    // given
+    Requisition requisition = generateRequisition(RequisitionStatus.INITIATED);
+    doReturn(ValidationResult.success())
+        .when(permissionService).canViewRequisition(requisition);
+
+    // when
+    restAssured.given()
+        .header(HttpHeaders.AUTHORIZATION, getTokenHeader())
+        .header(HttpHeaders.IF_NONE_MATCH, "W/1")
+        .contentType(MediaType.APPLICATION_JSON_VALUE)
+        .pathParam("id", requisition.getId())
+        .when()
+        .get(ID_URL)
+        .then()
+        .statusCode(HttpStatus.NOT_MODIFIED.value())
+        .header(HttpHeaders.ETAG, "W/1");
+
+    // then
+    verify(facilityReferenceDataService, never()).findOne(anyUuid());
+    verify(programReferenceDataService, never()).findOne(anyUuid());
+    assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
+  }
+
   @Test
   public void shouldNotGetRequisitionForUnauthorizedRequest() {
     restAssured.given()
@@ -0,0 +1,120 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.requisition;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+import org.apache.commons.io.output.NullOutputStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openlmis.requisition.domain.requisition.RequisitionDataBuilder;
+import org.openlmis.requisition.domain.requisition.RequisitionLineItemDataBuilder;
+import org.openlmis.requisition.dto.RequisitionDto;
+import org.openlmis.requisition.dto.RequisitionLineItemDto;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Compares time needed to write a requisition response with many line items as indented JSON,
+ * compact JSON and compact JSON without null fields, both uncompressed and gzipped as it is sent
+ * by the server. Sizes of the resulting responses are printed once per trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonResponseBenchmark {
+
+  @Param({"500", "1500", "5000"})
+  private int lineItemsCount;
+
+  @Param({"indented", "compact", "compactWithoutNulls"})
+  private String format;
+
+  private ObjectMapper objectMapper;
+  private RequisitionDto requisition;
+
+  /**
+   * Prepares a requisition with the given number of line items and the mapper for the format.
+   */
+  @Setup
+  public void setUp() throws IOException {
+    ObjectMapper baseMapper = Jackson2ObjectMapperBuilder
+        .json()
+        .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+        .build();
+
+    objectMapper = JsonResponseConfiguration.responseObjectMapper(baseMapper,
+        "indented".equals(format), "compactWithoutNulls".equals(format));
+
+    List<RequisitionLineItemDto> lineItems = new ArrayList<>(lineItemsCount);
+    for (int i = 0; i < lineItemsCount; ++i) {
+      lineItems.add(new RequisitionLineItemDataBuilder().buildAsDto());
+    }
+
+    requisition = new RequisitionDataBuilder().buildAsDto();
+    requisition.setRequisitionLineItems(lineItems);
+
+    ByteArrayOutputStream raw = new ByteArrayOutputStream();
+    objectMapper.writeValue(raw, requisition);
+
+    ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+    try (OutputStream gzip = new GZIPOutputStream(compressed)) {
+      objectMapper.writeValue(gzip, requisition);
+    }
+
+    System.out.printf("%n%s, %d line items: %d bytes, %d bytes gzipped%n",
+        format, lineItemsCount, raw.size(), compressed.size());
+  }
+
+  /**
+   * Writes the requisition as it is done for uncompressed responses.
+   */
+  @Benchmark
+  public void write(Blackhole blackhole) throws IOException {
+    objectMapper.writeValue(NullOutputStream.NULL_OUTPUT_STREAM, requisition);
+    blackhole.consume(requisition);
+  }
+
+  /**
+   * Writes the requisition as it is done for responses compressed by the server.
+   */
+  @Benchmark
+  public void writeGzipped(Blackhole blackhole) throws IOException {
+    try (OutputStream gzip = new GZIPOutputStream(NullOutputStream.NULL_OUTPUT_STREAM)) {
+      objectMapper.writeValue(gzip, requisition);
+      blackhole.consume(gzip);
+    }
+  }
+}
@@ -0,0 +1,107 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.requisition.domain.requisition;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openlmis.requisition.dto.OrderableDto;
+import org.openlmis.requisition.dto.VersionIdentityDto;
+import org.openlmis.requisition.testutils.OrderableDtoDataBuilder;
+
+/**
+ * Measures cost of {@link Requisition#updateFrom} depending on the number of line items.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RequisitionUpdateBenchmark {
+
+  @Param({"100", "500", "1500", "5000"})
+  private int lineItemsCount;
+
+  private Requisition requisition;
+  private Requisition update;
+  private Map<VersionIdentityDto, OrderableDto> products;
+
+  /**
+   * Prepares the requisition and an update with the same line items in the reversed order.
+   */
+  @Setup
+  public void setUp() {
+    UUID programId = UUID.randomUUID();
+
+    List<RequisitionLineItem> lineItems = new ArrayList<>();
+    List<RequisitionLineItem> updatedLineItems = new ArrayList<>();
+    products = new HashMap<>();
+
+    for (int i = 0; i < lineItemsCount; ++i) {
+      OrderableDto orderable = new OrderableDtoDataBuilder()
+          .withProgramOrderable(programId, true)
+          .buildAsDto();
+      products.put(orderable.getIdentity(), orderable);
+
+      UUID lineItemId = UUID.randomUUID();
+      lineItems.add(new RequisitionLineItemDataBuilder()
+          .withId(lineItemId)
+          .withOrderable(orderable.getId(), orderable.getVersionNumber())
+          .build());
+      updatedLineItems.add(new RequisitionLineItemDataBuilder()
+          .withId(lineItemId)
+          .withOrderable(orderable.getId(), orderable.getVersionNumber())
+          .withRequestedQuantity(i)
+          .build());
+    }
+
+    Collections.reverse(updatedLineItems);
+
+    requisition = new RequisitionDataBuilder()
+        .withProgramId(programId)
+        .withEmergency(true)
+        .withRequisitionLineItems(lineItems)
+        .buildInitiatedRegularRequisition();
+    update = new RequisitionDataBuilder()
+        .withProgramId(programId)
+        .withEmergency(true)
+        .withRequisitionLineItems(updatedLineItems)
+        .buildInitiatedRegularRequisition();
+  }
+
+  @Benchmark
+  public void updateFrom(Blackhole blackhole) {
+    requisition.updateFrom(update, products, Collections.emptyMap(), false);
+    blackhole.consume(requisition);
+  }
+}
@@ -0,0 +1,163 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.requisition.repository.custom.impl;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.apache.commons.lang3.tuple.Pair;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares latency of the approved requisitions search for users with many program /
+ * supervisory node pairs: the statement with inlined UUID literals that used to be built for each
+ * user and the statement with array parameters that has the same shape for all users. Requires
+ * a database with the requisition schema, configured with the DATABASE_URL, POSTGRES_USER and
+ * POSTGRES_PASSWORD environment variables.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ApprovedRequisitionsSearchBenchmark {
+  private static final int USERS = 16;
+  private static final Pattern NAMED_PARAMETER = Pattern.compile(":(\\w+)");
+
+  private static final String LEGACY_SQL = "SELECT DISTINCT COUNT(*)"
+      + " FROM requisition.requisitions r"
+      + " INNER JOIN requisition.status_changes s ON r.id = s.requisitionid"
+      + " WHERE r.status = 'APPROVED'"
+      + " AND s.status = 'APPROVED'";
+
+  @Param({"10", "100", "500"})
+  private int pairsCount;
+
+  private Connection connection;
+  private List<Set<Pair<UUID, UUID>>> users;
+  private int nextUser;
+
+  /**
+   * Opens the database connection and generates pairs of a few users.
+   */
+  @Setup
+  public void setUp() throws SQLException {
+    String url = System.getenv("DATABASE_URL");
+    if (null == url) {
+      throw new IllegalStateException("DATABASE_URL environment variable is not set");
+    }
+
+    connection = DriverManager.getConnection(url + "?stringtype=unspecified",
+        System.getenv("POSTGRES_USER"), System.getenv("POSTGRES_PASSWORD"));
+
+    users = new ArrayList<>();
+    for (int user = 0; user < USERS; ++user) {
+      Set<Pair<UUID, UUID>> pairs = new HashSet<>();
+      for (int i = 0; i < pairsCount; ++i) {
+        pairs.add(Pair.of(UUID.randomUUID(), UUID.randomUUID()));
+      }
+      users.add(pairs);
+    }
+  }
+
+  @TearDown
+  public void tearDown() throws SQLException {
+    connection.close();
+  }
+
+  /**
+   * Count query with inlined literals, as built before.
+   */
+  @Benchmark
+  public void inlinedLiterals(Blackhole blackhole) throws SQLException {
+    StringBuilder sql = new StringBuilder(LEGACY_SQL).append(" AND (");
+    List<String> conditions = new ArrayList<>();
+    for (Pair<UUID, UUID> pair : nextUser()) {
+      conditions.add(String.format("(r.programId = '%s' AND r.supervisoryNodeId = '%s')",
+          pair.getLeft(), pair.getRight()));
+    }
+    sql.append(String.join(" OR ", conditions)).append(')');
+
+    try (Statement statement = connection.createStatement();
+        ResultSet result = statement.executeQuery(sql.toString())) {
+      consume(result, blackhole);
+    }
+  }
+
+  /**
+   * Count query with array parameters, as built by {@link RequisitionRepositoryImpl}.
+   */
+  @Benchmark
+  public void arrayParameters(Blackhole blackhole) throws SQLException {
+    Map<String, Object> parameters = RequisitionRepositoryImpl
+        .getApprovedRequisitionsParameters(null, nextUser());
+
+    List<Object> values = new ArrayList<>();
+    Matcher matcher = NAMED_PARAMETER.matcher(RequisitionRepositoryImpl.SELECT_COUNT_APPROVED_SQL);
+    StringBuffer sql = new StringBuffer();
+    while (matcher.find()) {
+      values.add(parameters.get(matcher.group(1)));
+      matcher.appendReplacement(sql, "?");
+    }
+    matcher.appendTail(sql);
+
+    try (PreparedStatement statement = connection.prepareStatement(sql.toString())) {
+      for (int i = 0; i < values.size(); ++i) {
+        statement.setObject(i + 1, values.get(i));
+      }
+
+      try (ResultSet result = statement.executeQuery()) {
+        consume(result, blackhole);
+      }
+    }
+  }
+
+  private Set<Pair<UUID, UUID>> nextUser() {
+    nextUser = (nextUser + 1) % USERS;
+    return users.get(nextUser);
+  }
+
+  private void consume(ResultSet result, Blackhole blackhole) throws SQLException {
+    while (result.next()) {
+      blackhole.consume(result.getLong(1));
+    }
+  }
+}
@@ -0,0 +1,191 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.requisition.utils;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openlmis.requisition.domain.RequisitionTemplateDataBuilder;
+import org.openlmis.requisition.domain.requisition.DatePhysicalStockCountCompleted;
+import org.openlmis.requisition.domain.requisition.Requisition;
+import org.openlmis.requisition.domain.requisition.RequisitionDataBuilder;
+import org.openlmis.requisition.domain.requisition.RequisitionLineItem;
+import org.openlmis.requisition.domain.requisition.RequisitionLineItemDataBuilder;
+import org.openlmis.requisition.domain.requisition.StockAdjustmentDataBuilder;
+import org.openlmis.requisition.domain.requisition.StockAdjustmentReason;
+import org.openlmis.requisition.dto.ObjectReferenceDto;
+import org.openlmis.requisition.dto.OrderableDto;
+import org.openlmis.requisition.dto.VersionIdentityDto;
+import org.openlmis.requisition.dto.stockmanagement.StockCardDto;
+import org.openlmis.requisition.service.referencedata.PeriodReferenceDataService;
+import org.openlmis.requisition.service.stockmanagement.StockCardStockManagementService;
+import org.openlmis.requisition.settings.service.ConfigurationSettingService;
+import org.openlmis.requisition.testutils.OrderableDtoDataBuilder;
+import org.openlmis.requisition.testutils.StockAdjustmentReasonDataBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Measures cost of {@link StockEventBuilder#fromRequisition} depending on the number of line
+ * items and the number of stock cards at the facility. Remote services are replaced by stubs, so
+ * only building of the event is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StockEventBuilderBenchmark {
+
+  private static final int REASONS_COUNT = 20;
+
+  @Param({"100", "500", "1500", "5000"})
+  private int lineItemsCount;
+
+  @Param({"1000", "5000"})
+  private int stockCardsCount;
+
+  private StockEventBuilder stockEventBuilder;
+  private Requisition requisition;
+  private Map<VersionIdentityDto, OrderableDto> orderables;
+  private UUID userId;
+
+  /**
+   * Prepares a requisition with adjustments on every line item, stock cards of its products and
+   * lots shuffled with stock cards of other products, and the builder with stubbed services.
+   */
+  @Setup
+  public void setUp() {
+    UUID programId = UUID.randomUUID();
+    userId = UUID.randomUUID();
+
+    List<StockAdjustmentReason> reasons = new ArrayList<>();
+    for (int i = 0; i < REASONS_COUNT; ++i) {
+      reasons.add(new StockAdjustmentReasonDataBuilder().withName("Reason " + i).build());
+    }
+
+    List<RequisitionLineItem> lineItems = new ArrayList<>();
+    List<StockCardDto> stockCards = new ArrayList<>();
+    orderables = new HashMap<>();
+
+    for (int i = 0; i < lineItemsCount; ++i) {
+      OrderableDto orderable = new OrderableDtoDataBuilder()
+          .withProgramOrderable(programId, true)
+          .buildAsDto();
+      orderables.put(orderable.getIdentity(), orderable);
+
+      RequisitionLineItem lineItem = new RequisitionLineItemDataBuilder()
+          .withOrderable(orderable.getId(), orderable.getVersionNumber())
+          .withBeginningBalance(i % 50)
+          .withStockAdjustments(Arrays.asList(
+              new StockAdjustmentDataBuilder()
+                  .withReasonId(reasons.get(i % REASONS_COUNT).getReasonId())
+                  .withQuantity(1)
+                  .build(),
+              new StockAdjustmentDataBuilder()
+                  .withReasonId(reasons.get((i + 1) % REASONS_COUNT).getReasonId())
+                  .withQuantity(2)
+                  .build(),
+              new StockAdjustmentDataBuilder()
+                  .withReasonId(reasons.get((i + 2) % REASONS_COUNT).getReasonId())
+                  .withQuantity(3)
+                  .build()))
+          .build();
+      lineItems.add(lineItem);
+
+      if (i % 2 == 0) {
+        stockCards.add(StockCardDto.builder()
+            .orderable(orderable)
+            .lot(new ObjectReferenceDto(UUID.randomUUID()))
+            .stockOnHand(30)
+            .build());
+      }
+
+      stockCards.add(StockCardDto.builder()
+          .orderable(orderable)
+          .stockOnHand(25)
+          .build());
+    }
+
+    while (stockCards.size() < stockCardsCount) {
+      stockCards.add(StockCardDto.builder()
+          .orderable(new OrderableDtoDataBuilder().buildAsDto())
+          .stockOnHand(25)
+          .build());
+    }
+
+    Collections.shuffle(stockCards);
+
+    requisition = new RequisitionDataBuilder()
+        .withProgramId(programId)
+        .withTemplate(new RequisitionTemplateDataBuilder().withAllColumns().build())
+        .withDatePhysicalStockCountCompleted(new DatePhysicalStockCountCompleted(LocalDate.now()))
+        .withStockAdjustmentReasons(reasons)
+        .withRequisitionLineItems(lineItems)
+        .withEmergency(false)
+        .build();
+
+    StockCardStockManagementService stockCardService = mock(
+        StockCardStockManagementService.class, withSettings().stubOnly());
+    when(stockCardService.getStockCards(requisition.getFacilityId(), programId))
+        .thenReturn(stockCards);
+
+    ConfigurationSettingService settings = mock(
+        ConfigurationSettingService.class, withSettings().stubOnly());
+    when(settings.getReasonIdForConsumed()).thenReturn(reasons.get(0).getReasonId());
+    when(settings.getReasonIdForReceipts()).thenReturn(reasons.get(1).getReasonId());
+    when(settings.getReasonIdForBeginningBalanceExcess())
+        .thenReturn(reasons.get(2).getReasonId());
+    when(settings.getReasonIdForBeginningBalanceInsufficiency())
+        .thenReturn(reasons.get(3).getReasonId());
+
+    stockEventBuilder = new StockEventBuilder();
+    ReflectionTestUtils.setField(stockEventBuilder, "stockCardService", stockCardService);
+    ReflectionTestUtils.setField(stockEventBuilder, "settings", settings);
+    ReflectionTestUtils.setField(stockEventBuilder, "periodReferenceDataService",
+        mock(PeriodReferenceDataService.class, withSettings().stubOnly()));
+  }
+
+  /**
+   * Builds the stock event sent when the requisition is approved.
+   */
+  @Benchmark
+  public void fromRequisition(Blackhole blackhole) {
+    blackhole.consume(stockEventBuilder.fromRequisition(requisition, userId, orderables));
+  }
+}
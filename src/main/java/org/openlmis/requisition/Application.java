@@ -35,6 +35,8 @@ import org.javers.spring.jpa.TransactionalJaversBuilder;
 import org.openlmis.requisition.domain.BaseEntity;
 import org.openlmis.requisition.i18n.ExposedMessageSourceImpl;
 import org.openlmis.requisition.security.UserNameProvider;
+import org.openlmis.requisition.service.cache.LookupContext;
+import org.openlmis.requisition.utils.BoundedExecutor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -46,6 +48,7 @@ import org.springframework.boot.autoconfigure.domain.EntityScan;
 import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Profile;
+import org.springframework.core.task.TaskDecorator;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
 import org.springframework.data.redis.connection.jedis.JedisClientConfiguration;
@@ -198,6 +201,44 @@ public class Application {
     return Clock.system(ZoneId.of(timeZoneId));
   }
 
+  /**
+   * Creates shared executor used to submit stock events to the stock management service.
+   */
+  @Bean(destroyMethod = "shutdown")
+  public BoundedExecutor stockEventExecutor(
+      @Value("${stockmanagement.stockEvents.poolSize}") int poolSize,
+      @Value("${stockmanagement.stockEvents.queueCapacity}") int queueCapacity) {
+    return new BoundedExecutor("stock-event", poolSize, queueCapacity);
+  }
+
+  /**
+   * Creates shared executor used to send parts of split requests to other services.
+   */
+  @Bean(destroyMethod = "shutdown")
+  public BoundedExecutor requestExecutor(
+      @Value("${request.executor.poolSize}") int poolSize,
+      @Value("${request.executor.queueCapacity}") int queueCapacity) {
+    return new BoundedExecutor("request", poolSize, queueCapacity);
+  }
+
+  /**
+   * Creates shared executor used to fetch data from other services while initiating requisitions.
+   */
+  @Bean(destroyMethod = "shutdown")
+  public BoundedExecutor initiateExecutor(
+      @Value("${requisition.initiate.executor.poolSize}") int poolSize,
+      @Value("${requisition.initiate.executor.queueCapacity}") int queueCapacity) {
+    return new BoundedExecutor("initiate", poolSize, queueCapacity);
+  }
+
+  /**
+   * Passes the lookup context of the calling thread on to methods executed with {@code @Async}.
+   */
+  @Bean
+  public TaskDecorator lookupContextTaskDecorator() {
+    return LookupContext::propagate;
+  }
+
   @Bean
   RedisConnectionFactory connectionFactory(RedisProperties properties) {
     RedisStandaloneConfiguration config = new RedisStandaloneConfiguration(
@@ -0,0 +1,169 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.requisition;
+
+import com.google.common.collect.ImmutableMap;
+import java.net.URI;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import org.apache.http.HttpHost;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * Shared HTTP client used for all calls to other services. Connections are pooled and kept
+ * alive between requests. Each target service gets its own per host limit that can be set with
+ * the {@code http.client.<target>.maxConnections} property; targets that share a host share the
+ * highest of their limits. Pool statistics of each host are logged periodically.
+ */
+@Configuration
+public class HttpClientConfiguration {
+  private static final Logger LOGGER = LoggerFactory.getLogger(HttpClientConfiguration.class);
+  private static final String PROPERTY_PREFIX = "http.client.";
+
+  private static final Map<String, String> TARGET_URL_PROPERTIES = ImmutableMap.of(
+      "auth", "auth.server.authorizationUrl",
+      "referencedata", "referencedata.url",
+      "stockmanagement", "stockmanagement.url",
+      "fulfillment", "fulfillment.url",
+      "notification", "notification.url");
+
+  @Value("${http.client.maxConnections}")
+  private int maxConnections;
+
+  @Value("${http.client.maxConnectionsPerHost}")
+  private int maxConnectionsPerHost;
+
+  @Value("${http.client.connectTimeout}")
+  private int connectTimeout;
+
+  @Value("${http.client.readTimeout}")
+  private int readTimeout;
+
+  @Value("${http.client.connectionRequestTimeout}")
+  private int connectionRequestTimeout;
+
+  @Value("${http.client.keepAlive}")
+  private long keepAlive;
+
+  private final Map<HttpRoute, Set<String>> targets = new ConcurrentHashMap<>();
+
+  private PoolingHttpClientConnectionManager connectionManager;
+
+  /**
+   * Creates pool of connections to other services with limits for each target host.
+   */
+  @Bean
+  public PoolingHttpClientConnectionManager httpConnectionManager(Environment environment) {
+    connectionManager = new PoolingHttpClientConnectionManager();
+    connectionManager.setMaxTotal(maxConnections);
+    connectionManager.setDefaultMaxPerRoute(maxConnectionsPerHost);
+
+    TARGET_URL_PROPERTIES.forEach((target, urlProperty) -> {
+      HttpRoute route = toRoute(environment.getRequiredProperty(urlProperty));
+      int limit = environment.getProperty(
+          PROPERTY_PREFIX + target + ".maxConnections", Integer.class, maxConnectionsPerHost);
+
+      Set<String> routeTargets = targets.computeIfAbsent(route, key -> new TreeSet<>());
+      if (!routeTargets.isEmpty()) {
+        limit = Math.max(limit, connectionManager.getMaxPerRoute(route));
+      }
+
+      routeTargets.add(target);
+      connectionManager.setMaxPerRoute(route, limit);
+    });
+
+    return connectionManager;
+  }
+
+  /**
+   * Creates HTTP client with timeouts, keep-alive and gzip compression of responses.
+   */
+  @Bean(destroyMethod = "close")
+  public CloseableHttpClient httpClient(PoolingHttpClientConnectionManager httpConnectionManager) {
+    RequestConfig requestConfig = RequestConfig
+        .custom()
+        .setConnectTimeout(connectTimeout)
+        .setSocketTimeout(readTimeout)
+        .setConnectionRequestTimeout(connectionRequestTimeout)
+        .build();
+
+    return HttpClients
+        .custom()
+        .setConnectionManager(httpConnectionManager)
+        .setDefaultRequestConfig(requestConfig)
+        .setKeepAliveStrategy((response, context) -> {
+          long duration = DefaultConnectionKeepAliveStrategy.INSTANCE
+              .getKeepAliveDuration(response, context);
+          return duration > 0 ? Math.min(duration, keepAlive) : keepAlive;
+        })
+        .evictExpiredConnections()
+        .evictIdleConnections(keepAlive, TimeUnit.MILLISECONDS)
+        .build();
+  }
+
+  @Bean
+  public ClientHttpRequestFactory clientHttpRequestFactory(CloseableHttpClient httpClient) {
+    return new HttpComponentsClientHttpRequestFactory(httpClient);
+  }
+
+  /**
+   * Creates rest template shared by all communication services.
+   */
+  @Bean
+  public RestTemplate serviceRestTemplate(ClientHttpRequestFactory clientHttpRequestFactory) {
+    return new RestTemplate(clientHttpRequestFactory);
+  }
+
+  /**
+   * Logs statistics of connections to each target host.
+   */
+  @Scheduled(fixedDelayString = "${http.client.statistics.logInterval}")
+  public void logStatistics() {
+    if (null == connectionManager) {
+      return;
+    }
+
+    targets.forEach((route, routeTargets) -> LOGGER.info("HTTP connections to {} {}: {}",
+        route.getTargetHost(), routeTargets, connectionManager.getStats(route)));
+    LOGGER.info("HTTP connections in total: {}", connectionManager.getTotalStats());
+  }
+
+  static HttpRoute toRoute(String url) {
+    URI uri = URI.create(url);
+    boolean secure = "https".equalsIgnoreCase(uri.getScheme());
+    int port = uri.getPort() > 0 ? uri.getPort() : (secure ? 443 : 80);
+
+    return new HttpRoute(new HttpHost(uri.getHost(), port, uri.getScheme()), null, secure);
+  }
+}
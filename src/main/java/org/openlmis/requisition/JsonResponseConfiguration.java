@@ -0,0 +1,66 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.requisition;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+/**
+ * JSON serialization of API responses. Responses are written without indentation by default,
+ * which makes large requisitions noticeably smaller and faster to write. Indentation can be
+ * turned back on for debugging and null fields can be left out of responses. The settings do not
+ * affect JSON sent to other services or stored in the cache.
+ */
+@Configuration
+public class JsonResponseConfiguration {
+
+  @Value("${json.response.indent}")
+  private boolean indent;
+
+  @Value("${json.response.omitNulls}")
+  private boolean omitNulls;
+
+  /**
+   * Creates message converter used to read requests and write responses.
+   *
+   * @param objectMapper object mapper configured by the spring.jackson properties.
+   * @return message converter.
+   */
+  @Bean
+  public MappingJackson2HttpMessageConverter mappingJackson2HttpMessageConverter(
+      ObjectMapper objectMapper) {
+    return new MappingJackson2HttpMessageConverter(
+        responseObjectMapper(objectMapper, indent, omitNulls));
+  }
+
+  static ObjectMapper responseObjectMapper(ObjectMapper objectMapper, boolean indent,
+      boolean omitNulls) {
+    ObjectMapper responseMapper = objectMapper
+        .copy()
+        .configure(SerializationFeature.INDENT_OUTPUT, indent);
+
+    if (omitNulls) {
+      responseMapper.setSerializationInclusion(JsonInclude.Include.NON_NULL);
+    }
+
+    return responseMapper;
+  }
+}
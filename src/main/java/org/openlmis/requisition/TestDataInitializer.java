@@ -49,6 +49,8 @@ public class TestDataInitializer implements CommandLineRunner {
   private static final String REQUISITION_TEMPLATE_ASSIGNMENTS = "requisition_template_assignments";
   private static final String REQUISITION_TEMPLATES = "requisition_templates";
   private static final String REQUISITIONS = "requisitions";
+  private static final String REQUISITIONS_STOCK_ADJUSTMENT_REASONS =
+      "requisitions_stock_adjustment_reasons";
   private static final String STATUS_CHANGES = "status_changes";
   private static final String STATUS_MESSAGES = "status_messages";
   private static final String STOCK_ADJUSTMENT_REASONS = "stock_adjustment_reasons";
@@ -68,6 +70,8 @@ public class TestDataInitializer implements CommandLineRunner {
       DB_SCHEMA + REQUISITION_TEMPLATE_ASSIGNMENTS;
   static final String REQUISITION_TEMPLATES_TABLE = DB_SCHEMA + REQUISITION_TEMPLATES;
   static final String REQUISITIONS_TABLE = DB_SCHEMA + REQUISITIONS;
+  static final String REQUISITIONS_STOCK_ADJUSTMENT_REASONS_TABLE =
+      DB_SCHEMA + REQUISITIONS_STOCK_ADJUSTMENT_REASONS;
   static final String STATUS_CHANGES_TABLE = DB_SCHEMA + STATUS_CHANGES;
   static final String STATUS_MESSAGES_TABLE = DB_SCHEMA + STATUS_MESSAGES;
   static final String STOCK_ADJUSTMENT_REASONS_TABLE = DB_SCHEMA + STOCK_ADJUSTMENT_REASONS;
@@ -99,6 +103,10 @@ public class TestDataInitializer implements CommandLineRunner {
   @Value(value = DEMO_DATA_PATH + DB_SCHEMA + REQUISITIONS + FILE_EXTENSION)
   private Resource requisitionsResource;
 
+  @Value(value = DEMO_DATA_PATH + DB_SCHEMA + REQUISITIONS_STOCK_ADJUSTMENT_REASONS
+      + FILE_EXTENSION)
+  private Resource requisitionsStockAdjustmentReasonsResource;
+
   @Value(value = DEMO_DATA_PATH + DB_SCHEMA + STATUS_CHANGES + FILE_EXTENSION)
   private Resource statusChangesResource;
 
@@ -147,6 +155,8 @@ public class TestDataInitializer implements CommandLineRunner {
     loader.insertToDbFromCsv(STATUS_CHANGES_TABLE, statusChangesResource);
     loader.insertToDbFromCsv(STATUS_MESSAGES_TABLE, statusMessagesResource);
     loader.insertToDbFromCsv(STOCK_ADJUSTMENT_REASONS_TABLE, stockAdjustmentReasonsResource);
+    loader.insertToDbFromCsv(REQUISITIONS_STOCK_ADJUSTMENT_REASONS_TABLE,
+        requisitionsStockAdjustmentReasonsResource);
     loader.insertToDbFromCsv(REQUISITION_LINE_ITEMS_TABLE, requisitionLineItemsResource);
     loader.insertToDbFromCsv(
         PREVIOUS_ADJUSTED_CONSUMPTIONS_TABLE, previousAdjustedConsumptionsResource);
@@ -0,0 +1,111 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.requisition.domain.requisition;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import javax.persistence.CollectionTable;
+import javax.persistence.ElementCollection;
+import javax.persistence.Entity;
+import javax.persistence.FetchType;
+import javax.persistence.Id;
+import javax.persistence.JoinColumn;
+import javax.persistence.Table;
+import lombok.AccessLevel;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Immutable;
+import org.hibernate.annotations.Type;
+
+/**
+ * Set of approved products available for a requisition. Sets are content-addressed: the id is
+ * a hash of the product references, so requisitions initiated with the same products (for
+ * example all facilities of the same type in a period) share a single stored set. Rows are
+ * never changed after they were written.
+ */
+@Entity
+@Immutable
+@Table(name = "available_product_sets")
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@EqualsAndHashCode(of = "id")
+public class AvailableProductSet {
+  private static final int PRODUCTS_BATCH_SIZE = 1000;
+
+  @Id
+  @Type(type = "pg-uuid")
+  @Getter
+  private UUID id;
+
+  @ElementCollection(fetch = FetchType.LAZY)
+  @BatchSize(size = PRODUCTS_BATCH_SIZE)
+  @CollectionTable(name = "available_product_set_items",
+      joinColumns = @JoinColumn(name = "availableProductSetId"))
+  private Set<ApprovedProductReference> products;
+
+  /**
+   * Creates a set for the given products with an id calculated from its content.
+   *
+   * @param products approved products that should be available.
+   */
+  public AvailableProductSet(Collection<ApprovedProductReference> products) {
+    this.id = idOf(products);
+    this.products = new HashSet<>(products);
+  }
+
+  public Set<ApprovedProductReference> getProducts() {
+    return Collections.unmodifiableSet(products);
+  }
+
+  /**
+   * Calculates id of a set with the given products. Each product is written as
+   * {@code orderableId:orderableVersion:ftapId:ftapVersion}, lines are deduplicated, sorted and
+   * joined with new lines and the MD5 digest of the result is used as the id. The same value is
+   * calculated by the database migration that moved existing requisitions to shared sets, so
+   * both have to be changed together.
+   *
+   * @param products approved products in the set.
+   * @return id of the set.
+   */
+  public static UUID idOf(Collection<ApprovedProductReference> products) {
+    String content = products
+        .stream()
+        .map(AvailableProductSet::toLine)
+        .distinct()
+        .sorted()
+        .collect(Collectors.joining("\n"));
+
+    return ContentIds.fromContent(content);
+  }
+
+  private static String toLine(ApprovedProductReference product) {
+    VersionEntityReference orderable = product.getOrderable();
+    VersionEntityReference approvedProduct = product.getFacilityTypeApprovedProduct();
+
+    return String.join(":",
+        orderable == null ? "" : Objects.toString(orderable.getId(), ""),
+        orderable == null ? "" : Objects.toString(orderable.getVersionNumber(), ""),
+        approvedProduct == null ? "" : Objects.toString(approvedProduct.getId(), ""),
+        approvedProduct == null ? "" : Objects.toString(approvedProduct.getVersionNumber(), ""));
+  }
+
+}
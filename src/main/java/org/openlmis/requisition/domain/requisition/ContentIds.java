@@ -0,0 +1,38 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.requisition.domain.requisition;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import org.springframework.util.DigestUtils;
+
+/**
+ * Ids of content-addressed entities. The id is the MD5 digest of the UTF-8 content read as an
+ * UUID, which is the same value PostgreSQL returns for {@code CAST(md5(content) AS uuid)}.
+ */
+final class ContentIds {
+
+  private ContentIds() {
+    throw new UnsupportedOperationException();
+  }
+
+  static UUID fromContent(String content) {
+    ByteBuffer digest = ByteBuffer
+        .wrap(DigestUtils.md5Digest(content.getBytes(StandardCharsets.UTF_8)));
+    return new UUID(digest.getLong(), digest.getLong());
+  }
+}
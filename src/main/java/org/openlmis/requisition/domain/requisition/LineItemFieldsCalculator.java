@@ -26,7 +26,7 @@ import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.util.Collection;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
 import java.util.UUID;
 import org.joda.money.CurrencyUnit;
 import org.joda.money.Money;
@@ -112,16 +112,22 @@ public final class LineItemFieldsCalculator {
    */
   public static int calculateTotalLossesAndAdjustments(RequisitionLineItem lineItem,
       Collection<StockAdjustmentReason> reasons) {
+    return calculateTotalLossesAndAdjustments(lineItem,
+        StockAdjustmentReasonIndex.of(reasons));
+  }
+
+  /**
+   * Calculates TotalLossesAndAdjustments (D) value with reasons indexed by the reason ID.
+   */
+  static int calculateTotalLossesAndAdjustments(RequisitionLineItem lineItem,
+      Map<UUID, StockAdjustmentReason> reasons) {
     int totalLossesAndAdjustments = 0;
     if (null != lineItem.getStockAdjustments()) {
       for (StockAdjustment adjustment : lineItem.getStockAdjustments()) {
-        Optional<StockAdjustmentReason> reason = reasons
-            .stream()
-            .filter(r -> r.getReasonId().equals(adjustment.getReasonId()))
-            .findFirst();
+        StockAdjustmentReason reason = reasons.get(adjustment.getReasonId());
 
-        if (reason.isPresent()) {
-          int sign = reason.get().isCreditReasonType() ? 1 : -1;
+        if (null != reason) {
+          int sign = reason.isCreditReasonType() ? 1 : -1;
 
           totalLossesAndAdjustments += adjustment.getQuantity() * sign;
         }
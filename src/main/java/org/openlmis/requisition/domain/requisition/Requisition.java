@@ -56,9 +56,7 @@ import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import javax.persistence.AttributeOverride;
 import javax.persistence.CascadeType;
-import javax.persistence.CollectionTable;
 import javax.persistence.Column;
-import javax.persistence.ElementCollection;
 import javax.persistence.Embedded;
 import javax.persistence.Entity;
 import javax.persistence.EnumType;
@@ -140,7 +138,6 @@ public class Requisition extends BaseTimestampedEntity {
   static final String EXTRA_DATA_ORIGINAL_REQUISITION_ID = "originalRequisition";
 
   private static final int LINE_ITEMS_BATCH_SIZE = 100;
-  private static final int AVAILABLE_PRODUCTS_BATCH_SIZE = 1000;
 
   @OneToMany(
       mappedBy = "requisition",
@@ -234,12 +231,12 @@ public class Requisition extends BaseTimestampedEntity {
   @Setter
   private List<Requisition> previousRequisitions;
 
-  @ElementCollection(fetch = FetchType.LAZY)
-  @BatchSize(size = AVAILABLE_PRODUCTS_BATCH_SIZE)
-  @CollectionTable(name = "available_products", joinColumns = @JoinColumn(name = "requisitionId"))
+  @ManyToOne(fetch = FetchType.LAZY)
+  @JoinColumn(name = "availableProductSetId")
+  @DiffIgnore
   @Getter
   @Setter
-  private Set<ApprovedProductReference> availableProducts;
+  private AvailableProductSet availableProductSet;
 
   @Getter
   @Setter
@@ -248,12 +245,11 @@ public class Requisition extends BaseTimestampedEntity {
       column = @Column(name = "datephysicalstockcountcompleted"))
   private DatePhysicalStockCountCompleted datePhysicalStockCountCompleted;
 
-  @OneToMany(
-      cascade = {CascadeType.MERGE, CascadeType.PERSIST, CascadeType.REFRESH, CascadeType.REMOVE},
-      fetch = FetchType.LAZY,
-      orphanRemoval = true)
+  @ManyToMany(fetch = FetchType.LAZY)
+  @JoinTable(name = "requisitions_stock_adjustment_reasons",
+      joinColumns = {@JoinColumn(name = "requisitionId")},
+      inverseJoinColumns = {@JoinColumn(name = "stockAdjustmentReasonId")})
   @BatchSize(size = STANDARD_BATCH_SIZE)
-  @JoinColumn(name = "requisitionId")
   @DiffIgnore
   @Getter
   @Setter
@@ -301,7 +297,7 @@ public class Requisition extends BaseTimestampedEntity {
         original.template, original.facilityId, original.programId, original.processingPeriodId,
         original.supplyingFacilityId, original.status, original.statusChanges, original.emergency,
         original.reportOnly, original.numberOfMonthsInPeriod, original.supervisoryNodeId,
-        original.previousRequisitions, original.availableProducts,
+        original.previousRequisitions, original.availableProductSet,
         original.datePhysicalStockCountCompleted, null,
         null, new ExtraDataEntity());
 
@@ -318,12 +314,8 @@ public class Requisition extends BaseTimestampedEntity {
         .map(rps -> new RequisitionPermissionString(this, rps.getPermissionString()))
         .collect(toList());
 
-    this.stockAdjustmentReasons = original
-        .stockAdjustmentReasons
-        .stream()
-        .map(StockAdjustmentReason::new)
-        .peek(item -> item.setId(null))
-        .collect(Collectors.toList());
+    // reasons are shared snapshots, so both requisitions can refer to the same ones
+    this.stockAdjustmentReasons = new ArrayList<>(original.stockAdjustmentReasons);
   }
 
   /**
@@ -346,6 +338,24 @@ public class Requisition extends BaseTimestampedEntity {
         .validateRequisitionCanChangeStatus();
   }
 
+  /**
+   * Returns approved products available for this requisition. Products are loaded from the
+   * shared set on first access.
+   */
+  public Set<ApprovedProductReference> getAvailableProducts() {
+    return null == availableProductSet
+        ? Collections.emptySet()
+        : availableProductSet.getProducts();
+  }
+
+  /**
+   * Returns unmodifiable index of stock adjustment reasons of this requisition by the reason ID.
+   * The index is shared with other requisitions that refer to the same reason snapshots.
+   */
+  public Map<UUID, StockAdjustmentReason> getStockAdjustmentReasonsById() {
+    return StockAdjustmentReasonIndex.of(stockAdjustmentReasons);
+  }
+
   /**
    * Returns a set of all orderable IDs in this requisition.
    */
@@ -357,9 +367,7 @@ public class Requisition extends BaseTimestampedEntity {
         .map(RequisitionLineItem::getOrderable)
         .collect(Collectors.toSet());
 
-    Optional
-        .ofNullable(availableProducts)
-        .orElse(Collections.emptySet())
+    getAvailableProducts()
         .stream()
         .map(ApprovedProductReference::getOrderable)
         .forEach(orderableIds::add);
@@ -503,6 +511,11 @@ public class Requisition extends BaseTimestampedEntity {
     this.requisitionLineItems = new ArrayList<>();
 
     if (isNotTrue(emergency)) {
+      Map<UUID, StockCardRangeSummaryDto> summaries =
+          groupStockCardRangeSummaries(stockCardRangeSummaries);
+      Map<UUID, StockCardRangeSummaryDto> summariesToAverage =
+          groupStockCardRangeSummaries(stockCardRangeSummariesToAverage);
+
       for (ApprovedProductDto product : fullSupplyProducts) {
         UUID orderableId = product.getOrderable().getId();
 
@@ -517,10 +530,8 @@ public class Requisition extends BaseTimestampedEntity {
             ? stockData.getBeginningBalance(orderableId)
             : 0);
 
-        StockCardRangeSummaryDto summary = findStockCardRangeSummary(
-            stockCardRangeSummaries, lineItem.getOrderable().getId());
-        StockCardRangeSummaryDto summaryToAverage = findStockCardRangeSummary(
-            stockCardRangeSummariesToAverage, lineItem.getOrderable().getId());
+        StockCardRangeSummaryDto summary = summaries.get(orderableId);
+        StockCardRangeSummaryDto summaryToAverage = summariesToAverage.get(orderableId);
 
         lineItem.calculateAndSetStockBasedTotalReceivedQuantity(template, summary);
         lineItem.calculateAndSetStockBasedTotalStockoutDays(summary, numberOfMonthsInPeriod);
@@ -1047,7 +1058,7 @@ public class Requisition extends BaseTimestampedEntity {
       Map<VersionIdentityDto, ApprovedProductDto> approvedProducts) {
     getNonSkippedFullSupplyRequisitionLineItems(orderables)
         .forEach(line ->
-            line.calculateAndSetFields(template, stockAdjustmentReasons,
+            line.calculateAndSetFields(template, getStockAdjustmentReasonsById(),
                 numberOfMonthsInPeriod, approvedProducts));
   }
 
@@ -1104,14 +1115,17 @@ public class Requisition extends BaseTimestampedEntity {
       requisitionLineItems = new ArrayList<>();
     }
 
+    Map<UUID, RequisitionLineItem> existingLineItems = new HashMap<>();
+    for (RequisitionLineItem item : requisitionLineItems) {
+      existingLineItems.putIfAbsent(item.getId(), item);
+    }
+
     List<RequisitionLineItem> updatedList = new ArrayList<>();
 
     for (RequisitionLineItem item : newLineItems) {
-      RequisitionLineItem existing = requisitionLineItems
-          .stream()
-          .filter(l -> l.getId().equals(item.getId()))
-          .findFirst()
-          .orElse(null);
+      RequisitionLineItem existing = null == item.getId()
+          ? null
+          : existingLineItems.get(item.getId());
 
       if (null == existing) {
         item.setRequisition(this);
@@ -1127,13 +1141,14 @@ public class Requisition extends BaseTimestampedEntity {
     requisitionLineItems.addAll(updatedList);
   }
 
-  private StockCardRangeSummaryDto findStockCardRangeSummary(
-      List<StockCardRangeSummaryDto> stockCardRangeSummaryDtos, UUID orderableId) {
-    return stockCardRangeSummaryDtos
-        .stream()
-        .filter(range -> range.getOrderable().getId().equals(orderableId))
-        .findFirst()
-        .orElse(null);
+  private Map<UUID, StockCardRangeSummaryDto> groupStockCardRangeSummaries(
+      List<StockCardRangeSummaryDto> stockCardRangeSummaryDtos) {
+    Map<UUID, StockCardRangeSummaryDto> summaries = new HashMap<>();
+    for (StockCardRangeSummaryDto summary : stockCardRangeSummaryDtos) {
+      summaries.putIfAbsent(summary.getOrderable().getId(), summary);
+    }
+
+    return summaries;
   }
 
   public Map<String, Object> getExtraData() {
@@ -33,7 +33,6 @@ import static org.openlmis.requisition.domain.requisition.LineItemFieldsCalculat
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -549,7 +548,7 @@ public class RequisitionLineItem extends BaseEntity {
    * Calculate and set all calculated fields in this requisition line item.
    */
   void calculateAndSetFields(RequisitionTemplate template,
-      Collection<StockAdjustmentReason> stockAdjustmentReasons,
+      Map<UUID, StockAdjustmentReason> stockAdjustmentReasons,
       Integer numberOfMonthsInPeriod,
       Map<VersionIdentityDto, ApprovedProductDto> approvedProducts) {
     calculateAndSetTotalLossesAndAdjustments(stockAdjustmentReasons, template);
@@ -702,7 +701,7 @@ public class RequisitionLineItem extends BaseEntity {
    * Sets appropriate value for Total Consumed Quantity field in {@link RequisitionLineItem}.
    */
   private void calculateAndSetTotalLossesAndAdjustments(
-      Collection<StockAdjustmentReason> reasons,
+      Map<UUID, StockAdjustmentReason> reasons,
       RequisitionTemplate template) {
     if (!template.isPopulateStockOnHandFromStockCards()) {
       int calculated = calculateTotalLossesAndAdjustments(this, reasons);
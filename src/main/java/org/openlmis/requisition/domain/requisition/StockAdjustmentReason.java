@@ -21,6 +21,8 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.EnumType;
@@ -31,6 +33,7 @@ import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Immutable;
 import org.hibernate.annotations.Type;
 import org.openlmis.requisition.domain.BaseEntity;
 import org.openlmis.requisition.dto.ReasonCategory;
@@ -43,8 +46,10 @@ import org.openlmis.requisition.dto.ReasonType;
 @Setter
 @EqualsAndHashCode(callSuper = false)
 @Entity
+@Immutable
 @Table(name = "stock_adjustment_reasons", schema = "requisition")
 public class StockAdjustmentReason extends BaseEntity {
+  private static final String SNAPSHOT_FIELD_SEPARATOR = "\u001f";
 
   @Column(nullable = false)
   @Type(type = UUID_TYPE)
@@ -81,6 +86,25 @@ public class StockAdjustmentReason extends BaseEntity {
     setId(original.getId());
   }
 
+  /**
+   * Returns id of the snapshot with the same data as this reason. Reasons are stored once per
+   * distinct content and shared by all requisitions that were initiated with them, so a reason
+   * that changes in the stock management service gets a new snapshot. Fields are written in a
+   * fixed order, null values as empty strings and other values with a "+" prefix, separated with
+   * the unit separator character. The migration that moved existing reasons to snapshots
+   * calculates the same value, so both have to be changed together.
+   *
+   * @return id of the snapshot.
+   */
+  public UUID calculateSnapshotId() {
+    String content = Stream
+        .of(reasonId, name, description, reasonType, reasonCategory, isFreeTextAllowed, hidden)
+        .map(value -> null == value ? "" : "+" + value)
+        .collect(Collectors.joining(SNAPSHOT_FIELD_SEPARATOR));
+
+    return ContentIds.fromContent(content);
+  }
+
   public boolean isCreditReasonType() {
     return getReasonType() == ReasonType.CREDIT;
   }
@@ -0,0 +1,95 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.requisition.domain.requisition;
+
+import static java.util.stream.Collectors.toList;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Stock adjustment reasons of requisitions indexed by the reason ID. Snapshots are
+ * content-addressed and never change, so requisitions that refer to the same snapshots share one
+ * index held in a bounded, least recently used cache. Snapshots have no lazy associations, so an
+ * index can be used after the session that loaded them is closed.
+ */
+final class StockAdjustmentReasonIndex {
+  private static final int MAX_SIZE = 1000;
+
+  private static final Map<List<UUID>, Map<UUID, StockAdjustmentReason>> INDEXES =
+      new LinkedHashMap<List<UUID>, Map<UUID, StockAdjustmentReason>>(16, 0.75F, true) {
+        @Override
+        protected boolean removeEldestEntry(
+            Map.Entry<List<UUID>, Map<UUID, StockAdjustmentReason>> eldest) {
+          return size() > MAX_SIZE;
+        }
+      };
+
+  private StockAdjustmentReasonIndex() {
+    throw new UnsupportedOperationException();
+  }
+
+  /**
+   * Returns unmodifiable index of the given reasons. If a reason ID is used by more than one
+   * reason, the first one is indexed. Reasons without snapshot IDs are indexed without caching.
+   */
+  static Map<UUID, StockAdjustmentReason> of(Collection<StockAdjustmentReason> reasons) {
+    if (null == reasons || reasons.isEmpty()) {
+      return Collections.emptyMap();
+    }
+
+    List<UUID> snapshotIds = reasons
+        .stream()
+        .map(StockAdjustmentReason::getId)
+        .collect(toList());
+
+    if (snapshotIds.stream().anyMatch(Objects::isNull)) {
+      return build(reasons);
+    }
+
+    Map<UUID, StockAdjustmentReason> index;
+
+    synchronized (INDEXES) {
+      index = INDEXES.get(snapshotIds);
+    }
+
+    if (null == index) {
+      index = build(reasons);
+
+      synchronized (INDEXES) {
+        INDEXES.putIfAbsent(snapshotIds, index);
+      }
+    }
+
+    return index;
+  }
+
+  private static Map<UUID, StockAdjustmentReason> build(
+      Collection<StockAdjustmentReason> reasons) {
+    Map<UUID, StockAdjustmentReason> index = new LinkedHashMap<>();
+
+    for (StockAdjustmentReason reason : reasons) {
+      index.putIfAbsent(reason.getReasonId(), reason);
+    }
+
+    return Collections.unmodifiableMap(index);
+  }
+}
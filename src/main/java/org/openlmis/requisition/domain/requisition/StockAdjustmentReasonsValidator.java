@@ -21,7 +21,6 @@ import static org.openlmis.requisition.i18n.MessageKeys.ERROR_REASON_NOT_IN_REQU
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
-import java.util.stream.Collectors;
 import lombok.AllArgsConstructor;
 import org.openlmis.requisition.utils.Message;
 
@@ -42,9 +41,7 @@ class StockAdjustmentReasonsValidator implements RequisitionUpdateDomainValidato
 
   private void validateIfReasonExists(Map<String, Message> errors, Requisition requisition,
                                       Requisition savedRequisition) {
-    Set<UUID> reasons = savedRequisition.getStockAdjustmentReasons().stream()
-        .map(StockAdjustmentReason::getReasonId)
-        .collect(Collectors.toSet());
+    Set<UUID> reasons = savedRequisition.getStockAdjustmentReasonsById().keySet();
 
     requisition.getRequisitionLineItems().stream()
         .flatMap(i -> i.getStockAdjustments().stream())
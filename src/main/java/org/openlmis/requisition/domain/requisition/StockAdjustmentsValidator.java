@@ -20,16 +20,16 @@ import static org.openlmis.requisition.i18n.MessageKeys.ERROR_STOCK_ADJUSTMENT_N
 import static org.openlmis.requisition.i18n.MessageKeys.ERROR_STOCK_ADJUSTMENT_NOT_FOUND;
 
 import java.util.ArrayList;
-import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
-import java.util.stream.Collectors;
 import org.openlmis.requisition.dto.OrderableDto;
 import org.openlmis.requisition.dto.VersionIdentityDto;
 import org.openlmis.requisition.utils.Message;
 
 class StockAdjustmentsValidator
     extends AbstractRegularRequisitionFullSupplyLineItemStatusChangeValidator {
+  private Set<UUID> reasonIds;
 
   StockAdjustmentsValidator(Requisition requisitionToValidate,
       Map<VersionIdentityDto, OrderableDto> orderables) {
@@ -38,12 +38,13 @@ class StockAdjustmentsValidator
 
   protected void validateFullSupplyLineItem(Map<String, Message> errors,
                                             RequisitionLineItem item) {
-    List<UUID> reasons = requisitionToValidate
-        .getStockAdjustmentReasons()
-        .stream().map(StockAdjustmentReason::getReasonId).collect(Collectors.toList());
+    // the reasons are the same for all line items, so the index is built once per validation
+    if (null == reasonIds) {
+      reasonIds = requisitionToValidate.getStockAdjustmentReasonsById().keySet();
+    }
 
     for (StockAdjustment adjustment : new ArrayList<>(item.getStockAdjustments())) {
-      if (!reasons.contains(adjustment.getReasonId())) {
+      if (!reasonIds.contains(adjustment.getReasonId())) {
         errors.put(REQUISITION_LINE_ITEMS,
             new Message(ERROR_STOCK_ADJUSTMENT_NOT_FOUND, adjustment.getReasonId()));
       }
@@ -47,6 +47,13 @@ public class RequisitionsProcessingStatusDto {
     this.requisitionErrors.add(errorMessage);
   }
 
+  /**
+   * Removes all processed requisitions, for example when their changes were rolled back.
+   */
+  public void removeProcessedRequisitions() {
+    requisitionDtos.clear();
+  }
+
   /**
    * Removes skipped line items if they are skipped in all requisitions.
    */
@@ -15,15 +15,20 @@
 
 package org.openlmis.requisition.dto;
 
-import lombok.AllArgsConstructor;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 
 @EqualsAndHashCode(callSuper = true)
-@AllArgsConstructor
 public final class UserObjectReferenceDto extends ObjectReferenceDto {
 
   @Getter
   private final String username;
 
+  @JsonCreator
+  public UserObjectReferenceDto(@JsonProperty("username") String username) {
+    this.username = username;
+  }
+
 }
@@ -264,6 +264,10 @@ public abstract class MessageKeys {
       ERROR_PREFIX + ".validation.params.requisitionStatus.notValidStatus";
   public static final String ERROR_SEARCH_INVALID_PARAMS =
       ERROR_PREFIX + ".search.invalidParams";
+  public static final String ERROR_SEARCH_INVALID_CONTINUATION_TOKEN =
+      ERROR_PREFIX + ".search.invalidContinuationToken";
+  public static final String ERROR_SEARCH_CONTINUATION_TOKEN_PAGEABLE =
+      ERROR_PREFIX + ".search.continuationTokenPageable";
   public static final String ERROR_INVALID_DATE_FORMAT =
       ERROR_PREFIX + ".validation.invalidDateFormat";
   public static final String ERROR_INVALID_BOOLEAN_FORMAT =
@@ -305,6 +309,12 @@ public abstract class MessageKeys {
 
   public static final String ERROR_SERVICE_REQUIRED = ERROR_PREFIX + ".service.required";
   public static final String ERROR_SERVICE_OCCURED = ERROR_PREFIX + ".service.errorOccured";
+  public static final String ERROR_STOCK_EVENT_SUBMISSION_FAILED =
+      ERROR_PREFIX + ".stockEvent.submissionFailed";
+  public static final String ERROR_STOCK_EVENT_BATCH_ROLLED_BACK =
+      ERROR_PREFIX + ".stockEvent.batchRolledBack";
+  public static final String ERROR_STOCK_EVENT_BATCH_ROLLED_BACK_AFTER_SUBMISSION =
+      ERROR_PREFIX + ".stockEvent.batchRolledBackAfterSubmission";
 
   public static final String LINE_ITEM_SUPPLIED_BY_OTHER_PARTNER =
       SERVICE_PREFIX + ".lineItem.suppliedByOtherPartner";
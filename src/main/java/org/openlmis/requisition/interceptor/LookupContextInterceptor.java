@@ -0,0 +1,60 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.requisition.interceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.openlmis.requisition.service.cache.LookupContext;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.handler.HandlerInterceptorAdapter;
+
+/**
+ * Opens a {@link LookupContext} for each handled request, so reference data and other remote
+ * resources are retrieved only once per request.
+ */
+@Component
+public class LookupContextInterceptor extends HandlerInterceptorAdapter {
+
+  @Value("${request.lookups.enabled}")
+  private boolean enabled;
+
+  @Override
+  public boolean preHandle(HttpServletRequest request, HttpServletResponse response,
+      Object handler) {
+    if (enabled) {
+      LookupContext.open();
+    }
+
+    return true;
+  }
+
+  @Override
+  public void afterCompletion(HttpServletRequest request, HttpServletResponse response,
+      Object handler, Exception ex) {
+    LookupContext.close();
+  }
+
+  @Override
+  public void afterConcurrentHandlingStarted(HttpServletRequest request,
+      HttpServletResponse response, Object handler) {
+    LookupContext.close();
+  }
+
+  void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+  }
+}
@@ -15,6 +15,7 @@
 
 package org.openlmis.requisition.repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 import org.openlmis.requisition.domain.requisition.StatusMessage;
@@ -24,4 +25,6 @@ public interface StatusMessageRepository
     extends PagingAndSortingRepository<StatusMessage, UUID> {
   
   List<StatusMessage> findByRequisitionId(UUID requisitionId);
+
+  List<StatusMessage> findByRequisitionIdIn(Collection<UUID> requisitionIds);
 }
@@ -0,0 +1,92 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.requisition.repository.custom;
+
+import static org.openlmis.requisition.i18n.MessageKeys.ERROR_SEARCH_INVALID_CONTINUATION_TOKEN;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Base64;
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+import org.apache.commons.lang3.StringUtils;
+import org.openlmis.requisition.domain.requisition.Requisition;
+import org.openlmis.requisition.exception.ValidationMessageException;
+import org.openlmis.requisition.utils.Message;
+
+/**
+ * Position of the last requisition returned in a page of results sorted by the created date and
+ * the id. The next page starts with the first requisition after this position, so no rows have to
+ * be skipped or counted by the database. The position is passed to clients as an opaque token.
+ */
+@Getter
+@AllArgsConstructor
+@EqualsAndHashCode
+@ToString
+public final class RequisitionKeyset {
+  private static final String SEPARATOR = "/";
+
+  private final ZonedDateTime createdDate;
+  private final UUID id;
+
+  public static RequisitionKeyset of(Requisition requisition) {
+    return new RequisitionKeyset(requisition.getCreatedDate(), requisition.getId());
+  }
+
+  /**
+   * Creates a keyset from the given continuation token.
+   *
+   * @param token token returned with the previous page.
+   * @return the keyset or {@code null} if the token is blank, which means the first page.
+   * @throws ValidationMessageException if the token has not been created by this class.
+   */
+  public static RequisitionKeyset fromToken(String token) {
+    if (StringUtils.isBlank(token)) {
+      return null;
+    }
+
+    try {
+      String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8)
+          .split(SEPARATOR);
+
+      if (parts.length != 2) {
+        throw new ValidationMessageException(ERROR_SEARCH_INVALID_CONTINUATION_TOKEN, token);
+      }
+
+      return new RequisitionKeyset(
+          ZonedDateTime.ofInstant(Instant.parse(parts[0]), ZoneOffset.UTC),
+          UUID.fromString(parts[1]));
+    } catch (IllegalArgumentException | DateTimeException exp) {
+      throw new ValidationMessageException(
+          new Message(ERROR_SEARCH_INVALID_CONTINUATION_TOKEN, token), exp);
+    }
+  }
+
+  /**
+   * Converts this keyset to an opaque token that can be passed back to get the next page.
+   */
+  public String toToken() {
+    String value = createdDate.toInstant() + SEPARATOR + id;
+    return Base64.getUrlEncoder().withoutPadding()
+        .encodeToString(value.getBytes(StandardCharsets.UTF_8));
+  }
+}
@@ -15,15 +15,18 @@
 
 package org.openlmis.requisition.repository.custom;
 
+import java.util.Collection;
 import java.util.List;
-import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
 import org.apache.commons.lang3.tuple.Pair;
 import org.openlmis.requisition.domain.requisition.Requisition;
+import org.openlmis.requisition.domain.requisition.RequisitionApproval;
 import org.openlmis.requisition.domain.requisition.RequisitionPeriod;
+import org.openlmis.requisition.domain.requisition.RequisitionStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
 public interface RequisitionRepositoryCustom {
 
@@ -31,17 +34,31 @@ public interface RequisitionRepositoryCustom {
       List<String> userPermissionStrings, Set<Pair<UUID, UUID>> programNodePairs,
       Pageable pageable);
 
+  Slice<Requisition> searchRequisitions(RequisitionSearchParams params,
+      List<String> userPermissionStrings, Set<Pair<UUID, UUID>> programNodePairs,
+      RequisitionKeyset after, int size);
+
   List<Requisition> searchRequisitions(UUID processingPeriod,
       UUID facility, UUID program, Boolean emergency);
 
-  Optional<Requisition> findRegularRequisition(UUID processingPeriod, UUID facility, UUID program);
+  List<Requisition> findRegularRequisitions(Collection<UUID> processingPeriods, UUID facility,
+      UUID program);
 
   List<RequisitionPeriod> searchRequisitionIdAndStatusPairs(UUID facility, UUID program,
       Boolean emergency);
 
+  List<RequisitionApproval> searchRegularRequisitionApprovals(UUID program,
+      Collection<UUID> processingPeriods, Collection<UUID> facilities);
+
+  Set<UUID> searchFacilitiesWithoutRequisition(UUID program, UUID processingPeriod,
+      Collection<UUID> facilities, Set<RequisitionStatus> statuses);
+
   Page<Requisition> searchApprovedRequisitions(UUID facilityId,
       Set<Pair<UUID, UUID>> programSupervisoryNodePair, Pageable pageable);
 
   Page<Requisition> searchApprovableRequisitionsByProgramSupervisoryNodePairs(
       Set<Pair<UUID, UUID>> programNodePairs, Pageable pageable);
+
+  Slice<Requisition> searchApprovableRequisitionsByProgramSupervisoryNodePairs(
+      Set<Pair<UUID, UUID>> programNodePairs, RequisitionKeyset after, int size);
 }
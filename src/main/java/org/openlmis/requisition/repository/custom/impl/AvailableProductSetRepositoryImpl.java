@@ -0,0 +1,108 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.requisition.repository.custom.impl;
+
+import static org.apache.commons.collections4.CollectionUtils.isEmpty;
+
+import com.google.common.base.Joiner;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import org.openlmis.requisition.domain.requisition.ApprovedProductReference;
+import org.openlmis.requisition.domain.requisition.AvailableProductSet;
+import org.openlmis.requisition.domain.requisition.VersionEntityReference;
+import org.openlmis.requisition.repository.custom.AvailableProductSetRepositoryCustom;
+
+public class AvailableProductSetRepositoryImpl implements AvailableProductSetRepositoryCustom {
+
+  private static final String INSERT_SET_SQL = "INSERT INTO requisition.available_product_sets"
+      + " (id) VALUES (:id) ON CONFLICT (id) DO NOTHING";
+
+  // all products are written with a single statement, a set can have several thousand of them
+  private static final String INSERT_PRODUCTS_SQL = "INSERT INTO"
+      + " requisition.available_product_set_items (availableProductSetId, orderableId,"
+      + " orderableVersionNumber, facilityTypeApprovedProductId,"
+      + " facilityTypeApprovedProductVersionNumber)"
+      + " SELECT :id, p.*"
+      + " FROM unnest(CAST(:orderableIds AS uuid[]), CAST(:orderableVersionNumbers AS bigint[]),"
+      + " CAST(:approvedProductIds AS uuid[]), CAST(:approvedProductVersionNumbers AS bigint[]))"
+      + " AS p";
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  /**
+   * Returns the set that contains exactly the given products. The set is stored first if it
+   * does not exist yet. Concurrent calls for the same products are safe, only one of them
+   * writes the set.
+   *
+   * @param products approved products that should be available.
+   * @return reference to the stored set or null if there are no products.
+   */
+  @Override
+  public AvailableProductSet findOrCreate(Collection<ApprovedProductReference> products) {
+    if (isEmpty(products)) {
+      return null;
+    }
+
+    UUID id = AvailableProductSet.idOf(products);
+    int created = entityManager
+        .createNativeQuery(INSERT_SET_SQL)
+        .setParameter("id", id)
+        .executeUpdate();
+
+    if (created > 0) {
+      List<ApprovedProductReference> distinct = new ArrayList<>(new LinkedHashSet<>(products));
+
+      entityManager
+          .createNativeQuery(INSERT_PRODUCTS_SQL)
+          .setParameter("id", id)
+          .setParameter("orderableIds",
+              toArrayParameter(distinct, ApprovedProductReference::getOrderable, true))
+          .setParameter("orderableVersionNumbers",
+              toArrayParameter(distinct, ApprovedProductReference::getOrderable, false))
+          .setParameter("approvedProductIds", toArrayParameter(distinct,
+              ApprovedProductReference::getFacilityTypeApprovedProduct, true))
+          .setParameter("approvedProductVersionNumbers", toArrayParameter(distinct,
+              ApprovedProductReference::getFacilityTypeApprovedProduct, false))
+          .executeUpdate();
+    }
+
+    return entityManager.getReference(AvailableProductSet.class, id);
+  }
+
+  private static String toArrayParameter(List<ApprovedProductReference> products,
+      Function<ApprovedProductReference, VersionEntityReference> reference, boolean ids) {
+    List<Object> values = new ArrayList<>(products.size());
+
+    for (ApprovedProductReference product : products) {
+      VersionEntityReference value = reference.apply(product);
+
+      if (null == value) {
+        values.add(null);
+      } else {
+        values.add(ids ? value.getId() : value.getVersionNumber());
+      }
+    }
+
+    return '{' + Joiner.on(',').useForNull("NULL").join(values) + '}';
+  }
+}
@@ -32,7 +32,10 @@ import org.apache.commons.lang3.ObjectUtils;
 import org.apache.commons.lang3.tuple.Pair;
 import org.openlmis.requisition.utils.DateHelper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 
 abstract class BaseCustomRepository<T> {
 
@@ -63,6 +66,21 @@ abstract class BaseCustomRepository<T> {
         .getResultList();
   }
 
+  /**
+   * Returns at most {@code size} entities and checks if there are more of them by fetching one
+   * entity more than requested. No count query is executed.
+   */
+  Slice<T> getSlice(CriteriaQuery<T> query, int size) {
+    List<T> entities = entityManager
+        .createQuery(query)
+        .setMaxResults(size + 1)
+        .getResultList();
+    boolean hasNext = entities.size() > size;
+
+    return new SliceImpl<>(hasNext ? entities.subList(0, size) : entities,
+        PageRequest.of(0, size), hasNext);
+  }
+
   Predicate addEqualFilter(Predicate predicate, CriteriaBuilder builder, Root<T> root,
       String field, Object filterValue) {
     return null == filterValue
@@ -16,16 +16,19 @@
 package org.openlmis.requisition.repository.custom.impl;
 
 import static java.util.stream.Collectors.toList;
+import static org.apache.commons.collections4.CollectionUtils.isEmpty;
 import static org.apache.commons.collections4.CollectionUtils.isNotEmpty;
 
 import com.google.common.base.Joiner;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
@@ -52,11 +55,13 @@ import org.hibernate.type.PostgresUUIDType;
 import org.hibernate.type.ZonedDateTimeType;
 import org.openlmis.requisition.domain.BaseEntity;
 import org.openlmis.requisition.domain.requisition.Requisition;
+import org.openlmis.requisition.domain.requisition.RequisitionApproval;
 import org.openlmis.requisition.domain.requisition.RequisitionPeriod;
 import org.openlmis.requisition.domain.requisition.RequisitionPermissionString;
 import org.openlmis.requisition.domain.requisition.RequisitionStatus;
 import org.openlmis.requisition.domain.requisition.StatusChange;
 import org.openlmis.requisition.repository.StatusChangeRepository;
+import org.openlmis.requisition.repository.custom.RequisitionKeyset;
 import org.openlmis.requisition.repository.custom.RequisitionRepositoryCustom;
 import org.openlmis.requisition.repository.custom.RequisitionSearchParams;
 import org.openlmis.requisition.utils.Pagination;
@@ -66,6 +71,7 @@ import org.slf4j.profiler.Profiler;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 
 @SuppressWarnings("PMD.TooManyMethods")
@@ -77,21 +83,50 @@ public class RequisitionRepositoryImpl
 
   private static final String ORDER_BY = " ORDER BY ";
 
+  // the statement has the same shape for all users, filters are passed as array parameters
   private static final String FROM = " FROM requisition.requisitions r"
       + " INNER JOIN requisition.status_changes s ON r.id = s.requisitionid"
       + " WHERE r.status = 'APPROVED'"
-      + " AND s.status = 'APPROVED'";
-
-  private static final String SEARCH_APPROVED_SQL = "SELECT DISTINCT"
+      + " AND s.status = 'APPROVED'"
+      + " AND (CAST(:facilityIds AS uuid[]) = '{}'"
+      + " OR r.facilityid = ANY(CAST(:facilityIds AS uuid[])))"
+      + " AND (:anyProgramAndNode = TRUE"
+      + " OR (r.programid, r.supervisorynodeid) IN (SELECT * FROM unnest("
+      + "CAST(:pairProgramIds AS uuid[]), CAST(:pairSupervisoryNodeIds AS uuid[])))"
+      + " OR r.programid = ANY(CAST(:programIds AS uuid[]))"
+      + " OR r.supervisorynodeid = ANY(CAST(:supervisoryNodeIds AS uuid[])))";
+
+  static final String SEARCH_APPROVED_SQL = "SELECT DISTINCT"
       + " r.id AS req_id, r.emergency AS req_emergency,"
       + " r.facilityid AS facility_id, r.programid AS program_id,"
       + " r.processingperiodid as period_id, r.supervisorynodeid as node_id,"
       + " s.createdDate as approved_date"
       + FROM;
 
-  private static final String SELECT_COUNT_APPROVED_SQL = "SELECT DISTINCT COUNT(*)"
+  static final String SELECT_COUNT_APPROVED_SQL = "SELECT DISTINCT COUNT(*)"
       + FROM;
 
+  private static final String SEARCH_REGULAR_APPROVALS_SQL = "SELECT"
+      + " r.id AS req_id, r.facilityid AS facility_id, r.processingperiodid AS period_id,"
+      + " MIN(s.createddate) AS approved_date"
+      + " FROM requisition.requisitions r"
+      + " LEFT JOIN requisition.status_changes s"
+      + " ON r.id = s.requisitionid AND s.status = 'APPROVED'"
+      + " WHERE r.emergency = FALSE"
+      + " AND r.programid = :programId"
+      + " AND r.processingperiodid = ANY(CAST(:periodIds AS uuid[]))"
+      + " AND r.facilityid = ANY(CAST(:facilityIds AS uuid[]))"
+      + " GROUP BY r.id, r.facilityid, r.processingperiodid";
+
+  private static final String SEARCH_FACILITIES_WITHOUT_REQUISITION_SQL = "SELECT"
+      + " f.id AS facility_id"
+      + " FROM unnest(CAST(:facilityIds AS uuid[])) AS f(id)"
+      + " WHERE NOT EXISTS (SELECT 1 FROM requisition.requisitions r"
+      + " WHERE r.facilityid = f.id"
+      + " AND r.programid = :programId"
+      + " AND r.processingperiodid = :periodId"
+      + " AND r.status IN (:statuses))";
+
   private static final String FACILITY_ID = "facilityId";
   private static final String PROGRAM_ID = "programId";
   private static final String EMERGENCY = "emergency";
@@ -101,6 +136,7 @@ public class RequisitionRepositoryImpl
   private static final String SUPERVISORY_NODE_ID = "supervisoryNodeId";
   private static final String AUTHORIZED_DATE = "authorizedDate";
   private static final String MODIFIED_DATE = "modifiedDate";
+  private static final String ID = "id";
 
   @PersistenceContext
   private EntityManager entityManager;
@@ -141,6 +177,32 @@ public class RequisitionRepositoryImpl
     return Pagination.getPage(requisitions, pageable, count);
   }
 
+  /**
+   * Method returns at most {@code size} Requisitions with matched parameters that were created
+   * after the given keyset. Requisitions are sorted by created date and id, and the total number
+   * of matching requisitions is not counted.
+   *
+   * @param params It contains parameters which have to be matched by requisition.
+   * @param userPermissionStrings Permission strings of current user.
+   * @param programNodePairs program / supervisoryNode pairs
+   * @param after position of the last requisition from the previous slice, null for the first one.
+   * @param size maximum number of requisitions in the slice.
+   * @return Slice of Requisitions with matched parameters.
+   */
+  @Override
+  public Slice<Requisition> searchRequisitions(RequisitionSearchParams params,
+      List<String> userPermissionStrings, Set<Pair<UUID, UUID>> programNodePairs,
+      RequisitionKeyset after, int size) {
+    CriteriaBuilder builder = getCriteriaBuilder();
+
+    CriteriaQuery<Requisition> requisitionQuery = builder.createQuery(Requisition.class);
+    requisitionQuery = prepareQuery(builder, requisitionQuery, params,
+        userPermissionStrings, programNodePairs, false, null);
+    requisitionQuery = addKeyset(builder, requisitionQuery, after);
+
+    return getSlice(requisitionQuery, size);
+  }
+
 
   /**
    * Method returns all Requisitions with matched parameters.
@@ -171,14 +233,21 @@ public class RequisitionRepositoryImpl
   }
 
   /**
-   * Method returns Requisition with matched parameters.
+   * Method returns regular requisitions of the given facility and program created for any of
+   * the given periods. The requisitions are read-only and have their line items loaded.
    *
-   * @param processingPeriod ProcessingPeriod of searched Requisition.
-   * @return Requisition with matched parameters.
+   * @param processingPeriods ProcessingPeriods of searched Requisitions.
+   * @param facility          Facility of searched Requisitions.
+   * @param program           Program of searched Requisitions.
+   * @return List of Requisitions with matched parameters.
    */
   @Override
-  public Optional<Requisition> findRegularRequisition(UUID processingPeriod,
+  public List<Requisition> findRegularRequisitions(Collection<UUID> processingPeriods,
       UUID facility, UUID program) {
+    if (isEmpty(processingPeriods)) {
+      return Collections.emptyList();
+    }
+
     CriteriaBuilder builder = getCriteriaBuilder();
 
     CriteriaQuery<Requisition> query = builder.createQuery(Requisition.class);
@@ -186,20 +255,17 @@ public class RequisitionRepositoryImpl
 
     Predicate predicate = builder.conjunction();
     predicate = addEqualFilter(predicate, builder, root, EMERGENCY, false);
-    predicate = addEqualFilter(predicate, builder, root, PROCESSING_PERIOD_ID, processingPeriod);
     predicate = addEqualFilter(predicate, builder, root, FACILITY_ID, facility);
     predicate = addEqualFilter(predicate, builder, root, PROGRAM_ID, program);
+    predicate = builder.and(predicate, root.get(PROCESSING_PERIOD_ID).in(processingPeriods));
 
     query.where(predicate);
 
-    List<Requisition> requisitions = entityManager.createQuery(query)
+    return entityManager.createQuery(query)
         .setHint(QueryHints.HINT_READONLY, true)
         .setHint("javax.persistence.fetchgraph",
             entityManager.getEntityGraph("graph.Requisition"))
         .getResultList();
-
-    // There is always maximum one regular requisition for given period, facility and program
-    return requisitions.stream().findFirst();
   }
 
   /**
@@ -237,6 +303,104 @@ public class RequisitionRepositoryImpl
     return requisitionIdStatusList;
   }
 
+  /**
+   * Method returns approval details of all regular requisitions for the given program created
+   * for any of the given periods and facilities. An empty list is returned if no periods or no
+   * facilities are passed.
+   *
+   * @param program           program of searched requisitions.
+   * @param processingPeriods periods of searched requisitions.
+   * @param facilities        facilities of searched requisitions.
+   * @return List of requisition approvals, one entry per matching requisition.
+   */
+  @Override
+  public List<RequisitionApproval> searchRegularRequisitionApprovals(UUID program,
+      Collection<UUID> processingPeriods, Collection<UUID> facilities) {
+    XLOGGER.entry(program, processingPeriods, facilities);
+
+    if (isEmpty(processingPeriods) || isEmpty(facilities)) {
+      XLOGGER.exit(Collections.emptyList());
+      return Collections.emptyList();
+    }
+
+    Profiler profiler = new Profiler("SEARCH_REGULAR_REQUISITION_APPROVALS");
+    profiler.setLogger(XLOGGER);
+
+    profiler.start("EXECUTE_QUERY");
+    Query query = entityManager.createNativeQuery(SEARCH_REGULAR_APPROVALS_SQL)
+        .setParameter("programId", program)
+        .setParameter("periodIds", toArrayParameter(processingPeriods))
+        .setParameter("facilityIds", toArrayParameter(facilities));
+
+    NativeQuery sql = query.unwrap(NativeQuery.class);
+    sql.addScalar("req_id", PostgresUUIDType.INSTANCE);
+    sql.addScalar("facility_id", PostgresUUIDType.INSTANCE);
+    sql.addScalar("period_id", PostgresUUIDType.INSTANCE);
+    sql.addScalar("approved_date", ZonedDateTimeType.INSTANCE);
+
+    // hibernate always returns a list of array of objects
+    @SuppressWarnings("unchecked")
+    List<Object[]> list = Collections.checkedList(query.getResultList(), Object[].class);
+
+    profiler.start("CONVERT_RESULTS");
+    List<RequisitionApproval> approvals = list
+        .stream()
+        .map(values -> new RequisitionApproval((UUID) values[0], (UUID) values[1],
+            (UUID) values[2], (ZonedDateTime) values[3]))
+        .collect(toList());
+
+    XLOGGER.exit(approvals.size());
+    profiler.stop().log();
+
+    return approvals;
+  }
+
+  /**
+   * Method returns IDs of those of the given facilities that have no requisition (regular or
+   * emergency) in any of the given statuses for the program and period. If no statuses are
+   * passed, all given facilities are returned.
+   *
+   * @param program          program of searched requisitions.
+   * @param processingPeriod period of searched requisitions.
+   * @param facilities       facilities to check.
+   * @param statuses         statuses of searched requisitions.
+   * @return Set of IDs of facilities without a matching requisition.
+   */
+  @Override
+  public Set<UUID> searchFacilitiesWithoutRequisition(UUID program, UUID processingPeriod,
+      Collection<UUID> facilities, Set<RequisitionStatus> statuses) {
+    XLOGGER.entry(program, processingPeriod, facilities, statuses);
+
+    if (isEmpty(facilities) || isEmpty(statuses)) {
+      Set<UUID> result = isEmpty(facilities) ? Collections.emptySet() : new HashSet<>(facilities);
+      XLOGGER.exit(result.size());
+      return result;
+    }
+
+    Profiler profiler = new Profiler("SEARCH_FACILITIES_WITHOUT_REQUISITION");
+    profiler.setLogger(XLOGGER);
+
+    profiler.start("EXECUTE_QUERY");
+    Query query = entityManager.createNativeQuery(SEARCH_FACILITIES_WITHOUT_REQUISITION_SQL)
+        .setParameter("facilityIds", toArrayParameter(facilities))
+        .setParameter("programId", program)
+        .setParameter("periodId", processingPeriod)
+        .setParameter("statuses", statuses.stream().map(Enum::name).collect(toList()));
+
+    query.unwrap(NativeQuery.class).addScalar("facility_id", PostgresUUIDType.INSTANCE);
+
+    @SuppressWarnings("unchecked")
+    List<UUID> list = Collections.checkedList(query.getResultList(), UUID.class);
+
+    profiler.start("CONVERT_RESULTS");
+    Set<UUID> result = new HashSet<>(list);
+
+    XLOGGER.exit(result.size());
+    profiler.stop().log();
+
+    return result;
+  }
+
   /**
    * Get approved requisitions matching all of provided parameters.
    * Empty list is returned if:
@@ -326,32 +490,91 @@ public class RequisitionRepositoryImpl
         .setFirstResult(maxAndFirst.getRight())
         .getResultList();
 
-    profiler.start("GET_REQUISITIONS_IDS");
+    profiler.start("SET_STATUS_CHANGES");
+    setStatusChanges(requisitions);
+
+    profiler.start("CREATE_RESULT_PAGE");
+    Page<Requisition> page = Pagination.getPage(requisitions, pageable, count);
+
+    XLOGGER.exit(page);
+    profiler.stop().log();
+
+    return page;
+  }
+
+  /**
+   * Method returns at most {@code size} requisitions that are ready to be approved
+   * (AUTHORIZED, IN_APPROVAL) and were created after the given keyset. Requisitions are sorted
+   * by created date and id, and the total number of matching requisitions is not counted.
+   *
+   * @param programNodePairs program / supervisoryNode pairs
+   * @param after position of the last requisition from the previous slice, null for the first one.
+   * @param size maximum number of requisitions in the slice.
+   * @return matching requisitions
+   */
+  @Override
+  public Slice<Requisition> searchApprovableRequisitionsByProgramSupervisoryNodePairs(
+      Set<Pair<UUID, UUID>> programNodePairs, RequisitionKeyset after, int size) {
+    XLOGGER.entry(programNodePairs, after, size);
+
+    Profiler profiler = new Profiler("SEARCH_APPROBABLE_REQ_BY_PROGRAM_SUP_NODE_PAIRS_KEYSET");
+    profiler.setLogger(XLOGGER);
+
+    profiler.start("PREPARE_MAIN_QUERY");
+    CriteriaBuilder builder = getCriteriaBuilder();
+    CriteriaQuery<Requisition> query = builder.createQuery(Requisition.class);
+    query = prepareApprovableQuery(builder, query, programNodePairs, false, null);
+    query = addKeyset(builder, query, after);
+
+    profiler.start("EXECUTE_MAIN_QUERY");
+    Slice<Requisition> slice = getSlice(query, size);
+
+    profiler.start("SET_STATUS_CHANGES");
+    setStatusChanges(slice.getContent());
+
+    XLOGGER.exit(slice);
+    profiler.stop().log();
+
+    return slice;
+  }
+
+  private void setStatusChanges(List<Requisition> requisitions) {
     Set<UUID> requisitionIds = requisitions
         .stream()
         .map(BaseEntity::getId)
         .collect(Collectors.toSet());
 
-    profiler.start("GET_STATUS_CHANGES_BY_REQ_IDS");
     Map<UUID, List<StatusChange>> allStatusChanges = statusChangeRepository
         .findByRequisitionIdIn(requisitionIds)
         .stream()
         .collect(Collectors.groupingBy(status -> status.getRequisition().getId()));
 
-    profiler.start("MATCH_REQ_WITH_STATUS_CHANGES");
     requisitions
         .forEach(requisition -> {
           List<StatusChange> statusChanges = allStatusChanges.get(requisition.getId());
           requisition.setStatusChanges(statusChanges);
         });
+  }
 
-    profiler.start("CREATE_RESULT_PAGE");
-    Page<Requisition> page = Pagination.getPage(requisitions, pageable, count);
+  private CriteriaQuery<Requisition> addKeyset(CriteriaBuilder builder,
+      CriteriaQuery<Requisition> query, RequisitionKeyset after) {
+    Root<?> root = query.getRoots().iterator().next();
+    Path<ZonedDateTime> createdDate = root.get(CREATED_DATE);
+    Path<UUID> id = root.get(ID);
 
-    XLOGGER.exit(page);
-    profiler.stop().log();
+    query.orderBy(builder.asc(createdDate), builder.asc(id));
 
-    return page;
+    if (null == after) {
+      return query;
+    }
+
+    Predicate keysetPredicate = builder.or(
+        builder.greaterThan(createdDate, after.getCreatedDate()),
+        builder.and(
+            builder.equal(createdDate, after.getCreatedDate()),
+            builder.greaterThan(id, after.getId())));
+
+    return query.where(builder.and(query.getRestriction(), keysetPredicate));
   }
 
   private <T> CriteriaQuery<T> prepareQuery(CriteriaBuilder builder, CriteriaQuery<T> query,
@@ -535,24 +758,14 @@ public class RequisitionRepositoryImpl
     StringBuilder builder =
         new StringBuilder(count ? SELECT_COUNT_APPROVED_SQL : SEARCH_APPROVED_SQL);
 
-    if (null != facilityId) {
-      builder.append(String.format(" AND r.facilityid = '%s'", facilityId));
-    }
-    if (isNotEmpty(programSupervisoryNode)) {
-      builder.append(" AND (");
-      List<String> programAndSupervisoryNodeConditions = programSupervisoryNode.stream()
-          .map(this::createQueryForProgramAndNode)
-          .collect(toList());
-      builder.append(Joiner.on(" OR ").join(programAndSupervisoryNodeConditions));
-      builder.append(')');
-    }
-
     if (!count && !pageable.getSort().isEmpty()) {
       builder.append(ORDER_BY);
       builder.append(getOrderPredicate(pageable));
     }
 
     Query query = entityManager.createNativeQuery(builder.toString());
+    getApprovedRequisitionsParameters(facilityId, programSupervisoryNode)
+        .forEach(query::setParameter);
 
     if (count) {
       addScalarsForCount(query);
@@ -561,6 +774,48 @@ public class RequisitionRepositoryImpl
     return query;
   }
 
+  /**
+   * Returns values of parameters used in the approved requisitions query. Pairs with both program
+   * and supervisory node are matched together, pairs with only one of them match any value of the
+   * other one.
+   */
+  static Map<String, Object> getApprovedRequisitionsParameters(UUID facilityId,
+      Set<Pair<UUID, UUID>> programSupervisoryNode) {
+    List<UUID> pairProgramIds = new ArrayList<>();
+    List<UUID> pairSupervisoryNodeIds = new ArrayList<>();
+    List<UUID> programIds = new ArrayList<>();
+    List<UUID> supervisoryNodeIds = new ArrayList<>();
+
+    if (isNotEmpty(programSupervisoryNode)) {
+      for (Pair<UUID, UUID> pair : programSupervisoryNode) {
+        if (null != pair.getLeft() && null != pair.getRight()) {
+          pairProgramIds.add(pair.getLeft());
+          pairSupervisoryNodeIds.add(pair.getRight());
+        } else if (null != pair.getLeft()) {
+          programIds.add(pair.getLeft());
+        } else if (null != pair.getRight()) {
+          supervisoryNodeIds.add(pair.getRight());
+        }
+      }
+    }
+
+    Map<String, Object> parameters = new HashMap<>();
+    parameters.put("facilityIds", toArrayParameter(null == facilityId
+        ? Collections.emptyList()
+        : Collections.singletonList(facilityId)));
+    parameters.put("anyProgramAndNode", isEmpty(programSupervisoryNode));
+    parameters.put("pairProgramIds", toArrayParameter(pairProgramIds));
+    parameters.put("pairSupervisoryNodeIds", toArrayParameter(pairSupervisoryNodeIds));
+    parameters.put("programIds", toArrayParameter(programIds));
+    parameters.put("supervisoryNodeIds", toArrayParameter(supervisoryNodeIds));
+
+    return parameters;
+  }
+
+  private static String toArrayParameter(Collection<UUID> ids) {
+    return '{' + Joiner.on(',').join(ids) + '}';
+  }
+
   private void addScalars(Query query) {
     NativeQuery sql = query.unwrap(NativeQuery.class);
     sql.addScalar("req_id", PostgresUUIDType.INSTANCE);
@@ -613,19 +868,4 @@ public class RequisitionRepositoryImpl
 
     return Joiner.on(' ').join(sql);
   }
-
-  private String createQueryForProgramAndNode(Pair<UUID, UUID> programSupervisoryNode) {
-    UUID programId = programSupervisoryNode.getLeft();
-    UUID supervisoryNodeId = programSupervisoryNode.getRight();
-
-    if (null != programId && null != supervisoryNodeId) {
-      return String.format("(r.programId = '%s' AND r.supervisoryNodeId = '%s')",
-          programId, supervisoryNodeId);
-    } else if (null != programId) {
-      return String.format("r.programId = '%s'", programId);
-    } else if (null != supervisoryNodeId) {
-      return String.format("r.supervisoryNodeId = '%s'", supervisoryNodeId);
-    }
-    return "";
-  }
 }
@@ -0,0 +1,99 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.requisition.repository.custom.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import org.openlmis.requisition.domain.requisition.StockAdjustmentReason;
+import org.openlmis.requisition.repository.custom.StockAdjustmentReasonRepositoryCustom;
+
+public class StockAdjustmentReasonRepositoryImpl implements StockAdjustmentReasonRepositoryCustom {
+
+  // all snapshots are written with a single statement that skips already stored ones, the rows
+  // are passed as JSON so null values and enums need no special handling
+  private static final String INSERT_SNAPSHOTS_SQL = "INSERT INTO"
+      + " requisition.stock_adjustment_reasons"
+      + " SELECT * FROM json_populate_recordset("
+      + "CAST(NULL AS requisition.stock_adjustment_reasons), CAST(:reasons AS json))"
+      + " ON CONFLICT (id) DO NOTHING";
+
+  private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  /**
+   * Returns snapshots of the given reasons. Snapshots that do not exist yet are stored. A
+   * reason that is passed more than once is returned only once.
+   *
+   * @param reasons stock adjustment reasons from the stock management service.
+   * @return snapshots with the same data as the given reasons.
+   */
+  @Override
+  public List<StockAdjustmentReason> findOrCreateSnapshots(List<StockAdjustmentReason> reasons) {
+    if (null == reasons) {
+      return new ArrayList<>();
+    }
+
+    Map<UUID, StockAdjustmentReason> snapshots = new LinkedHashMap<>();
+    for (StockAdjustmentReason reason : reasons) {
+      StockAdjustmentReason snapshot = new StockAdjustmentReason(reason);
+      snapshot.setId(reason.calculateSnapshotId());
+      snapshots.putIfAbsent(snapshot.getId(), snapshot);
+    }
+
+    if (!snapshots.isEmpty()) {
+      entityManager
+          .createNativeQuery(INSERT_SNAPSHOTS_SQL)
+          .setParameter("reasons", toJson(snapshots.values()))
+          .executeUpdate();
+    }
+
+    return new ArrayList<>(snapshots.values());
+  }
+
+  private static String toJson(Collection<StockAdjustmentReason> snapshots) {
+    List<Map<String, Object>> rows = new ArrayList<>(snapshots.size());
+
+    for (StockAdjustmentReason snapshot : snapshots) {
+      Map<String, Object> row = new HashMap<>();
+      row.put("id", snapshot.getId());
+      row.put("reasonid", snapshot.getReasonId());
+      row.put("name", snapshot.getName());
+      row.put("description", snapshot.getDescription());
+      row.put("reasontype", snapshot.getReasonType());
+      row.put("reasoncategory", snapshot.getReasonCategory());
+      row.put("isfreetextallowed", snapshot.getIsFreeTextAllowed());
+      row.put("hidden", snapshot.getHidden());
+      rows.add(row);
+    }
+
+    try {
+      return OBJECT_MAPPER.writeValueAsString(rows);
+    } catch (JsonProcessingException ex) {
+      throw new IllegalStateException("Can't convert stock adjustment reasons to JSON", ex);
+    }
+  }
+}
@@ -26,6 +26,9 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -38,6 +41,8 @@ import org.springframework.security.oauth2.provider.token.AccessTokenConverter;
 import org.springframework.security.oauth2.provider.token.DefaultAccessTokenConverter;
 import org.springframework.security.oauth2.provider.token.RemoteTokenServices;
 import org.springframework.security.web.authentication.preauth.AbstractPreAuthenticatedProcessingFilter;
+import org.springframework.web.client.DefaultResponseErrorHandler;
+import org.springframework.web.client.RestTemplate;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
@@ -110,6 +115,7 @@ public class ResourceServerSecurityConfiguration implements ResourceServerConfig
    * @param checkTokenUrl url to check tokens against
    * @param clientId      client's id
    * @param clientSecret  client's secret
+   * @param requestFactory factory of pooled HTTP connections to the auth service
    * @return token services
    */
   @Bean
@@ -118,8 +124,21 @@ public class ResourceServerSecurityConfiguration implements ResourceServerConfig
       @Value("${auth.server.url}") String checkTokenUrl,
       @Value("${auth.server.clientId}") String clientId,
       @Value("${auth.server.clientSecret}") String clientSecret,
-      @Value("${auth.server.invalidToken.retryLimit}") int invalidTokenRetryLimit) {
+      @Value("${auth.server.invalidToken.retryLimit}") int invalidTokenRetryLimit,
+      ClientHttpRequestFactory requestFactory) {
+    RestTemplate restTemplate = new RestTemplate(requestFactory);
+    restTemplate.setErrorHandler(new DefaultResponseErrorHandler() {
+      @Override
+      public void handleError(ClientHttpResponse response) throws IOException {
+        // invalid tokens are reported with 400 and handled by the token services
+        if (HttpStatus.BAD_REQUEST.value() != response.getRawStatusCode()) {
+          super.handleError(response);
+        }
+      }
+    });
+
     final RemoteTokenServices remoteTokenServices = new CustomTokenServices(invalidTokenRetryLimit);
+    remoteTokenServices.setRestTemplate(restTemplate);
     remoteTokenServices.setCheckTokenEndpointUrl(checkTokenUrl);
     remoteTokenServices.setClientId(clientId);
     remoteTokenServices.setClientSecret(clientSecret);
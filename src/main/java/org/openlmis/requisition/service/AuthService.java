@@ -17,11 +17,21 @@ package org.openlmis.requisition.service;
 
 import static org.openlmis.requisition.utils.RequestHelper.createUri;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.time.Clock;
 import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import org.apache.commons.codec.binary.Base64;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.Cacheable;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
@@ -30,9 +40,20 @@ import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestOperations;
 import org.springframework.web.client.RestTemplate;
 
+/**
+ * Obtains client credentials access tokens from the auth service. The current token is kept
+ * until shortly before it expires and is refreshed in the background once the refresh ahead
+ * period starts, so callers get a valid token without waiting. Background refreshes run on a
+ * dedicated thread and are skipped while one is in progress, so callers are never blocked by
+ * them. Only one refresh is made at a time; callers that need a new token at the same time wait
+ * for that refresh.
+ */
 @Service
 public class AuthService {
+  private static final Logger LOGGER = LoggerFactory.getLogger(AuthService.class);
   private static final String ACCESS_TOKEN = "access_token";
+  private static final String EXPIRES_IN = "expires_in";
+  private static final long REFRESH_THREAD_KEEP_ALIVE_SECONDS = 60;
 
   @Value("${auth.server.clientId}")
   private String clientId;
@@ -43,15 +64,110 @@ public class AuthService {
   @Value("${auth.server.authorizationUrl}")
   private String authorizationUrl;
 
+  @Value("${auth.server.accessToken.refreshAhead}")
+  private long refreshAhead;
+
+  @Value("${auth.server.accessToken.expiryMargin}")
+  private long expiryMargin;
+
   private RestOperations restTemplate = new RestTemplate();
 
+  private Clock clock = Clock.systemUTC();
+
+  private Executor refreshExecutor = new ThreadPoolExecutor(0, 1,
+      REFRESH_THREAD_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new SynchronousQueue<>(),
+      new ThreadFactoryBuilder().setNameFormat("auth-token-refresh-%d").setDaemon(true).build(),
+      new ThreadPoolExecutor.AbortPolicy());
+
+  private final Object refreshLock = new Object();
+  private final AtomicBoolean refreshing = new AtomicBoolean();
+  private volatile AccessToken token;
+
   /**
-   * Retrieves access token from the auth service.
+   * Returns access token for calls to other services. A new token is retrieved from the auth
+   * service only if there is no token or the current one is about to expire.
    *
    * @return token.
    */
-  @Cacheable("token")
   public String obtainAccessToken() {
+    AccessToken current = token;
+    long now = clock.millis();
+
+    if (null == current || !current.isValid(now)) {
+      return refreshToken(current).getValue();
+    }
+
+    if (current.shouldRefresh(now)) {
+      refreshInBackground(current);
+    }
+
+    return current.getValue();
+  }
+
+  /**
+   * Drops the current token, for example after it was rejected by another service. The next call
+   * of {@link #obtainAccessToken()} retrieves a new token.
+   */
+  public void clearTokenCache() {
+    token = null;
+  }
+
+  @Autowired
+  public void setRestTemplate(@Qualifier("serviceRestTemplate") RestOperations restTemplate) {
+    this.restTemplate = restTemplate;
+  }
+
+  @Autowired
+  public void setClock(Clock clock) {
+    this.clock = clock;
+  }
+
+  void setRefreshExecutor(Executor refreshExecutor) {
+    this.refreshExecutor = refreshExecutor;
+  }
+
+  private void refreshInBackground(AccessToken current) {
+    if (!refreshing.compareAndSet(false, true)) {
+      return;
+    }
+
+    try {
+      // the executor has no queue, so it rejects the task instead of blocking the caller
+      refreshExecutor.execute(() -> {
+        try {
+          refreshToken(current);
+        } catch (RuntimeException ex) {
+          // the current token is still valid, the refresh is repeated by next callers
+          LOGGER.warn("Unable to refresh access token in background", ex);
+        } finally {
+          refreshing.set(false);
+        }
+      });
+    } catch (RejectedExecutionException ex) {
+      refreshing.set(false);
+      LOGGER.warn("Unable to schedule refresh of access token", ex);
+    }
+  }
+
+  /**
+   * Retrieves a new token unless another thread has already replaced the given one.
+   */
+  private AccessToken refreshToken(AccessToken stale) {
+    synchronized (refreshLock) {
+      AccessToken current = token;
+
+      if (null != current && current != stale && current.isValid(clock.millis())) {
+        return current;
+      }
+
+      AccessToken refreshed = requestToken();
+      token = refreshed;
+
+      return refreshed;
+    }
+  }
+
+  private AccessToken requestToken() {
     String plainCreds = clientId + ":" + clientSecret;
     byte[] plainCredsBytes = plainCreds.getBytes();
     byte[] base64CredsBytes = Base64.encodeBase64(plainCredsBytes);
@@ -66,20 +182,48 @@ public class AuthService {
         .init()
         .set("grant_type", "client_credentials");
 
+    long requestedAt = clock.millis();
     ResponseEntity<?> response = restTemplate.exchange(
         createUri(authorizationUrl, params), HttpMethod.POST, request, Object.class
     );
 
-    return ((Map<String, String>) response.getBody()).get(ACCESS_TOKEN);
-  }
+    Map<String, Object> body = (Map<String, Object>) response.getBody();
+    Object expiresIn = body.get(EXPIRES_IN);
 
-  @CacheEvict(cacheNames = "token", allEntries = true)
-  public void clearTokenCache() {
-    // Intentionally blank
+    if (null == expiresIn) {
+      return new AccessToken((String) body.get(ACCESS_TOKEN), Long.MAX_VALUE, Long.MAX_VALUE);
+    }
+
+    // the lifetime is counted from the request, so the token never outlives its real expiry
+    long lifetime = TimeUnit.SECONDS.toMillis(Long.parseLong(expiresIn.toString()));
+    long refreshAfter = Math.max(lifetime - TimeUnit.SECONDS.toMillis(refreshAhead), lifetime / 2);
+    long validFor = Math.max(lifetime - TimeUnit.SECONDS.toMillis(expiryMargin), refreshAfter);
+
+    return new AccessToken((String) body.get(ACCESS_TOKEN),
+        requestedAt + refreshAfter, requestedAt + validFor);
   }
 
-  void setRestTemplate(RestOperations restTemplate) {
-    this.restTemplate = restTemplate;
+  private static final class AccessToken {
+    private final String value;
+    private final long refreshAt;
+    private final long expiresAt;
+
+    AccessToken(String value, long refreshAt, long expiresAt) {
+      this.value = value;
+      this.refreshAt = refreshAt;
+      this.expiresAt = expiresAt;
+    }
+
+    String getValue() {
+      return value;
+    }
+
+    boolean shouldRefresh(long now) {
+      return now >= refreshAt;
+    }
+
+    boolean isValid(long now) {
+      return now < expiresAt;
+    }
   }
-  
 }
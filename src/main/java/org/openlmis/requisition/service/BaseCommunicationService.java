@@ -23,11 +23,21 @@ import static org.openlmis.requisition.utils.RequestHelper.createUri;
 import java.lang.reflect.Array;
 import java.net.URI;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import org.apache.commons.lang3.StringUtils;
 import org.openlmis.requisition.dto.ResultDto;
+import org.openlmis.requisition.service.cache.LookupContext;
+import org.openlmis.requisition.service.cache.ResourceCache;
+import org.openlmis.requisition.service.cache.ResourceCacheFactory;
+import org.openlmis.requisition.service.cache.ResourceCopier;
+import org.openlmis.requisition.utils.BoundedExecutor;
 import org.openlmis.requisition.utils.DynamicPageTypeReference;
 import org.openlmis.requisition.utils.DynamicResultDtoTypeReference;
 import org.openlmis.requisition.utils.Merger;
@@ -36,6 +46,7 @@ import org.openlmis.requisition.utils.RequestHelper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.data.domain.Page;
@@ -58,6 +69,10 @@ public abstract class BaseCommunicationService<T> {
   @Value("${request.maxUrlLength}")
   private int maxUrlLength;
 
+  private ResourceCache<T> cache;
+
+  private BoundedExecutor requestExecutor;
+
   protected abstract String getServiceUrl();
 
   protected abstract String getUrl();
@@ -69,13 +84,37 @@ public abstract class BaseCommunicationService<T> {
   protected abstract String getServiceName();
 
   /**
-   * Return one object from service.
+   * Returns maximum number of concurrent requests used when a request with too long url is split
+   * into smaller requests. Split requests are sent one by one by default.
+   */
+  protected int getMaxConcurrentRequests() {
+    return 1;
+  }
+
+  /**
+   * Indicates if resources retrieved by id can be kept in the shared resource cache. Services
+   * that return user specific or frequently changing resources should not enable caching.
+   */
+  protected boolean isCacheable() {
+    return false;
+  }
+
+  /**
+   * Return one object from service. If the service is cacheable, the object is taken from the
+   * cache and revalidated with its entity tag once it becomes stale.
    *
    * @param id UUID of requesting object.
    * @return Requesting reference data object.
    */
   public T findOne(UUID id) {
-    return findOne(id.toString(), RequestParameters.init());
+    if (null == cache) {
+      return findOne(id.toString(), RequestParameters.init());
+    }
+
+    return LookupContext.lookup(
+        lookupKey(HttpMethod.GET, id.toString(), RequestParameters.init(), null, getResultClass()),
+        () -> cache.get(id.toString(), etag -> findOneIfModified(id.toString(), etag)),
+        ResourceCopier.snapshotOf(getResultClass()));
   }
 
   /**
@@ -90,7 +129,7 @@ public abstract class BaseCommunicationService<T> {
   }
 
   /**
-   * Return one object from service.
+   * Return one object from service. The result is memoized in the current lookup context.
    *
    * @param resourceUrl Endpoint url.
    * @param parameters  Map of query parameters.
@@ -98,6 +137,13 @@ public abstract class BaseCommunicationService<T> {
    * @return one reference data T objects.
    */
   public <P> P findOne(String resourceUrl, RequestParameters parameters, Class<P> type) {
+    return LookupContext.lookup(
+        lookupKey(HttpMethod.GET, resourceUrl, parameters, null, type),
+        () -> doFindOne(resourceUrl, parameters, type),
+        ResourceCopier.snapshotOf(type));
+  }
+
+  private <P> P doFindOne(String resourceUrl, RequestParameters parameters, Class<P> type) {
     String url = getServiceUrl() + getUrl() + resourceUrl;
 
     RequestParameters params = RequestParameters
@@ -125,6 +171,29 @@ public abstract class BaseCommunicationService<T> {
     }
   }
 
+  private ServiceResponse<T> findOneIfModified(String resourceUrl, String etag) {
+    String url = getServiceUrl() + getUrl() + resourceUrl;
+
+    try {
+      ResponseEntity<T> response = runWithTokenRetry(() -> restTemplate.exchange(
+          createUri(url),
+          HttpMethod.GET,
+          createEntity(null, addAuthHeader(RequestHeaders.init().setIfNoneMatch(etag))),
+          getResultClass()));
+
+      return new ServiceResponse<>(response.getBody(), response.getHeaders(),
+          HttpStatus.NOT_MODIFIED != response.getStatusCode());
+    } catch (HttpStatusCodeException ex) {
+      // rest template will handle 404 as an exception, instead of returning null
+      if (HttpStatus.NOT_FOUND == ex.getStatusCode()) {
+        logger.warn("{} with id {} does not exist", getResultClass().getSimpleName(), resourceUrl);
+        return null;
+      }
+
+      throw buildDataRetrievalException(ex);
+    }
+  }
+
   public List<T> findAll() {
     return findAll("");
   }
@@ -154,6 +223,14 @@ public abstract class BaseCommunicationService<T> {
 
   protected <P> List<P> findAll(String resourceUrl, RequestParameters parameters,
                           Object payload, HttpMethod method, Class<P[]> type) {
+    return LookupContext.lookup(
+        lookupKey(method, resourceUrl, parameters, payload, type),
+        () -> doFindAll(resourceUrl, parameters, payload, method, type),
+        ResourceCopier.snapshotOfList(getComponentType(type)));
+  }
+
+  private <P> List<P> doFindAll(String resourceUrl, RequestParameters parameters,
+      Object payload, HttpMethod method, Class<P[]> type) {
     String url = getServiceUrl() + getUrl() + resourceUrl;
 
     RequestParameters params = RequestParameters
@@ -214,6 +291,14 @@ public abstract class BaseCommunicationService<T> {
 
   protected <P> Page<P> getPage(String resourceUrl, RequestParameters parameters, Object payload,
                                 HttpMethod method, Class<P> type) {
+    return LookupContext.lookup(
+        lookupKey(method, resourceUrl, parameters, payload, type),
+        () -> doGetPage(resourceUrl, parameters, payload, method, type),
+        snapshotPage(ResourceCopier.snapshotOfList(type)));
+  }
+
+  private <P> Page<P> doGetPage(String resourceUrl, RequestParameters parameters, Object payload,
+      HttpMethod method, Class<P> type) {
     String url = getServiceUrl() + getUrl() + resourceUrl;
     RequestParameters params = RequestParameters
         .init()
@@ -231,6 +316,14 @@ public abstract class BaseCommunicationService<T> {
 
   protected <P> ResultDto<P> getResult(String resourceUrl, RequestParameters parameters,
                                        Class<P> type) {
+    return LookupContext.lookup(
+        lookupKey(HttpMethod.GET, resourceUrl, parameters, null, type),
+        () -> doGetResult(resourceUrl, parameters, type),
+        ResourceCopier.snapshotOf(new DynamicResultDtoTypeReference<>(type).getType()));
+  }
+
+  private <P> ResultDto<P> doGetResult(String resourceUrl, RequestParameters parameters,
+      Class<P> type) {
     String url = getServiceUrl() + getUrl() + resourceUrl;
     RequestParameters params = RequestParameters
         .init()
@@ -251,11 +344,9 @@ public abstract class BaseCommunicationService<T> {
                                                 Class<E[]> type) {
     HttpEntity<Object> entity = RequestHelper
         .createEntity(payload, authService.obtainAccessToken());
-    List<E[]> arrays = new ArrayList<>();
-
-    for (URI uri : RequestHelper.splitRequest(url, parameters, maxUrlLength)) {
-      arrays.add(restTemplate.exchange(uri, method, entity, type).getBody());
-    }
+    List<E[]> arrays = exchangeAll(
+        Arrays.asList(RequestHelper.splitRequest(url, parameters, maxUrlLength)),
+        uri -> restTemplate.exchange(uri, method, entity, type).getBody());
 
     E[] body = Merger
         .ofArrays(arrays)
@@ -274,11 +365,9 @@ public abstract class BaseCommunicationService<T> {
         .createEntity(payload, authService.obtainAccessToken());
     ParameterizedTypeReference<PageDto<E>> parameterizedType =
         new DynamicPageTypeReference<>(type);
-    List<PageDto<E>> pages = new ArrayList<>();
-
-    for (URI uri : RequestHelper.splitRequest(url, parameters, maxUrlLength)) {
-      pages.add(restTemplate.exchange(uri, method, entity, parameterizedType).getBody());
-    }
+    List<PageDto<E>> pages = exchangeAll(
+        Arrays.asList(RequestHelper.splitRequest(url, parameters, maxUrlLength)),
+        uri -> restTemplate.exchange(uri, method, entity, parameterizedType).getBody());
 
     PageDto<E> body = Merger
         .ofPages(pages)
@@ -288,12 +377,42 @@ public abstract class BaseCommunicationService<T> {
     return new ResponseEntity<>(body, HttpStatus.OK);
   }
 
+  /**
+   * Sends requests for all given uris and returns their results in the same order. Requests are
+   * divided into at most {@link #getMaxConcurrentRequests()} lanes executed concurrently in the
+   * shared request executor; requests in a single lane are sent one by one.
+   */
+  private <R> List<R> exchangeAll(List<URI> uris, Function<URI, R> exchange) {
+    int lanes = Math.min(uris.size(), getMaxConcurrentRequests());
+
+    if (lanes <= 1 || null == requestExecutor) {
+      return uris.stream().map(exchange).collect(Collectors.toList());
+    }
+
+    List<R> results = new ArrayList<>(uris.size());
+    uris.forEach(uri -> results.add(null));
+
+    List<CompletableFuture<Void>> futures = new ArrayList<>(lanes);
+    for (int lane = 0; lane < lanes; ++lane) {
+      int first = lane;
+      futures.add(requestExecutor.runAsync(() -> {
+        for (int index = first; index < uris.size(); index += lanes) {
+          results.set(index, exchange.apply(uris.get(index)));
+        }
+      }));
+    }
+
+    BoundedExecutor.join(CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])));
+
+    return results;
+  }
+
   protected <P> ResponseEntity<P> runWithTokenRetry(HttpTask<P> task) {
     try {
       return task.run();
     } catch (HttpStatusCodeException ex) {
       if (HttpStatus.UNAUTHORIZED == ex.getStatusCode()) {
-        // the token has (most likely) expired - clear the cache and retry once
+        // the token was rejected (for example revoked) - drop it and retry once
         authService.clearTokenCache();
         return task.run();
       }
@@ -306,7 +425,7 @@ public abstract class BaseCommunicationService<T> {
       return task.run();
     } catch (HttpStatusCodeException ex) {
       if (HttpStatus.UNAUTHORIZED == ex.getStatusCode()) {
-        // the token has (most likely) expired - clear the cache and retry once
+        // the token was rejected (for example revoked) - drop it and retry once
         authService.clearTokenCache();
         return runWithRetry(task);
       }
@@ -354,10 +473,58 @@ public abstract class BaseCommunicationService<T> {
     this.authService = authService;
   }
 
-  void setRestTemplate(RestOperations template) {
+  /**
+   * Sets up the resource cache if this service is cacheable. The cache region is the last part
+   * of the resource url, for example {@code facilities}.
+   */
+  @Autowired
+  public void setResourceCacheFactory(ResourceCacheFactory resourceCacheFactory) {
+    if (isCacheable()) {
+      String region = StringUtils.substringAfterLast(StringUtils.removeEnd(getUrl(), "/"), "/");
+      this.cache = resourceCacheFactory.getCache(region, getResultClass());
+    }
+  }
+
+  @Autowired
+  public void setRequestExecutor(@Qualifier("requestExecutor") BoundedExecutor requestExecutor) {
+    this.requestExecutor = requestExecutor;
+  }
+
+  @Autowired
+  public void setRestTemplate(@Qualifier("serviceRestTemplate") RestOperations template) {
     this.restTemplate = template;
   }
 
+  /**
+   * Builds key of a lookup in the lookup context. Parameters are copied because callers may
+   * reuse them. Payloads without equals and hashCode are compared by identity.
+   */
+  private List<Object> lookupKey(HttpMethod method, String resourceUrl,
+      RequestParameters parameters, Object payload, Class<?> type) {
+    return Arrays.asList(getClass(), method, resourceUrl,
+        RequestParameters.init().setAll(parameters), payload, type);
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <P> Class<P> getComponentType(Class<P[]> type) {
+    return (Class<P>) type.getComponentType();
+  }
+
+  /**
+   * Returns function that copies pages memoized in the lookup context. Only the content is copied
+   * because the remaining page properties can not be modified by callers.
+   */
+  private static <P> Function<Page<P>, Supplier<Page<P>>> snapshotPage(
+      Function<List<P>, Supplier<List<P>>> contentSnapshot) {
+    return page -> {
+      Supplier<List<P>> content = contentSnapshot.apply(page.getContent());
+
+      return () -> new PageDto<>(page.isLast(), page.isFirst(), page.getTotalPages(),
+          page.getTotalElements(), page.getSize(), page.getNumber(), page.getNumberOfElements(),
+          page.getSort(), content.get());
+    };
+  }
+
   private RequestHeaders addAuthHeader(RequestHeaders headers) {
     return null == headers
         ? RequestHeaders.init().setAuth(authService.obtainAccessToken())
@@ -0,0 +1,157 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.requisition.service;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import net.sf.jasperreports.engine.JasperReport;
+import org.openlmis.requisition.domain.JasperTemplate;
+import org.openlmis.requisition.exception.JasperReportViewException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bounded, least recently used cache of compiled Jasper reports. Compiling a report from the
+ * ".jrxml" file or deserializing it from a stored template is much more expensive than filling
+ * it, so compiled reports are kept and shared between report runs (a compiled report is not
+ * modified while it is filled). Reports created from stored templates are kept together with
+ * the template data they were read from, so a template changed by another service instance is
+ * never served from a stale entry.
+ */
+@Component
+public class JasperReportCache {
+  private static final String TEMPLATE_KEY_PREFIX = "template:";
+
+  private final Map<String, CompiledReport> entries;
+
+  /**
+   * Creates a new cache.
+   *
+   * @param maxSize maximum number of compiled reports held in memory.
+   */
+  @Autowired
+  public JasperReportCache(@Value("${jasper.reportCache.maxSize}") int maxSize) {
+    this.entries = new LinkedHashMap<String, CompiledReport>(16, 0.75F, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, CompiledReport> eldest) {
+        return size() > maxSize;
+      }
+    };
+  }
+
+  /**
+   * Returns compiled report for the given stored template. The loader is called only if there is
+   * no report for the template or the template data has changed since the report was created.
+   * Templates that have not been saved yet are never cached.
+   *
+   * @param template stored Jasper template.
+   * @param loader   creates compiled report from the template data.
+   * @return compiled report.
+   * @throws JasperReportViewException if the loader could not create the report.
+   */
+  public JasperReport get(JasperTemplate template, ReportLoader loader)
+      throws JasperReportViewException {
+    if (null == template.getId() || null == template.getData()) {
+      return loader.load();
+    }
+
+    return getOrLoad(TEMPLATE_KEY_PREFIX + template.getId(), template.getData(), loader);
+  }
+
+  /**
+   * Returns compiled report with the given key. The loader is called only if there is no report
+   * with the given key.
+   *
+   * @param key    key that identifies the report source and all customizations made to it.
+   * @param loader creates compiled report.
+   * @return compiled report.
+   * @throws JasperReportViewException if the loader could not create the report.
+   */
+  public JasperReport get(String key, ReportLoader loader) throws JasperReportViewException {
+    return getOrLoad(key, null, loader);
+  }
+
+  /**
+   * Removes report created from the stored template with the given ID.
+   */
+  public void evict(UUID templateId) {
+    synchronized (entries) {
+      entries.remove(TEMPLATE_KEY_PREFIX + templateId);
+    }
+  }
+
+  /**
+   * Removes all reports.
+   */
+  public void clear() {
+    synchronized (entries) {
+      entries.clear();
+    }
+  }
+
+  /**
+   * Returns number of reports held in memory.
+   */
+  public int size() {
+    synchronized (entries) {
+      return entries.size();
+    }
+  }
+
+  private JasperReport getOrLoad(String key, byte[] source, ReportLoader loader)
+      throws JasperReportViewException {
+    CompiledReport cached;
+
+    synchronized (entries) {
+      cached = entries.get(key);
+    }
+
+    if (null != cached && Arrays.equals(cached.source, source)) {
+      return cached.report;
+    }
+
+    // reports are compiled outside of the lock, so a slow compilation does not block reports
+    // that are already cached
+    JasperReport report = loader.load();
+
+    synchronized (entries) {
+      entries.put(key, new CompiledReport(report, source));
+    }
+
+    return report;
+  }
+
+  /**
+   * Creates a compiled report when it is not present in the cache.
+   */
+  @FunctionalInterface
+  public interface ReportLoader {
+    JasperReport load() throws JasperReportViewException;
+  }
+
+  private static final class CompiledReport {
+    private final JasperReport report;
+    private final byte[] source;
+
+    CompiledReport(JasperReport report, byte[] source) {
+      this.report = report;
+      this.source = source;
+    }
+  }
+}
@@ -25,6 +25,7 @@ import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.ObjectInputStream;
+import java.io.OutputStream;
 import java.sql.Connection;
 import java.text.DecimalFormat;
 import java.text.DecimalFormatSymbols;
@@ -43,13 +44,16 @@ import javax.sql.DataSource;
 import net.sf.jasperreports.engine.JRBand;
 import net.sf.jasperreports.engine.JRDataSource;
 import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JRParameter;
 import net.sf.jasperreports.engine.JasperCompileManager;
-import net.sf.jasperreports.engine.JasperExportManager;
 import net.sf.jasperreports.engine.JasperFillManager;
 import net.sf.jasperreports.engine.JasperPrint;
 import net.sf.jasperreports.engine.JasperReport;
 import net.sf.jasperreports.engine.data.JRBeanCollectionDataSource;
 import net.sf.jasperreports.engine.design.JasperDesign;
+import net.sf.jasperreports.engine.fill.JRAbstractLRUVirtualizer;
+import net.sf.jasperreports.engine.fill.JRSwapFileVirtualizer;
+import net.sf.jasperreports.engine.util.JRSwapFile;
 import net.sf.jasperreports.engine.xml.JRXmlLoader;
 import org.openlmis.requisition.domain.JasperTemplate;
 import org.openlmis.requisition.domain.RequisitionTemplate;
@@ -66,20 +70,17 @@ import org.openlmis.requisition.dto.RequisitionReportDto;
 import org.openlmis.requisition.dto.TimelinessReportFacilityDto;
 import org.openlmis.requisition.exception.JasperReportViewException;
 import org.openlmis.requisition.exception.ValidationMessageException;
-import org.openlmis.requisition.repository.custom.DefaultRequisitionSearchParams;
-import org.openlmis.requisition.repository.custom.RequisitionSearchParams;
+import org.openlmis.requisition.repository.RequisitionRepository;
 import org.openlmis.requisition.service.referencedata.FacilityReferenceDataService;
 import org.openlmis.requisition.service.referencedata.GeographicZoneReferenceDataService;
 import org.openlmis.requisition.service.referencedata.PeriodReferenceDataService;
 import org.openlmis.requisition.service.referencedata.ProgramReferenceDataService;
 import org.openlmis.requisition.utils.Message;
-import org.openlmis.requisition.utils.Pagination;
 import org.openlmis.requisition.utils.ReportUtils;
 import org.openlmis.requisition.web.ReportingRateReportDtoBuilder;
 import org.openlmis.requisition.web.RequisitionReportDtoBuilder;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -89,6 +90,7 @@ public class JasperReportsViewService {
   private static final String REQUISITION_REPORT_DIR = "/jasperTemplates/requisition.jrxml";
   private static final String REQUISITION_LINE_REPORT_DIR =
       "/jasperTemplates/requisitionLines.jrxml";
+  private static final String COLUMNS_SEPARATOR = ",";
 
   @Autowired
   private DataSource replicationDataSource;
@@ -109,11 +111,14 @@ public class JasperReportsViewService {
   private GeographicZoneReferenceDataService geographicZoneReferenceDataService;
 
   @Autowired
-  private RequisitionService requisitionService;
+  private RequisitionRepository requisitionRepository;
 
   @Autowired
   private ReportingRateReportDtoBuilder reportingRateReportDtoBuilder;
 
+  @Autowired
+  private JasperReportCache jasperReportCache;
+
   @Value("${dateFormat}")
   private String dateFormat;
 
@@ -129,17 +134,29 @@ public class JasperReportsViewService {
   @Value("${currencyLocale}")
   private String currencyLocale;
 
+  @Value("${jasper.virtualizer.maxSize}")
+  private int virtualizerMaxSize;
+
+  @Value("${jasper.virtualizer.directory}")
+  private String virtualizerDirectory;
+
+  @Value("${jasper.virtualizer.blockSize}")
+  private int virtualizerBlockSize;
+
+  @Value("${jasper.virtualizer.minGrowCount}")
+  private int virtualizerMinGrowCount;
+
   /**
    * Generate Jasper Report.
    *
    * @param jasperTemplate template that will be used to generate the report
    * @param params report parameters
-   * @return generated report.
+   * @param output output the generated report is written to
    * @throws JasperReportViewException if there will be any problem with generating the report.
    */
-  public byte[] generateReport(JasperTemplate jasperTemplate, Map<String, Object> params)
-      throws JasperReportViewException {
-    return fillAndExportReport(getReportFromTemplateData(jasperTemplate), params);
+  public void generateReport(JasperTemplate jasperTemplate, Map<String, Object> params,
+      ReportOutput output) throws JasperReportViewException {
+    fillAndExportReport(getReportFromTemplateData(jasperTemplate), params, output);
   }
 
   /**
@@ -147,11 +164,11 @@ public class JasperReportsViewService {
    *
    * @param jasperTemplate template that will be used to generate the report
    * @param params report parameters
-   * @return generated report.
+   * @param output output the generated report is written to
    * @throws JasperReportViewException if there will be any problem with generating the report.
    */
-  public byte[] generateReportingRateReport(JasperTemplate jasperTemplate,
-      Map<String, Object> params)
+  public void generateReportingRateReport(JasperTemplate jasperTemplate,
+      Map<String, Object> params, ReportOutput output)
       throws JasperReportViewException {
 
     UUID programId = (UUID) processParameter(params, "Program", true, UUID.class);
@@ -178,23 +195,23 @@ public class JasperReportsViewService {
     params.put("dateFormat", dateFormat);
     params.put("decimalFormat", createDecimalFormat());
 
-    return fillAndExportReport(getReportFromTemplateData(jasperTemplate), params);
+    fillAndExportReport(getReportFromTemplateData(jasperTemplate), params, output);
   }
 
   /**
    * Generate Jasper Report for printing a requisition.
    *
    * @param requisition requisition for printing the report.
-   * @return generated report.
+   * @param output output the generated report is written to
    * @throws JasperReportViewException if there will be any problem with generating the report.
    */
-  public byte[] generateRequisitionReport(Requisition requisition)
+  public void generateRequisitionReport(Requisition requisition, ReportOutput output)
       throws JasperReportViewException {
     RequisitionReportDto reportDto = requisitionReportDtoBuilder.build(requisition);
     RequisitionTemplate template = requisition.getTemplate();
 
     Map<String, Object> params = ReportUtils.createParametersMap();
-    params.put("subreport", createCustomizedRequisitionLineSubreport(template,
+    params.put("subreport", getCustomizedRequisitionLineSubreport(template,
         requisition.getStatus()));
     params.put(DATASOURCE, Collections.singletonList(reportDto));
     params.put("template", template);
@@ -203,7 +220,10 @@ public class JasperReportsViewService {
     params.put("currencyDecimalFormat",
         NumberFormat.getCurrencyInstance(getLocaleFromService()));
 
-    return fillAndExportReport(compileReportFromTemplateUrl(REQUISITION_REPORT_DIR), params);
+    JasperReport report = jasperReportCache.get(REQUISITION_REPORT_DIR,
+        () -> compileReportFromTemplateUrl(REQUISITION_REPORT_DIR));
+
+    fillAndExportReport(report, params, output);
   }
 
   /**
@@ -211,11 +231,11 @@ public class JasperReportsViewService {
    *
    * @param jasperTemplate template that will be used to generate the report
    * @param parameters report parameters
-   * @return generated report.
+   * @param output output the generated report is written to
    * @throws JasperReportViewException if there will be any problem with generating the report.
    */
-  public byte[] generateTimelinessReport(JasperTemplate jasperTemplate,
-      Map<String, Object> parameters)
+  public void generateTimelinessReport(JasperTemplate jasperTemplate,
+      Map<String, Object> parameters, ReportOutput output)
       throws JasperReportViewException {
     ProgramDto program = programReferenceDataService.findOne(
         UUID.fromString(parameters.get("program").toString())
@@ -236,20 +256,32 @@ public class JasperReportsViewService {
     parameters.put("period", period);
     parameters.put("district", district);
 
-    return fillAndExportReport(getReportFromTemplateData(jasperTemplate), parameters);
+    fillAndExportReport(getReportFromTemplateData(jasperTemplate), parameters, output);
   }
 
-  private JasperDesign createCustomizedRequisitionLineSubreport(RequisitionTemplate template,
-                                                                RequisitionStatus requisitionStatus)
-      throws JasperReportViewException {
+  /**
+   * Return the compiled line subreport with columns displayed in the given template. The columns
+   * to display depend on the requisition status, so the report is cached for each distinct set
+   * of columns instead of each template and status.
+   */
+  private JasperReport getCustomizedRequisitionLineSubreport(RequisitionTemplate template,
+      RequisitionStatus requisitionStatus) throws JasperReportViewException {
+    Map<String, RequisitionTemplateColumn> columns =
+        ReportUtils.getSortedTemplateColumnsForPrint(template.viewColumns(), requisitionStatus);
+    String key = REQUISITION_LINE_REPORT_DIR + '?'
+        + String.join(COLUMNS_SEPARATOR, columns.keySet());
+
+    return jasperReportCache.get(key,
+        () -> compileReport(createCustomizedRequisitionLineSubreport(columns)));
+  }
+
+  private JasperDesign createCustomizedRequisitionLineSubreport(
+      Map<String, RequisitionTemplateColumn> columns) throws JasperReportViewException {
     try (InputStream inputStream = getClass().getResourceAsStream(REQUISITION_LINE_REPORT_DIR)) {
       JasperDesign design = JRXmlLoader.load(inputStream);
       JRBand detail = design.getDetailSection().getBands()[0];
       JRBand header = design.getColumnHeader();
 
-      Map<String, RequisitionTemplateColumn> columns =
-          ReportUtils.getSortedTemplateColumnsForPrint(template.viewColumns(), requisitionStatus);
-
       ReportUtils.customizeBandWithTemplateFields(detail, columns, design.getPageWidth(), 9);
       ReportUtils.customizeBandWithTemplateFields(header, columns, design.getPageWidth(), 9);
 
@@ -262,14 +294,18 @@ public class JasperReportsViewService {
   }
 
   /**
-   * Fill in and export a compiled report.
+   * Fill in and export a compiled report. Pages of the filled report that do not fit in memory
+   * are kept in a swap file, and the report is exported directly to the given output, which is
+   * opened only after the report has been filled.
    */
-  byte[] fillAndExportReport(JasperReport compiledReport, Map<String, Object> params)
-      throws JasperReportViewException {
-
-    byte[] bytes;
+  void fillAndExportReport(JasperReport compiledReport, Map<String, Object> params,
+      ReportOutput output) throws JasperReportViewException {
+    JRAbstractLRUVirtualizer virtualizer = null;
 
     try {
+      virtualizer = createVirtualizer();
+      params.put(JRParameter.REPORT_VIRTUALIZER, virtualizer);
+
       JasperPrint jasperPrint;
       if (params.containsKey(DATASOURCE)) {
         jasperPrint = fillJasperReport(compiledReport, params,
@@ -279,21 +315,27 @@ public class JasperReportsViewService {
             replicationDataSource.getConnection());
       }
 
+      virtualizer.setReadOnly(true);
+
+      OutputStream outputStream = output.open();
       String format = (String) params.get("format");
       if ("csv".equals(format)) {
-        bytes = exportJasperReportToCsv(jasperPrint);
+        exportJasperReportToCsv(jasperPrint, outputStream);
       } else if ("xls".equals(format)) {
-        bytes = exportJasperReportToXls(jasperPrint);
+        exportJasperReportToXls(jasperPrint, outputStream);
       } else if ("html".equals(format)) {
-        bytes = exportJasperReportToHtml(jasperPrint);
+        exportJasperReportToHtml(jasperPrint, outputStream);
       } else {
-        bytes = exportJasperReportToPdf(jasperPrint);
+        exportJasperReportToPdf(jasperPrint, outputStream);
       }
+      outputStream.flush();
     } catch (Exception e) {
       throw new JasperReportViewException(e, ERROR_JASPER_FILE_FORMAT, e.getMessage());
+    } finally {
+      if (null != virtualizer) {
+        virtualizer.cleanup();
+      }
     }
-
-    return bytes;
   }
 
   /**
@@ -311,12 +353,24 @@ public class JasperReportsViewService {
     }
   }
 
+  private JasperReport compileReport(JasperDesign design) throws JasperReportViewException {
+    try {
+      return JasperCompileManager.compileReport(design);
+    } catch (JRException ex) {
+      throw new JasperReportViewException(ex, ERROR_JASPER_FILE_FORMAT, ex.getMessage());
+    }
+  }
+
   /**
    * Get (compiled) Jasper report from Jasper template.
    */
   private JasperReport getReportFromTemplateData(JasperTemplate jasperTemplate)
       throws JasperReportViewException {
+    return jasperReportCache.get(jasperTemplate, () -> readReportFromTemplateData(jasperTemplate));
+  }
 
+  private JasperReport readReportFromTemplateData(JasperTemplate jasperTemplate)
+      throws JasperReportViewException {
     try (ObjectInputStream inputStream = createObjectInputStream(jasperTemplate)) {
 
       return readReportData(inputStream);
@@ -340,26 +394,21 @@ public class JasperReportsViewService {
       facilities.addAll(facilityReferenceDataService.findAll());
     }
 
-    List<TimelinessReportFacilityDto> facilitiesMissingRnR = new ArrayList<>();
+    Set<UUID> activeFacilityIds = facilities.stream()
+        .filter(MinimalFacilityDto::getActive)
+        .map(MinimalFacilityDto::getId)
+        .collect(Collectors.toSet());
+
     // find active facilities that are missing R&R
+    Set<UUID> facilityIdsMissingRnR = requisitionRepository.searchFacilitiesWithoutRequisition(
+        program.getId(), processingPeriod.getId(), activeFacilityIds, validStatuses);
+
+    List<TimelinessReportFacilityDto> facilitiesMissingRnR = new ArrayList<>();
     for (MinimalFacilityDto facility : facilities) {
-      if (facility.getActive()) {
-        RequisitionSearchParams params = new DefaultRequisitionSearchParams(
-            facility.getId(), program.getId(), processingPeriod.getId(),
-            null, null, null, null, null, null, validStatuses);
-
-        PageRequest pageRequest = PageRequest.of(Pagination.DEFAULT_PAGE_NUMBER,
-            Pagination.NO_PAGINATION);
-
-        List<Requisition> requisitions = requisitionService
-            .searchRequisitions(params, pageRequest)
-            .getContent();
-
-        if (requisitions.isEmpty()) {
-          TimelinessReportFacilityDto timelinessFacility = new TimelinessReportFacilityDto();
-          facility.export(timelinessFacility);
-          facilitiesMissingRnR.add(timelinessFacility);
-        }
+      if (facility.getActive() && facilityIdsMissingRnR.contains(facility.getId())) {
+        TimelinessReportFacilityDto timelinessFacility = new TimelinessReportFacilityDto();
+        facility.export(timelinessFacility);
+        facilitiesMissingRnR.add(timelinessFacility);
       }
     }
 
@@ -427,23 +476,41 @@ public class JasperReportsViewService {
     return JasperFillManager.fillReport(jasperReport, parameters, connection);
   }
 
-  byte[] exportJasperReportToCsv(JasperPrint jasperPrint) throws JRException {
-    return new JasperCsvExporter(jasperPrint).exportReport();
+  JRAbstractLRUVirtualizer createVirtualizer() {
+    return new JRSwapFileVirtualizer(virtualizerMaxSize,
+        new JRSwapFile(virtualizerDirectory, virtualizerBlockSize, virtualizerMinGrowCount), true);
+  }
+
+  void exportJasperReportToCsv(JasperPrint jasperPrint, OutputStream outputStream)
+      throws JRException {
+    new JasperCsvExporter(jasperPrint).exportReport(outputStream);
   }
 
-  byte[] exportJasperReportToXls(JasperPrint jasperPrint) throws JRException {
-    return new JasperXlsExporter(jasperPrint).exportReport();
+  void exportJasperReportToXls(JasperPrint jasperPrint, OutputStream outputStream)
+      throws JRException {
+    new JasperXlsExporter(jasperPrint).exportReport(outputStream);
   }
 
-  byte[] exportJasperReportToHtml(JasperPrint jasperPrint) throws JRException {
-    return new JasperHtmlExporter(jasperPrint).exportReport();
+  void exportJasperReportToHtml(JasperPrint jasperPrint, OutputStream outputStream)
+      throws JRException {
+    new JasperHtmlExporter(jasperPrint).exportReport(outputStream);
   }
 
-  byte[] exportJasperReportToPdf(JasperPrint jasperPrint) throws JRException {
-    return JasperExportManager.exportReportToPdf(jasperPrint);
+  void exportJasperReportToPdf(JasperPrint jasperPrint, OutputStream outputStream)
+      throws JRException {
+    new JasperPdfExporter(jasperPrint).exportReport(outputStream);
   }
 
   protected Locale getLocaleFromService() {
     return new Locale(defaultLocale, currencyLocale);
   }
+
+  /**
+   * Output a generated report is written to. It is opened only after the report has been
+   * filled, so the response can still carry an error if filling the report fails.
+   */
+  @FunctionalInterface
+  public interface ReportOutput {
+    OutputStream open() throws IOException;
+  }
 }
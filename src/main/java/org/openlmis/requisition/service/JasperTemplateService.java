@@ -64,6 +64,9 @@ public class JasperTemplateService {
   @Autowired
   private JasperTemplateRepository jasperTemplateRepository;
 
+  @Autowired
+  private JasperReportCache jasperReportCache;
+
   public JasperTemplate getByName(String name) {
     return jasperTemplateRepository.findByName(name);
   }
@@ -87,16 +90,19 @@ public class JasperTemplateService {
     JasperTemplate templateTmp = jasperTemplateRepository.findByName(jasperTemplate.getName());
     if (templateTmp != null) {
       jasperTemplateRepository.deleteById(templateTmp.getId());
+      jasperReportCache.evict(templateTmp.getId());
     }
     validateFileAndSetData(jasperTemplate, file);
     saveWithParameters(jasperTemplate);
   }
 
   /**
-   * Insert template and template parameters to database.
+   * Insert template and template parameters to database. The compiled report created from the
+   * previous version of the template is removed from the cache.
    */
   public void saveWithParameters(JasperTemplate jasperTemplate) {
     jasperTemplateRepository.save(jasperTemplate);
+    jasperReportCache.evict(jasperTemplate.getId());
   }
 
   /**
@@ -24,10 +24,12 @@ import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
-import org.openlmis.requisition.domain.requisition.Requisition;
 import org.openlmis.requisition.domain.requisition.RequisitionPeriod;
 import org.openlmis.requisition.domain.requisition.RequisitionStatus;
 import org.openlmis.requisition.dto.ProcessingPeriodDto;
@@ -142,37 +144,48 @@ public class PeriodService {
           })
       );
     } else {
-      requisitionPeriods.addAll(periodDtos);
+      profiler.start("INDEX_REQUISITION_PERIODS");
+      Map<UUID, RequisitionPeriod> requisitionPeriodsById = indexByPeriod(requisitionIdStatusList);
+      Set<UUID> postAuthorizePeriodIds = requisitionIdStatusList.stream()
+          .filter(requisitionPeriod -> !requisitionPeriod.getRequisitionStatus().isPreAuthorize())
+          .map(RequisitionPeriod::getPeriodId)
+          .collect(Collectors.toSet());
+
+      profiler.start("BUILD_PERIODS_FOR_REGULAR_REQUISITIONS");
+      for (RequisitionPeriodDto requisitionPeriodDto : periodDtos) {
+        if (postAuthorizePeriodIds.contains(requisitionPeriodDto.getId())) {
+          continue;
+        }
 
-      profiler.start("GET_POSTAUTHORIZE_PERIODS_FOR_REGULAR_REQUISITIONS");
-      List<RequisitionPeriod> postAuthorizeRequisitionsPeriods = requisitionIdStatusList.stream()
-          .filter(requisitionPeriod ->  !requisitionPeriod.getRequisitionStatus().isPreAuthorize())
-          .collect(Collectors.toList());
+        RequisitionPeriod requisitionPeriod = requisitionPeriodsById
+            .get(requisitionPeriodDto.getId());
 
-      profiler.start("REMOVE_POSTAUTHORIZE_PERIODS_FROM_REQUISITION_PERIODS");
-      postAuthorizeRequisitionsPeriods.forEach(postAuthorizeRequisitionPeriod -> requisitionPeriods
-            .stream()
-            .filter(period -> period.getId().equals(postAuthorizeRequisitionPeriod.getPeriodId()))
-            .findFirst()
-            .ifPresent(requisitionPeriods::remove)
-      );
+        if (null != requisitionPeriod) {
+          setRequisitionPeriodStatusAndId(requisitionPeriodDto, requisitionPeriod);
+        }
 
-      profiler.start("SET_REQUISITION_ID_AND_STATUS_FOR_REQUISITION_PERIODS");
-      requisitionPeriods.forEach(requisitionPeriodDto -> requisitionIdStatusList
-          .stream()
-          .filter(requisitionPeriod ->
-              requisitionPeriod.getPeriodId().equals(requisitionPeriodDto.getId()))
-          .findFirst()
-          .ifPresent(requisitionPeriod -> setRequisitionPeriodStatusAndId(
-              requisitionPeriodDto, requisitionPeriod)
-          )
-      );
+        requisitionPeriods.add(requisitionPeriodDto);
+      }
     }
 
     profiler.stop().log();
     return requisitionPeriods;
   }
 
+  /**
+   * Finds regular requisitions for the given program and facility and indexes them by the ID
+   * of the period they were created for. Emergency requisitions are not included.
+   *
+   * @param programId  UUID of Program.
+   * @param facilityId UUID of Facility.
+   * @return a map of period IDs to requisition ID and status.
+   */
+  public Map<UUID, RequisitionPeriod> findRegularRequisitionPeriods(UUID programId,
+      UUID facilityId) {
+    return indexByPeriod(requisitionRepository
+        .searchRequisitionIdAndStatusPairs(facilityId, programId, false));
+  }
+
   /**
    * Find recent periods for the given period.
    *
@@ -264,15 +277,15 @@ public class PeriodService {
     Collection<ProcessingPeriodDto> periods = searchByProgramAndFacility(programId, facilityId);
 
     if (periods != null) {
+      Map<UUID, RequisitionPeriod> requisitionPeriods =
+          findRegularRequisitionPeriods(programId, facilityId);
       RequisitionStatus previousStatus = null;
 
       for (ProcessingPeriodDto dto : periods) {
-        // There is always maximum one regular requisition for given period, facility and program
-        List<Requisition> requisitions = requisitionRepository.searchRequisitions(
-            dto.getId(), facilityId, programId, false);
+        RequisitionPeriod requisitionPeriod = requisitionPeriods.get(dto.getId());
 
-        if (!requisitions.isEmpty()) {
-          previousStatus = requisitions.get(0).getStatus();
+        if (null != requisitionPeriod) {
+          previousStatus = requisitionPeriod.getRequisitionStatus();
         } else {
           if (null != previousStatus && previousStatus.isPreAuthorize()) {
             throw new ValidationMessageException(new Message(ERROR_FINISH_PROVIOUS_REQUISITION));
@@ -287,6 +300,15 @@ public class PeriodService {
     return result;
   }
 
+  private Map<UUID, RequisitionPeriod> indexByPeriod(
+      List<RequisitionPeriod> requisitionPeriods) {
+    Map<UUID, RequisitionPeriod> index = new HashMap<>();
+    requisitionPeriods.forEach(requisitionPeriod -> index
+        .putIfAbsent(requisitionPeriod.getPeriodId(), requisitionPeriod));
+
+    return index;
+  }
+
   private void setRequisitionPeriodStatusAndId(RequisitionPeriodDto requisitionPeriodDto,
       RequisitionPeriod requisitionPeriod) {
     requisitionPeriodDto.setRequisitionId(requisitionPeriod.getRequisitionId());
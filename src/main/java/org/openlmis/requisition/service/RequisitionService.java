@@ -17,6 +17,7 @@ package org.openlmis.requisition.service;
 
 import static java.util.Collections.emptyList;
 import static java.util.Objects.isNull;
+import static java.util.function.Function.identity;
 import static java.util.stream.Collectors.toList;
 import static java.util.stream.Collectors.toMap;
 import static java.util.stream.Collectors.toSet;
@@ -39,17 +40,21 @@ import static org.openlmis.requisition.service.PermissionService.ORDERS_EDIT;
 
 import com.google.common.collect.Sets;
 
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
-import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
 
 import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.apache.commons.lang3.tuple.Pair;
@@ -60,6 +65,7 @@ import org.openlmis.requisition.domain.requisition.ApprovedProductReference;
 import org.openlmis.requisition.domain.requisition.Requisition;
 import org.openlmis.requisition.domain.requisition.RequisitionBuilder;
 import org.openlmis.requisition.domain.requisition.RequisitionLineItem;
+import org.openlmis.requisition.domain.requisition.RequisitionPeriod;
 import org.openlmis.requisition.domain.requisition.RequisitionStatus;
 import org.openlmis.requisition.domain.requisition.StatusChange;
 import org.openlmis.requisition.domain.requisition.StatusMessage;
@@ -84,9 +90,12 @@ import org.openlmis.requisition.errorhandling.ValidationResult;
 import org.openlmis.requisition.exception.ContentNotFoundMessageException;
 import org.openlmis.requisition.exception.ValidationMessageException;
 import org.openlmis.requisition.i18n.MessageKeys;
+import org.openlmis.requisition.repository.AvailableProductSetRepository;
 import org.openlmis.requisition.repository.RejectionRepository;
 import org.openlmis.requisition.repository.RequisitionRepository;
 import org.openlmis.requisition.repository.StatusMessageRepository;
+import org.openlmis.requisition.repository.StockAdjustmentReasonRepository;
+import org.openlmis.requisition.repository.custom.RequisitionKeyset;
 import org.openlmis.requisition.repository.custom.RequisitionSearchParams;
 import org.openlmis.requisition.service.fulfillment.OrderFulfillmentService;
 import org.openlmis.requisition.service.referencedata.ApproveProductsAggregator;
@@ -98,8 +107,10 @@ import org.openlmis.requisition.service.referencedata.SupplyLineReferenceDataSer
 import org.openlmis.requisition.service.referencedata.UserFulfillmentFacilitiesReferenceDataService;
 import org.openlmis.requisition.service.referencedata.UserRoleAssignmentsReferenceDataService;
 import org.openlmis.requisition.service.stockmanagement.StockCardRangeSummaryStockManagementService;
+import org.openlmis.requisition.service.stockmanagement.StockOnHandRetriever;
 import org.openlmis.requisition.service.stockmanagement.StockOnHandRetrieverBuilderFactory;
 import org.openlmis.requisition.utils.AuthenticationHelper;
+import org.openlmis.requisition.utils.BoundedExecutor;
 import org.openlmis.requisition.utils.Message;
 import org.openlmis.requisition.utils.Pagination;
 import org.openlmis.requisition.web.OrderDtoBuilder;
@@ -108,9 +119,13 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.profiler.Profiler;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.i18n.LocaleContextHolder;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
@@ -129,6 +144,12 @@ public class RequisitionService {
   @Autowired
   private StatusMessageRepository statusMessageRepository;
 
+  @Autowired
+  private AvailableProductSetRepository availableProductSetRepository;
+
+  @Autowired
+  private StockAdjustmentReasonRepository stockAdjustmentReasonRepository;
+
   @Autowired
   private PeriodService periodService;
 
@@ -180,6 +201,10 @@ public class RequisitionService {
   @Autowired
   private ApprovalNotifier approvalNotifier;
 
+  @Autowired
+  @Qualifier("initiateExecutor")
+  private BoundedExecutor initiateExecutor;
+
   /**
    * Initiated given requisition if possible.
    *
@@ -215,70 +240,65 @@ public class RequisitionService {
       numberOfPreviousPeriodsToAverage--;
     }
 
-    profiler.start("FIND_STOCK_ON_HANDS");
-    Map<UUID, Integer> orderableSoh = stockOnHandRetrieverBuilderFactory
+    profiler.start("PREFETCH");
+    final boolean populateFromStockCards =
+            requisitionTemplate.isPopulateStockOnHandFromStockCards();
+    final int periodsToAverage = numberOfPreviousPeriodsToAverage;
+
+    StockOnHandRetriever sohRetriever = stockOnHandRetrieverBuilderFactory
             .getInstance(requisitionTemplate, RequisitionLineItem.STOCK_ON_HAND)
             .forProgram(program.getId())
             .forFacility(facility.getId())
             .forProducts(approvedProducts)
             .asOfDate(period.getEndDate())
-            .build()
-            .get();
+            .build();
+    final CompletableFuture<Map<UUID, Integer>> orderableSohFuture =
+            initiateExecutor.supplyAsync(sohRetriever::get);
 
-    profiler.start("FIND_BEGINNING_BALANCES");
-    Map<UUID, Integer> orderableBeginning = stockOnHandRetrieverBuilderFactory
+    StockOnHandRetriever beginningBalanceRetriever = stockOnHandRetrieverBuilderFactory
             .getInstance(requisitionTemplate, RequisitionLineItem.BEGINNING_BALANCE)
             .forProgram(program.getId())
             .forFacility(facility.getId())
             .forProducts(approvedProducts)
             .asOfDate(period.getStartDate().minusDays(1))
-            .build()
-            .get();
+            .build();
+    final CompletableFuture<Map<UUID, Integer>> orderableBeginningFuture =
+            initiateExecutor.supplyAsync(beginningBalanceRetriever::get);
+
+    final CompletableFuture<Map<UUID, Integer>> idealStockAmountsFuture = initiateExecutor
+            .supplyAsync(() -> idealStockAmountReferenceDataService
+                    .search(facility.getId(), period.getId())
+                    .stream()
+                    .collect(toMap(isa -> isa.getCommodityType().getId(),
+                            IdealStockAmountDto::getAmount)));
+
+    CompletableFuture<List<StockCardRangeSummaryDto>> stockCardRangeSummariesFuture =
+            CompletableFuture.completedFuture(null);
+    CompletableFuture<List<StockCardRangeSummaryDto>> stockCardRangeSummariesToAverageFuture =
+            CompletableFuture.completedFuture(null);
+    List<ProcessingPeriodDto> previousPeriods = null;
 
-    final StockData stockData = new StockData(orderableSoh, orderableBeginning);
+    if (populateFromStockCards) {
+      stockCardRangeSummariesFuture = searchStockCardRangeSummaries(program, facility,
+              approvedProducts, period.getStartDate(), period.getEndDate());
+      stockCardRangeSummariesToAverageFuture = stockCardRangeSummariesFuture;
 
-    profiler.start("FIND_IDEAL_STOCK_AMOUNTS");
-    final Map<UUID, Integer> idealStockAmounts = idealStockAmountReferenceDataService
-            .search(requisition.getFacilityId(), requisition.getProcessingPeriodId())
-            .stream()
-            .collect(toMap(isa -> isa.getCommodityType().getId(), IdealStockAmountDto::getAmount));
+      // the second search is submitted from this thread: a task that waits for the executor
+      // inside one of its own workers could block it when the queue is full
+      previousPeriods = periodService.findPreviousPeriods(period, periodsToAverage);
+      if (previousPeriods.size() > 1) {
+        stockCardRangeSummariesToAverageFuture = searchStockCardRangeSummaries(program,
+                facility, approvedProducts,
+                previousPeriods.get(previousPeriods.size() - 1).getStartDate(),
+                period.getEndDate());
+      }
+    }
 
     profiler.start("GET_PREV_REQUISITIONS_FOR_AVERAGING");
     List<Requisition> previousRequisitions =
             getRecentRegularRequisitions(requisition,
                     Math.max(numberOfPreviousPeriodsToAverage, 1));
 
-    List<StockCardRangeSummaryDto> stockCardRangeSummaryDtos = null;
-    List<StockCardRangeSummaryDto> stockCardRangeSummariesToAverage = null;
-    List<ProcessingPeriodDto> previousPeriods = null;
-    if (requisitionTemplate.isPopulateStockOnHandFromStockCards()) {
-      stockCardRangeSummaryDtos =
-              stockCardRangeSummaryStockManagementService
-                      .search(program.getId(), facility.getId(),
-                              approvedProducts.getOrderableIdentities(), null,
-                              period.getStartDate(), period.getEndDate());
-
-      profiler.start("GET_PREVIOUS_PERIODS");
-      previousPeriods = periodService
-              .findPreviousPeriods(period, numberOfPreviousPeriodsToAverage);
-
-      profiler.start("FIND_IDEAL_STOCK_AMOUNTS_FOR_AVERAGE");
-      if (previousPeriods.size() > 1) {
-        stockCardRangeSummariesToAverage =
-                stockCardRangeSummaryStockManagementService
-                        .search(program.getId(), facility.getId(),
-                                approvedProducts.getOrderableIdentities(), null,
-                                previousPeriods.get(previousPeriods.size() - 1).getStartDate(),
-                                period.getEndDate());
-      } else {
-        stockCardRangeSummariesToAverage = stockCardRangeSummaryDtos;
-      }
-
-      previousPeriods.add(period);
-    } else if (numberOfPreviousPeriodsToAverage > previousRequisitions.size()) {
-      numberOfPreviousPeriodsToAverage = previousRequisitions.size();
-    }
-
     profiler.start("GET_POD");
     ProofOfDeliveryDto pod = null;
 
@@ -286,6 +306,23 @@ public class RequisitionService {
       pod = proofOfDeliveryService.get(previousRequisitions.get(0));
     }
 
+    profiler.start("JOIN_PREFETCH");
+    final StockData stockData = new StockData(BoundedExecutor.join(orderableSohFuture),
+            BoundedExecutor.join(orderableBeginningFuture));
+    final Map<UUID, Integer> idealStockAmounts = BoundedExecutor.join(idealStockAmountsFuture);
+
+    List<StockCardRangeSummaryDto> stockCardRangeSummaryDtos =
+            BoundedExecutor.join(stockCardRangeSummariesFuture);
+    List<StockCardRangeSummaryDto> stockCardRangeSummariesToAverage = null;
+    if (populateFromStockCards) {
+      stockCardRangeSummariesToAverage =
+              BoundedExecutor.join(stockCardRangeSummariesToAverageFuture);
+
+      previousPeriods.add(period);
+    } else if (numberOfPreviousPeriodsToAverage > previousRequisitions.size()) {
+      numberOfPreviousPeriodsToAverage = previousRequisitions.size();
+    }
+
     profiler.start("INITIATE");
     requisition.initiate(requisitionTemplate, approvedProducts.getFullSupplyProducts(),
             previousRequisitions, numberOfPreviousPeriodsToAverage, pod, idealStockAmounts,
@@ -297,10 +334,13 @@ public class RequisitionService {
             ? approvedProducts.getApprovedProductReferences()
             : approvedProducts.getNonFullSupplyApprovedProductReferences();
 
-    requisition.setAvailableProducts(availableProductIdentities);
+    // facilities of the same type get the same products, so the set is usually stored already
+    requisition.setAvailableProductSet(
+        availableProductSetRepository.findOrCreate(availableProductIdentities));
 
     profiler.start("SET_STOCK_ADJ_REASONS");
-    requisition.setStockAdjustmentReasons(stockAdjustmentReasons);
+    requisition.setStockAdjustmentReasons(
+        stockAdjustmentReasonRepository.findOrCreateSnapshots(stockAdjustmentReasons));
 
     profiler.start("SAVE");
     requisitionRepository.save(requisition);
@@ -371,6 +411,26 @@ public class RequisitionService {
    * Finds requisitions matching all of the provided parameters.
    */
   public Page<Requisition> searchRequisitions(RequisitionSearchParams params, Pageable pageable) {
+    return searchRequisitions(params,
+        () -> Pagination.getPage(Collections.emptyList(), pageable),
+        (permissionStrings, programNodePairs) -> requisitionRepository
+            .searchRequisitions(params, permissionStrings, programNodePairs, pageable));
+  }
+
+  /**
+   * Finds at most {@code size} requisitions matching all of the provided parameters that were
+   * created after the given keyset. The total number of matching requisitions is not counted.
+   */
+  public Slice<Requisition> searchRequisitions(RequisitionSearchParams params,
+      RequisitionKeyset after, int size) {
+    return searchRequisitions(params,
+        () -> new SliceImpl<>(Collections.emptyList(), PageRequest.of(0, size), false),
+        (permissionStrings, programNodePairs) -> requisitionRepository
+            .searchRequisitions(params, permissionStrings, programNodePairs, after, size));
+  }
+
+  private <R> R searchRequisitions(RequisitionSearchParams params, Supplier<R> noResults,
+      BiFunction<List<String>, Set<Pair<UUID, UUID>>, R> search) {
     Profiler profiler = new Profiler("REQUISITION_SERVICE_SEARCH");
     profiler.setLogger(LOGGER);
     UserDto user = authenticationHelper.getCurrentUser();
@@ -401,13 +461,12 @@ public class RequisitionService {
 
       if (permissionStrings.isEmpty() && programNodePairs.isEmpty()) {
         profiler.stop().log();
-        return Pagination.getPage(Collections.emptyList(), pageable);
+        return noResults.get();
       }
     }
 
     profiler.start("REPOSITORY_SEARCH");
-    Page<Requisition> results = requisitionRepository
-            .searchRequisitions(params, permissionStrings, programNodePairs, pageable);
+    R results = search.apply(permissionStrings, programNodePairs);
 
     profiler.stop().log();
     return results;
@@ -426,14 +485,7 @@ public class RequisitionService {
 
     if (!CollectionUtils.isEmpty(user.getRoleAssignments())) {
       profiler.start("GET_PROGRAM_AND_NODE_IDS_FROM_ROLE_ASSIGNMENTS");
-      Set<Pair<UUID, UUID>> programNodePairs = user
-              .getRoleAssignments()
-              .stream()
-              .filter(item -> Objects.nonNull(item.getSupervisoryNodeId()))
-              .filter(item -> Objects.nonNull(item.getProgramId()))
-              .filter(item -> null == programId || programId.equals(item.getProgramId()))
-              .map(item -> new ImmutablePair<>(item.getProgramId(), item.getSupervisoryNodeId()))
-              .collect(toSet());
+      Set<Pair<UUID, UUID>> programNodePairs = getProgramNodePairs(user, programId);
 
       profiler.start("REQUISITION_REPOSITORY_SEARCH_APPROVABLE_BY_PAIRS");
       requisitionsForApproval = requisitionRepository
@@ -445,6 +497,43 @@ public class RequisitionService {
     return requisitionsForApproval;
   }
 
+  /**
+   * Get at most {@code size} requisitions to approve for the specified user that were created
+   * after the given keyset. The total number of such requisitions is not counted.
+   */
+  public Slice<Requisition> getRequisitionsForApproval(UserDto user, UUID programId,
+                                                       RequisitionKeyset after, int size) {
+    Profiler profiler = new Profiler("REQUISITION_SERVICE_GET_FOR_APPROVAL_KEYSET");
+    profiler.setLogger(LOGGER);
+
+    Slice<Requisition> requisitionsForApproval =
+            new SliceImpl<>(Collections.emptyList(), PageRequest.of(0, size), false);
+
+    if (!CollectionUtils.isEmpty(user.getRoleAssignments())) {
+      profiler.start("GET_PROGRAM_AND_NODE_IDS_FROM_ROLE_ASSIGNMENTS");
+      Set<Pair<UUID, UUID>> programNodePairs = getProgramNodePairs(user, programId);
+
+      profiler.start("REQUISITION_REPOSITORY_SEARCH_APPROVABLE_BY_PAIRS");
+      requisitionsForApproval = requisitionRepository
+              .searchApprovableRequisitionsByProgramSupervisoryNodePairs(programNodePairs,
+                      after, size);
+    }
+
+    profiler.stop().log();
+    return requisitionsForApproval;
+  }
+
+  private Set<Pair<UUID, UUID>> getProgramNodePairs(UserDto user, UUID programId) {
+    return user
+            .getRoleAssignments()
+            .stream()
+            .filter(item -> Objects.nonNull(item.getSupervisoryNodeId()))
+            .filter(item -> Objects.nonNull(item.getProgramId()))
+            .filter(item -> null == programId || programId.equals(item.getProgramId()))
+            .map(item -> new ImmutablePair<>(item.getProgramId(), item.getSupervisoryNodeId()))
+            .collect(toSet());
+  }
+
   /**
    * Performs several validation checks to ensure that the given requisition can be approved.
    * It makes sure that the user has got rights to approve the requisition, that the requisition
@@ -539,21 +628,27 @@ public class RequisitionService {
             .getFulfillmentFacilities(user.getId(), right.getId()).stream().map(FacilityDto::getId)
             .collect(toSet());
 
+    profiler.start("FIND_REQUISITIONS");
+    Map<UUID, Requisition> requisitions = findRequisitionsToRelease(convertToOrderDtos);
+    UUID currentUserId = authenticationHelper.getCurrentUser().getId();
+    Map<Pair<UUID, UUID>, Set<UUID>> supplyingDepots = new HashMap<>();
+
     profiler.start("RELEASE");
     for (ReleasableRequisitionDto convertToOrderDto : convertToOrderDtos) {
-      UUID requisitionId = convertToOrderDto.getRequisitionId();
-      Requisition loadedRequisition = requisitionRepository.findById(requisitionId)
-              .orElseThrow(() -> new ContentNotFoundMessageException(ERROR_REQUISITION_NOT_FOUND,
-                      requisitionId));
+      Requisition loadedRequisition = getRequisitionToRelease(requisitions,
+              convertToOrderDto.getRequisitionId());
       isEligibleForConvertToOrder(loadedRequisition).throwExceptionIfHasErrors();
-      loadedRequisition.release(authenticationHelper.getCurrentUser().getId());
+      loadedRequisition.release(currentUserId);
 
       UUID facilityId = convertToOrderDto.getSupplyingDepotId();
-      Set<UUID> validFacilities = requisitionForConvertBuilder
-              .getAvailableSupplyingDepots(requisitionId).stream()
-              .filter(f -> isLocallyFulfilled
-                      || userFacilities.contains(f.getId())).map(FacilityDto::getId)
-              .collect(toSet());
+      Pair<UUID, UUID> programNode = Pair.of(loadedRequisition.getProgramId(),
+              loadedRequisition.getSupervisoryNodeId());
+      Set<UUID> validFacilities = supplyingDepots.computeIfAbsent(programNode, key ->
+              requisitionForConvertBuilder
+                      .getAvailableSupplyingDepots(key.getLeft(), key.getRight()).stream()
+                      .filter(f -> isLocallyFulfilled
+                              || userFacilities.contains(f.getId())).map(FacilityDto::getId)
+                      .collect(toSet()));
 
       if (validFacilities.contains(facilityId)) {
         loadedRequisition.setSupplyingFacilityId(facilityId);
@@ -583,14 +678,16 @@ public class RequisitionService {
 
     List<Requisition> releasedRequisitions = new ArrayList<>();
 
+    profiler.start("FIND_REQUISITIONS");
+    Map<UUID, Requisition> requisitions = findRequisitionsToRelease(releaseWithoutOrderDtos);
+    UUID currentUserId = authenticationHelper.getCurrentUser().getId();
+
     profiler.start("RELEASE_WITHOUT_ORDER");
     for (ReleasableRequisitionDto convertToOrderDto : releaseWithoutOrderDtos) {
-      UUID requisitionId = convertToOrderDto.getRequisitionId();
-      Requisition loadedRequisition = requisitionRepository.findById(requisitionId)
-              .orElseThrow(() -> new ContentNotFoundMessageException(ERROR_REQUISITION_NOT_FOUND,
-                      requisitionId));
+      Requisition loadedRequisition = getRequisitionToRelease(requisitions,
+              convertToOrderDto.getRequisitionId());
       validateIfEligibleForReleasingWithoutOrder(loadedRequisition).throwExceptionIfHasErrors();
-      loadedRequisition.releaseWithoutOrder(authenticationHelper.getCurrentUser().getId());
+      loadedRequisition.releaseWithoutOrder(currentUserId);
       releasedRequisitions.add(loadedRequisition);
     }
 
@@ -598,6 +695,30 @@ public class RequisitionService {
     return releasedRequisitions;
   }
 
+  private Map<UUID, Requisition> findRequisitionsToRelease(
+          List<ReleasableRequisitionDto> releasableRequisitionDtos) {
+    Set<UUID> requisitionIds = releasableRequisitionDtos
+            .stream()
+            .map(ReleasableRequisitionDto::getRequisitionId)
+            .collect(toSet());
+
+    return requisitionRepository
+            .findAllById(requisitionIds)
+            .stream()
+            .collect(toMap(Requisition::getId, identity()));
+  }
+
+  private Requisition getRequisitionToRelease(Map<UUID, Requisition> requisitions,
+          UUID requisitionId) {
+    Requisition requisition = requisitions.get(requisitionId);
+
+    if (null == requisition) {
+      throw new ContentNotFoundMessageException(ERROR_REQUISITION_NOT_FOUND, requisitionId);
+    }
+
+    return requisition;
+  }
+
   /**
    * Get approved requisitions matching all of provided parameters.
    *
@@ -703,13 +824,9 @@ public class RequisitionService {
    */
   @Transactional(propagation = Propagation.REQUIRES_NEW)
   public List<OrderDto> buildOrders(List<Requisition> releasedRequisitions, UserDto user) {
-    List<OrderDto> orders = new ArrayList<>();
-    for (Requisition requisition : releasedRequisitions) {
-      orders.add(orderDtoBuilder.build(requisition, user));
+    List<OrderDto> orders = orderDtoBuilder.build(releasedRequisitions, user);
 
-      requisitionRepository.save(requisition);
-      requisitionStatusProcessor.statusChange(requisition, LocaleContextHolder.getLocale());
-    }
+    saveReleasedRequisitions(releasedRequisitions);
     return orders;
   }
 
@@ -723,14 +840,23 @@ public class RequisitionService {
     profiler.start("RELEASE_REQUISITIONS_WITHOUT_ORDER");
     List<Requisition> releasedRequisitions = releaseRequisitionsWithoutOrder(list);
 
-    for (Requisition requisition : releasedRequisitions) {
-      requisitionRepository.save(requisition);
-      requisitionStatusProcessor.statusChange(requisition, LocaleContextHolder.getLocale());
-    }
+    profiler.start("SAVE_RELEASED_REQUISITIONS");
+    saveReleasedRequisitions(releasedRequisitions);
+
     profiler.stop().log();
     return releasedRequisitions;
   }
 
+  private void saveReleasedRequisitions(List<Requisition> releasedRequisitions) {
+    // all updates are flushed together, so they are sent to the database in JDBC batches
+    requisitionRepository.saveAll(releasedRequisitions);
+
+    Locale locale = LocaleContextHolder.getLocale();
+    for (Requisition requisition : releasedRequisitions) {
+      requisitionStatusProcessor.statusChange(requisition, locale);
+    }
+  }
+
   /**
    * Saves status message of a requisition if its draft is not empty.
    */
@@ -773,32 +899,34 @@ public class RequisitionService {
   }
 
   private boolean isRequisitionNewest(Requisition requisition) {
-    Requisition recentRequisition = findRecentRegularRequisition(
+    UUID recentRequisitionId = findRecentRegularRequisitionId(
             requisition.getProgramId(), requisition.getFacilityId()
     );
-    return null == recentRequisition || requisition.getId().equals(recentRequisition.getId());
+    return null == recentRequisitionId || requisition.getId().equals(recentRequisitionId);
   }
 
   /**
-   * Returns requisition associated with the most recent period for given program and facility.
+   * Returns ID of requisition associated with the most recent period for given program and
+   * facility.
    *
    * @param programId  Program for Requisition
    * @param facilityId Facility for Requisition
-   * @return Requisition.
+   * @return UUID of Requisition.
    */
-  private Requisition findRecentRegularRequisition(UUID programId, UUID facilityId) {
-    Requisition result = null;
+  private UUID findRecentRegularRequisitionId(UUID programId, UUID facilityId) {
+    UUID result = null;
     Collection<ProcessingPeriodDto> periods =
             periodService.searchByProgramAndFacility(programId, facilityId);
 
     if (periods != null) {
+      Map<UUID, RequisitionPeriod> requisitionPeriods =
+          periodService.findRegularRequisitionPeriods(programId, facilityId);
+
       for (ProcessingPeriodDto dto : periods) {
-        // There is always maximum one regular requisition for given period, facility and program
-        List<Requisition> requisitions = requisitionRepository.searchRequisitions(
-                dto.getId(), facilityId, programId, false);
+        RequisitionPeriod requisitionPeriod = requisitionPeriods.get(dto.getId());
 
-        if (!requisitions.isEmpty()) {
-          result = requisitions.get(0);
+        if (null != requisitionPeriod) {
+          result = requisitionPeriod.getRequisitionId();
         } else {
           break;
         }
@@ -831,23 +959,35 @@ public class RequisitionService {
     return requisition.getTemplate().isColumnInTemplateAndDisplayed(APPROVED_QUANTITY);
   }
 
+  private CompletableFuture<List<StockCardRangeSummaryDto>> searchStockCardRangeSummaries(
+      ProgramDto program, FacilityDto facility, ApproveProductsAggregator approvedProducts,
+      LocalDate startDate, LocalDate endDate) {
+    return initiateExecutor.supplyAsync(() -> stockCardRangeSummaryStockManagementService
+        .search(program.getId(), facility.getId(), approvedProducts.getOrderableIdentities(),
+            null, startDate, endDate));
+  }
+
   private List<Requisition> getRecentRegularRequisitions(Requisition requisition, int amount) {
     List<ProcessingPeriodDto> previousPeriods =
             periodService.findPreviousPeriods(requisition.getProcessingPeriodId(), amount);
 
-    List<Requisition> recentRequisitions = new ArrayList<>();
-    for (ProcessingPeriodDto period : previousPeriods) {
-      Optional<Requisition> requisitionByPeriod =
-          getRegularRequisitionByPeriod(requisition, period);
-      requisitionByPeriod.ifPresent(recentRequisitions::add);
+    if (isEmpty(previousPeriods)) {
+      return new ArrayList<>();
     }
-    return recentRequisitions;
-  }
 
-  private Optional<Requisition> getRegularRequisitionByPeriod(Requisition requisition,
-                                                           ProcessingPeriodDto period) {
-    return requisitionRepository.findRegularRequisition(
-            period.getId(), requisition.getFacilityId(), requisition.getProgramId());
+    Map<UUID, Requisition> requisitionsByPeriod = requisitionRepository
+        .findRegularRequisitions(
+            previousPeriods.stream().map(ProcessingPeriodDto::getId).collect(toList()),
+            requisition.getFacilityId(), requisition.getProgramId())
+        .stream()
+        .collect(toMap(Requisition::getProcessingPeriodId, identity(), (first, second) -> first));
+
+    // keep the order of periods, the most recent one first
+    return previousPeriods
+        .stream()
+        .map(period -> requisitionsByPeriod.get(period.getId()))
+        .filter(Objects::nonNull)
+        .collect(toList());
   }
 
   private void saveRejectionReason(Requisition requisition, List<RejectionDto> rejections) {
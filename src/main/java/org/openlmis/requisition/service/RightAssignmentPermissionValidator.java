@@ -15,9 +15,11 @@
 
 package org.openlmis.requisition.service;
 
+import java.util.UUID;
 import org.openlmis.requisition.dto.ResultDto;
 import org.openlmis.requisition.dto.RightDto;
 import org.openlmis.requisition.dto.UserDto;
+import org.openlmis.requisition.service.referencedata.PermissionStrings;
 import org.openlmis.requisition.service.referencedata.UserReferenceDataService;
 import org.openlmis.requisition.utils.AuthenticationHelper;
 import org.slf4j.profiler.Profiler;
@@ -33,11 +35,27 @@ class RightAssignmentPermissionValidator extends BasePermissionValidator {
   @Autowired
   private UserReferenceDataService userReferenceDataService;
 
+  @Autowired
+  private PermissionStrings permissionStrings;
+
   @Override
   boolean checkUserToken(PermissionValidationDetails details, Profiler profiler) {
     profiler.start("GET_CURRENT_USER");
     UserDto user = authenticationHelper.getCurrentUser();
 
+    profiler.start("CHECK_PERMISSION_STRINGS");
+    // the local snapshot can be as old as the revalidation interval: a right revoked within that
+    // time is still granted, and a right assigned within that time is missing, so a permission
+    // that is not in the snapshot is checked with the reference data service
+    UUID facilityId = null == details.getWarehouseId()
+        ? details.getFacilityId()
+        : details.getWarehouseId();
+
+    if (permissionStrings.forUser(user.getId())
+        .hasPermission(details.getRightName(), facilityId, details.getProgramId())) {
+      return true;
+    }
+
     profiler.start("GET_RIGHT");
     RightDto right = authenticationHelper.getRight(details.getRightName());
 
@@ -0,0 +1,136 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.requisition.service.cache;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Results of remote lookups made while handling a single request. The context is bound to the
+ * thread that handles the request and is passed on to asynchronous tasks started by it, so the
+ * same resource is retrieved from a remote service only once per request. Lookups made outside
+ * of a context are not memoized. Results are memoized as snapshots that hand out copies, so
+ * callers that modify them do not affect each other.
+ */
+public final class LookupContext {
+  private static final ThreadLocal<LookupContext> CURRENT = new ThreadLocal<>();
+
+  private final Map<Object, Optional<Supplier<?>>> results = new ConcurrentHashMap<>();
+  private final AtomicInteger savedCalls = new AtomicInteger();
+
+  /**
+   * Creates a new context and binds it to the current thread.
+   */
+  public static LookupContext open() {
+    LookupContext context = new LookupContext();
+    CURRENT.set(context);
+
+    return context;
+  }
+
+  /**
+   * Unbinds context from the current thread. Tasks that received the context keep using it.
+   */
+  public static void close() {
+    CURRENT.remove();
+  }
+
+  /**
+   * Returns context bound to the current thread or {@code null} if there is none.
+   */
+  public static LookupContext current() {
+    return CURRENT.get();
+  }
+
+  /**
+   * Returns result of the lookup with the given key. If the current thread has a context and the
+   * lookup was already made in it, a copy of the memoized result is returned without calling the
+   * loader. Otherwise the loaded result itself is returned and its snapshot is memoized.
+   *
+   * @param key      key that identifies the lookup, it must implement equals and hashCode.
+   * @param loader   function that makes the lookup, it may return {@code null}.
+   * @param snapshot function that captures state of a non-null result and returns supplier of
+   *                 its deep copies.
+   * @return result of the lookup.
+   */
+  public static <R> R lookup(Object key, Supplier<R> loader,
+      Function<R, Supplier<R>> snapshot) {
+    LookupContext context = CURRENT.get();
+
+    return null == context ? loader.get() : context.get(key, loader, snapshot);
+  }
+
+  /**
+   * Wraps the given task so it is executed with context of the current thread. The task is
+   * returned unchanged if there is no context.
+   */
+  public static Runnable propagate(Runnable task) {
+    LookupContext context = CURRENT.get();
+
+    if (null == context) {
+      return task;
+    }
+
+    return () -> {
+      LookupContext previous = CURRENT.get();
+      CURRENT.set(context);
+
+      try {
+        task.run();
+      } finally {
+        if (null == previous) {
+          CURRENT.remove();
+        } else {
+          CURRENT.set(previous);
+        }
+      }
+    };
+  }
+
+  /**
+   * Returns number of remote calls that were not made because their results were memoized.
+   */
+  public int getSavedCalls() {
+    return savedCalls.get();
+  }
+
+  /**
+   * Returns number of memoized results.
+   */
+  public int size() {
+    return results.size();
+  }
+
+  @SuppressWarnings("unchecked")
+  <R> R get(Object key, Supplier<R> loader, Function<R, Supplier<R>> snapshot) {
+    Optional<Supplier<?>> result = results.get(key);
+
+    if (null != result) {
+      savedCalls.incrementAndGet();
+      return result.map(copies -> (R) copies.get()).orElse(null);
+    }
+
+    // the loader is called outside of the map so lookups made by it can use the context too
+    R value = loader.get();
+    results.putIfAbsent(key, Optional.ofNullable(null == value ? null : snapshot.apply(value)));
+
+    return value;
+  }
+}
@@ -0,0 +1,113 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.requisition.service.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps cached resources in Redis so they can be shared between service instances. Each resource
+ * is stored as a hash with the resource serialized to JSON, its entity tag and the fetch time.
+ */
+@Component
+@ConditionalOnProperty(name = "referencedata.cache.redis.enabled", havingValue = "true")
+public class RedisResourceCacheStore implements ResourceCacheStore {
+  private static final Logger LOGGER = LoggerFactory.getLogger(RedisResourceCacheStore.class);
+
+  private static final String KEY_PREFIX = "REFERENCE_DATA_CACHE:";
+  private static final String VALUE = "value";
+  private static final String ETAG = "etag";
+  private static final String FETCHED_AT = "fetchedAt";
+
+  private final RedisTemplate<String, String> redisTemplate;
+  private final ObjectMapper objectMapper;
+
+  @Value("${referencedata.cache.redis.timeToLive}")
+  private long timeToLive;
+
+  @Autowired
+  public RedisResourceCacheStore(RedisTemplate<String, String> redisTemplate,
+      ObjectMapper objectMapper) {
+    this.redisTemplate = redisTemplate;
+    this.objectMapper = objectMapper;
+  }
+
+  @Override
+  public <T> CachedResource<T> get(String region, String key, Class<T> type) {
+    try {
+      Map<String, String> hash = hashOperations().entries(buildKey(region, key));
+
+      if (null == hash || !hash.containsKey(VALUE)) {
+        return null;
+      }
+
+      return new CachedResource<>(objectMapper.readValue(hash.get(VALUE), type),
+          hash.get(ETAG), Long.parseLong(hash.get(FETCHED_AT)));
+    } catch (DataAccessException | IOException | NumberFormatException ex) {
+      LOGGER.warn("Could not read {} from the shared cache", buildKey(region, key), ex);
+      return null;
+    }
+  }
+
+  @Override
+  public <T> void put(String region, String key, CachedResource<T> resource) {
+    String redisKey = buildKey(region, key);
+
+    try {
+      Map<String, String> hash = new HashMap<>();
+      hash.put(VALUE, objectMapper.writeValueAsString(resource.getValue()));
+      hash.put(FETCHED_AT, String.valueOf(resource.getFetchedAt()));
+
+      if (null != resource.getEtag()) {
+        hash.put(ETAG, resource.getEtag());
+      }
+
+      hashOperations().putAll(redisKey, hash);
+      redisTemplate.expire(redisKey, timeToLive, TimeUnit.SECONDS);
+    } catch (DataAccessException | IOException ex) {
+      LOGGER.warn("Could not write {} to the shared cache", redisKey, ex);
+    }
+  }
+
+  @Override
+  public void evict(String region, String key) {
+    try {
+      redisTemplate.delete(buildKey(region, key));
+    } catch (DataAccessException ex) {
+      LOGGER.warn("Could not remove {} from the shared cache", buildKey(region, key), ex);
+    }
+  }
+
+  private HashOperations<String, String, String> hashOperations() {
+    return redisTemplate.opsForHash();
+  }
+
+  private String buildKey(String region, String key) {
+    return KEY_PREFIX + region + ':' + key;
+  }
+}
@@ -0,0 +1,187 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.requisition.service.cache;
+
+import java.time.Clock;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+import org.openlmis.requisition.service.ServiceResponse;
+
+/**
+ * Bounded, least recently used cache of resources retrieved from a single remote endpoint.
+ * Entries are fresh for the configured time to live. When an entry becomes stale it is
+ * revalidated with its entity tag so the remote service can answer with 304 (Not Modified)
+ * instead of sending the whole resource again. An optional {@link ResourceCacheStore} is used as
+ * a second level shared between service instances. Cached resources are never handed out
+ * directly, every caller receives its own copy.
+ */
+public class ResourceCache<T> {
+  private final String region;
+  private final Class<T> type;
+  private final UnaryOperator<T> copier;
+  private final long timeToLive;
+  private final Clock clock;
+  private final ResourceCacheStore store;
+  private final ResourceCacheStatistics statistics = new ResourceCacheStatistics();
+  private final Map<String, CachedResource<T>> entries;
+
+  /**
+   * Creates a new cache.
+   *
+   * @param region     name of the cache, used as a key prefix in the second level store.
+   * @param type       type of cached resources.
+   * @param maxSize    maximum number of entries held in memory.
+   * @param timeToLive time (in milliseconds) for which an entry is used without revalidation.
+   * @param clock      clock used to check freshness of entries.
+   * @param store      optional second level store, may be {@code null}.
+   */
+  public ResourceCache(String region, Class<T> type, int maxSize, long timeToLive, Clock clock,
+      ResourceCacheStore store) {
+    this.region = region;
+    this.type = type;
+    this.copier = ResourceCopier.of(type);
+    this.timeToLive = timeToLive;
+    this.clock = clock;
+    this.store = store;
+    this.entries = new LinkedHashMap<String, CachedResource<T>>(16, 0.75F, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, CachedResource<T>> eldest) {
+        boolean remove = size() > maxSize;
+
+        if (remove) {
+          statistics.recordEviction();
+        }
+
+        return remove;
+      }
+    };
+  }
+
+  /**
+   * Returns resource with the given key. A fresh entry is returned without calling the loader.
+   * Otherwise the loader is called with the entity tag of the stale entry (or {@code null} if
+   * there is no entry) and should return response from the remote service or {@code null} if the
+   * resource does not exist.
+   *
+   * @param key    key of the resource.
+   * @param loader function that retrieves the resource from the remote service.
+   * @return copy of the resource or {@code null} if it does not exist.
+   */
+  public T get(String key, Function<String, ServiceResponse<T>> loader) {
+    CachedResource<T> cached = lookup(key);
+    long now = clock.millis();
+
+    if (null != cached && cached.isFresh(now, timeToLive)) {
+      statistics.recordHit();
+      return copier.apply(cached.getValue());
+    }
+
+    ServiceResponse<T> response = loader.apply(null == cached ? null : cached.getEtag());
+
+    if (null == response) {
+      evict(key);
+      statistics.recordMiss();
+      return null;
+    }
+
+    if (null != cached && !response.isModified()) {
+      put(key, cached.revalidated(now));
+      statistics.recordRevalidation();
+      return copier.apply(cached.getValue());
+    }
+
+    statistics.recordMiss();
+
+    if (null == response.getBody()) {
+      return null;
+    }
+
+    put(key, new CachedResource<>(response.getBody(), response.getETag(), now));
+
+    return copier.apply(response.getBody());
+  }
+
+  /**
+   * Removes resource with the given key from both cache levels.
+   */
+  public void evict(String key) {
+    synchronized (entries) {
+      entries.remove(key);
+    }
+
+    if (null != store) {
+      store.evict(region, key);
+    }
+  }
+
+  /**
+   * Removes all resources held in memory.
+   */
+  public void clear() {
+    synchronized (entries) {
+      entries.clear();
+    }
+  }
+
+  /**
+   * Returns number of resources held in memory.
+   */
+  public int size() {
+    synchronized (entries) {
+      return entries.size();
+    }
+  }
+
+  public String getRegion() {
+    return region;
+  }
+
+  public ResourceCacheStatistics getStatistics() {
+    return statistics;
+  }
+
+  private CachedResource<T> lookup(String key) {
+    CachedResource<T> cached;
+
+    synchronized (entries) {
+      cached = entries.get(key);
+    }
+
+    if (null == cached && null != store) {
+      cached = store.get(region, key, type);
+
+      if (null != cached) {
+        synchronized (entries) {
+          entries.put(key, cached);
+        }
+      }
+    }
+
+    return cached;
+  }
+
+  private void put(String key, CachedResource<T> resource) {
+    synchronized (entries) {
+      entries.put(key, resource);
+    }
+
+    if (null != store) {
+      store.put(region, key, resource);
+    }
+  }
+}
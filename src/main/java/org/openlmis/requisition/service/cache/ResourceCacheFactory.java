@@ -0,0 +1,117 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.requisition.service.cache;
+
+import java.time.Clock;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToLongFunction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Creates {@link ResourceCache} instances for communication services. Each region (resource
+ * type) gets its own cache so the size bound and time to live can be set separately with the
+ * {@code referencedata.cache.<region>.maxSize} and {@code referencedata.cache.<region>.timeToLive}
+ * properties. Global defaults are used when those properties are not set. Caches of immutable
+ * resources are bounded by the {@code referencedata.cache.<region>.maxMemory} property.
+ */
+@Component
+public class ResourceCacheFactory {
+  private static final Logger LOGGER = LoggerFactory.getLogger(ResourceCacheFactory.class);
+  private static final String PROPERTY_PREFIX = "referencedata.cache.";
+
+  @Value("${referencedata.cache.enabled}")
+  private boolean enabled;
+
+  @Value("${referencedata.cache.maxSize}")
+  private int maxSize;
+
+  @Value("${referencedata.cache.timeToLive}")
+  private long timeToLive;
+
+  @Autowired
+  private Environment environment;
+
+  @Autowired
+  private Clock clock;
+
+  @Autowired(required = false)
+  private ResourceCacheStore store;
+
+  private final Map<String, ResourceCache<?>> caches = new ConcurrentHashMap<>();
+  private final Map<String, WeightedResourceCache<?, ?>> weightedCaches =
+      new ConcurrentHashMap<>();
+
+  /**
+   * Returns cache for the given region or {@code null} if caching is disabled.
+   *
+   * @param region name of the cache.
+   * @param type   type of cached resources.
+   * @return cache for the given region.
+   */
+  @SuppressWarnings("unchecked")
+  public <T> ResourceCache<T> getCache(String region, Class<T> type) {
+    if (!enabled) {
+      return null;
+    }
+
+    return (ResourceCache<T>) caches.computeIfAbsent(region, key -> new ResourceCache<>(
+        key, type,
+        environment.getProperty(PROPERTY_PREFIX + key + ".maxSize", Integer.class, maxSize),
+        TimeUnit.SECONDS.toMillis(environment.getProperty(
+            PROPERTY_PREFIX + key + ".timeToLive", Long.class, timeToLive)),
+        clock, store));
+  }
+
+  /**
+   * Returns cache of immutable resources for the given region or {@code null} if caching is
+   * disabled.
+   *
+   * @param region  name of the cache.
+   * @param weigher function that estimates size (in bytes) of a single resource.
+   * @return cache for the given region.
+   */
+  @SuppressWarnings("unchecked")
+  public <K, V> WeightedResourceCache<K, V> getWeightedCache(String region,
+      ToLongFunction<V> weigher) {
+    if (!enabled) {
+      return null;
+    }
+
+    return (WeightedResourceCache<K, V>) weightedCaches.computeIfAbsent(region,
+        key -> new WeightedResourceCache<>(key,
+            environment.getRequiredProperty(PROPERTY_PREFIX + key + ".maxMemory", Long.class),
+            weigher));
+  }
+
+  /**
+   * Logs statistics of all caches.
+   */
+  @Scheduled(fixedDelayString = "${referencedata.cache.statistics.logInterval}")
+  public void logStatistics() {
+    caches.values().forEach(cache -> LOGGER.info("Cache {} (size: {}): {}",
+        cache.getRegion(), cache.size(), cache.getStatistics()));
+    weightedCaches.values().forEach(cache -> LOGGER.info("Cache {} (size: {}, memory: {}): {}",
+        cache.getRegion(), cache.size(), cache.getWeight(), cache.getStatistics()));
+  }
+}
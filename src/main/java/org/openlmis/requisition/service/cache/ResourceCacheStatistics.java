@@ -0,0 +1,62 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.requisition.service.cache;
+
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.ToString;
+
+/**
+ * Counters describing how effective a single {@link ResourceCache} is.
+ */
+@ToString
+public final class ResourceCacheStatistics {
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+  private final AtomicLong revalidations = new AtomicLong();
+  private final AtomicLong evictions = new AtomicLong();
+
+  public long getHits() {
+    return hits.get();
+  }
+
+  public long getMisses() {
+    return misses.get();
+  }
+
+  public long getRevalidations() {
+    return revalidations.get();
+  }
+
+  public long getEvictions() {
+    return evictions.get();
+  }
+
+  void recordHit() {
+    hits.incrementAndGet();
+  }
+
+  void recordMiss() {
+    misses.incrementAndGet();
+  }
+
+  void recordRevalidation() {
+    revalidations.incrementAndGet();
+  }
+
+  void recordEviction() {
+    evictions.incrementAndGet();
+  }
+}
@@ -0,0 +1,125 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.requisition.service.cache;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Creates deep copies of resources retrieved from remote services. Resources are copied by
+ * writing them to JSON and reading them back, so cached or memoized resources can be handed out
+ * to callers that modify them. Dates keep their time zones, so copies are equal to originals.
+ */
+public final class ResourceCopier {
+  private static final ObjectMapper MAPPER = Jackson2ObjectMapperBuilder
+      .json()
+      .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS,
+          DeserializationFeature.ADJUST_DATES_TO_CONTEXT_TIME_ZONE)
+      .featuresToEnable(SerializationFeature.WRITE_DATES_WITH_ZONE_ID)
+      .build();
+
+  private ResourceCopier() {
+    throw new UnsupportedOperationException();
+  }
+
+  /**
+   * Returns function that creates deep copies of resources of the given type. The function
+   * returns {@code null} for {@code null} resources.
+   *
+   * @param type type of copied resources, it may be a parameterized type.
+   * @return function that copies resources.
+   */
+  public static <T> UnaryOperator<T> of(Type type) {
+    JavaType javaType = MAPPER.getTypeFactory().constructType(type);
+
+    return value -> copy(value, javaType);
+  }
+
+  /**
+   * Returns function that creates deep copies of lists of resources of the given type. The
+   * function returns {@code null} for {@code null} lists.
+   *
+   * @param elementType type of resources in copied lists.
+   * @return function that copies lists of resources.
+   */
+  public static <T> UnaryOperator<List<T>> ofList(Class<T> elementType) {
+    JavaType javaType = MAPPER.getTypeFactory().constructCollectionType(List.class, elementType);
+
+    return value -> copy(value, javaType);
+  }
+
+  /**
+   * Returns function that writes a resource of the given type to JSON once and returns supplier
+   * of its deep copies, so the resource can be copied many times at the cost of reading only.
+   *
+   * @param type type of copied resources, it may be a parameterized type.
+   * @return function that creates snapshots of non-null resources.
+   */
+  public static <T> Function<T, Supplier<T>> snapshotOf(Type type) {
+    JavaType javaType = MAPPER.getTypeFactory().constructType(type);
+
+    return value -> snapshot(value, javaType);
+  }
+
+  /**
+   * Returns function that writes a list of resources of the given type to JSON once and returns
+   * supplier of its deep copies.
+   *
+   * @param elementType type of resources in copied lists.
+   * @return function that creates snapshots of non-null lists of resources.
+   */
+  public static <T> Function<List<T>, Supplier<List<T>>> snapshotOfList(Class<T> elementType) {
+    JavaType javaType = MAPPER.getTypeFactory().constructCollectionType(List.class, elementType);
+
+    return value -> snapshot(value, javaType);
+  }
+
+  private static <T> Supplier<T> snapshot(T value, JavaType type) {
+    byte[] json = write(value, type);
+
+    return () -> read(json, type);
+  }
+
+  private static <T> T copy(T value, JavaType type) {
+    return null == value ? null : read(write(value, type), type);
+  }
+
+  private static byte[] write(Object value, JavaType type) {
+    try {
+      return MAPPER.writeValueAsBytes(value);
+    } catch (IOException ex) {
+      throw new UncheckedIOException("Could not copy " + type, ex);
+    }
+  }
+
+  private static <T> T read(byte[] json, JavaType type) {
+    try {
+      return MAPPER.readValue(json, type);
+    } catch (IOException ex) {
+      throw new UncheckedIOException("Could not copy " + type, ex);
+    }
+  }
+}
@@ -0,0 +1,133 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.requisition.service.cache;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.ToLongFunction;
+
+/**
+ * Cache of immutable resources, for example specific versions of orderables. Entries never
+ * expire, but the total estimated size of held resources is bounded - the least recently used
+ * entries are evicted once the configured limit is exceeded.
+ */
+public class WeightedResourceCache<K, V> {
+  private final String region;
+  private final long maxWeight;
+  private final ToLongFunction<V> weigher;
+  private final ResourceCacheStatistics statistics = new ResourceCacheStatistics();
+  private final LinkedHashMap<K, WeightedValue<V>> entries =
+      new LinkedHashMap<>(16, 0.75F, true);
+  private long weight;
+
+  /**
+   * Creates a new cache.
+   *
+   * @param region    name of the cache.
+   * @param maxWeight maximum total weight (estimated size in bytes) of held resources.
+   * @param weigher   function that estimates size of a single resource.
+   */
+  public WeightedResourceCache(String region, long maxWeight, ToLongFunction<V> weigher) {
+    this.region = region;
+    this.maxWeight = maxWeight;
+    this.weigher = weigher;
+  }
+
+  /**
+   * Returns all cached resources for the given keys. Keys without a cached resource are not
+   * present in the returned map.
+   */
+  public Map<K, V> getAll(Collection<K> keys) {
+    Map<K, V> found = new HashMap<>();
+
+    synchronized (entries) {
+      for (K key : keys) {
+        WeightedValue<V> entry = entries.get(key);
+
+        if (null == entry) {
+          statistics.recordMiss();
+        } else {
+          statistics.recordHit();
+          found.put(key, entry.value);
+        }
+      }
+    }
+
+    return found;
+  }
+
+  /**
+   * Adds resource to the cache. Resources bigger than the whole cache are not stored.
+   */
+  public void put(K key, V value) {
+    long valueWeight = weigher.applyAsLong(value);
+
+    if (valueWeight > maxWeight) {
+      return;
+    }
+
+    synchronized (entries) {
+      WeightedValue<V> previous = entries.put(key, new WeightedValue<>(value, valueWeight));
+      weight += valueWeight - (null == previous ? 0 : previous.weight);
+
+      Iterator<WeightedValue<V>> iterator = entries.values().iterator();
+      while (weight > maxWeight && iterator.hasNext()) {
+        weight -= iterator.next().weight;
+        iterator.remove();
+        statistics.recordEviction();
+      }
+    }
+  }
+
+  /**
+   * Returns number of held resources.
+   */
+  public int size() {
+    synchronized (entries) {
+      return entries.size();
+    }
+  }
+
+  /**
+   * Returns total estimated size of held resources.
+   */
+  public long getWeight() {
+    synchronized (entries) {
+      return weight;
+    }
+  }
+
+  public String getRegion() {
+    return region;
+  }
+
+  public ResourceCacheStatistics getStatistics() {
+    return statistics;
+  }
+
+  private static final class WeightedValue<V> {
+    private final V value;
+    private final long weight;
+
+    private WeightedValue(V value, long weight) {
+      this.value = value;
+      this.weight = weight;
+    }
+  }
+}
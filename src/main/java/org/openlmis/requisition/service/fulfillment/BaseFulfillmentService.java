@@ -23,6 +23,9 @@ public abstract class BaseFulfillmentService<T> extends BaseCommunicationService
   @Value("${fulfillment.url}")
   private String fulfillmentUrl;
 
+  @Value("${fulfillment.maxConcurrentRequests}")
+  private int maxConcurrentRequests;
+
   @Override
   protected String getServiceName() {
     return "Fulfillment";
@@ -33,4 +36,9 @@ public abstract class BaseFulfillmentService<T> extends BaseCommunicationService
     return fulfillmentUrl;
   }
 
+  @Override
+  protected int getMaxConcurrentRequests() {
+    return maxConcurrentRequests;
+  }
+
 }
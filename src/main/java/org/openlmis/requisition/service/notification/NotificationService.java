@@ -26,6 +26,7 @@ import org.openlmis.requisition.utils.RequestHelper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.HttpStatusCodeException;
@@ -74,7 +75,8 @@ public class NotificationService {
     return true;
   }
 
-  void setRestTemplate(RestOperations restTemplate) {
+  @Autowired
+  public void setRestTemplate(@Qualifier("serviceRestTemplate") RestOperations restTemplate) {
     this.restTemplate = restTemplate;
   }
 
@@ -23,6 +23,9 @@ public abstract class BaseReferenceDataService<T> extends BaseCommunicationServi
   @Value("${referencedata.url}")
   private String referenceDataUrl;
 
+  @Value("${referencedata.maxConcurrentRequests}")
+  private int maxConcurrentRequests;
+
   @Override
   protected String getServiceName() {
     return "Reference Data";
@@ -32,4 +35,9 @@ public abstract class BaseReferenceDataService<T> extends BaseCommunicationServi
   protected String getServiceUrl() {
     return referenceDataUrl;
   }
+
+  @Override
+  protected int getMaxConcurrentRequests() {
+    return maxConcurrentRequests;
+  }
 }
@@ -45,6 +45,11 @@ public class FacilityReferenceDataService extends BaseReferenceDataService<Facil
     return FacilityDto[].class;
   }
 
+  @Override
+  protected boolean isCacheable() {
+    return true;
+  }
+
   @Override
   public List<FacilityDto> findAll() {
     return getPage(RequestParameters.init()).getContent();
@@ -15,14 +15,25 @@
 
 package org.openlmis.requisition.service.referencedata;
 
+import static org.apache.commons.collections4.CollectionUtils.size;
+
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.UnaryOperator;
 import java.util.stream.Collectors;
+import org.apache.commons.collections4.MapUtils;
+import org.apache.commons.lang3.StringUtils;
 import org.openlmis.requisition.domain.requisition.VersionEntityReference;
 import org.openlmis.requisition.dto.OrderableDto;
 import org.openlmis.requisition.dto.VersionIdentityDto;
 import org.openlmis.requisition.service.RequestParameters;
+import org.openlmis.requisition.service.cache.ResourceCacheFactory;
+import org.openlmis.requisition.service.cache.ResourceCopier;
+import org.openlmis.requisition.service.cache.WeightedResourceCache;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.util.CollectionUtils;
 
@@ -30,6 +41,16 @@ import org.springframework.util.CollectionUtils;
 public class OrderableReferenceDataService
         extends BaseReferenceDataService<OrderableDto> {
 
+  // rough estimates of retained heap size used to bound the cache of orderable versions
+  private static final long ORDERABLE_SIZE = 1024;
+  private static final long PROGRAM_ORDERABLE_SIZE = 256;
+  private static final long IDENTIFIER_SIZE = 128;
+  private static final long CHAR_SIZE = 2;
+
+  private static final UnaryOperator<OrderableDto> COPIER = ResourceCopier.of(OrderableDto.class);
+
+  private WeightedResourceCache<VersionEntityReference, OrderableDto> identityCache;
+
   @Override
   protected String getUrl() {
     return "/api/orderables/";
@@ -51,13 +72,62 @@ public class OrderableReferenceDataService
   }
 
   /**
-   * Finds orderables by their identities.
+   * Finds orderables by their identities. A specific version of an orderable never changes, so
+   * orderables retrieved before are taken from the cache and only the missing ones are requested
+   * from the reference data service. Cached orderables are returned as copies.
    */
   public List<OrderableDto> findByIdentities(Set<VersionEntityReference> references) {
     if (CollectionUtils.isEmpty(references)) {
       return Collections.emptyList();
     }
 
+    if (null == identityCache) {
+      return searchByIdentities(references);
+    }
+
+    Map<VersionEntityReference, OrderableDto> cached = identityCache.getAll(references);
+    List<OrderableDto> orderables = cached
+        .values()
+        .stream()
+        .map(COPIER)
+        .collect(Collectors.toCollection(ArrayList::new));
+
+    Set<VersionEntityReference> missing = references
+        .stream()
+        .filter(ref -> !cached.containsKey(ref))
+        .collect(Collectors.toSet());
+
+    if (!missing.isEmpty()) {
+      for (OrderableDto orderable : searchByIdentities(missing)) {
+        identityCache.put(
+            new VersionEntityReference(orderable.getId(), orderable.getVersionNumber()),
+            orderable);
+        orderables.add(COPIER.apply(orderable));
+      }
+    }
+
+    return orderables;
+  }
+
+  @Autowired
+  @Override
+  public void setResourceCacheFactory(ResourceCacheFactory resourceCacheFactory) {
+    super.setResourceCacheFactory(resourceCacheFactory);
+    this.identityCache = resourceCacheFactory
+        .getWeightedCache("orderables", OrderableReferenceDataService::estimateSize);
+  }
+
+  static long estimateSize(OrderableDto orderable) {
+    long size = ORDERABLE_SIZE;
+    size += CHAR_SIZE * (StringUtils.length(orderable.getProductCode())
+        + StringUtils.length(orderable.getFullProductName()));
+    size += PROGRAM_ORDERABLE_SIZE * size(orderable.getPrograms());
+    size += IDENTIFIER_SIZE * MapUtils.size(orderable.getIdentifiers());
+
+    return size;
+  }
+
+  private List<OrderableDto> searchByIdentities(Set<VersionEntityReference> references) {
     List<VersionIdentityDto> identities = references
         .stream()
         .map(ref -> new VersionIdentityDto(ref.getId(), ref.getVersionNumber()))
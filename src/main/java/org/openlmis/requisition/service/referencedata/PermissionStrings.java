@@ -15,7 +15,9 @@
 
 package org.openlmis.requisition.service.referencedata;
 
-import com.google.common.collect.Maps;
+import java.time.Clock;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -23,17 +25,64 @@ import java.util.UUID;
 import java.util.function.Supplier;
 import org.openlmis.requisition.service.ServiceResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+/**
+ * Keeps a local snapshot of permission strings for recently active users. A snapshot is
+ * revalidated with the reference data service (using the entity tag) only after the configured
+ * revalidation interval has passed, so rights revoked in the reference data service are still
+ * granted for up to that interval. Users that were idle longer than the idle timeout and the
+ * least recently active users above the maximum size are evicted.
+ */
 @Component
 public class PermissionStrings {
-  private final Map<UUID, Handler> handlers = Maps.newConcurrentMap();
+  private final Map<UUID, Handler> handlers = new LinkedHashMap<>(16, 0.75F, true);
 
   @Autowired
   private UserReferenceDataService userReferenceDataService;
 
+  @Autowired
+  private Clock clock;
+
+  @Value("${permissionStrings.cache.maxSize}")
+  private int maxSize;
+
+  @Value("${permissionStrings.cache.idleTimeout}")
+  private long idleTimeout;
+
+  @Value("${permissionStrings.cache.revalidationInterval}")
+  private long revalidationInterval;
+
+  /**
+   * Returns permission strings handler for the given user.
+   */
   public Handler forUser(UUID user) {
-    return handlers.computeIfAbsent(user, Handler::new);
+    long now = clock.millis();
+
+    synchronized (handlers) {
+      Handler handler = handlers.computeIfAbsent(user, Handler::new);
+      handler.lastAccess = now;
+
+      evictHandlers(now);
+
+      return handler;
+    }
+  }
+
+  private void evictHandlers(long now) {
+    Iterator<Handler> iterator = handlers.values().iterator();
+
+    // handlers are in access order so idle ones are at the beginning
+    while (iterator.hasNext()) {
+      Handler handler = iterator.next();
+
+      if (handlers.size() > maxSize || now - handler.lastAccess > idleTimeout) {
+        iterator.remove();
+      } else {
+        break;
+      }
+    }
   }
 
   public class Handler implements Supplier<Set<PermissionStringDto>> {
@@ -41,8 +90,10 @@ public class PermissionStrings {
 
     private UUID userId;
 
-    private Set<PermissionStringDto> permissionStrings;
+    private volatile Set<PermissionStringDto> permissionStrings;
     private String etag;
+    private long revalidatedAt;
+    private long lastAccess;
 
     Handler(UUID userId) {
       this.userId = userId;
@@ -54,8 +105,22 @@ public class PermissionStrings {
       return permissionStrings;
     }
 
+    /**
+     * Checks if the user has the given permission string. The check is a hash lookup in the
+     * local snapshot.
+     */
+    public boolean hasPermission(String rightName, UUID facilityId, UUID programId) {
+      return get().contains(PermissionStringDto.create(rightName, facilityId, programId));
+    }
+
     private void updatePermissionStrings() {
       synchronized (lock) {
+        long now = clock.millis();
+
+        if (null != permissionStrings && now - revalidatedAt < revalidationInterval) {
+          return;
+        }
+
         ServiceResponse<List<String>> response = userReferenceDataService
             .getPermissionStrings(userId, etag);
 
@@ -63,6 +128,8 @@ public class PermissionStrings {
           permissionStrings = PermissionStringDto.from(response.getBody());
           etag = response.getETag();
         }
+
+        revalidatedAt = now;
       }
     }
   }
@@ -41,6 +41,11 @@ public class ProgramReferenceDataService extends BaseReferenceDataService<Progra
     return ProgramDto[].class;
   }
 
+  @Override
+  protected boolean isCacheable() {
+    return true;
+  }
+
   /**
    * This method retrieves Programs with programName similar with name parameter.
    *
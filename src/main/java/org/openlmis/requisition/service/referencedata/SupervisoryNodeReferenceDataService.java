@@ -43,6 +43,11 @@ public class SupervisoryNodeReferenceDataService
     return SupervisoryNodeDto[].class;
   }
 
+  @Override
+  protected boolean isCacheable() {
+    return true;
+  }
+
   /**
    * Find a correct supervisory node by the provided facility and program.
    */
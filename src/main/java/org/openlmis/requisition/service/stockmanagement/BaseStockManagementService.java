@@ -23,6 +23,9 @@ public abstract class BaseStockManagementService<T> extends BaseCommunicationSer
   @Value("${stockmanagement.url}")
   private String stockmanagementUrl;
 
+  @Value("${stockmanagement.maxConcurrentRequests}")
+  private int maxConcurrentRequests;
+
   @Override
   protected String getServiceName() {
     return "Stock Management";
@@ -33,4 +36,9 @@ public abstract class BaseStockManagementService<T> extends BaseCommunicationSer
     return stockmanagementUrl;
   }
 
+  @Override
+  protected int getMaxConcurrentRequests() {
+    return maxConcurrentRequests;
+  }
+
 }
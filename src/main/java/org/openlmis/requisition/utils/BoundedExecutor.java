@@ -0,0 +1,112 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.requisition.utils;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.openlmis.requisition.security.SpringSecurityRunnableWrapper;
+import org.openlmis.requisition.service.cache.LookupContext;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+/**
+ * Shared thread pool with a fixed number of threads and a bounded queue. When the queue is full
+ * the submitting thread waits until there is space in it, so callers are slowed down instead of
+ * creating new threads. Tasks are executed with the security and lookup contexts of the submitting
+ * thread.
+ */
+public class BoundedExecutor {
+  private static final long KEEP_ALIVE_SECONDS = 60;
+
+  private final ThreadPoolExecutor executor;
+  private final Executor secureExecutor;
+
+  /**
+   * Creates a new executor.
+   *
+   * @param name          prefix of thread names.
+   * @param poolSize      maximum number of threads.
+   * @param queueCapacity maximum number of tasks waiting for a thread.
+   */
+  public BoundedExecutor(String name, int poolSize, int queueCapacity) {
+    executor = new ThreadPoolExecutor(poolSize, poolSize, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+        new LinkedBlockingQueue<>(queueCapacity),
+        new ThreadFactoryBuilder().setNameFormat(name + "-%d").setDaemon(true).build(),
+        new WaitForSpacePolicy());
+    executor.allowCoreThreadTimeOut(true);
+
+    secureExecutor = command -> {
+      SecurityContext context = SecurityContextHolder.getContext();
+      executor.execute(
+          new SpringSecurityRunnableWrapper(context, LookupContext.propagate(command)));
+    };
+  }
+
+  public CompletableFuture<Void> runAsync(Runnable task) {
+    return CompletableFuture.runAsync(task, secureExecutor);
+  }
+
+  public <T> CompletableFuture<T> supplyAsync(Supplier<T> task) {
+    return CompletableFuture.supplyAsync(task, secureExecutor);
+  }
+
+  /**
+   * Waits for the given future and returns its result. If the task failed with an unchecked
+   * exception, that exception is rethrown instead of the wrapping {@link CompletionException}.
+   */
+  public static <T> T join(CompletableFuture<T> future) {
+    try {
+      return future.join();
+    } catch (CompletionException exp) {
+      if (exp.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) exp.getCause();
+      }
+      throw exp;
+    }
+  }
+
+  /**
+   * Stops accepting new tasks. Already submitted tasks are still executed.
+   */
+  public void shutdown() {
+    executor.shutdown();
+  }
+
+  private static final class WaitForSpacePolicy implements RejectedExecutionHandler {
+
+    @Override
+    public void rejectedExecution(Runnable task, ThreadPoolExecutor executor) {
+      if (executor.isShutdown()) {
+        throw new RejectedExecutionException("Executor has been shut down");
+      }
+
+      try {
+        executor.getQueue().put(task);
+      } catch (InterruptedException exp) {
+        Thread.currentThread().interrupt();
+        throw new RejectedExecutionException(exp);
+      }
+    }
+  }
+}
@@ -19,12 +19,12 @@ import static org.openlmis.requisition.domain.requisition.RequisitionLineItem.TO
 
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
-import java.util.stream.Collectors;
 import org.apache.commons.lang3.BooleanUtils;
 import org.openlmis.requisition.domain.RequisitionTemplate;
 import org.openlmis.requisition.domain.requisition.Requisition;
@@ -32,7 +32,6 @@ import org.openlmis.requisition.domain.requisition.RequisitionLineItem;
 import org.openlmis.requisition.domain.requisition.RequisitionStatus;
 import org.openlmis.requisition.domain.requisition.StatusChange;
 import org.openlmis.requisition.domain.requisition.StockAdjustment;
-import org.openlmis.requisition.domain.requisition.StockAdjustmentReason;
 import org.openlmis.requisition.dto.OrderableDto;
 import org.openlmis.requisition.dto.ProgramOrderableDto;
 import org.openlmis.requisition.dto.VersionIdentityDto;
@@ -86,8 +85,10 @@ public class StockEventBuilder {
 
     profiler.start("GET_STOCK_CARDS");
     List<StockCardDto> stockCards = stockCardService.getStockCards(requisition.getFacilityId(),
-        requisition.getProgramId()).stream().filter(stockCard -> stockCard.getLot() == null)
-        .collect(Collectors.toList());
+        requisition.getProgramId());
+
+    profiler.start("BUILD_LOOKUP_INDEXES");
+    EventContext context = new EventContext(requisition, stockCards);
 
     profiler.start("BUILD_STOCK_EVENT");
     StockEventDto stockEventDto = StockEventDto
@@ -95,14 +96,7 @@ public class StockEventBuilder {
         .facilityId(requisition.getFacilityId())
         .programId(requisition.getProgramId())
         .userId(currentUserId)
-        .lineItems(fromLineItems(
-            requisition.getRequisitionLineItems(),
-            requisition.getStockAdjustmentReasons(),
-            requisition.getTemplate(),
-            getOccurredDate(requisition),
-            stockCards,
-            orderables
-        ))
+        .lineItems(fromLineItems(requisition, context, orderables))
         .build();
 
     profiler.stop().log();
@@ -110,19 +104,24 @@ public class StockEventBuilder {
     return stockEventDto;
   }
 
-  private List<StockEventLineItemDto> fromLineItems(List<RequisitionLineItem> lineItems,
-      List<StockAdjustmentReason> reasons, RequisitionTemplate template, LocalDate occurredDate,
-      List<StockCardDto> stockCards, Map<VersionIdentityDto, OrderableDto> orderables) {
+  private List<StockEventLineItemDto> fromLineItems(Requisition requisition,
+      EventContext context, Map<VersionIdentityDto, OrderableDto> orderables) {
+    List<RequisitionLineItem> lineItems = requisition.getRequisitionLineItems();
+    UUID programId = requisition.getProgramId();
+    LocalDate occurredDate = getOccurredDate(requisition);
 
-    List<StockEventLineItemDto> list = new ArrayList<>();
+    List<StockEventLineItemDto> list = new ArrayList<>(lineItems.size());
 
     for (RequisitionLineItem lineItem : lineItems) {
+      if (lineItem.isLineSkipped()) {
+        continue;
+      }
+
       OrderableDto orderable = orderables.get(new VersionIdentityDto(lineItem.getOrderable()));
-      ProgramOrderableDto programOrderable = orderable
-          .getProgramOrderable(lineItem.getRequisition().getProgramId());
+      ProgramOrderableDto programOrderable = orderable.getProgramOrderable(programId);
 
-      if (!lineItem.isLineSkipped() && BooleanUtils.isTrue(programOrderable.getFullSupply())) {
-        list.add(fromLineItem(lineItem, reasons, template, occurredDate, stockCards));
+      if (BooleanUtils.isTrue(programOrderable.getFullSupply())) {
+        list.add(fromLineItem(lineItem, context, occurredDate));
       }
     }
 
@@ -130,115 +129,77 @@ public class StockEventBuilder {
   }
 
   private StockEventLineItemDto fromLineItem(RequisitionLineItem lineItem,
-                                             List<StockAdjustmentReason> reasons,
-                                             RequisitionTemplate template,
-                                             LocalDate occurredDate,
-                                             List<StockCardDto> stockCards) {
+      EventContext context, LocalDate occurredDate) {
     return StockEventLineItemDto.builder()
         .orderableId(lineItem.getOrderable().getId())
         .quantity(lineItem.getStockOnHand() != null ? lineItem.getStockOnHand() : 0)
         .occurredDate(occurredDate)
-        .stockAdjustments(getStockAdjustments(lineItem, reasons, template, stockCards))
+        .stockAdjustments(getStockAdjustments(lineItem, context))
         .build();
   }
 
   private List<StockEventAdjustmentDto> getStockAdjustments(RequisitionLineItem lineItem,
-      List<StockAdjustmentReason> reasons, RequisitionTemplate template,
-      List<StockCardDto> stockCards) {
-
-    XLOGGER.entry(lineItem, reasons, template, stockCards);
-
-    Profiler profiler = new Profiler("GET_STOCK_ADJUSTMENTS");
-    profiler.setLogger(XLOGGER);
-
+      EventContext context) {
     List<StockEventAdjustmentDto> stockAdjustments = new ArrayList<>();
 
-    profiler.start("TOTAL_LOSSES_AND_ADJUSTMENTS");
-    if (template.isColumnInTemplateAndDisplayed(TOTAL_LOSSES_AND_ADJUSTMENTS)) {
-      stockAdjustments = lineItem.getStockAdjustments().stream()
-          .map(stockAdjustment -> fromStockAdjustment(stockAdjustment, reasons))
-          .collect(Collectors.toList());
+    if (context.includeAdjustments) {
+      for (StockAdjustment stockAdjustment : lineItem.getStockAdjustments()) {
+        stockAdjustments.add(StockEventAdjustmentDto.builder()
+            .quantity(stockAdjustment.getQuantity())
+            .reasonId(context.getReasonById(stockAdjustment.getReasonId()))
+            .build());
+      }
     }
 
-    profiler.start("TOTAL_CONSUMED_QUANTITY");
-    if (shouldIncludeConsumed(reasons, template)) {
+    if (null != context.consumedReasonId) {
       stockAdjustments.add(StockEventAdjustmentDto.builder()
           .quantity(lineItem.getTotalConsumedQuantity())
-          .reasonId(getReasonById(settings.getReasonIdForConsumed(), reasons))
+          .reasonId(context.consumedReasonId)
           .build()
       );
     }
 
-    profiler.start("TOTAL_RECEIVED_QUANTITY");
-    if (shouldIncludeReceipts(reasons, template)) {
+    if (null != context.receiptsReasonId) {
       stockAdjustments.add(StockEventAdjustmentDto.builder()
           .quantity(lineItem.getTotalReceivedQuantity())
-          .reasonId(getReasonById(settings.getReasonIdForReceipts(), reasons))
+          .reasonId(context.receiptsReasonId)
           .build()
       );
     }
 
-    profiler.start("GET_STOCK_CARD_FROM_LINE_ITEM");
-    StockCardDto stockCard = stockCards
-        .stream()
-        .filter(card -> Objects.equals(
-            card.getOrderable().getId(), lineItem.getOrderable().getId()))
-        .findFirst()
-        .orElse(null);
+    addBeginningBalanceAdjustments(stockAdjustments, lineItem, context);
+
+    return stockAdjustments;
+  }
+
+  private void addBeginningBalanceAdjustments(List<StockEventAdjustmentDto> stockAdjustments,
+      RequisitionLineItem lineItem, EventContext context) {
+    UUID orderableId = lineItem.getOrderable().getId();
+    StockCardDto stockCard = context.stockCards.get(orderableId);
+    Integer stockOnHand = null == stockCard ? null : stockCard.getStockOnHand();
 
     if (stockCard == null) {
-      LOGGER.warn("No stock card found for Orderable: {}", lineItem.getOrderable().getId());
-    } else if (stockCard.getStockOnHand() == null) {
-      LOGGER.warn("Stock card has no stock on hand for Orderable: {}",
-              lineItem.getOrderable().getId());
+      LOGGER.warn("No stock card found for Orderable: {}", orderableId);
+    } else if (stockOnHand == null) {
+      LOGGER.warn("Stock card has no stock on hand for Orderable: {}", orderableId);
     }
 
     int beginningBalance =
         lineItem.getBeginningBalance() == null ? 0 : lineItem.getBeginningBalance();
 
-    profiler.start("INCLUDE_BEGINNING_BALANCE_EXCESS");
-    if (shouldIncludeBeginningBalanceExcess(stockCard, beginningBalance, reasons)) {
+    if (shouldIncludeBeginningBalanceExcess(stockOnHand, beginningBalance, context)) {
       stockAdjustments.add(StockEventAdjustmentDto.builder()
-          .quantity(beginningBalance - stockCard.getStockOnHand())
-          .reasonId(getReasonById(settings.getReasonIdForBeginningBalanceExcess(), reasons))
+          .quantity(beginningBalance - stockOnHand)
+          .reasonId(context.beginningBalanceExcessReasonId)
           .build());
     }
 
-    profiler.start("INCLUDE_BEGINNING_BALANCE_INSUFFICIENCY");
-    if (shouldIncludeBeginningBalanceInsufficiency(stockCard, beginningBalance, reasons)) {
+    if (shouldIncludeBeginningBalanceInsufficiency(stockOnHand, beginningBalance, context)) {
       stockAdjustments.add(StockEventAdjustmentDto.builder()
-          .quantity(stockCard.getStockOnHand() - beginningBalance)
-          .reasonId(getReasonById(settings.getReasonIdForBeginningBalanceInsufficiency(), reasons))
+          .quantity(stockOnHand - beginningBalance)
+          .reasonId(context.beginningBalanceInsufficiencyReasonId)
           .build());
     }
-
-    profiler.stop().log();
-    XLOGGER.exit(stockAdjustments);
-    return stockAdjustments;
-  }
-
-  private StockEventAdjustmentDto fromStockAdjustment(
-      StockAdjustment stockAdjustment, List<StockAdjustmentReason> reasons) {
-    return StockEventAdjustmentDto.builder()
-        .quantity(stockAdjustment.getQuantity())
-        .reasonId(getReasonById(stockAdjustment.getReasonId(), reasons))
-        .build();
-  }
-
-  private boolean shouldIncludeConsumed(List<StockAdjustmentReason> reasons,
-                                        RequisitionTemplate template) {
-    return shouldInclude(
-        template.isColumnInTemplateAndDisplayed(TOTAL_CONSUMED_QUANTITY),
-        settings.getReasonIdForConsumed(), reasons
-    );
-  }
-
-  private boolean shouldIncludeReceipts(List<StockAdjustmentReason> reasons,
-                                        RequisitionTemplate template) {
-    return shouldInclude(
-        template.isColumnInTemplateAndDisplayed(TOTAL_RECEIVED_QUANTITY),
-        settings.getReasonIdForReceipts(), reasons
-    );
   }
 
   private LocalDate getOccurredDate(Requisition requisition) {
@@ -255,50 +216,75 @@ public class StockEventBuilder {
     return periodReferenceDataService.findOne(requisition.getProcessingPeriodId()).getEndDate();
   }
 
-  private boolean shouldInclude(boolean existsAndIsDisplayed, UUID reason,
-                                List<StockAdjustmentReason> reasons) {
-    return existsAndIsDisplayed && getReasonById(reason, reasons) != null;
-  }
-
-  private boolean shouldIncludeBeginningBalanceExcess(StockCardDto stockCard,
-                                                      int beginningBalance,
-                                                      List<StockAdjustmentReason> reasons) {
-    boolean shouldInclude = stockCard != null && stockCard.getStockOnHand() != null
-        && beginningBalance > stockCard.getStockOnHand()
-        && getReasonById(settings.getReasonIdForBeginningBalanceExcess(), reasons) != null;
+  private boolean shouldIncludeBeginningBalanceExcess(Integer stockOnHand,
+      int beginningBalance, EventContext context) {
+    boolean shouldInclude = stockOnHand != null && beginningBalance > stockOnHand
+        && null != context.beginningBalanceExcessReasonId;
 
-    LOGGER.debug("Beginning balance: {}, SOH in Stock Management: {}."
-                    + " Including excess adjustment: {}",
-            beginningBalance,
-            stockCard == null ? null : stockCard.getStockOnHand(),
-            shouldInclude);
+    if (LOGGER.isDebugEnabled()) {
+      LOGGER.debug("Beginning balance: {}, SOH in Stock Management: {}."
+              + " Including excess adjustment: {}",
+          beginningBalance, stockOnHand, shouldInclude);
+    }
 
     return shouldInclude;
   }
 
-  private boolean shouldIncludeBeginningBalanceInsufficiency(StockCardDto stockCard,
-                                                             int beginningBalance,
-                                                             List<StockAdjustmentReason> reasons) {
-    boolean shouldInclude = stockCard != null && stockCard.getStockOnHand() != null
-        && beginningBalance < stockCard.getStockOnHand()
-        && getReasonById(settings.getReasonIdForBeginningBalanceInsufficiency(), reasons) != null;
+  private boolean shouldIncludeBeginningBalanceInsufficiency(Integer stockOnHand,
+      int beginningBalance, EventContext context) {
+    boolean shouldInclude = stockOnHand != null && beginningBalance < stockOnHand
+        && null != context.beginningBalanceInsufficiencyReasonId;
 
-    LOGGER.debug("Beginning balance: {}, SOH in Stock Management: {}."
-                    + " Including insufficiency adjustment: {}",
-            beginningBalance,
-            stockCard == null ? null : stockCard.getStockOnHand(),
-            shouldInclude);
+    if (LOGGER.isDebugEnabled()) {
+      LOGGER.debug("Beginning balance: {}, SOH in Stock Management: {}."
+              + " Including insufficiency adjustment: {}",
+          beginningBalance, stockOnHand, shouldInclude);
+    }
 
     return shouldInclude;
   }
 
-  private UUID getReasonById(UUID reasonId, List<StockAdjustmentReason> reasons) {
-    return reasons
-        .stream()
-        .map(StockAdjustmentReason::getReasonId)
-        .filter(id -> id.equals(reasonId))
-        .findFirst()
-        .orElse(null);
+  /**
+   * Data shared by all line items of a single stock event: stock cards without lots indexed by
+   * the orderable ID, IDs of reasons available in the requisition and reasons configured for
+   * the additional adjustments, resolved only if they can be used.
+   */
+  private final class EventContext {
+    private final Map<UUID, StockCardDto> stockCards;
+    private final Set<UUID> reasonIds;
+    private final boolean includeAdjustments;
+    private final UUID consumedReasonId;
+    private final UUID receiptsReasonId;
+    private final UUID beginningBalanceExcessReasonId;
+    private final UUID beginningBalanceInsufficiencyReasonId;
+
+    EventContext(Requisition requisition, List<StockCardDto> stockCardList) {
+      final RequisitionTemplate template = requisition.getTemplate();
+
+      stockCards = new HashMap<>();
+      for (StockCardDto stockCard : stockCardList) {
+        if (null == stockCard.getLot()) {
+          stockCards.putIfAbsent(stockCard.getOrderable().getId(), stockCard);
+        }
+      }
+
+      reasonIds = requisition.getStockAdjustmentReasonsById().keySet();
+      includeAdjustments = template.isColumnInTemplateAndDisplayed(TOTAL_LOSSES_AND_ADJUSTMENTS);
+      consumedReasonId = template.isColumnInTemplateAndDisplayed(TOTAL_CONSUMED_QUANTITY)
+          ? getReasonById(settings.getReasonIdForConsumed())
+          : null;
+      receiptsReasonId = template.isColumnInTemplateAndDisplayed(TOTAL_RECEIVED_QUANTITY)
+          ? getReasonById(settings.getReasonIdForReceipts())
+          : null;
+      beginningBalanceExcessReasonId =
+          getReasonById(settings.getReasonIdForBeginningBalanceExcess());
+      beginningBalanceInsufficiencyReasonId =
+          getReasonById(settings.getReasonIdForBeginningBalanceInsufficiency());
+    }
+
+    UUID getReasonById(UUID reasonId) {
+      return reasonIds.contains(reasonId) ? reasonId : null;
+    }
   }
 
 }
@@ -21,17 +21,21 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import javax.servlet.http.HttpServletResponse;
 import org.apache.commons.lang3.StringUtils;
 import org.javers.core.Javers;
 import org.javers.core.changelog.SimpleTextChangeLog;
 import org.javers.core.diff.Change;
 import org.javers.core.json.JsonConverter;
 import org.javers.repository.jql.QueryBuilder;
+import org.openlmis.requisition.service.JasperReportsViewService.ReportOutput;
 import org.openlmis.requisition.utils.Message;
 import org.openlmis.requisition.utils.Pagination;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.validation.BindingResult;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -63,6 +67,22 @@ public abstract class BaseController {
     return errors;
   }
 
+  /**
+   * Creates output that writes a generated report directly to the response. Headers are set
+   * when the output is opened, that is once the report has been filled.
+   *
+   * @param response  response the report is written to.
+   * @param mediaType media type of the report.
+   * @param fileName  name of the report file, including the extension.
+   */
+  ReportOutput reportOutput(HttpServletResponse response, MediaType mediaType, String fileName) {
+    return () -> {
+      response.setContentType(mediaType.toString());
+      response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=" + fileName);
+      return response.getOutputStream();
+    };
+  }
+
   /**
    * <p>
    * Convenience method intended to return audit log information via either JSON or raw text,
@@ -83,6 +83,7 @@ import org.openlmis.requisition.service.PermissionService;
 import org.openlmis.requisition.service.RequisitionService;
 import org.openlmis.requisition.service.RequisitionStatusProcessor;
 import org.openlmis.requisition.service.RequisitionTemplateService;
+import org.openlmis.requisition.service.cache.LookupContext;
 import org.openlmis.requisition.service.referencedata.ApproveProductsAggregator;
 import org.openlmis.requisition.service.referencedata.ApprovedProductReferenceDataService;
 import org.openlmis.requisition.service.referencedata.FacilityReferenceDataService;
@@ -109,6 +110,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.i18n.LocaleContextHolder;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 
 @SuppressWarnings("PMD.TooManyMethods")
 public abstract class BaseRequisitionController extends BaseController {
@@ -426,7 +428,7 @@ public abstract class BaseRequisitionController extends BaseController {
   void submitStockEvent(Requisition requisition, UUID currentUserId,
       Map<VersionIdentityDto, OrderableDto> orderables) {
     Profiler profiler = getProfiler("SUBMIT_STOCK_EVENT", requisition, currentUserId);
-    if (requisition.getStatus().isApproved() && isNotTrue(requisition.getEmergency())) {
+    if (isStockEventRequired(requisition)) {
       profiler.start("BUILD_STOCK_EVENT_FROM_REQUISITION");
       StockEventDto stockEventDto = stockEventBuilder
           .fromRequisition(requisition, currentUserId, orderables);
@@ -437,6 +439,10 @@ public abstract class BaseRequisitionController extends BaseController {
     }
   }
 
+  boolean isStockEventRequired(Requisition requisition) {
+    return requisition.getStatus().isApproved() && isNotTrue(requisition.getEmergency());
+  }
+
   Set<VersionEntityReference> getLineItemOrderableIdentities(Requisition requisition) {
     return requisition
         .getRequisitionLineItems()
@@ -520,6 +526,13 @@ public abstract class BaseRequisitionController extends BaseController {
 
   void stopProfiler(Profiler profiler, Object... exitArgs) {
     profiler.stop().log();
+
+    LookupContext lookupContext = LookupContext.current();
+    if (null != lookupContext) {
+      extLogger.debug("Remote calls saved by request lookups in {}: {}", profiler.getName(),
+          lookupContext.getSavedCalls());
+    }
+
     extLogger.exit(exitArgs);
   }
 
@@ -537,6 +550,24 @@ public abstract class BaseRequisitionController extends BaseController {
     return requisition;
   }
 
+  /**
+   * Checks if the client already has the current version of the requisition, that is if the
+   * If-None-Match header points to it. If so, the response is marked as not modified (304), so
+   * the requisition does not have to be built and sent again.
+   */
+  boolean checkNotModified(Requisition requisition, HttpServletRequest request,
+      HttpServletResponse response, Profiler profiler) {
+    profiler.start("CHECK_NOT_MODIFIED");
+    if (!ETagResource.matchesVersion(request.getHeader(HttpHeaders.IF_NONE_MATCH),
+        requisition.getVersion())) {
+      return false;
+    }
+
+    response.setStatus(HttpStatus.NOT_MODIFIED.value());
+    response.setHeader(HttpHeaders.ETAG, ETagResource.buildWeakETag(requisition.getVersion()));
+    return true;
+  }
+
   FacilityDto findFacility(UUID facilityId, Profiler profiler) {
     profiler.start("GET_FACILITY");
     return findResource(
@@ -15,25 +15,26 @@
 
 package org.openlmis.requisition.web;
 
-import static java.util.concurrent.CompletableFuture.runAsync;
 import static java.util.stream.Collectors.toList;
 import static java.util.stream.Collectors.toMap;
 import static org.apache.commons.lang3.BooleanUtils.isFalse;
 import static org.openlmis.requisition.i18n.MessageKeys.ERROR_NO_FOLLOWING_PERMISSION;
+import static org.openlmis.requisition.i18n.MessageKeys.ERROR_STOCK_EVENT_BATCH_ROLLED_BACK;
+import static org.openlmis.requisition.i18n.MessageKeys.ERROR_STOCK_EVENT_BATCH_ROLLED_BACK_AFTER_SUBMISSION;
+import static org.openlmis.requisition.i18n.MessageKeys.ERROR_STOCK_EVENT_SUBMISSION_FAILED;
 
 import com.google.common.collect.Lists;
 import java.lang.reflect.InvocationTargetException;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.CompletionException;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import org.apache.commons.beanutils.PropertyUtils;
@@ -64,21 +65,26 @@ import org.openlmis.requisition.dto.UserDto;
 import org.openlmis.requisition.dto.VersionIdentityDto;
 import org.openlmis.requisition.errorhandling.ValidationFailure;
 import org.openlmis.requisition.errorhandling.ValidationResult;
+import org.openlmis.requisition.exception.BaseMessageException;
+import org.openlmis.requisition.exception.ExternalApiException;
 import org.openlmis.requisition.i18n.MessageKeys;
 import org.openlmis.requisition.i18n.MessageService;
 import org.openlmis.requisition.service.PermissionService;
 import org.openlmis.requisition.service.referencedata.PeriodReferenceDataService;
 import org.openlmis.requisition.service.referencedata.SupervisoryNodeReferenceDataService;
 import org.openlmis.requisition.service.referencedata.UserReferenceDataService;
+import org.openlmis.requisition.utils.BoundedExecutor;
 import org.openlmis.requisition.utils.Message;
 import org.slf4j.ext.XLogger;
 import org.slf4j.ext.XLoggerFactory;
 import org.slf4j.profiler.Profiler;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
@@ -107,6 +113,10 @@ public class BatchRequisitionController extends BaseRequisitionController {
   @Autowired
   private PeriodReferenceDataService periodReferenceDataService;
 
+  @Autowired
+  @Qualifier("stockEventExecutor")
+  private BoundedExecutor stockEventExecutor;
+
   /**
    * Attempts to retrieve requisitions with the provided UUIDs.
    */
@@ -210,7 +220,7 @@ public class BatchRequisitionController extends BaseRequisitionController {
           facilities, periods, approveParams, approvedProducts);
     }
 
-    submitStockEvent(profiler, user, requisitions, orderables);
+    submitStockEvent(profiler, user, requisitions, orderables, processingStatus);
 
     ResponseEntity<RequisitionsProcessingStatusDto> response =
         buildResponse(processingStatus, profiler, HttpStatus.OK);
@@ -424,22 +434,73 @@ public class BatchRequisitionController extends BaseRequisitionController {
   }
 
   private void submitStockEvent(Profiler profiler, UserDto user, List<Requisition> requisitions,
-      Map<VersionIdentityDto, OrderableDto> orderables) {
+      Map<VersionIdentityDto, OrderableDto> orderables,
+      RequisitionsProcessingStatusDto processingStatus) {
     profiler.start("SEND_STOCK_EVENT");
-    ExecutorService executor = Executors.newFixedThreadPool(requisitions.size());
-    List<CompletableFuture<Void>> futures = Lists.newArrayList();
-    try {
-      for (Requisition requisition : requisitions) {
-        CompletableFuture<Void> future = runAsync(
-            () -> submitStockEvent(requisition, user.getId(), orderables), executor);
-        futures.add(future);
+    Map<UUID, CompletableFuture<Void>> futures = new LinkedHashMap<>();
+    for (Requisition requisition : requisitions) {
+      futures.put(requisition.getId(), stockEventExecutor
+          .runAsync(() -> submitStockEvent(requisition, user.getId(), orderables)));
+    }
+
+    profiler.start("JOIN_RESULTS");
+    Set<UUID> failedIds = new HashSet<>();
+    for (Map.Entry<UUID, CompletableFuture<Void>> entry : futures.entrySet()) {
+      try {
+        entry.getValue().join();
+      } catch (CompletionException exp) {
+        XLOGGER.warn("Could not submit stock event for requisition {}", entry.getKey(),
+            exp.getCause());
+        processingStatus.addProcessingError(new RequisitionErrorMessage(entry.getKey(),
+            localizeMessage(new Message(ERROR_STOCK_EVENT_SUBMISSION_FAILED,
+                getErrorMessage(exp.getCause())))));
+        failedIds.add(entry.getKey());
       }
-    } finally {
-      profiler.start("JOIN_RESULTS");
-      futures.forEach(CompletableFuture::join);
+    }
+
+    if (!failedIds.isEmpty()) {
+      rollBackApprovals(requisitions, failedIds, processingStatus);
     }
   }
 
+  private void rollBackApprovals(List<Requisition> requisitions, Set<UUID> failedIds,
+      RequisitionsProcessingStatusDto processingStatus) {
+    // approvals are not saved if stock events could not be submitted for all requisitions,
+    // so none of the requisitions can be reported as processed. Stock events that were
+    // already accepted by the Stock Management service can not be withdrawn.
+    TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+
+    Set<UUID> processedIds = processingStatus
+        .getRequisitionDtos()
+        .stream()
+        .map(ApproveRequisitionDto::getId)
+        .collect(Collectors.toSet());
+
+    requisitions
+        .stream()
+        .filter(requisition -> processedIds.contains(requisition.getId()))
+        .filter(requisition -> !failedIds.contains(requisition.getId()))
+        .forEach(requisition -> processingStatus.addProcessingError(
+            new RequisitionErrorMessage(requisition.getId(), localizeMessage(new Message(
+                isStockEventRequired(requisition)
+                    ? ERROR_STOCK_EVENT_BATCH_ROLLED_BACK_AFTER_SUBMISSION
+                    : ERROR_STOCK_EVENT_BATCH_ROLLED_BACK)))));
+
+    processingStatus.removeProcessedRequisitions();
+  }
+
+  private String getErrorMessage(Throwable cause) {
+    if (cause instanceof ExternalApiException) {
+      return ((ExternalApiException) cause).getMessageLocalized().getMessage();
+    }
+
+    if (cause instanceof BaseMessageException) {
+      return localizeMessage(((BaseMessageException) cause).asMessage()).asMessage();
+    }
+
+    return cause.getMessage();
+  }
+
   private Requisition buildRequisition(ApproveRequisitionDto dto, Requisition requisitionToUpdate,
       ProcessingPeriodDto processingPeriodDto, Map<VersionIdentityDto, OrderableDto> orderables) {
     Map<VersionEntityReference, ApprovedProductReference> productReferences = requisitionToUpdate
@@ -457,13 +518,17 @@ public class BatchRequisitionController extends BaseRequisitionController {
   }
 
   private Requisition updateOne(ApproveRequisitionDto dto, Requisition requisition) {
+    Map<UUID, RequisitionLineItem> originals = new HashMap<>();
+    for (RequisitionLineItem original : requisition.getRequisitionLineItems()) {
+      originals.putIfAbsent(original.getId(), original);
+    }
+
     for (ApproveRequisitionLineItemDto line : dto.getRequisitionLineItems()) {
-      requisition
-          .getRequisitionLineItems()
-          .stream()
-          .filter(original -> Objects.equals(original.getId(), line.getId()))
-          .findFirst()
-          .ifPresent(original -> original.setApprovedQuantity(line.getApprovedQuantity()));
+      RequisitionLineItem original = originals.get(line.getId());
+
+      if (null != original) {
+        original.setApprovedQuantity(line.getApprovedQuantity());
+      }
     }
     requisition.setModifiedDate(dto.getModifiedDate());
     setNullForCalculatedFields(requisition);
@@ -490,11 +555,17 @@ public class BatchRequisitionController extends BaseRequisitionController {
   }
 
   private void setNullForCalculatedFields(Requisition requisition) {
+    List<RequisitionTemplateColumn> columns = requisition
+        .getTemplate()
+        .viewColumns()
+        .values()
+        .stream()
+        .filter(this::getColumnDisplayConditions)
+        .collect(Collectors.toList());
+
     for (RequisitionLineItem lineItem : requisition.getRequisitionLineItems()) {
-      for (RequisitionTemplateColumn column : requisition.getTemplate().viewColumns().values()) {
-        if (getColumnDisplayConditions(column)) {
-          setNullForField(lineItem, column);
-        }
+      for (RequisitionTemplateColumn column : columns) {
+        setNullForField(lineItem, column);
       }
     }
   }
@@ -17,12 +17,14 @@ package org.openlmis.requisition.web;
 
 import lombok.Getter;
 import lombok.Setter;
+import org.apache.commons.lang3.StringUtils;
 
 @Getter
 @Setter
 public class ETagResource<T> {
 
   private static final String WEAK_E_TAG_PREFIX = "W/";
+  private static final String WILDCARD = "*";
 
   private T resource;
   private String etag;
@@ -61,4 +63,42 @@ public class ETagResource<T> {
       return Long.valueOf(etag);
     }
   }
+
+  /**
+   * Checks if any of the comma separated eTags (for example taken from the If-None-Match header)
+   * points to the given version. Weak, strong and quoted eTags are supported, a wildcard matches
+   * any version and malformed eTags do not match.
+   *
+   * @param etags   comma separated eTags
+   * @param version version of the resource
+   * @return true if the given version is matched by the eTags; otherwise false
+   */
+  public static boolean matchesVersion(String etags, Long version) {
+    if (StringUtils.isBlank(etags) || null == version) {
+      return false;
+    }
+
+    for (String etag : etags.split(",")) {
+      String value = StringUtils.remove(etag, '"').trim();
+
+      if (WILDCARD.equals(value)) {
+        return true;
+      }
+
+      if (pointsToVersion(value, version)) {
+        return true;
+      }
+    }
+
+    return false;
+  }
+
+  private static boolean pointsToVersion(String etag, Long version) {
+    try {
+      return version.equals(readVersionFromEtag(etag));
+    } catch (NumberFormatException ex) {
+      // eTag that was not issued by this service can't point to any version
+      return false;
+    }
+  }
 }
@@ -19,6 +19,7 @@ import java.nio.charset.StandardCharsets;
 import java.util.Map;
 import java.util.UUID;
 import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import org.openlmis.requisition.domain.JasperTemplate;
 import org.openlmis.requisition.dto.JasperTemplateDto;
 import org.openlmis.requisition.exception.ContentNotFoundMessageException;
@@ -27,6 +28,7 @@ import org.openlmis.requisition.exception.ReportingException;
 import org.openlmis.requisition.i18n.MessageKeys;
 import org.openlmis.requisition.repository.JasperTemplateRepository;
 import org.openlmis.requisition.service.JasperReportsViewService;
+import org.openlmis.requisition.service.JasperReportsViewService.ReportOutput;
 import org.openlmis.requisition.service.JasperTemplateService;
 import org.openlmis.requisition.service.PermissionService;
 import org.openlmis.requisition.utils.Message;
@@ -36,7 +38,6 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -159,13 +160,13 @@ public class JasperTemplateController extends BaseController {
    * Generate a report based on the template, the format and the request parameters.
    *
    * @param request    request (to get the request parameters)
+   * @param response   response the generated report is written to
    * @param templateId report template ID
    * @param format     report format to generate, default is PDF
-   * @return the generated report
    */
   @RequestMapping(value = "/{id}/{format}", method = RequestMethod.GET)
-  @ResponseBody
-  public ResponseEntity<byte[]> generateReport(HttpServletRequest request,
+  @ResponseStatus(HttpStatus.OK)
+  public void generateReport(HttpServletRequest request, HttpServletResponse response,
       @PathVariable("id") UUID templateId,
       @PathVariable("format") String format) throws JasperReportViewException {
     permissionService.canViewReports().throwExceptionIfHasErrors();
@@ -180,17 +181,6 @@ public class JasperTemplateController extends BaseController {
     map.put("dateTimeFormat", dateTimeFormat);
     map.put("timeZoneId", timeZoneId);
 
-    byte[] reportData;
-    
-    if (TIMELINESS_REPORT.equals(template.getType())) {
-      reportData = jasperReportsViewService.generateTimelinessReport(template, map);
-    } else if (REPORTING_RATE_REPORT.equals(template.getType())) {
-      map.putIfAbsent("DueDays", String.valueOf(DUE_DAYS));
-      reportData = jasperReportsViewService.generateReportingRateReport(template, map);
-    } else {
-      reportData = jasperReportsViewService.generateReport(template, map);
-    }
-
     MediaType mediaType;
     if ("csv".equals(format)) {
       mediaType = new MediaType("text", "csv", StandardCharsets.UTF_8);
@@ -202,11 +192,15 @@ public class JasperTemplateController extends BaseController {
       mediaType = new MediaType("application", "pdf", StandardCharsets.UTF_8);
     }
     String fileName = template.getName().replaceAll("\\s+", "_");
+    ReportOutput output = reportOutput(response, mediaType, fileName + "." + format);
 
-    return ResponseEntity
-        .ok()
-        .contentType(mediaType)
-        .header("Content-Disposition", "inline; filename=" + fileName + "." + format)
-        .body(reportData);
+    if (TIMELINESS_REPORT.equals(template.getType())) {
+      jasperReportsViewService.generateTimelinessReport(template, map, output);
+    } else if (REPORTING_RATE_REPORT.equals(template.getType())) {
+      map.putIfAbsent("DueDays", String.valueOf(DUE_DAYS));
+      jasperReportsViewService.generateReportingRateReport(template, map, output);
+    } else {
+      jasperReportsViewService.generateReport(template, map, output);
+    }
   }
 }
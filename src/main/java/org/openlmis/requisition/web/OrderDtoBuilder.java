@@ -15,30 +15,34 @@
 
 package org.openlmis.requisition.web;
 
+import com.google.common.collect.Sets;
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import org.openlmis.requisition.domain.requisition.Requisition;
-import org.openlmis.requisition.domain.requisition.RequisitionLineItem;
 import org.openlmis.requisition.domain.requisition.StatusChange;
 import org.openlmis.requisition.domain.requisition.StatusMessage;
 import org.openlmis.requisition.domain.requisition.VersionEntityReference;
+import org.openlmis.requisition.dto.FacilityDto;
 import org.openlmis.requisition.dto.ObjectReferenceDto;
 import org.openlmis.requisition.dto.OrderDto;
 import org.openlmis.requisition.dto.OrderLineItemDto;
 import org.openlmis.requisition.dto.OrderableDto;
+import org.openlmis.requisition.dto.ProcessingPeriodDto;
+import org.openlmis.requisition.dto.ProgramDto;
 import org.openlmis.requisition.dto.StatusChangeDto;
 import org.openlmis.requisition.dto.StatusMessageDto;
 import org.openlmis.requisition.dto.UserDto;
 import org.openlmis.requisition.dto.VersionIdentityDto;
 import org.openlmis.requisition.repository.StatusMessageRepository;
-import org.openlmis.requisition.service.referencedata.BaseReferenceDataService;
 import org.openlmis.requisition.service.referencedata.FacilityReferenceDataService;
 import org.openlmis.requisition.service.referencedata.OrderableReferenceDataService;
 import org.openlmis.requisition.service.referencedata.PeriodReferenceDataService;
@@ -78,31 +82,96 @@ public class OrderDtoBuilder {
       return null;
     }
 
-    OrderDto order = new OrderDto();
-    order.setExternalId(requisition.getId());
-    order.setEmergency(requisition.getEmergency());
-    order.setFacility(getIfPresent(facilities, requisition.getFacilityId()));
-    order.setProcessingPeriod(getIfPresent(periods, requisition.getProcessingPeriodId()));
-    order.setQuotedCost(BigDecimal.ZERO);
+    return build(Collections.singletonList(requisition), user).get(0);
+  }
+
+  /**
+   * Create a list of {@link OrderDto} based on data from passed requisitions. An empty list is
+   * returned if no requisitions are passed.
+   *
+   * @param requisitions a list of requisitions that will be converted into orders.
+   * @return a list of {@link OrderDto} in the same order as passed requisitions.
+   */
+  public List<OrderDto> build(Collection<Requisition> requisitions, UserDto user) {
+    if (requisitions.isEmpty()) {
+      return new ArrayList<>();
+    }
+
+    Set<UUID> requisitionIds = Sets.newHashSet();
+    Set<UUID> facilityIds = Sets.newHashSet();
+    Set<UUID> periodIds = Sets.newHashSet();
+    Set<UUID> programIds = Sets.newHashSet();
+    Set<VersionEntityReference> orderableIdentities = Sets.newHashSet();
+
+    for (Requisition requisition : requisitions) {
+      requisitionIds.add(requisition.getId());
+      addIfPresent(facilityIds, requisition.getFacilityId());
+      addIfPresent(facilityIds, requisition.getSupplyingFacilityId());
+      addIfPresent(periodIds, requisition.getProcessingPeriodId());
+      addIfPresent(programIds, requisition.getProgramId());
+
+      requisition
+          .getRequisitionLineItems()
+          .forEach(line -> orderableIdentities.add(line.getOrderable()));
+    }
 
-    order.setReceivingFacility(getIfPresent(facilities, requisition.getFacilityId()));
-    order.setRequestingFacility(getIfPresent(facilities, requisition.getFacilityId()));
+    Map<UUID, FacilityDto> facilityMap = facilityIds.isEmpty()
+        ? Collections.emptyMap()
+        : facilities
+            .search(facilityIds)
+            .stream()
+            .collect(Collectors.toMap(FacilityDto::getId, Function.identity()));
 
-    order.setSupplyingFacility(getIfPresent(facilities, requisition.getSupplyingFacilityId()));
-    order.setProgram(getIfPresent(programs, requisition.getProgramId()));
-    order.setStatusMessages(getStatusMessages(requisition));
+    Map<UUID, ProcessingPeriodDto> periodMap = periodIds.isEmpty()
+        ? Collections.emptyMap()
+        : periods
+            .search(periodIds)
+            .stream()
+            .collect(Collectors.toMap(ProcessingPeriodDto::getId, Function.identity()));
 
-    Set<VersionEntityReference> orderableIdentities = requisition
-        .getRequisitionLineItems()
-        .stream()
-        .map(RequisitionLineItem::getOrderable)
-        .collect(Collectors.toSet());
+    Map<UUID, ProgramDto> programMap = programIds.isEmpty()
+        ? Collections.emptyMap()
+        : programs
+            .search(programIds)
+            .stream()
+            .collect(Collectors.toMap(ProgramDto::getId, Function.identity()));
 
     Map<VersionIdentityDto, OrderableDto> orderables = products
         .findByIdentities(orderableIdentities)
         .stream()
         .collect(Collectors.toMap(OrderableDto::getIdentity, Function.identity()));
 
+    Map<UUID, List<StatusMessageDto>> statusMessages = getStatusMessages(requisitionIds);
+
+    List<OrderDto> orders = new ArrayList<>(requisitions.size());
+    for (Requisition requisition : requisitions) {
+      orders.add(build(requisition, user, facilityMap, periodMap, programMap, orderables,
+          statusMessages.getOrDefault(requisition.getId(), new ArrayList<>())));
+    }
+
+    return orders;
+  }
+
+  private OrderDto build(Requisition requisition, UserDto user,
+      Map<UUID, FacilityDto> facilityMap, Map<UUID, ProcessingPeriodDto> periodMap,
+      Map<UUID, ProgramDto> programMap, Map<VersionIdentityDto, OrderableDto> orderables,
+      List<StatusMessageDto> statusMessages) {
+    FacilityDto facility = getIfPresent(facilityMap, requisition.getFacilityId());
+
+    OrderDto order = new OrderDto();
+    order.setExternalId(requisition.getId());
+    order.setEmergency(requisition.getEmergency());
+    order.setFacility(facility);
+    order.setProcessingPeriod(getIfPresent(periodMap, requisition.getProcessingPeriodId()));
+    order.setQuotedCost(BigDecimal.ZERO);
+
+    order.setReceivingFacility(facility);
+    order.setRequestingFacility(facility);
+
+    order.setSupplyingFacility(getIfPresent(facilityMap, requisition.getSupplyingFacilityId()));
+    order.setProgram(getIfPresent(programMap, requisition.getProgramId()));
+    order.setStatusMessages(statusMessages);
+
     order.setOrderLineItems(
         requisition
             .getRequisitionLineItems()
@@ -130,21 +199,29 @@ public class OrderDtoBuilder {
     return order;
   }
 
-  private List<StatusMessageDto> getStatusMessages(Requisition requisition) {
-    List<StatusMessageDto> statusMessageDtoList = new ArrayList<>();
-    List<StatusMessage> statusMessages = statusMessageRepository.findByRequisitionId(
-        requisition.getId());
+  private Map<UUID, List<StatusMessageDto>> getStatusMessages(Set<UUID> requisitionIds) {
+    Map<UUID, List<StatusMessageDto>> statusMessageDtos = new HashMap<>();
+    List<StatusMessage> statusMessages = statusMessageRepository.findByRequisitionIdIn(
+        requisitionIds);
     for (StatusMessage statusMessage: statusMessages) {
       StatusMessageDto statusMessageDto = new StatusMessageDto();
       statusMessage.export(statusMessageDto);
       statusMessageDto.setId(null);
-      statusMessageDtoList.add(statusMessageDto);
+      statusMessageDtos
+          .computeIfAbsent(statusMessageDto.getRequisitionId(), id -> new ArrayList<>())
+          .add(statusMessageDto);
+    }
+    return statusMessageDtos;
+  }
+
+  private void addIfPresent(Set<UUID> ids, UUID id) {
+    if (null != id) {
+      ids.add(id);
     }
-    return statusMessageDtoList;
   }
 
-  private <T> T getIfPresent(BaseReferenceDataService<T> service, UUID id) {
-    return Optional.ofNullable(id).isPresent() ? service.findOne(id) : null;
+  private <T> T getIfPresent(Map<UUID, T> values, UUID id) {
+    return null == id ? null : values.get(id);
   }
 
 }
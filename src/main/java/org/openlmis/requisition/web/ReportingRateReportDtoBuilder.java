@@ -19,15 +19,17 @@ import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
 import java.util.stream.Collectors;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
-import org.openlmis.requisition.domain.requisition.Requisition;
-import org.openlmis.requisition.domain.requisition.RequisitionStatus;
-import org.openlmis.requisition.domain.requisition.StatusChange;
+import org.apache.commons.lang3.tuple.Pair;
+import org.openlmis.requisition.domain.requisition.RequisitionApproval;
 import org.openlmis.requisition.dto.GeographicZoneDto;
 import org.openlmis.requisition.dto.MinimalFacilityDto;
 import org.openlmis.requisition.dto.ProcessingPeriodDto;
@@ -45,7 +47,6 @@ import org.springframework.stereotype.Component;
 public class ReportingRateReportDtoBuilder {
   private static int LATEST_PERIODS = 3;
   private static int GEOGRAPHIC_ZONE_LEVEL = 3;
-  private static RequisitionStatus REQUIRED_STATUS = RequisitionStatus.APPROVED;
 
   @Autowired
   private PeriodReferenceDataService periodReferenceDataService;
@@ -73,22 +74,62 @@ public class ReportingRateReportDtoBuilder {
 
     Collection<ProcessingPeriodDto> periods = getLatestPeriods(period, LATEST_PERIODS);
     Collection<GeographicZoneDto> zones = getAvailableGeographicZones(zone);
-    Collection<MinimalFacilityDto> facilities = getAvailableFacilities(zones);
+    Map<UUID, Collection<MinimalFacilityDto>> facilitiesByZone = getFacilitiesByZone(zones);
 
-    report.setCompletionByPeriod(getCompletionsByPeriod(program, periods, facilities, dueDays));
-    report.setCompletionByZone(getCompletionsByZone(program, periods, zones, dueDays));
+    List<MinimalFacilityDto> facilities = facilitiesByZone
+        .values()
+        .stream()
+        .flatMap(Collection::stream)
+        .collect(Collectors.toList());
+
+    Map<Pair<UUID, UUID>, List<RequisitionApproval>> approvals =
+        getApprovals(program, periods, facilities);
+
+    report.setCompletionByPeriod(
+        getCompletionsByPeriod(periods, facilities, approvals, dueDays));
+    report.setCompletionByZone(
+        getCompletionsByZone(periods, zones, facilitiesByZone, approvals, dueDays));
 
     return report;
   }
 
+  private Map<Pair<UUID, UUID>, List<RequisitionApproval>> getApprovals(ProgramDto program,
+      Collection<ProcessingPeriodDto> periods, Collection<MinimalFacilityDto> facilities) {
+    Set<UUID> periodIds = periods
+        .stream()
+        .map(ProcessingPeriodDto::getId)
+        .collect(Collectors.toSet());
+    Set<UUID> facilityIds = facilities
+        .stream()
+        .map(MinimalFacilityDto::getId)
+        .collect(Collectors.toSet());
+
+    return requisitionRepository
+        .searchRegularRequisitionApprovals(program.getId(), periodIds, facilityIds)
+        .stream()
+        .collect(Collectors.groupingBy(
+            approval -> Pair.of(approval.getFacilityId(), approval.getPeriodId())));
+  }
+
+  private Map<UUID, Collection<MinimalFacilityDto>> getFacilitiesByZone(
+      Collection<GeographicZoneDto> zones) {
+    Map<UUID, Collection<MinimalFacilityDto>> facilitiesByZone = new LinkedHashMap<>();
+
+    for (GeographicZoneDto zone : zones) {
+      facilitiesByZone.put(zone.getId(), getAvailableFacilities(Collections.singletonList(zone)));
+    }
+
+    return facilitiesByZone;
+  }
+
   private List<RequisitionCompletionDto> getCompletionsByPeriod(
-      ProgramDto program, Collection<ProcessingPeriodDto> periods,
-      Collection<MinimalFacilityDto> facilities, Integer dueDays) {
+      Collection<ProcessingPeriodDto> periods, Collection<MinimalFacilityDto> facilities,
+      Map<Pair<UUID, UUID>, List<RequisitionApproval>> approvals, Integer dueDays) {
     List<RequisitionCompletionDto> completionByPeriod = new ArrayList<>();
 
     for (ProcessingPeriodDto period : periods) {
       RequisitionCompletionDto completion = getCompletionForFacilities(
-          program, Collections.singletonList(period), facilities, dueDays);
+          Collections.singletonList(period), facilities, approvals, dueDays);
       completion.setGrouping(period.getName());
       completionByPeriod.add(completion);
     }
@@ -97,17 +138,17 @@ public class ReportingRateReportDtoBuilder {
   }
 
   private List<RequisitionCompletionDto> getCompletionsByZone(
-      ProgramDto program, Collection<ProcessingPeriodDto> periods,
-      Collection<GeographicZoneDto> zones, Integer dueDays) {
+      Collection<ProcessingPeriodDto> periods, Collection<GeographicZoneDto> zones,
+      Map<UUID, Collection<MinimalFacilityDto>> facilitiesByZone,
+      Map<Pair<UUID, UUID>, List<RequisitionApproval>> approvals, Integer dueDays) {
     List<RequisitionCompletionDto> completionByZone = new ArrayList<>();
 
     for (GeographicZoneDto zone : zones) {
-      Collection<MinimalFacilityDto> facilities =
-          getAvailableFacilities(Collections.singletonList(zone));
+      Collection<MinimalFacilityDto> facilities = facilitiesByZone.get(zone.getId());
 
       if (!facilities.isEmpty()) {
         RequisitionCompletionDto completion =
-            getCompletionForFacilities(program, periods, facilities, dueDays);
+            getCompletionForFacilities(periods, facilities, approvals, dueDays);
         completion.setGrouping(zone.getName());
         completionByZone.add(completion);
       }
@@ -121,16 +162,16 @@ public class ReportingRateReportDtoBuilder {
   }
 
   private RequisitionCompletionDto getCompletionForFacilities(
-      ProgramDto program, Collection<ProcessingPeriodDto> periods,
-      Collection<MinimalFacilityDto> facilities, Integer dueDays) {
+      Collection<ProcessingPeriodDto> periods, Collection<MinimalFacilityDto> facilities,
+      Map<Pair<UUID, UUID>, List<RequisitionApproval>> approvals, Integer dueDays) {
     CompletionCounter completions = new CompletionCounter();
 
     for (ProcessingPeriodDto period : periods) {
       LocalDate dueDate = period.getEndDate().plusDays(dueDays);
 
       for (MinimalFacilityDto facility : facilities) {
-        List<Requisition> requisitions = requisitionRepository
-            .searchRequisitions(period.getId(), facility.getId(), program.getId(), false);
+        List<RequisitionApproval> requisitions = approvals.getOrDefault(
+            Pair.of(facility.getId(), period.getId()), Collections.emptyList());
 
         updateCompletionsWithRequisitions(completions, requisitions, dueDate);
       }
@@ -157,20 +198,17 @@ public class ReportingRateReportDtoBuilder {
   }
 
   void updateCompletionsWithRequisitions(
-      CompletionCounter completions, List<Requisition> requisitions, LocalDate dueDate) {
+      CompletionCounter completions, List<RequisitionApproval> requisitions, LocalDate dueDate) {
     int missed = completions.getMissed();
     int late = completions.getLate();
     int onTime = completions.getOnTime();
 
     if (!requisitions.isEmpty()) {
-      for (Requisition requisition : requisitions) {
-        Optional<StatusChange> entry = requisition.getStatusChanges().stream()
-            .filter(statusChange -> statusChange.getStatus() == REQUIRED_STATUS)
-            .findFirst();
-        if (!entry.isPresent()) {
+      for (RequisitionApproval requisition : requisitions) {
+        if (!requisition.isApproved()) {
           missed++;
         } else {
-          LocalDate submissionDate = entry.get().getCreatedDate().toLocalDate();
+          LocalDate submissionDate = requisition.getApprovedDate().toLocalDate();
           if (submissionDate.isAfter(dueDate)) {
             late++;
           } else {
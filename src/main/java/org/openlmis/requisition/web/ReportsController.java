@@ -17,6 +17,7 @@ package org.openlmis.requisition.web;
 
 import java.nio.charset.StandardCharsets;
 import java.util.UUID;
+import javax.servlet.http.HttpServletResponse;
 import org.openlmis.requisition.domain.requisition.Requisition;
 import org.openlmis.requisition.exception.ContentNotFoundMessageException;
 import org.openlmis.requisition.exception.JasperReportViewException;
@@ -26,13 +27,13 @@ import org.openlmis.requisition.service.JasperReportsViewService;
 import org.openlmis.requisition.service.PermissionService;
 import org.openlmis.requisition.utils.Message;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
-import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.bind.annotation.ResponseStatus;
 
 @Controller
 public class ReportsController extends BaseController {
@@ -47,15 +48,14 @@ public class ReportsController extends BaseController {
   private JasperReportsViewService jasperReportsViewService;
 
   /**
-   * Print out requisition as a PDF file.
+   * Print out requisition as a PDF file. The file is written directly to the response.
    *
    * @param id The UUID of the requisition to print
-   * @return ResponseEntity with the "#200 OK" HTTP response status and PDF file on success, or
-   *     ResponseEntity containing the error description status.
+   * @param response response the PDF file is written to
    */
   @RequestMapping(value = "/requisitions/{id}/print", method = RequestMethod.GET)
-  @ResponseBody
-  public ResponseEntity<byte[]> print(@PathVariable("id") UUID id)
+  @ResponseStatus(HttpStatus.OK)
+  public void print(@PathVariable("id") UUID id, HttpServletResponse response)
       throws JasperReportViewException {
     permissionService.canViewRequisition(id).throwExceptionIfHasErrors();
 
@@ -63,12 +63,8 @@ public class ReportsController extends BaseController {
         .orElseThrow(() -> new ContentNotFoundMessageException(
             new Message(MessageKeys.ERROR_REQUISITION_NOT_FOUND, id)));
 
-    byte[] bytes = jasperReportsViewService.generateRequisitionReport(requisition);
-
-    return ResponseEntity
-        .ok()
-        .contentType(new MediaType("application", "pdf", StandardCharsets.UTF_8))
-        .header("Content-Disposition", "inline; filename=requisition" + id.toString() + ".pdf")
-        .body(bytes);
+    jasperReportsViewService.generateRequisitionReport(requisition, reportOutput(response,
+        new MediaType("application", "pdf", StandardCharsets.UTF_8),
+        "requisition" + id.toString() + ".pdf"));
   }
 }
@@ -44,7 +44,9 @@ import org.openlmis.requisition.dto.VersionIdentityDto;
 import org.openlmis.requisition.exception.ValidationMessageException;
 import org.openlmis.requisition.i18n.MessageKeys;
 import org.openlmis.requisition.repository.custom.DefaultRequisitionSearchParams;
+import org.openlmis.requisition.repository.custom.RequisitionKeyset;
 import org.openlmis.requisition.repository.custom.RequisitionSearchParams;
+import org.openlmis.requisition.service.PageDto;
 import org.openlmis.requisition.service.RequisitionStatusNotifier;
 import org.openlmis.requisition.service.referencedata.SupervisoryNodeReferenceDataService;
 import org.openlmis.requisition.utils.Message;
@@ -54,6 +56,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.i18n.LocaleContextHolder;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.domain.Sort.Direction;
 import org.springframework.data.web.SortDefault;
 import org.springframework.http.HttpHeaders;
@@ -77,6 +81,10 @@ import org.springframework.web.bind.annotation.ResponseStatus;
 public class RequisitionController extends BaseRequisitionController {
 
   private static final String BUILD_DTO_LIST = "BUILD_DTO_LIST";
+  private static final String CONTINUATION_TOKEN = "continuationToken";
+  static final String CONTINUATION_TOKEN_HEADER = "Continuation-Token";
+  private static final Sort KEYSET_SORT = Sort.by("createdDate", "id");
+  static final int DEFAULT_KEYSET_PAGE_SIZE = 100;
 
   @Autowired
   private RequisitionStatusNotifier requisitionStatusNotifier;
@@ -277,16 +285,21 @@ public class RequisitionController extends BaseRequisitionController {
    * Get chosen requisition.
    *
    * @param requisitionId UUID of requisition whose we want to get
-   * @return Requisition.
+   * @return Requisition or nothing if the client already has its current version.
    */
   @GetMapping(RESOURCE_URL + "/{id}")
-  @ResponseStatus(HttpStatus.OK)
   @ResponseBody
   public RequisitionDto getRequisition(@PathVariable("id") UUID requisitionId,
-      HttpServletResponse response) {
+      HttpServletRequest request, HttpServletResponse response) {
     Profiler profiler = getProfiler("GET_REQUISITION", requisitionId);
     Requisition requisition = findRequisition(requisitionId, profiler);
     checkPermission(profiler, () -> permissionService.canViewRequisition(requisition));
+
+    if (checkNotModified(requisition, request, response, profiler)) {
+      stopProfiler(profiler);
+      return null;
+    }
+
     RequisitionDto requisitionDto = buildDto(
         profiler, requisition,
         findOrderables(profiler, requisition::getAllOrderables),
@@ -303,19 +316,40 @@ public class RequisitionController extends BaseRequisitionController {
   }
 
   /**
-   * Finds requisitions matching all of the provided parameters.
+   * Finds requisitions matching all of the provided parameters. If the continuation token is
+   * given (an empty one for the first page), requisitions are returned in keyset mode: sorted by
+   * created date and id, without counting all matching requisitions, and with the token for the
+   * next page in the response header. The sort and page parameters are rejected in this mode,
+   * and the totals of the returned page describe only that page.
    */
   @GetMapping(RESOURCE_URL + "/search")
   @ResponseStatus(HttpStatus.OK)
   @ResponseBody
   public Page<BasicRequisitionDto> searchRequisitions(
       @RequestParam MultiValueMap<String, String> queryParams,
-      Pageable pageable) {
+      @RequestParam(value = CONTINUATION_TOKEN, required = false) String continuationToken,
+      Pageable pageable, HttpServletResponse response) {
 
     RequisitionSearchParams params = new QueryRequisitionSearchParams(queryParams);
 
     Profiler profiler = getProfiler("REQUISITIONS_SEARCH", params);
 
+    if (null != continuationToken) {
+      checkKeysetPageable(pageable);
+
+      profiler.start("REQUISITION_SERVICE_SEARCH_KEYSET");
+      RequisitionKeyset keyset = RequisitionKeyset.fromToken(continuationToken);
+      Slice<Requisition> requisitionSlice = requisitionService.searchRequisitions(params,
+          keyset, getKeysetPageSize(pageable));
+
+      profiler.start("REQUISITION_DTO_BUILD");
+      Page<BasicRequisitionDto> requisitionDtoPage =
+          toKeysetPage(requisitionSlice, null == keyset, response);
+
+      stopProfiler(profiler, requisitionDtoPage);
+      return requisitionDtoPage;
+    }
+
     profiler.start("REQUISITION_SERVICE_SEARCH");
     Page<Requisition> requisitionPage = requisitionService.searchRequisitions(params, pageable);
 
@@ -457,7 +491,9 @@ public class RequisitionController extends BaseRequisitionController {
   }
 
   /**
-   * Get requisitions to approve for right supervisor.
+   * Get requisitions to approve for right supervisor. If the continuation token is given (an
+   * empty one for the first page), requisitions are returned in keyset mode, like in the search
+   * endpoint.
    *
    * @return Approved requisitions.
    */
@@ -466,10 +502,27 @@ public class RequisitionController extends BaseRequisitionController {
   @ResponseBody
   public Page<BasicRequisitionDto> requisitionsForApproval(
       @RequestParam(value = "program", required = false) UUID programId,
-      Pageable pageable) {
+      @RequestParam(value = CONTINUATION_TOKEN, required = false) String continuationToken,
+      Pageable pageable, HttpServletResponse response) {
     Profiler profiler = getProfiler("REQUISITIONS_FOR_APPROVAL", programId, pageable);
     UserDto user = getCurrentUser(profiler);
 
+    if (null != continuationToken) {
+      checkKeysetPageable(pageable);
+
+      profiler.start("REQUISITION_SERVICE_GET_FOR_APPROVAL_KEYSET");
+      RequisitionKeyset keyset = RequisitionKeyset.fromToken(continuationToken);
+      Slice<Requisition> approvalRequisitions = requisitionService
+          .getRequisitionsForApproval(user, programId, keyset, getKeysetPageSize(pageable));
+
+      profiler.start(BUILD_DTO_LIST);
+      Page<BasicRequisitionDto> dtoPage =
+          toKeysetPage(approvalRequisitions, null == keyset, response);
+
+      stopProfiler(profiler);
+      return dtoPage;
+    }
+
     profiler.start("REQUISITION_SERVICE_GET_FOR_APPROVAL");
     Page<Requisition> approvalRequisitions = requisitionService
         .getRequisitionsForApproval(user, programId, pageable);
@@ -632,4 +685,44 @@ public class RequisitionController extends BaseRequisitionController {
         requisition.getProgramId(), requisition.getSupervisoryNodeId());
   }
 
+  /**
+   * Keyset pages are always sorted by created date and id and are selected with the continuation
+   * token, so sort and page number would be silently ignored.
+   */
+  private void checkKeysetPageable(Pageable pageable) {
+    if (pageable.getSort().isSorted() || pageable.getPageNumber() != 0) {
+      throw new ValidationMessageException(
+          MessageKeys.ERROR_SEARCH_CONTINUATION_TOKEN_PAGEABLE);
+    }
+  }
+
+  /**
+   * Without the size parameter the pageable is not paginated, but a keyset page has to be bounded
+   * because it is fetched with one row more than its size.
+   */
+  private int getKeysetPageSize(Pageable pageable) {
+    return pageable.getPageSize() == Pagination.NO_PAGINATION
+        ? DEFAULT_KEYSET_PAGE_SIZE
+        : pageable.getPageSize();
+  }
+
+  /**
+   * Converts the given slice into a page that contains only the slice content. The total number
+   * of requisitions is not known, so the totals describe the returned page only and whether
+   * there are more requisitions is told by the last flag. The token for the next slice is added
+   * to the response header if there are more requisitions.
+   */
+  private Page<BasicRequisitionDto> toKeysetPage(Slice<Requisition> slice, boolean first,
+      HttpServletResponse response) {
+    List<Requisition> requisitions = slice.getContent();
+
+    if (slice.hasNext()) {
+      response.setHeader(CONTINUATION_TOKEN_HEADER,
+          RequisitionKeyset.of(requisitions.get(requisitions.size() - 1)).toToken());
+    }
+
+    return new PageDto<>(!slice.hasNext(), first, requisitions.isEmpty() ? 0 : 1,
+        requisitions.size(), slice.getSize(), 0, requisitions.size(), KEYSET_SORT,
+        basicRequisitionDtoBuilder.build(requisitions));
+  }
 }
@@ -47,6 +47,7 @@ import org.openlmis.requisition.utils.RequisitionExportHelper;
 import org.slf4j.ext.XLogger;
 import org.slf4j.ext.XLoggerFactory;
 import org.slf4j.profiler.Profiler;
+import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
@@ -187,10 +188,8 @@ public class RequisitionDtoBuilder {
     profiler.start("SET_LINE_ITEMS");
     requisitionDto.setRequisitionLineItems(requisitionLineItemDtoList);
 
-    if (requisition.getAvailableProducts() != null) {
-      profiler.start("SET_AVAILABLE_PRODUCTS");
-      setAvailableProductsDto(requisitionDto, requisition, orderables.values());
-    }
+    profiler.start("SET_AVAILABLE_PRODUCTS");
+    setAvailableProductsDto(requisitionDto, requisition, orderables.values());
 
     profiler.start("SET_STOCK_ADJ_REASONS");
     requisitionDto.setStockAdjustmentReasons(newInstance(requisition.getStockAdjustmentReasons()));
@@ -249,10 +248,7 @@ public class RequisitionDtoBuilder {
     requisitionDto.setTemplate(
         BasicRequisitionTemplateDto.newInstance(requisition.getTemplate()));
 
-    if (facility != null) {
-      facility.setSupportedPrograms(null);
-    }
-    requisitionDto.setFacility(facility);
+    requisitionDto.setFacility(withoutSupportedPrograms(facility));
     if (period != null) {
       requisitionDto.setProcessingPeriod(period);
     } else {
@@ -262,6 +258,18 @@ public class RequisitionDtoBuilder {
     requisitionDto.setProgram(program);
   }
 
+  private FacilityDto withoutSupportedPrograms(FacilityDto facility) {
+    if (null == facility) {
+      return null;
+    }
+
+    // the facility may be shared with the caller, so supported programs are left out of a copy
+    FacilityDto copy = new FacilityDto();
+    BeanUtils.copyProperties(facility, copy, "supportedPrograms");
+
+    return copy;
+  }
+
   private void setAvailableProductsDto(RequisitionDto requisitionDto, Requisition requisition,
       Collection<OrderableDto> orderables) {
     Collection<OrderableDto> localOrderables;
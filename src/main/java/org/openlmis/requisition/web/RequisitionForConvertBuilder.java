@@ -127,13 +127,24 @@ public class RequisitionForConvertBuilder {
    * @return list of facilities
    */
   public List<FacilityDto> getAvailableSupplyingDepots(UUID requisitionId) {
-    return getAvailableSupplyingDepotsForRequisition(
-        Objects.requireNonNull(requisitionRepository.findById(requisitionId).orElse(null)));
+    Requisition requisition = Objects
+        .requireNonNull(requisitionRepository.findById(requisitionId).orElse(null));
+
+    return getAvailableSupplyingDepots(requisition.getProgramId(),
+        requisition.getSupervisoryNodeId());
   }
 
-  private List<FacilityDto> getAvailableSupplyingDepotsForRequisition(Requisition requisition) {
+  /**
+   * Retrieves available supplying depots for requisitions of the given program and supervisory
+   * node.
+   *
+   * @param programId         id of requisition's program
+   * @param supervisoryNodeId id of requisition's supervisory node
+   * @return list of facilities
+   */
+  public List<FacilityDto> getAvailableSupplyingDepots(UUID programId, UUID supervisoryNodeId) {
     List<SupplyLineDto> supplyLines = supplyLineReferenceDataService
-            .search(requisition.getProgramId(), requisition.getSupervisoryNodeId());
+            .search(programId, supervisoryNodeId);
 
     return supplyLines
             .stream()
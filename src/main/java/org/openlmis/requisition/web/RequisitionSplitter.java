@@ -199,7 +199,7 @@ class RequisitionSplitter {
     partnerRequisition.setStatusChanges(Lists.newArrayList());
     partnerRequisition.setSupervisoryNodeId(association.getSupervisoryNodeId());
     partnerRequisition.setPreviousRequisitions(Lists.newArrayList());
-    partnerRequisition.setAvailableProducts(Sets.newHashSet());
+    partnerRequisition.setAvailableProductSet(null);
 
     partnerRequisition.setExtraData(requisition.getExtraData());
     partnerRequisition.setOriginalRequisitionId(requisition.getId());
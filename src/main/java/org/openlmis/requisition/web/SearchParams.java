@@ -45,6 +45,7 @@ public final class SearchParams {
   private static final String SIZE = "size";
   private static final String SORT = "sort";
   private static final String ACCESS_TOKEN = "access_token";
+  private static final String CONTINUATION_TOKEN = "continuationToken";
 
   private MultiValueMap<String, String> params;
 
@@ -58,6 +59,7 @@ public final class SearchParams {
       params.remove(SIZE);
       params.remove(SORT);
       params.remove(ACCESS_TOKEN);
+      params.remove(CONTINUATION_TOKEN);
     } else {
       params = new LinkedMultiValueMap<>();
     }
@@ -0,0 +1 @@
+CREATE INDEX req_created_date_id_idx ON requisitions (createddate, id);
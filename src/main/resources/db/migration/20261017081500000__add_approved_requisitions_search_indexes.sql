@@ -0,0 +1,2 @@
+CREATE INDEX req_status_program_node_idx ON requisitions (status, programid, supervisorynodeid);
+CREATE INDEX status_changes_requisitionid_status_idx ON status_changes (requisitionid, status);
@@ -0,0 +1 @@
+CREATE INDEX req_program_period_facility_idx ON requisitions (programid, processingperiodid, facilityid);
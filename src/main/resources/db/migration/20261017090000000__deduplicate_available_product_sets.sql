@@ -0,0 +1,58 @@
+CREATE TABLE available_product_sets (
+    id uuid PRIMARY KEY
+);
+
+CREATE TABLE available_product_set_items (
+    availableProductSetId uuid NOT NULL REFERENCES available_product_sets (id),
+    orderableId uuid,
+    orderableVersionNumber bigint,
+    facilityTypeApprovedProductId uuid,
+    facilityTypeApprovedProductVersionNumber bigint
+);
+
+CREATE INDEX available_product_set_items_set_idx
+    ON available_product_set_items (availableProductSetId);
+
+ALTER TABLE requisitions
+    ADD COLUMN availableProductSetId uuid REFERENCES available_product_sets (id);
+
+-- The set id has to be calculated in the same way as in AvailableProductSet.idOf
+CREATE TEMPORARY TABLE requisition_available_product_sets AS
+    SELECT requisitionId,
+        CAST(md5(string_agg(line, E'\n' ORDER BY line COLLATE "C")) AS uuid) AS availableProductSetId
+    FROM (
+        SELECT DISTINCT requisitionId,
+            concat_ws(':',
+                COALESCE(CAST(orderableId AS text), ''),
+                COALESCE(CAST(orderableVersionNumber AS text), ''),
+                COALESCE(CAST(facilityTypeApprovedProductId AS text), ''),
+                COALESCE(CAST(facilityTypeApprovedProductVersionNumber AS text), '')) AS line
+        FROM available_products
+    ) AS lines
+    GROUP BY requisitionId;
+
+INSERT INTO available_product_sets (id)
+    SELECT DISTINCT availableProductSetId
+    FROM requisition_available_product_sets;
+
+-- Items are copied once per set, from any requisition that uses it
+INSERT INTO available_product_set_items (availableProductSetId, orderableId,
+        orderableVersionNumber, facilityTypeApprovedProductId,
+        facilityTypeApprovedProductVersionNumber)
+    SELECT DISTINCT s.availableProductSetId, p.orderableId, p.orderableVersionNumber,
+        p.facilityTypeApprovedProductId, p.facilityTypeApprovedProductVersionNumber
+    FROM (
+        SELECT DISTINCT ON (availableProductSetId) availableProductSetId, requisitionId
+        FROM requisition_available_product_sets
+        ORDER BY availableProductSetId, requisitionId
+    ) AS s
+    JOIN available_products AS p ON p.requisitionId = s.requisitionId;
+
+UPDATE requisitions AS r
+    SET availableProductSetId = s.availableProductSetId
+    FROM requisition_available_product_sets AS s
+    WHERE s.requisitionId = r.id;
+
+DROP TABLE requisition_available_product_sets;
+
+DROP TABLE available_products;
@@ -0,0 +1,48 @@
+CREATE TABLE requisitions_stock_adjustment_reasons (
+    requisitionId uuid NOT NULL REFERENCES requisitions (id),
+    stockAdjustmentReasonId uuid NOT NULL,
+    PRIMARY KEY (requisitionId, stockAdjustmentReasonId)
+);
+
+-- The snapshot id has to be calculated in the same way as in
+-- StockAdjustmentReason.calculateSnapshotId
+CREATE TEMPORARY TABLE stock_adjustment_reason_snapshot_ids AS
+    SELECT id, requisitionId,
+        CAST(md5(concat_ws(E'\x1f',
+            COALESCE('+' || CAST(reasonId AS text), ''),
+            COALESCE('+' || name, ''),
+            COALESCE('+' || description, ''),
+            COALESCE('+' || reasonType, ''),
+            COALESCE('+' || reasonCategory, ''),
+            COALESCE('+' || CAST(isFreeTextAllowed AS text), ''),
+            COALESCE('+' || CAST(hidden AS text), ''))) AS uuid) AS snapshotId
+    FROM stock_adjustment_reasons;
+
+INSERT INTO requisitions_stock_adjustment_reasons (requisitionId, stockAdjustmentReasonId)
+    SELECT DISTINCT requisitionId, snapshotId
+    FROM stock_adjustment_reason_snapshot_ids
+    WHERE requisitionId IS NOT NULL;
+
+-- Each distinct reason is stored once with its snapshot id, copies are removed
+INSERT INTO stock_adjustment_reasons (id, reasonId, description, isFreeTextAllowed, name,
+        reasonCategory, reasonType, hidden)
+    SELECT DISTINCT ON (s.snapshotId) s.snapshotId, r.reasonId, r.description,
+        r.isFreeTextAllowed, r.name, r.reasonCategory, r.reasonType, r.hidden
+    FROM stock_adjustment_reason_snapshot_ids AS s
+    JOIN stock_adjustment_reasons AS r ON r.id = s.id
+    ORDER BY s.snapshotId;
+
+DELETE FROM stock_adjustment_reasons
+    WHERE id IN (SELECT id FROM stock_adjustment_reason_snapshot_ids);
+
+DROP TABLE stock_adjustment_reason_snapshot_ids;
+
+ALTER TABLE stock_adjustment_reasons
+    DROP CONSTRAINT fk_stock_adjustment_reasons_requisitions;
+
+ALTER TABLE stock_adjustment_reasons
+    DROP COLUMN requisitionId;
+
+ALTER TABLE requisitions_stock_adjustment_reasons
+    ADD CONSTRAINT fk_requisitions_stock_adjustment_reasons_reasons
+    FOREIGN KEY (stockAdjustmentReasonId) REFERENCES stock_adjustment_reasons (id);
@@ -0,0 +1,90 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.requisition;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import org.apache.http.HttpHost;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class HttpClientConfigurationTest {
+  private static final String BASE_URL = "http://localhost";
+  private static final String STOCK_URL = "https://stock.example.org:8443";
+
+  private HttpClientConfiguration configuration = new HttpClientConfiguration();
+  private MockEnvironment environment = new MockEnvironment();
+
+  @Before
+  public void setUp() {
+    ReflectionTestUtils.setField(configuration, "maxConnections", 100);
+    ReflectionTestUtils.setField(configuration, "maxConnectionsPerHost", 20);
+
+    environment
+        .withProperty("auth.server.authorizationUrl", BASE_URL + "/api/oauth/token")
+        .withProperty("referencedata.url", BASE_URL)
+        .withProperty("fulfillment.url", BASE_URL)
+        .withProperty("notification.url", BASE_URL)
+        .withProperty("stockmanagement.url", STOCK_URL);
+  }
+
+  @Test
+  public void shouldSetLimitsOfConnectionPool() {
+    PoolingHttpClientConnectionManager manager = configuration
+        .httpConnectionManager(environment);
+
+    assertThat(manager.getMaxTotal(), is(100));
+    assertThat(manager.getDefaultMaxPerRoute(), is(20));
+    assertThat(manager.getMaxPerRoute(HttpClientConfiguration.toRoute(BASE_URL)), is(20));
+  }
+
+  @Test
+  public void shouldSetLimitForEachTargetHost() {
+    environment.setProperty("http.client.stockmanagement.maxConnections", "5");
+
+    PoolingHttpClientConnectionManager manager = configuration
+        .httpConnectionManager(environment);
+
+    assertThat(manager.getMaxPerRoute(HttpClientConfiguration.toRoute(STOCK_URL)), is(5));
+    assertThat(manager.getMaxPerRoute(HttpClientConfiguration.toRoute(BASE_URL)), is(20));
+  }
+
+  @Test
+  public void shouldUseHighestLimitOfTargetsSharingHost() {
+    environment.setProperty("http.client.referencedata.maxConnections", "40");
+    environment.setProperty("http.client.notification.maxConnections", "2");
+
+    PoolingHttpClientConnectionManager manager = configuration
+        .httpConnectionManager(environment);
+
+    assertThat(manager.getMaxPerRoute(HttpClientConfiguration.toRoute(BASE_URL)), is(40));
+  }
+
+  @Test
+  public void shouldCreateRouteWithDefaultPortOfScheme() {
+    assertThat(HttpClientConfiguration.toRoute("http://localhost/api/facilities"),
+        is(new HttpRoute(new HttpHost("localhost", 80, "http"), null, false)));
+    assertThat(HttpClientConfiguration.toRoute("https://example.org/api"),
+        is(new HttpRoute(new HttpHost("example.org", 443, "https"), null, true)));
+    assertThat(HttpClientConfiguration.toRoute(STOCK_URL),
+        is(new HttpRoute(new HttpHost("stock.example.org", 8443, "https"), null, true)));
+  }
+}
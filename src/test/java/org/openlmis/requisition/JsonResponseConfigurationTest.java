@@ -0,0 +1,79 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.requisition;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.junit.Assert.assertThat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.Before;
+import org.junit.Test;
+
+public class JsonResponseConfigurationTest {
+
+  private ObjectMapper objectMapper = new ObjectMapper();
+  private Map<String, Object> value = new HashMap<>();
+
+  @Before
+  public void setUp() {
+    value.put("name", "value");
+    value.put("empty", null);
+  }
+
+  @Test
+  public void shouldWriteCompactJsonWithNullsByDefault() throws Exception {
+    String json = JsonResponseConfiguration
+        .responseObjectMapper(objectMapper, false, false)
+        .writeValueAsString(value);
+
+    assertThat(json, not(containsString("\n")));
+    assertThat(json, containsString("\"empty\":null"));
+  }
+
+  @Test
+  public void shouldIndentJsonIfEnabled() throws Exception {
+    String json = JsonResponseConfiguration
+        .responseObjectMapper(objectMapper, true, false)
+        .writeValueAsString(value);
+
+    assertThat(json, containsString("\n"));
+  }
+
+  @Test
+  public void shouldOmitNullsIfEnabled() throws Exception {
+    String json = JsonResponseConfiguration
+        .responseObjectMapper(objectMapper, false, true)
+        .writeValueAsString(value);
+
+    assertThat(json, is("{\"name\":\"value\"}"));
+  }
+
+  @Test
+  public void shouldNotChangeSharedObjectMapper() throws Exception {
+    objectMapper.enable(SerializationFeature.INDENT_OUTPUT);
+
+    JsonResponseConfiguration.responseObjectMapper(objectMapper, false, true);
+
+    String json = objectMapper.writeValueAsString(value);
+    assertThat(json, containsString("\n"));
+    assertThat(json, containsString("\"empty\" : null"));
+  }
+}
@@ -20,6 +20,7 @@ import static org.openlmis.requisition.TestDataInitializer.COLUMNS_MAPS_TABLE;
 import static org.openlmis.requisition.TestDataInitializer.JASPER_TEMPLATES_TABLE;
 import static org.openlmis.requisition.TestDataInitializer.JASPER_TEMPLATE_PARAMETER_DEPENDENCIES_TABLE;
 import static org.openlmis.requisition.TestDataInitializer.PREVIOUS_ADJUSTED_CONSUMPTIONS_TABLE;
+import static org.openlmis.requisition.TestDataInitializer.REQUISITIONS_STOCK_ADJUSTMENT_REASONS_TABLE;
 import static org.openlmis.requisition.TestDataInitializer.REQUISITIONS_TABLE;
 import static org.openlmis.requisition.TestDataInitializer.REQUISITION_LINE_ITEMS_TABLE;
 import static org.openlmis.requisition.TestDataInitializer.REQUISITION_TEMPLATES_TABLE;
@@ -67,6 +68,9 @@ public class TestDataInitializerTest {
   @Mock
   private Resource requisitionsResource;
 
+  @Mock
+  private Resource requisitionsStockAdjustmentReasonsResource;
+
   @Mock
   private Resource statusChangesResource;
 
@@ -113,6 +117,8 @@ public class TestDataInitializerTest {
     verify(loader).insertToDbFromCsv(STATUS_MESSAGES_TABLE, statusMessagesResource);
     verify(loader)
         .insertToDbFromCsv(STOCK_ADJUSTMENT_REASONS_TABLE, stockAdjustmentReasonsResource);
+    verify(loader).insertToDbFromCsv(REQUISITIONS_STOCK_ADJUSTMENT_REASONS_TABLE,
+        requisitionsStockAdjustmentReasonsResource);
     verify(loader).insertToDbFromCsv(STOCK_ADJUSTMENTS_TABLE, stockAdjustmentsResource);
     verify(loader).insertToDbFromCsv(TEMPLATE_PARAMETERS_TABLE, templateParametersResource);
 
@@ -0,0 +1,68 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.requisition.domain.requisition;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+import java.util.UUID;
+import org.junit.Test;
+
+public class AvailableProductSetTest {
+
+  private static final UUID ORDERABLE_ID = UUID.fromString("00000000-0000-0000-0000-000000000001");
+  private static final UUID FTAP_ID = UUID.fromString("00000000-0000-0000-0000-000000000002");
+  private static final UUID OTHER_ORDERABLE_ID =
+      UUID.fromString("00000000-0000-0000-0000-000000000003");
+  private static final UUID OTHER_FTAP_ID =
+      UUID.fromString("00000000-0000-0000-0000-000000000004");
+
+  private ApprovedProductReference product = new ApprovedProductReference(
+      FTAP_ID, 2L, ORDERABLE_ID, 1L);
+  private ApprovedProductReference otherProduct = new ApprovedProductReference(
+      OTHER_FTAP_ID, null, OTHER_ORDERABLE_ID, 4L);
+
+  @Test
+  public void shouldCalculateIdInTheSameWayAsDatabaseMigration() {
+    // md5 of the sorted product lines, the same value is calculated by the migration SQL
+    assertThat(AvailableProductSet.idOf(Arrays.asList(otherProduct, product)))
+        .isEqualTo(UUID.fromString("b3682f16-4079-e8d6-a742-13d656005ffb"));
+  }
+
+  @Test
+  public void shouldCalculateTheSameIdRegardlessOfOrderAndDuplicates() {
+    assertThat(AvailableProductSet.idOf(Arrays.asList(product, otherProduct)))
+        .isEqualTo(AvailableProductSet.idOf(Arrays.asList(otherProduct, product, product)));
+  }
+
+  @Test
+  public void shouldCalculateDifferentIdsForDifferentVersions() {
+    ApprovedProductReference newerProduct = new ApprovedProductReference(
+        FTAP_ID, 3L, ORDERABLE_ID, 1L);
+
+    assertThat(AvailableProductSet.idOf(Arrays.asList(product, otherProduct)))
+        .isNotEqualTo(AvailableProductSet.idOf(Arrays.asList(newerProduct, otherProduct)));
+  }
+
+  @Test
+  public void shouldCreateSetWithContentBasedId() {
+    AvailableProductSet set = new AvailableProductSet(Arrays.asList(product, otherProduct));
+
+    assertThat(set.getId())
+        .isEqualTo(AvailableProductSet.idOf(Arrays.asList(product, otherProduct)));
+    assertThat(set.getProducts()).containsOnly(product, otherProduct);
+  }
+}
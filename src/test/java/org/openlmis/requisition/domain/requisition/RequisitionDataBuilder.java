@@ -96,7 +96,7 @@ public class RequisitionDataBuilder implements DataBuilder<Requisition>,
     requisition.setReportOnly(reportOnly);
     requisition.setNumberOfMonthsInPeriod(numberOfMonthsInPeriod);
     requisition.setPreviousRequisitions(previousRequisitions);
-    requisition.setAvailableProducts(availableProducts);
+    requisition.setAvailableProductSet(buildAvailableProductSet());
     requisition.setDatePhysicalStockCountCompleted(datePhysicalStockCountCompleted);
     requisition.setStockAdjustmentReasons(stockAdjustmentReasons);
     requisition.setExtraData(extraData);
@@ -128,7 +128,7 @@ public class RequisitionDataBuilder implements DataBuilder<Requisition>,
     Requisition requisition = new Requisition(
         requisitionLineItems, version, draftStatusMessage, template, facilityId, programId,
         processingPeriodId, supplyingFacilityId, status, statusChanges, emergency, reportOnly,
-        numberOfMonthsInPeriod, supervisoryNodeId, previousRequisitions, availableProducts,
+        numberOfMonthsInPeriod, supervisoryNodeId, previousRequisitions, buildAvailableProductSet(),
         datePhysicalStockCountCompleted, stockAdjustmentReasons, permissionStrings,
         new ExtraDataEntity(extraData)
     );
@@ -384,5 +384,8 @@ public class RequisitionDataBuilder implements DataBuilder<Requisition>,
     modifiedDate = null;
     return this;
   }
-}
 
+  private AvailableProductSet buildAvailableProductSet() {
+    return availableProducts.isEmpty() ? null : new AvailableProductSet(availableProducts);
+  }
+}
@@ -632,6 +632,58 @@ public class RequisitionTest {
         .forEach(line -> assertThat(line.getRequisition().getId(), is(requisition.getId())));
   }
 
+  @Test
+  public void shouldMergeLineItemsByIdInOrderOfUpdate() {
+    // given
+    RequisitionLineItem otherLineItem = new RequisitionLineItemDataBuilder()
+        .withId(UUID.randomUUID())
+        .build();
+    requisition.getRequisitionLineItems().add(otherLineItem);
+
+    RequisitionLineItem updatedOtherLineItem = new RequisitionLineItemDataBuilder()
+        .withId(otherLineItem.getId())
+        .withOrderable(otherLineItem.getOrderable().getId(),
+            otherLineItem.getOrderable().getVersionNumber())
+        .withRequestedQuantity(5)
+        .build();
+    RequisitionLineItem updatedLineItem = new RequisitionLineItemDataBuilder()
+        .withId(requisitionLineItem.getId())
+        .withOrderable(requisitionLineItem.getOrderable().getId(),
+            requisitionLineItem.getOrderable().getVersionNumber())
+        .withRequestedQuantity(7)
+        .build();
+    RequisitionLineItem newLineItem = new RequisitionLineItemDataBuilder()
+        .withId(UUID.randomUUID())
+        .build();
+
+    Requisition newRequisition = new Requisition();
+    newRequisition.setRequisitionLineItems(
+        Lists.newArrayList(updatedOtherLineItem, updatedLineItem, newLineItem));
+
+    newRequisition
+        .getRequisitionLineItems()
+        .stream()
+        .map(line -> new OrderableDtoDataBuilder()
+            .withId(line.getOrderable().getId())
+            .withVersionNumber(line.getOrderable().getVersionNumber())
+            .withProgramOrderable(requisition.getProgramId(), true)
+            .buildAsDto())
+        .forEach(orderable -> orderables.put(orderable.getIdentity(), orderable));
+
+    // when
+    requisition.setTemplate(template);
+    requisition.updateFrom(newRequisition, orderables, approvedProducts, true);
+
+    // then
+    List<RequisitionLineItem> lineItems = requisition.getRequisitionLineItems();
+    assertThat(lineItems, hasSize(3));
+    assertTrue(otherLineItem == lineItems.get(0));
+    assertTrue(requisitionLineItem == lineItems.get(1));
+    assertTrue(newLineItem == lineItems.get(2));
+    assertThat(otherLineItem.getRequestedQuantity(), is(5));
+    assertThat(requisitionLineItem.getRequestedQuantity(), is(7));
+  }
+
   @Test
   public void shouldSetNullForCalculatedValuesIfColumnIsHidden() {
     requisitionLineItem.setStockOnHand(10);
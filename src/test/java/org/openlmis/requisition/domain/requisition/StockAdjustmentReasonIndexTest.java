@@ -0,0 +1,84 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.requisition.domain.requisition;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.google.common.collect.Lists;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.junit.Test;
+import org.openlmis.requisition.dto.ReasonType;
+import org.openlmis.requisition.testutils.StockAdjustmentReasonDataBuilder;
+
+public class StockAdjustmentReasonIndexTest {
+
+  private StockAdjustmentReasonDataBuilder builder = new StockAdjustmentReasonDataBuilder();
+
+  @Test
+  public void shouldIndexReasonsByReasonId() {
+    StockAdjustmentReason reason = snapshot(builder.build());
+
+    Map<UUID, StockAdjustmentReason> index = StockAdjustmentReasonIndex
+        .of(Lists.newArrayList(reason));
+
+    assertThat(index).containsOnlyKeys(reason.getReasonId());
+    assertThat(index.get(reason.getReasonId())).isEqualTo(reason);
+  }
+
+  @Test
+  public void shouldKeepFirstReasonWithTheSameReasonId() {
+    StockAdjustmentReason first = snapshot(builder.withReasonType(ReasonType.CREDIT).build());
+    StockAdjustmentReason second = snapshot(builder.withReasonType(ReasonType.DEBIT).build());
+
+    Map<UUID, StockAdjustmentReason> index = StockAdjustmentReasonIndex
+        .of(Lists.newArrayList(first, second));
+
+    assertThat(index.get(first.getReasonId()).getReasonType()).isEqualTo(ReasonType.CREDIT);
+  }
+
+  @Test
+  public void shouldShareIndexOfTheSameSnapshots() {
+    List<StockAdjustmentReason> reasons = Lists.newArrayList(
+        snapshot(builder.build()), snapshot(new StockAdjustmentReasonDataBuilder().build()));
+
+    Map<UUID, StockAdjustmentReason> index = StockAdjustmentReasonIndex.of(reasons);
+
+    assertThat(StockAdjustmentReasonIndex.of(Lists.newArrayList(reasons))).isSameAs(index);
+  }
+
+  @Test
+  public void shouldNotShareIndexOfReasonsWithoutSnapshotIds() {
+    List<StockAdjustmentReason> reasons = Lists.newArrayList(builder.build());
+
+    Map<UUID, StockAdjustmentReason> index = StockAdjustmentReasonIndex.of(reasons);
+
+    assertThat(StockAdjustmentReasonIndex.of(reasons))
+        .isEqualTo(index)
+        .isNotSameAs(index);
+  }
+
+  @Test
+  public void shouldReturnEmptyIndexForMissingReasons() {
+    assertThat(StockAdjustmentReasonIndex.of(null)).isEmpty();
+  }
+
+  private StockAdjustmentReason snapshot(StockAdjustmentReason reason) {
+    reason.setId(reason.calculateSnapshotId());
+    return reason;
+  }
+}
@@ -0,0 +1,66 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.requisition.domain.requisition;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.UUID;
+import org.junit.Test;
+import org.openlmis.requisition.dto.ReasonCategory;
+import org.openlmis.requisition.dto.ReasonType;
+import org.openlmis.requisition.testutils.StockAdjustmentReasonDataBuilder;
+
+public class StockAdjustmentReasonTest {
+
+  private StockAdjustmentReasonDataBuilder builder = new StockAdjustmentReasonDataBuilder()
+      .withReasonId(UUID.fromString("00000000-0000-0000-0000-000000000001"))
+      .withName("Transfer In")
+      .withDescription(null)
+      .withReasonType(ReasonType.CREDIT)
+      .withReasonCategory(ReasonCategory.TRANSFER)
+      .withIsFreeTextAllowed(false)
+      .withHidden(null);
+
+  @Test
+  public void shouldCalculateSnapshotIdInTheSameWayAsDatabaseMigration() {
+    // md5 of the reason fields, the same value is calculated by the migration SQL
+    assertThat(builder.build().calculateSnapshotId())
+        .isEqualTo(UUID.fromString("82176b90-7345-1a61-e87d-9cb8811935f0"));
+  }
+
+  @Test
+  public void shouldCalculateTheSameSnapshotIdForTheSameData() {
+    StockAdjustmentReason reason = builder.build();
+    reason.setId(UUID.randomUUID());
+
+    assertThat(reason.calculateSnapshotId()).isEqualTo(builder.build().calculateSnapshotId());
+  }
+
+  @Test
+  public void shouldCalculateNewSnapshotIdWhenReasonChanges() {
+    UUID snapshotId = builder.build().calculateSnapshotId();
+
+    assertThat(builder.withHidden(true).build().calculateSnapshotId()).isNotEqualTo(snapshotId);
+  }
+
+  @Test
+  public void shouldDistinguishEmptyAndMissingValues() {
+    UUID snapshotId = builder.build().calculateSnapshotId();
+
+    assertThat(builder.withDescription("").build().calculateSnapshotId())
+        .isNotEqualTo(snapshotId);
+  }
+}
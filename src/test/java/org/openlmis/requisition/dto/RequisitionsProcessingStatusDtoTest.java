@@ -17,6 +17,7 @@ package org.openlmis.requisition.dto;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 import java.util.Arrays;
 import java.util.HashSet;
@@ -78,6 +79,13 @@ public class RequisitionsProcessingStatusDtoTest {
         .buildAsDto();
   }
 
+  @Test
+  public void shouldRemoveProcessedRequisitions() {
+    processingStatus.removeProcessedRequisitions();
+
+    assertTrue(processingStatus.getRequisitionDtos().isEmpty());
+  }
+
   @Test
   public void shouldRemoveLineItemsIfProductIsSkippedInAllRequisitions() {
     processingStatus.removeSkippedProducts();
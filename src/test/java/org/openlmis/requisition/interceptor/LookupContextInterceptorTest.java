@@ -0,0 +1,80 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.requisition.interceptor;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnit;
+import org.mockito.junit.MockitoRule;
+import org.openlmis.requisition.service.cache.LookupContext;
+
+public class LookupContextInterceptorTest {
+
+  @Rule
+  public MockitoRule mockitoRule = MockitoJUnit.rule();
+
+  @Mock
+  private HttpServletRequest request;
+
+  @Mock
+  private HttpServletResponse response;
+
+  private LookupContextInterceptor interceptor;
+
+  @Before
+  public void setUp() {
+    interceptor = new LookupContextInterceptor();
+    interceptor.setEnabled(true);
+  }
+
+  @After
+  public void tearDown() {
+    LookupContext.close();
+  }
+
+  @Test
+  public void shouldOpenLookupContextBeforeRequestIsHandled() {
+    assertTrue(interceptor.preHandle(request, response, null));
+    assertThat(LookupContext.current(), is(notNullValue()));
+  }
+
+  @Test
+  public void shouldNotOpenLookupContextIfDisabled() {
+    interceptor.setEnabled(false);
+
+    assertTrue(interceptor.preHandle(request, response, null));
+    assertThat(LookupContext.current(), is(nullValue()));
+  }
+
+  @Test
+  public void shouldCloseLookupContextAfterRequestIsCompleted() {
+    interceptor.preHandle(request, response, null);
+    interceptor.afterCompletion(request, response, null, null);
+
+    assertThat(LookupContext.current(), is(nullValue()));
+  }
+}
@@ -0,0 +1,52 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.requisition.repository.custom;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.UUID;
+import org.junit.Test;
+import org.openlmis.requisition.exception.ValidationMessageException;
+
+public class RequisitionKeysetTest {
+
+  @Test
+  public void shouldCreateKeysetFromItsToken() {
+    RequisitionKeyset keyset = new RequisitionKeyset(
+        ZonedDateTime.of(2021, 6, 1, 10, 15, 30, 123456000, ZoneOffset.UTC), UUID.randomUUID());
+
+    assertEquals(keyset, RequisitionKeyset.fromToken(keyset.toToken()));
+  }
+
+  @Test
+  public void shouldReturnNullForBlankToken() {
+    assertNull(RequisitionKeyset.fromToken(""));
+    assertNull(RequisitionKeyset.fromToken(null));
+  }
+
+  @Test(expected = ValidationMessageException.class)
+  public void shouldThrowExceptionIfTokenIsNotBase64() {
+    RequisitionKeyset.fromToken("not a token");
+  }
+
+  @Test(expected = ValidationMessageException.class)
+  public void shouldThrowExceptionIfTokenHasInvalidContent() {
+    RequisitionKeyset.fromToken("aW52YWxpZA");
+  }
+}
@@ -21,14 +21,25 @@ import static org.hamcrest.Matchers.is;
 import static org.junit.Assert.assertThat;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.google.common.collect.ImmutableMap;
 import java.net.URI;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -36,15 +47,18 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
+import org.mockito.stubbing.OngoingStubbing;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
 @RunWith(MockitoJUnitRunner.class)
 public class AuthServiceTest {
   private static final String TOKEN = UUID.randomUUID().toString();
+  private static final String NEW_TOKEN = UUID.randomUUID().toString();
   private static final String AUTHORIZATION_URL = "http://localhost/auth/oauth/token";
   private static final URI AUTHORIZATION_URI = URI.create(
       AUTHORIZATION_URL + "?grant_type=client_credentials"
@@ -53,6 +67,12 @@ public class AuthServiceTest {
   @Mock
   private RestTemplate restTemplate;
 
+  @Mock
+  private Clock clock;
+
+  @Mock
+  private Executor refreshExecutor;
+
   @Captor
   private ArgumentCaptor<HttpEntity<String>> entityStringCaptor;
 
@@ -60,12 +80,14 @@ public class AuthServiceTest {
 
   @Before
   public void setUp() throws Exception {
-    authService = new AuthService();
-    authService.setRestTemplate(restTemplate);
+    authService = createAuthService();
+    authService.setRefreshExecutor(refreshExecutor);
 
-    ReflectionTestUtils.setField(authService, "clientId", "trusted-client");
-    ReflectionTestUtils.setField(authService, "clientSecret", "secret");
-    ReflectionTestUtils.setField(authService, "authorizationUrl", AUTHORIZATION_URL);
+    when(clock.millis()).thenReturn(0L);
+    doAnswer(invocation -> {
+      ((Runnable) invocation.getArguments()[0]).run();
+      return null;
+    }).when(refreshExecutor).execute(any(Runnable.class));
   }
 
   @Test
@@ -92,4 +114,158 @@ public class AuthServiceTest {
         contains("Basic dHJ1c3RlZC1jbGllbnQ6c2VjcmV0")
     );
   }
+
+  @Test
+  public void shouldReuseTokenUntilItShouldBeRefreshed() {
+    mockTokenResponses(TOKEN);
+
+    authService.obtainAccessToken();
+    when(clock.millis()).thenReturn(TimeUnit.SECONDS.toMillis(239));
+    String token = authService.obtainAccessToken();
+
+    assertThat(token, is(TOKEN));
+    verifyTokenRequests(1);
+    verify(refreshExecutor, never()).execute(any(Runnable.class));
+  }
+
+  @Test
+  public void shouldRefreshTokenInBackgroundBeforeItExpires() {
+    mockTokenResponses(TOKEN, NEW_TOKEN);
+
+    authService.obtainAccessToken();
+    when(clock.millis()).thenReturn(TimeUnit.SECONDS.toMillis(250));
+    String token = authService.obtainAccessToken();
+
+    assertThat(token, is(TOKEN));
+    assertThat(authService.obtainAccessToken(), is(NEW_TOKEN));
+    verifyTokenRequests(2);
+    verify(refreshExecutor).execute(any(Runnable.class));
+  }
+
+  @Test
+  public void shouldNotReturnTokenThatIsAboutToExpire() {
+    mockTokenResponses(TOKEN, NEW_TOKEN);
+
+    authService.obtainAccessToken();
+    when(clock.millis()).thenReturn(TimeUnit.SECONDS.toMillis(295));
+    String token = authService.obtainAccessToken();
+
+    assertThat(token, is(NEW_TOKEN));
+    verifyTokenRequests(2);
+    verify(refreshExecutor, never()).execute(any(Runnable.class));
+  }
+
+  @Test
+  public void shouldKeepCurrentTokenIfBackgroundRefreshFails() {
+    mockTokenResponses(TOKEN);
+
+    authService.obtainAccessToken();
+    when(restTemplate.exchange(
+        eq(AUTHORIZATION_URI), eq(HttpMethod.POST), any(HttpEntity.class), eq(Object.class)
+    )).thenThrow(new RestClientException("auth service unavailable"));
+    when(clock.millis()).thenReturn(TimeUnit.SECONDS.toMillis(250));
+
+    assertThat(authService.obtainAccessToken(), is(TOKEN));
+    assertThat(authService.obtainAccessToken(), is(TOKEN));
+  }
+
+  @Test
+  public void shouldKeepCurrentTokenIfBackgroundRefreshIsRejected() {
+    mockTokenResponses(TOKEN, NEW_TOKEN);
+    doThrow(new RejectedExecutionException("refresh in progress"))
+        .doAnswer(invocation -> {
+          ((Runnable) invocation.getArguments()[0]).run();
+          return null;
+        })
+        .when(refreshExecutor).execute(any(Runnable.class));
+
+    authService.obtainAccessToken();
+    when(clock.millis()).thenReturn(TimeUnit.SECONDS.toMillis(250));
+
+    assertThat(authService.obtainAccessToken(), is(TOKEN));
+    assertThat(authService.obtainAccessToken(), is(TOKEN));
+    assertThat(authService.obtainAccessToken(), is(NEW_TOKEN));
+    verifyTokenRequests(2);
+  }
+
+  @Test(timeout = 5000)
+  public void shouldNotBlockCallersWhileTokenIsRefreshedInBackground() throws Exception {
+    // the default executor refreshes tokens on its own thread
+    authService = createAuthService();
+
+    CountDownLatch refreshStarted = new CountDownLatch(1);
+    CountDownLatch refreshAllowed = new CountDownLatch(1);
+    ResponseEntity<Object> response = mock(ResponseEntity.class);
+    when(response.getBody()).thenReturn(ImmutableMap.of("access_token", TOKEN,
+        "expires_in", 300));
+    when(restTemplate.exchange(
+        eq(AUTHORIZATION_URI), eq(HttpMethod.POST), any(HttpEntity.class), eq(Object.class)
+    ))
+        .thenReturn(response)
+        .thenAnswer(invocation -> {
+          refreshStarted.countDown();
+          refreshAllowed.await();
+          return response;
+        });
+
+    authService.obtainAccessToken();
+    when(clock.millis()).thenReturn(TimeUnit.SECONDS.toMillis(250));
+    authService.obtainAccessToken();
+    refreshStarted.await();
+
+    assertThat(authService.obtainAccessToken(), is(TOKEN));
+    assertThat(authService.obtainAccessToken(), is(TOKEN));
+    refreshAllowed.countDown();
+  }
+
+  @Test
+  public void shouldRetrieveNewTokenAfterCacheIsCleared() {
+    mockTokenResponses(TOKEN, NEW_TOKEN);
+
+    authService.obtainAccessToken();
+    authService.clearTokenCache();
+    String token = authService.obtainAccessToken();
+
+    assertThat(token, is(NEW_TOKEN));
+    verifyTokenRequests(2);
+  }
+
+  private AuthService createAuthService() {
+    AuthService service = new AuthService();
+    service.setRestTemplate(restTemplate);
+    service.setClock(clock);
+
+    ReflectionTestUtils.setField(service, "clientId", "trusted-client");
+    ReflectionTestUtils.setField(service, "clientSecret", "secret");
+    ReflectionTestUtils.setField(service, "authorizationUrl", AUTHORIZATION_URL);
+    ReflectionTestUtils.setField(service, "refreshAhead", 60L);
+    ReflectionTestUtils.setField(service, "expiryMargin", 10L);
+
+    return service;
+  }
+
+  private void mockTokenResponses(String... tokens) {
+    List<ResponseEntity<Object>> responses = new ArrayList<>();
+
+    for (String token : tokens) {
+      ResponseEntity<Object> response = mock(ResponseEntity.class);
+      when(response.getBody()).thenReturn(ImmutableMap.of("access_token", token,
+          "expires_in", 300));
+      responses.add(response);
+    }
+
+    OngoingStubbing<ResponseEntity<Object>> stubbing = when(restTemplate.exchange(
+        eq(AUTHORIZATION_URI), eq(HttpMethod.POST), any(HttpEntity.class), eq(Object.class)
+    ));
+
+    for (ResponseEntity<Object> response : responses) {
+      stubbing = stubbing.thenReturn(response);
+    }
+  }
+
+  private void verifyTokenRequests(int count) {
+    verify(restTemplate, times(count)).exchange(
+        eq(AUTHORIZATION_URI), eq(HttpMethod.POST), any(HttpEntity.class), eq(Object.class)
+    );
+  }
 }
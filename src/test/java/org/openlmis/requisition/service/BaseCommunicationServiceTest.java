@@ -16,12 +16,15 @@
 package org.openlmis.requisition.service;
 
 import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.hasProperty;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.hamcrest.Matchers.startsWith;
 import static org.junit.Assert.assertThat;
 import static org.mockito.Matchers.any;
@@ -29,6 +32,7 @@ import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.atLeastOnce;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -36,11 +40,15 @@ import static org.mockito.Mockito.when;
 import com.google.common.collect.ImmutableList;
 import java.net.URI;
 import java.nio.charset.Charset;
+import java.time.Clock;
 import java.util.Collections;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
 import org.apache.http.NameValuePair;
 import org.apache.http.client.utils.URLEncodedUtils;
+import org.assertj.core.api.Assertions;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Rule;
@@ -52,8 +60,13 @@ import org.mockito.Captor;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 import org.openlmis.requisition.dto.ResultDto;
+import org.openlmis.requisition.service.cache.LookupContext;
+import org.openlmis.requisition.service.cache.ResourceCache;
+import org.openlmis.requisition.utils.BoundedExecutor;
 import org.openlmis.requisition.utils.DynamicPageTypeReference;
 import org.openlmis.requisition.utils.DynamicResultDtoTypeReference;
+import org.openlmis.requisition.utils.RequestHelper;
+import org.springframework.data.domain.Page;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
@@ -73,6 +86,7 @@ public abstract class BaseCommunicationServiceTest<T> {
 
   private static final String URI_QUERY_NAME = "name";
   private static final String URI_QUERY_VALUE = "value";
+  private static final String ETAG = "\"1\"";
 
   @Rule
   public final ExpectedException expectedException = ExpectedException.none();
@@ -104,6 +118,7 @@ public abstract class BaseCommunicationServiceTest<T> {
 
   @After
   public void tearDown() {
+    LookupContext.close();
     checkAuth();
   }
 
@@ -211,6 +226,134 @@ public abstract class BaseCommunicationServiceTest<T> {
         .isUriStartsWith(service.getServiceUrl() + service.getUrl());
   }
 
+  @Test
+  public void shouldSendSplitRequestsConcurrentlyAndKeepTheirOrder() {
+    // given
+    BoundedExecutor executor = new BoundedExecutor("test", 4, 10);
+    BaseCommunicationService<T> concurrentService = spy(service);
+    doReturn(4).when(concurrentService).getMaxConcurrentRequests();
+    concurrentService.setRequestExecutor(executor);
+    ReflectionTestUtils.setField(concurrentService, "maxUrlLength", 200);
+
+    RequestParameters parameters = RequestParameters.init();
+    for (int i = 0; i < 50; ++i) {
+      parameters.set("id", UUID.randomUUID());
+    }
+
+    when(restTemplate.exchange(any(URI.class), any(HttpMethod.class), any(HttpEntity.class),
+        eq(String[].class)))
+        .thenAnswer(invocation -> new ResponseEntity<>(
+            new String[]{invocation.getArguments()[0].toString()}, HttpStatus.OK));
+
+    // when
+    List<String> found = concurrentService.findAll("", parameters, String[].class);
+    executor.shutdown();
+
+    // then
+    URI[] uris = RequestHelper.splitRequest(
+        concurrentService.getServiceUrl() + concurrentService.getUrl(), parameters, 200);
+    assertThat(uris.length, is(greaterThan(4)));
+    assertThat(found, contains(Stream.of(uris).map(URI::toString).toArray()));
+  }
+
+  @Test
+  public void shouldRetrieveResourceOnlyOnceInLookupContext() {
+    // given
+    UUID id = UUID.randomUUID();
+    T instance = mockResponseEntityAndGetDto();
+    LookupContext context = LookupContext.open();
+
+    // when
+    service.findOne(id);
+    T found = service.findOne(id);
+
+    // then
+    assertCopyOf(found, instance);
+    assertThat(context.getSavedCalls(), is(1));
+    verify(restTemplate, times(1)).exchange(any(URI.class), any(HttpMethod.class),
+        any(HttpEntity.class), eq(getService().getResultClass()));
+  }
+
+  @Test
+  public void shouldReturnCopyOfListMemoizedInLookupContext() {
+    // given
+    final T dto = mockArrayResponseEntityAndGetDto();
+    LookupContext.open();
+
+    // when
+    List<T> loaded = service.findAll("", service.getArrayResultClass());
+    loaded.clear();
+    List<T> found = service.findAll("", service.getArrayResultClass());
+
+    // then
+    assertThat(found, hasSize(1));
+    assertCopyOf(found.get(0), dto);
+    verify(restTemplate, times(1)).exchange(any(URI.class), any(HttpMethod.class),
+        any(HttpEntity.class), any(Class.class));
+  }
+
+  @Test
+  public void shouldReturnCopyOfPageMemoizedInLookupContext() {
+    // given
+    final T dto = mockPageResponseEntityAndGetDto();
+    LookupContext.open();
+
+    // when
+    Page<T> loaded = service.getPage(RequestParameters.init());
+    Page<T> found = service.getPage(RequestParameters.init());
+
+    // then
+    assertThat(found.getContent(), hasSize(1));
+    assertThat(found.getContent(), is(not(sameInstance(loaded.getContent()))));
+    assertCopyOf(found.getContent().get(0), dto);
+    verify(restTemplate, times(1)).exchange(any(URI.class), any(HttpMethod.class),
+        any(HttpEntity.class), any(DynamicPageTypeReference.class));
+  }
+
+  @Test
+  public void shouldReturnCachedResourceWithoutRequestIfItIsFresh() {
+    // given
+    UUID id = UUID.randomUUID();
+    enableCache(TimeUnit.MINUTES.toMillis(5));
+    T instance = mockCacheableResponses(HttpStatus.OK);
+
+    // when
+    service.findOne(id);
+    T found = service.findOne(id);
+
+    // then
+    assertCopyOf(found, instance);
+    verify(restTemplate, times(1)).exchange(any(URI.class), any(HttpMethod.class),
+        any(HttpEntity.class), eq(getService().getResultClass()));
+  }
+
+  @Test
+  public void shouldRevalidateCachedResourceWithEntityTag() {
+    // given
+    UUID id = UUID.randomUUID();
+    enableCache(0);
+    T instance = mockCacheableResponses(HttpStatus.NOT_MODIFIED);
+
+    // when
+    service.findOne(id);
+    T found = service.findOne(id);
+
+    // then
+    assertCopyOf(found, instance);
+    verify(restTemplate, times(2)).exchange(uriCaptor.capture(), methodCaptor.capture(),
+        entityCaptor.capture(), eq(getService().getResultClass()));
+
+    assertThat(entityCaptor.getAllValues().get(0).getHeaders().getIfNoneMatch(), hasSize(0));
+    assertThat(entityCaptor.getAllValues().get(1).getHeaders().getIfNoneMatch(),
+        hasItem(ETAG));
+  }
+
+  private void assertCopyOf(T found, T instance) {
+    assertThat(found, is(not(sameInstance(instance))));
+    Assertions.assertThat(found).usingRecursiveComparison().ignoringAllOverriddenEquals()
+        .isEqualTo(instance);
+  }
+
   protected abstract T generateInstance();
 
   protected abstract BaseCommunicationService<T> getService();
@@ -225,6 +368,24 @@ public abstract class BaseCommunicationServiceTest<T> {
     return service;
   }
 
+  private void enableCache(long timeToLive) {
+    ReflectionTestUtils.setField(service, "cache", new ResourceCache<>("test",
+        getService().getResultClass(), 10, timeToLive, Clock.systemUTC(), null));
+  }
+
+  private T mockCacheableResponses(HttpStatus revalidationStatus) {
+    T dto = generateInstance();
+    HttpHeaders headers = new HttpHeaders();
+    headers.setETag(ETAG);
+
+    when(restTemplate.exchange(any(URI.class), any(HttpMethod.class), any(HttpEntity.class),
+        eq(getService().getResultClass())))
+        .thenReturn(new ResponseEntity<>(dto, headers, HttpStatus.OK))
+        .thenReturn(new ResponseEntity<>(headers, revalidationStatus));
+
+    return dto;
+  }
+
   protected void disableAuthCheck() {
     checkAuth = false;
   }
@@ -18,27 +18,33 @@ package org.openlmis.requisition.service;
 import static org.junit.Assert.assertNotNull;
 import static org.mockito.Mockito.mock;
 
+import java.io.ByteArrayOutputStream;
 import net.sf.jasperreports.engine.JRException;
 import net.sf.jasperreports.engine.JasperPrint;
 import org.junit.Test;
 
 public class JasperExporterTest {
 
+  private ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
   @Test
-  public void csvExportReportShouldReturnData() throws JRException {
+  public void csvExportReportShouldWriteData() throws JRException {
     JasperCsvExporter exporter = new JasperCsvExporter(mock(JasperPrint.class));
-    assertNotNull(exporter.exportReport());
+    exporter.exportReport(outputStream);
+    assertNotNull(outputStream.toByteArray());
   }
 
   @Test
-  public void xlsExportReportShouldReturnData() throws JRException {
+  public void xlsExportReportShouldWriteData() throws JRException {
     JasperXlsExporter exporter = new JasperXlsExporter(new JasperPrint());
-    assertNotNull(exporter.exportReport());
+    exporter.exportReport(outputStream);
+    assertNotNull(outputStream.toByteArray());
   }
 
   @Test
-  public void htmlExportReportShouldReturnData() throws JRException {
+  public void htmlExportReportShouldWriteData() throws JRException {
     JasperHtmlExporter exporter = new JasperHtmlExporter(mock(JasperPrint.class));
-    assertNotNull(exporter.exportReport());
+    exporter.exportReport(outputStream);
+    assertNotNull(outputStream.toByteArray());
   }
 }
@@ -0,0 +1,113 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.requisition.service;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.UUID;
+import net.sf.jasperreports.engine.JasperReport;
+import org.junit.Before;
+import org.junit.Test;
+import org.openlmis.requisition.domain.JasperTemplate;
+import org.openlmis.requisition.service.JasperReportCache.ReportLoader;
+
+public class JasperReportCacheTest {
+  private static final String KEY = "key";
+  private static final String OTHER_KEY = "other";
+  private static final String THIRD_KEY = "third";
+
+  private JasperReportCache cache;
+  private ReportLoader loader;
+  private JasperReport report;
+  private JasperTemplate template;
+
+  @Before
+  public void setUp() throws Exception {
+    cache = new JasperReportCache(2);
+    loader = mock(ReportLoader.class);
+    report = mock(JasperReport.class);
+    when(loader.load()).thenReturn(report);
+
+    template = new JasperTemplate();
+    template.setId(UUID.randomUUID());
+    template.setData(new byte[]{1, 2, 3});
+  }
+
+  @Test
+  public void shouldLoadReportOnlyOnce() throws Exception {
+    assertThat(cache.get(KEY, loader), is(sameInstance(report)));
+    assertThat(cache.get(KEY, loader), is(sameInstance(report)));
+
+    verify(loader, times(1)).load();
+  }
+
+  @Test
+  public void shouldEvictLeastRecentlyUsedReportsWhenSizeIsExceeded() throws Exception {
+    cache.get(KEY, loader);
+    cache.get(OTHER_KEY, loader);
+    cache.get(KEY, loader);
+    cache.get(THIRD_KEY, loader);
+    cache.get(KEY, loader);
+    cache.get(OTHER_KEY, loader);
+
+    assertThat(cache.size(), is(2));
+    verify(loader, times(4)).load();
+  }
+
+  @Test
+  public void shouldLoadReportOfStoredTemplateOnlyOnce() throws Exception {
+    cache.get(template, loader);
+    cache.get(template, loader);
+
+    verify(loader, times(1)).load();
+  }
+
+  @Test
+  public void shouldReloadReportIfTemplateDataHasChanged() throws Exception {
+    cache.get(template, loader);
+    template.setData(new byte[]{4, 5, 6});
+    cache.get(template, loader);
+
+    verify(loader, times(2)).load();
+  }
+
+  @Test
+  public void shouldReloadReportOfEvictedTemplate() throws Exception {
+    cache.get(template, loader);
+    cache.evict(template.getId());
+    cache.get(template, loader);
+
+    assertThat(cache.size(), is(1));
+    verify(loader, times(2)).load();
+  }
+
+  @Test
+  public void shouldNotCacheReportOfUnsavedTemplate() throws Exception {
+    template.setId(null);
+
+    cache.get(template, loader);
+    cache.get(template, loader);
+
+    assertThat(cache.size(), is(0));
+    verify(loader, times(2)).load();
+  }
+}
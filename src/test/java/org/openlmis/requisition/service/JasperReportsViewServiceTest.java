@@ -16,14 +16,22 @@
 package org.openlmis.requisition.service;
 
 import static java.util.Collections.singletonList;
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.ArgumentMatchers.anyMap;
 import static org.mockito.ArgumentMatchers.nullable;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.openlmis.requisition.domain.requisition.RequisitionStatus.APPROVED;
@@ -32,9 +40,11 @@ import static org.openlmis.requisition.domain.requisition.RequisitionStatus.INIT
 import static org.openlmis.requisition.domain.requisition.RequisitionStatus.RELEASED;
 import static org.openlmis.requisition.domain.requisition.RequisitionStatus.RELEASED_WITHOUT_ORDER;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.io.OutputStream;
 import java.sql.Connection;
 import java.text.DecimalFormat;
 import java.text.DecimalFormatSymbols;
@@ -42,18 +52,25 @@ import java.text.NumberFormat;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.EnumSet;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 import javax.sql.DataSource;
 import net.sf.jasperreports.engine.JRDataSource;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JRParameter;
+import net.sf.jasperreports.engine.JRRuntimeException;
 import net.sf.jasperreports.engine.JasperPrint;
 import net.sf.jasperreports.engine.JasperReport;
+import net.sf.jasperreports.engine.fill.JRAbstractLRUVirtualizer;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
@@ -64,6 +81,7 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.mockito.Spy;
 import org.mockito.junit.MockitoJUnitRunner;
+import org.mockito.stubbing.Answer;
 import org.openlmis.requisition.domain.JasperTemplate;
 import org.openlmis.requisition.domain.RequisitionTemplate;
 import org.openlmis.requisition.domain.RequisitionTemplateDataBuilder;
@@ -78,8 +96,8 @@ import org.openlmis.requisition.dto.ProgramDto;
 import org.openlmis.requisition.dto.RequisitionReportDto;
 import org.openlmis.requisition.dto.SupervisoryNodeDto;
 import org.openlmis.requisition.exception.JasperReportViewException;
-import org.openlmis.requisition.repository.custom.DefaultRequisitionSearchParams;
-import org.openlmis.requisition.repository.custom.RequisitionSearchParams;
+import org.openlmis.requisition.repository.RequisitionRepository;
+import org.openlmis.requisition.service.JasperReportsViewService.ReportOutput;
 import org.openlmis.requisition.service.referencedata.FacilityReferenceDataService;
 import org.openlmis.requisition.service.referencedata.GeographicZoneReferenceDataService;
 import org.openlmis.requisition.service.referencedata.PeriodReferenceDataService;
@@ -87,7 +105,6 @@ import org.openlmis.requisition.service.referencedata.ProgramReferenceDataServic
 import org.openlmis.requisition.testutils.DtoGenerator;
 import org.openlmis.requisition.web.ReportingRateReportDtoBuilder;
 import org.openlmis.requisition.web.RequisitionReportDtoBuilder;
-import org.springframework.data.domain.Page;
 import org.springframework.test.util.ReflectionTestUtils;
 
 @SuppressWarnings({"PMD.TooManyMethods"})
@@ -120,7 +137,7 @@ public class JasperReportsViewServiceTest {
   private ReportingRateReportDtoBuilder reportingRateReportDtoBuilder; //NOPMD
 
   @Mock
-  private RequisitionService requisitionService;
+  private RequisitionRepository requisitionRepository;
 
   @Mock
   private ObjectInputStream objectInputStream;
@@ -134,6 +151,9 @@ public class JasperReportsViewServiceTest {
   @Mock
   private JasperPrint jasperPrint;
 
+  @Mock
+  private JRAbstractLRUVirtualizer virtualizer;
+
   @Mock
   private RequisitionReportDtoBuilder requisitionReportDtoBuilder;
 
@@ -163,8 +183,14 @@ public class JasperReportsViewServiceTest {
 
   private Map<String, Object> reportParams = new HashMap<>();
 
+  private Set<UUID> facilityIdsMissingRnR = new HashSet<>();
+
   private byte[] expectedReportData;
 
+  private ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+  private ReportOutput output = () -> outputStream;
+
   @Before
   public void setUp() throws Exception {
     generateRequisition();
@@ -175,16 +201,19 @@ public class JasperReportsViewServiceTest {
     ReflectionTestUtils.setField(service, "groupingSize", GROUPING_SIZE);
     ReflectionTestUtils.setField(service, "defaultLocale", DEFAULT_LOCALE);
     ReflectionTestUtils.setField(service, "currencyLocale", CURRENCY_LOCALE);
+    ReflectionTestUtils.setField(service, "jasperReportCache", new JasperReportCache(10));
 
     expectedReportData = new byte[1];
 
+    doReturn(virtualizer).when(service).createVirtualizer();
     doReturn(objectInputStream).when(service).createObjectInputStream(any(JasperTemplate.class));
     doReturn(jasperReport).when(service).readReportData(objectInputStream);
     doReturn(jasperPrint).when(service)
         .fillJasperReport(any(JasperReport.class), anyMap(), nullable(Connection.class));
     doReturn(jasperPrint).when(service)
         .fillJasperReport(any(JasperReport.class), anyMap(), any(JRDataSource.class));
-    doReturn(expectedReportData).when(service).exportJasperReportToPdf(any(JasperPrint.class));
+    doAnswer(writeReportData()).when(service)
+        .exportJasperReportToPdf(any(JasperPrint.class), any(OutputStream.class));
 
     MockitoAnnotations.initMocks(this);
   }
@@ -194,49 +223,63 @@ public class JasperReportsViewServiceTest {
     //given
 
     //when
-    byte[] reportData = service.generateReport(jasperTemplate, reportParams);
+    service.generateReport(jasperTemplate, reportParams, output);
     
     //then
-    assertEquals(expectedReportData, reportData);
+    assertArrayEquals(expectedReportData, outputStream.toByteArray());
   }
 
   @Test
   public void generateReportShouldReturnCsvReport() throws Exception {
     //given
     reportParams.put(PARAM_KEY_FORMAT, "csv");
-    doReturn(expectedReportData).when(service).exportJasperReportToCsv(any(JasperPrint.class));
+    doAnswer(writeReportData()).when(service)
+        .exportJasperReportToCsv(any(JasperPrint.class), any(OutputStream.class));
 
     //when
-    byte[] reportData = service.generateReport(jasperTemplate, reportParams);
+    service.generateReport(jasperTemplate, reportParams, output);
 
     //then
-    assertEquals(expectedReportData, reportData);
+    assertArrayEquals(expectedReportData, outputStream.toByteArray());
   }
 
   @Test
   public void generateReportShouldReturnXlsReport() throws Exception {
     //given
     reportParams.put(PARAM_KEY_FORMAT, "xls");
-    doReturn(expectedReportData).when(service).exportJasperReportToXls(any(JasperPrint.class));
+    doAnswer(writeReportData()).when(service)
+        .exportJasperReportToXls(any(JasperPrint.class), any(OutputStream.class));
 
     //when
-    byte[] reportData = service.generateReport(jasperTemplate, reportParams);
+    service.generateReport(jasperTemplate, reportParams, output);
 
     //then
-    assertEquals(expectedReportData, reportData);
+    assertArrayEquals(expectedReportData, outputStream.toByteArray());
   }
 
   @Test
   public void generateReportShouldReturnHtmlReport() throws Exception {
     //given
     reportParams.put(PARAM_KEY_FORMAT, "html");
-    doReturn(expectedReportData).when(service).exportJasperReportToHtml(any(JasperPrint.class));
+    doAnswer(writeReportData()).when(service)
+        .exportJasperReportToHtml(any(JasperPrint.class), any(OutputStream.class));
 
     //when
-    byte[] reportData = service.generateReport(jasperTemplate, reportParams);
+    service.generateReport(jasperTemplate, reportParams, output);
 
     //then
-    assertEquals(expectedReportData, reportData);
+    assertArrayEquals(expectedReportData, outputStream.toByteArray());
+  }
+
+  @Test
+  public void generateReportShouldReadReportFromStoredTemplateOnlyOnce() throws Exception {
+    when(jasperTemplate.getId()).thenReturn(UUID.randomUUID());
+    when(jasperTemplate.getData()).thenReturn(new byte[]{1});
+
+    service.generateReport(jasperTemplate, reportParams, output);
+    service.generateReport(jasperTemplate, reportParams, output);
+
+    verify(service, times(1)).readReportData(any(ObjectInputStream.class));
   }
 
   @Test
@@ -251,14 +294,15 @@ public class JasperReportsViewServiceTest {
     when(geographicZoneReferenceDataService.findOne(districtId)).thenReturn(district);
 
     // when
-    byte[] reportData = service.generateTimelinessReport(jasperTemplate, reportParams);
+    service.generateTimelinessReport(jasperTemplate, reportParams, output);
     ArgumentCaptor<Map<String,Object>> paramArg = ArgumentCaptor.forClass(Map.class);
-    verify(service).fillAndExportReport(any(JasperReport.class), paramArg.capture());
+    verify(service).fillAndExportReport(any(JasperReport.class), paramArg.capture(),
+        any(ReportOutput.class));
     Map<String, Object> outputParams = paramArg.getValue();
     List<FacilityDto> facilities = extractFacilitiesFromOutputParams(outputParams);
 
     // then
-    assertEquals(expectedReportData, reportData);
+    assertArrayEquals(expectedReportData, outputStream.toByteArray());
     Assert.assertEquals(Collections.emptyList(), facilities);
     Assert.assertEquals(program, outputParams.get(PROGRAM));
     Assert.assertEquals(period, outputParams.get(PERIOD));
@@ -293,14 +337,15 @@ public class JasperReportsViewServiceTest {
     when(facilityReferenceDataService.findAll()).thenReturn(facilitiesToReturn);
 
     // when
-    byte[] reportData = service.generateTimelinessReport(jasperTemplate, reportParams);
+    service.generateTimelinessReport(jasperTemplate, reportParams, output);
     ArgumentCaptor<Map<String,Object>> paramArg = ArgumentCaptor.forClass(Map.class);
-    verify(service).fillAndExportReport(any(JasperReport.class), paramArg.capture());
+    verify(service).fillAndExportReport(any(JasperReport.class), paramArg.capture(),
+        any(ReportOutput.class));
     Map<String, Object> outputParams = paramArg.getValue();
     List<FacilityDto> facilities = extractFacilitiesFromOutputParams(outputParams);
 
     // then
-    assertEquals(expectedReportData, reportData);
+    assertArrayEquals(expectedReportData, outputStream.toByteArray());
     assertEquals(2, facilities.size());
     List<UUID> facilityIds = facilities.stream()
         .map(FacilityDto::getId).collect(Collectors.toList());
@@ -338,14 +383,15 @@ public class JasperReportsViewServiceTest {
         .thenReturn(Arrays.asList(facility, childFacility));
 
     // when
-    byte[] reportData = service.generateTimelinessReport(jasperTemplate, reportParams);
+    service.generateTimelinessReport(jasperTemplate, reportParams, output);
     ArgumentCaptor<Map<String,Object>> paramArg = ArgumentCaptor.forClass(Map.class);
-    verify(service).fillAndExportReport(any(JasperReport.class), paramArg.capture());
+    verify(service).fillAndExportReport(any(JasperReport.class), paramArg.capture(),
+        any(ReportOutput.class));
     Map<String, Object> outputParams = paramArg.getValue();
     List<FacilityDto> facilities = extractFacilitiesFromOutputParams(outputParams);
 
     // then
-    assertEquals(expectedReportData, reportData);
+    assertArrayEquals(expectedReportData, outputStream.toByteArray());
     assertEquals(2, facilities.size());
     List<UUID> facilityIds = facilities.stream()
         .map(FacilityDto::getId).collect(Collectors.toList());
@@ -377,14 +423,15 @@ public class JasperReportsViewServiceTest {
     when(facilityReferenceDataService.findAll()).thenReturn(facilitiesToReturn);
 
     // when
-    byte[] reportData = service.generateTimelinessReport(jasperTemplate, reportParams);
+    service.generateTimelinessReport(jasperTemplate, reportParams, output);
     ArgumentCaptor<Map<String,Object>> paramArg = ArgumentCaptor.forClass(Map.class);
-    verify(service).fillAndExportReport(any(JasperReport.class), paramArg.capture());
+    verify(service).fillAndExportReport(any(JasperReport.class), paramArg.capture(),
+        any(ReportOutput.class));
     Map<String, Object> outputParams = paramArg.getValue();
     List<FacilityDto> facilities = extractFacilitiesFromOutputParams(outputParams);
 
     // then
-    assertEquals(expectedReportData, reportData);
+    assertArrayEquals(expectedReportData, outputStream.toByteArray());
     assertEquals(4, facilities.size());
     List<UUID> facilityIds = facilities.stream()
         .map(FacilityDto::getId).collect(Collectors.toList());
@@ -415,14 +462,15 @@ public class JasperReportsViewServiceTest {
         facility2B, facility2A, facility1A, facility1B));
 
     // when
-    byte[] reportData = service.generateTimelinessReport(jasperTemplate, reportParams);
+    service.generateTimelinessReport(jasperTemplate, reportParams, output);
     ArgumentCaptor<Map<String,Object>> paramArg = ArgumentCaptor.forClass(Map.class);
-    verify(service).fillAndExportReport(any(JasperReport.class), paramArg.capture());
+    verify(service).fillAndExportReport(any(JasperReport.class), paramArg.capture(),
+        any(ReportOutput.class));
     Map<String, Object> outputParams = paramArg.getValue();
     List<FacilityDto> facilities = extractFacilitiesFromOutputParams(outputParams);
 
     // then
-    assertEquals(expectedReportData, reportData);
+    assertArrayEquals(expectedReportData, outputStream.toByteArray());
     assertEquals(4, facilities.size());
     assertEquals(facility1A.getId(), facilities.get(0).getId());
     assertEquals(facility1B.getId(), facilities.get(1).getId());
@@ -439,7 +487,7 @@ public class JasperReportsViewServiceTest {
     reportParams.put("DueDays", "10");
     when(geographicZoneReferenceDataService.findOne(districtId)).thenReturn(district);
 
-    service.generateReportingRateReport(jasperTemplate, reportParams);
+    service.generateReportingRateReport(jasperTemplate, reportParams, output);
 
     assertEquals(DATE_FORMAT, reportParams.get("dateFormat"));
     assertEquals(createDecimalFormat(), reportParams.get("decimalFormat"));
@@ -453,18 +501,87 @@ public class JasperReportsViewServiceTest {
     RequisitionReportDto requisitionReportDto = DtoGenerator.of(RequisitionReportDto.class);
     when(requisitionReportDtoBuilder.build(requisition)).thenReturn(requisitionReportDto);
 
-    byte[] reportData = service.generateRequisitionReport(requisition);
+    service.generateRequisitionReport(requisition, output);
     ArgumentCaptor<Map<String,Object>> paramArg = ArgumentCaptor.forClass(Map.class);
-    verify(service).fillAndExportReport(any(JasperReport.class), paramArg.capture());
+    verify(service).fillAndExportReport(any(JasperReport.class), paramArg.capture(),
+        any(ReportOutput.class));
     Map<String, Object> outputParams = paramArg.getValue();
 
-    assertEquals(expectedReportData, reportData);
+    assertArrayEquals(expectedReportData, outputStream.toByteArray());
     assertEquals(DATE_FORMAT, outputParams.get("dateFormat"));
     assertEquals(createDecimalFormat(), outputParams.get("decimalFormat"));
     assertEquals(NumberFormat.getCurrencyInstance(locale),
         outputParams.get("currencyDecimalFormat"));
   }
 
+  @Test
+  public void generateRequisitionReportShouldReuseCompiledReports() throws Exception {
+    doReturn(locale).when(service).getLocaleFromService();
+    when(requisitionReportDtoBuilder.build(requisition))
+        .thenReturn(DtoGenerator.of(RequisitionReportDto.class));
+
+    service.generateRequisitionReport(requisition, output);
+    service.generateRequisitionReport(requisition, output);
+    ArgumentCaptor<JasperReport> reportArg = ArgumentCaptor.forClass(JasperReport.class);
+    ArgumentCaptor<Map<String,Object>> paramArg = ArgumentCaptor.forClass(Map.class);
+    verify(service, times(2)).fillAndExportReport(reportArg.capture(), paramArg.capture(),
+        any(ReportOutput.class));
+
+    assertSame(reportArg.getAllValues().get(0), reportArg.getAllValues().get(1));
+    assertSame(paramArg.getAllValues().get(0).get("subreport"),
+        paramArg.getAllValues().get(1).get("subreport"));
+  }
+
+  @Test
+  public void fillAndExportReportShouldFillReportWithVirtualizerAndCleanItUp() throws Exception {
+    JRAbstractLRUVirtualizer reportVirtualizer = mock(JRAbstractLRUVirtualizer.class);
+    doReturn(reportVirtualizer).when(service).createVirtualizer();
+
+    service.generateReport(jasperTemplate, reportParams, output);
+
+    assertEquals(reportVirtualizer, reportParams.get(JRParameter.REPORT_VIRTUALIZER));
+    verify(reportVirtualizer).setReadOnly(true);
+    verify(reportVirtualizer).cleanup();
+  }
+
+  @Test
+  public void fillAndExportReportShouldNotOpenOutputIfReportCouldNotBeFilled() throws Exception {
+    JRAbstractLRUVirtualizer reportVirtualizer = mock(JRAbstractLRUVirtualizer.class);
+    doReturn(reportVirtualizer).when(service).createVirtualizer();
+    doThrow(new JRException("test")).when(service)
+        .fillJasperReport(any(JasperReport.class), anyMap(), nullable(Connection.class));
+    ReportOutput reportOutput = mock(ReportOutput.class);
+
+    try {
+      service.generateReport(jasperTemplate, reportParams, reportOutput);
+      fail("Expected exception was not thrown");
+    } catch (JasperReportViewException ex) {
+      verify(reportOutput, never()).open();
+      verify(reportVirtualizer).cleanup();
+    }
+  }
+
+  @Test
+  public void fillAndExportReportShouldWrapErrorIfVirtualizerCouldNotBeCreated() throws Exception {
+    doThrow(new JRRuntimeException("test")).when(service).createVirtualizer();
+    ReportOutput reportOutput = mock(ReportOutput.class);
+
+    try {
+      service.generateReport(jasperTemplate, reportParams, reportOutput);
+      fail("Expected exception was not thrown");
+    } catch (JasperReportViewException ex) {
+      verify(reportOutput, never()).open();
+    }
+  }
+
+  private Answer<Void> writeReportData() {
+    return invocation -> {
+      OutputStream stream = invocation.getArgument(1);
+      stream.write(expectedReportData);
+      return null;
+    };
+  }
+
   private List<FacilityDto> extractFacilitiesFromOutputParams(Map<String, Object> outputParams) {
     return (List<FacilityDto>) outputParams.get("datasource");
   }
@@ -512,17 +629,17 @@ public class JasperReportsViewServiceTest {
 
     when(geographicZoneReferenceDataService.findOne(districtId)).thenReturn(geographicZoneDto);
 
-    Requisition mockRequisition = mock(Requisition.class);
-    Page<Requisition> requisitionPage = mock(Page.class);
-    when(requisitionPage.getContent()).thenReturn(
-        (isMissingRnR) ? Collections.emptyList() : singletonList(mockRequisition));
-
-    RequisitionSearchParams params = new DefaultRequisitionSearchParams(
-        facilityId, program.getId(), period.getId(), null, null, null, null,
-        null, null, EnumSet.of(APPROVED, RELEASED, RELEASED_WITHOUT_ORDER));
+    if (isMissingRnR) {
+      facilityIdsMissingRnR.add(facilityId);
+    }
 
-    when(requisitionService.searchRequisitions(eq(params), any()))
-        .thenReturn(requisitionPage);
+    when(requisitionRepository.searchFacilitiesWithoutRequisition(eq(program.getId()),
+        eq(period.getId()), anyCollection(),
+        eq(EnumSet.of(APPROVED, RELEASED, RELEASED_WITHOUT_ORDER))))
+        .thenAnswer(invocation -> invocation.<Collection<UUID>>getArgument(2)
+            .stream()
+            .filter(facilityIdsMissingRnR::contains)
+            .collect(Collectors.toSet()));
 
     return geographicZoneDto;
   }
@@ -30,6 +30,7 @@ import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -48,6 +49,7 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.stream.Collectors;
 import org.junit.Before;
@@ -97,6 +99,8 @@ public class PeriodServiceTest {
 
   private ProcessingScheduleDto schedule;
 
+  private List<RequisitionPeriod> requisitionPeriods = new ArrayList<>();
+
   @Before
   public void setUp() throws Exception {
     schedule = new ProcessingScheduleDtoDataBuilder().buildAsDto();
@@ -484,6 +488,35 @@ public class PeriodServiceTest {
     assertEquals(currentPeriod, period);
   }
 
+  @Test
+  public void shouldResolvePeriodForInitiateWithSingleQuery() {
+    setMockForFindPeriod();
+
+    mockRequisitionFound(buildRequisition(APPROVED), currentPeriod.getId(), facilityId, programId);
+    mockRequisitionFound(buildRequisition(AUTHORIZED), period1.getId(), facilityId, programId);
+
+    ProcessingPeriodDto period = periodService.findPeriod(programId, facilityId, null, false);
+
+    assertEquals(period2, period);
+    verify(requisitionRepository)
+        .searchRequisitionIdAndStatusPairs(facilityId, programId, false);
+    verify(requisitionRepository, never())
+        .searchRequisitions(any(UUID.class), any(UUID.class), any(UUID.class), any());
+  }
+
+  @Test
+  public void shouldReturnRegularRequisitionPeriodsIndexedByPeriodId() {
+    mockRequisitionFound(buildRequisition(APPROVED), currentPeriod.getId(), facilityId, programId);
+    mockRequisitionFound(buildRequisition(INITIATED), period1.getId(), facilityId, programId);
+
+    Map<UUID, RequisitionPeriod> result = periodService
+        .findRegularRequisitionPeriods(programId, facilityId);
+
+    assertThat(result.size(), is(2));
+    assertEquals(requisitionPeriods.get(0), result.get(currentPeriod.getId()));
+    assertEquals(requisitionPeriods.get(1), result.get(period1.getId()));
+  }
+
   private ProcessingPeriodDto createPeriod(int plusMonth) {
     return new ProcessingPeriodDtoDataBuilder()
         .withStartDate(LocalDate.now().plusMonths(plusMonth).with(firstDayOfMonth()))
@@ -505,15 +538,19 @@ public class PeriodServiceTest {
 
   private void mockRequisitionFound(
       Requisition requisition, UUID periodId, UUID facilityId, UUID programId) {
-    doReturn(singletonList(requisition))
+    requisitionPeriods.add(
+        createRequisitionPeriod(requisition.getId(), requisition.getStatus(), periodId));
+    doReturn(requisitionPeriods)
         .when(requisitionRepository)
-        .searchRequisitions(periodId, facilityId, programId, false);
+        .searchRequisitionIdAndStatusPairs(facilityId, programId, false);
   }
 
   private void mockNoRequisitionFound(UUID periodId, UUID facilityId, UUID programId) {
-    doReturn(Collections.emptyList())
+    requisitionPeriods.removeIf(requisitionPeriod -> periodId
+        .equals(requisitionPeriod.getPeriodId()));
+    doReturn(requisitionPeriods)
         .when(requisitionRepository)
-        .searchRequisitions(periodId, facilityId, programId, false);
+        .searchRequisitionIdAndStatusPairs(facilityId, programId, false);
   }
 
   private void setMockForFindPeriod() {
@@ -21,6 +21,7 @@ import static java.util.Collections.emptyMap;
 import static java.util.Collections.emptySet;
 import static java.util.Collections.singleton;
 import static java.util.Collections.singletonList;
+import static java.util.Collections.singletonMap;
 import static java.util.stream.Collectors.toList;
 import static org.hamcrest.Matchers.hasItems;
 import static org.hamcrest.Matchers.hasSize;
@@ -33,6 +34,7 @@ import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyCollectionOf;
 import static org.mockito.Matchers.anySetOf;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
@@ -65,6 +67,7 @@ import java.time.LocalDate;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.EnumSet;
 import java.util.HashSet;
 import java.util.List;
@@ -77,6 +80,7 @@ import java.util.function.Function;
 import java.util.stream.Collectors;
 import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.apache.commons.lang3.tuple.Pair;
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -91,10 +95,12 @@ import org.mockito.stubbing.OngoingStubbing;
 import org.openlmis.requisition.domain.RequisitionTemplate;
 import org.openlmis.requisition.domain.RequisitionTemplateDataBuilder;
 import org.openlmis.requisition.domain.requisition.ApprovedProductReference;
+import org.openlmis.requisition.domain.requisition.AvailableProductSet;
 import org.openlmis.requisition.domain.requisition.Requisition;
 import org.openlmis.requisition.domain.requisition.RequisitionDataBuilder;
 import org.openlmis.requisition.domain.requisition.RequisitionLineItem;
 import org.openlmis.requisition.domain.requisition.RequisitionLineItemDataBuilder;
+import org.openlmis.requisition.domain.requisition.RequisitionPeriod;
 import org.openlmis.requisition.domain.requisition.RequisitionStatus;
 import org.openlmis.requisition.domain.requisition.StatusChange;
 import org.openlmis.requisition.domain.requisition.StatusMessage;
@@ -126,9 +132,12 @@ import org.openlmis.requisition.errorhandling.FailureType;
 import org.openlmis.requisition.errorhandling.ValidationResult;
 import org.openlmis.requisition.exception.ValidationMessageException;
 import org.openlmis.requisition.i18n.MessageKeys;
+import org.openlmis.requisition.repository.AvailableProductSetRepository;
 import org.openlmis.requisition.repository.RequisitionRepository;
 import org.openlmis.requisition.repository.StatusMessageRepository;
+import org.openlmis.requisition.repository.StockAdjustmentReasonRepository;
 import org.openlmis.requisition.repository.custom.DefaultRequisitionSearchParams;
+import org.openlmis.requisition.repository.custom.RequisitionKeyset;
 import org.openlmis.requisition.repository.custom.RequisitionSearchParams;
 import org.openlmis.requisition.service.fulfillment.OrderFulfillmentService;
 import org.openlmis.requisition.service.referencedata.ApproveProductsAggregator;
@@ -161,12 +170,15 @@ import org.openlmis.requisition.testutils.StockCardRangeSummaryDtoDataBuilder;
 import org.openlmis.requisition.testutils.SupplyLineDtoDataBuilder;
 import org.openlmis.requisition.testutils.UserDtoDataBuilder;
 import org.openlmis.requisition.utils.AuthenticationHelper;
+import org.openlmis.requisition.utils.BoundedExecutor;
 import org.openlmis.requisition.utils.Pagination;
 import org.openlmis.requisition.web.OrderDtoBuilder;
 import org.openlmis.requisition.web.RequisitionForConvertBuilder;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.domain.Sort;
 import org.springframework.test.util.ReflectionTestUtils;
 
@@ -192,6 +204,12 @@ public class RequisitionServiceTest {
   @Mock
   private StatusChange statusChange;
 
+  @Mock
+  private AvailableProductSetRepository availableProductSetRepository;
+
+  @Mock
+  private StockAdjustmentReasonRepository stockAdjustmentReasonRepository;
+
   @Mock
   private RequisitionRepository requisitionRepository;
 
@@ -295,6 +313,7 @@ public class RequisitionServiceTest {
   private static final UUID PRODUCT_ID = UUID.randomUUID();
   private static final UUID NON_FULL_PRODUCT_ID = UUID.randomUUID();
   private StockCardRangeSummaryDto stockCardRangeSummaryDto;
+  private BoundedExecutor initiateExecutor = new BoundedExecutor("initiate", 4, 10);
 
   @Before
   public void setUp() {
@@ -307,10 +326,16 @@ public class RequisitionServiceTest {
         "stockCardSummariesStockManagementService",
         stockCardSummariesStockManagementService
     );
+    ReflectionTestUtils.setField(requisitionService, "initiateExecutor", initiateExecutor);
 
     stockCardRangeSummaryDto = new StockCardRangeSummaryDtoDataBuilder().buildAsDto();
   }
 
+  @After
+  public void tearDown() {
+    initiateExecutor.shutdown();
+  }
+
   @Test
   public void shouldDeleteRequisitionIfItIsInitiated() {
     validateRequisitionDeleteWithStatus(INITIATED);
@@ -343,12 +368,7 @@ public class RequisitionServiceTest {
     when(secondPeriod.getId()).thenReturn(UUID.randomUUID());
     when(periodService.searchByProgramAndFacility(program.getId(), facility.getId()))
         .thenReturn(Arrays.asList(processingPeriod, secondPeriod));
-    when(requisitionRepository
-        .searchRequisitions(processingPeriod.getId(), facility.getId(), program.getId(), false))
-        .thenReturn(singletonList(requisition));
-    when(requisitionRepository
-        .searchRequisitions(secondPeriod.getId(), facility.getId(), program.getId(), false))
-        .thenReturn(emptyList());
+    stubRegularRequisitionPeriod(processingPeriod.getId(), requisition.getId());
 
     requisitionService.delete(requisition);
     verify(requisitionRepository).delete(requisition);
@@ -527,6 +547,27 @@ public class RequisitionServiceTest {
     assertTrue(requisitionsForApproval.getContent().contains(requisitions.get(1)));
   }
 
+  @Test
+  public void shouldGetSliceOfRequisitionsForApprovalAfterKeyset() {
+    // given
+    RequisitionKeyset keyset = RequisitionKeyset.of(requisition);
+    Slice<Requisition> slice = new SliceImpl<>(
+        singletonList(requisition), PageRequest.of(0, 1), true);
+
+    when(requisitionRepository.searchApprovableRequisitionsByProgramSupervisoryNodePairs(
+        newHashSet(new ImmutablePair<>(program.getId(), supervisoryNode.getId())), keyset, 1))
+        .thenReturn(slice);
+
+    // when
+    Slice<Requisition> requisitionsForApproval =
+        requisitionService.getRequisitionsForApproval(user, null, keyset, 1);
+
+    // then
+    assertEquals(slice, requisitionsForApproval);
+    verify(requisitionRepository, never())
+        .searchApprovableRequisitionsByProgramSupervisoryNodePairs(any(), any(Pageable.class));
+  }
+
   @Test
   public void shouldGetRequisitionsForApprovalWithProgramFilter() {
     List<Requisition> requisitions = mockSearchRequisitionsForApproval();
@@ -699,11 +740,23 @@ public class RequisitionServiceTest {
     assertEquals(1, initiatedRequisition.getNumberOfMonthsInPeriod().longValue());
   }
 
+  @Test(expected = ValidationMessageException.class)
+  public void shouldRethrowExceptionThrownWhileFetchingDataForInitiate() {
+    prepareForTestInitiate(SETTING);
+    final ApproveProductsAggregator aggregator = mockApprovedProduct(
+        new UUID[]{PRODUCT_ID}, new boolean[]{true});
+
+    when(idealStockAmountReferenceDataService.search(facility.getId(), processingPeriod.getId()))
+        .thenThrow(new ValidationMessageException("test"));
+
+    requisitionService.initiate(program, facility, processingPeriod, false,
+        stockAdjustmentReasons, requisitionTemplate, aggregator);
+  }
+
   @Test
   public void shouldInitiatePreviousAdjustedConsumptions() {
     prepareForTestInitiate(SETTING);
-    when(periodService.findPreviousPeriods(any(UUID.class), eq(SETTING - 1)))
-        .thenReturn(singletonList(new ProcessingPeriodDto()));
+    stubPreviousPeriod();
     mockPreviousRequisition();
     ApproveProductsAggregator aggregator = mockApprovedProduct(
         new UUID[]{PRODUCT_ID}, new boolean[]{true});
@@ -720,8 +773,7 @@ public class RequisitionServiceTest {
   @Test
   public void shouldInitiateReportOnlyRequisition() {
     prepareForTestInitiate(SETTING);
-    when(periodService.findPreviousPeriods(any(UUID.class), eq(SETTING - 1)))
-        .thenReturn(singletonList(new ProcessingPeriodDto()));
+    stubPreviousPeriod();
     mockPreviousRequisition();
     ApproveProductsAggregator aggregator = mockApprovedProduct(
         new UUID[]{PRODUCT_ID}, new boolean[]{true});
@@ -738,8 +790,7 @@ public class RequisitionServiceTest {
   @Test
   public void shouldInitiateRegularRequisitionIfItIsEmergencyForReportOnlyPeriod() {
     prepareForTestInitiate(SETTING);
-    when(periodService.findPreviousPeriods(any(UUID.class), eq(SETTING - 1)))
-        .thenReturn(singletonList(new ProcessingPeriodDto()));
+    stubPreviousPeriod();
     mockPreviousRequisition();
     ApproveProductsAggregator aggregator = mockApprovedProduct(
         new UUID[]{PRODUCT_ID}, new boolean[]{true});
@@ -768,8 +819,8 @@ public class RequisitionServiceTest {
     RequisitionLineItem requisitionLineItem = initiatedRequisition.getRequisitionLineItems().get(0);
     assertEquals(Integer.valueOf(ADJUSTED_CONSUMPTION),
         requisitionLineItem.getPreviousAdjustedConsumptions().get(0));
-    verify(requisitionRepository).findRegularRequisition(
-        PERIOD_ID, facility.getId(), program.getId());
+    verify(requisitionRepository).findRegularRequisitions(
+        singletonList(PERIOD_ID), facility.getId(), program.getId());
   }
 
   @Test
@@ -786,8 +837,40 @@ public class RequisitionServiceTest {
 
     UUID previousRequisitionId = initiatedRequisition.getPreviousRequisitions().get(0).getId();
     assertEquals(previousRequisition.getId(), previousRequisitionId);
-    verify(requisitionRepository).findRegularRequisition(
-        PERIOD_ID, facility.getId(), program.getId());
+    verify(requisitionRepository).findRegularRequisitions(
+        singletonList(PERIOD_ID), facility.getId(), program.getId());
+  }
+
+  @Test
+  public void shouldLoadPreviousRegularRequisitionsWithSingleQueryInPeriodOrder() {
+    prepareForTestInitiate(SETTING);
+    ProcessingPeriodDto recentPeriod = new ProcessingPeriodDtoDataBuilder().buildAsDto();
+    ProcessingPeriodDto skippedPeriod = new ProcessingPeriodDtoDataBuilder().buildAsDto();
+    ProcessingPeriodDto oldestPeriod = new ProcessingPeriodDtoDataBuilder().buildAsDto();
+    when(periodService.findPreviousPeriods(any(UUID.class), eq(SETTING - 1)))
+        .thenReturn(Arrays.asList(recentPeriod, skippedPeriod, oldestPeriod));
+
+    Requisition recentRequisition = new RequisitionDataBuilder()
+        .withProcessingPeriodId(recentPeriod.getId())
+        .build();
+    Requisition oldestRequisition = new RequisitionDataBuilder()
+        .withProcessingPeriodId(oldestPeriod.getId())
+        .build();
+    when(requisitionRepository
+        .findRegularRequisitions(any(), eq(facility.getId()), eq(program.getId())))
+        .thenReturn(Arrays.asList(oldestRequisition, recentRequisition));
+    ApproveProductsAggregator aggregator = mockApprovedProduct(
+        new UUID[]{PRODUCT_ID}, new boolean[]{true});
+
+    Requisition initiatedRequisition = requisitionService.initiate(
+        program, facility, processingPeriod, false,
+        stockAdjustmentReasons, requisitionTemplate, aggregator);
+
+    assertEquals(Arrays.asList(recentRequisition, oldestRequisition),
+        initiatedRequisition.getPreviousRequisitions());
+    verify(requisitionRepository).findRegularRequisitions(
+        Arrays.asList(recentPeriod.getId(), skippedPeriod.getId(), oldestPeriod.getId()),
+        facility.getId(), program.getId());
   }
 
   @Test
@@ -867,6 +950,7 @@ public class RequisitionServiceTest {
         stockAdjustmentReasons, requisitionTemplate, aggregator);
 
     assertEquals(stockAdjustmentReasons, initiatedRequisition.getStockAdjustmentReasons());
+    verify(stockAdjustmentReasonRepository).findOrCreateSnapshots(stockAdjustmentReasons);
   }
 
   @Test
@@ -996,7 +1080,7 @@ public class RequisitionServiceTest {
 
     when(fulfillmentFacilitiesReferenceDataService.getFulfillmentFacilities(user.getId(),
         convertToOrderRight.getId())).thenReturn(facilities);
-    when(requisitionForConvertBuilder.getAvailableSupplyingDepots(any(UUID.class)))
+    when(requisitionForConvertBuilder.getAvailableSupplyingDepots(any(UUID.class), any(UUID.class)))
         .thenReturn(facilities);
 
     // when
@@ -1018,7 +1102,7 @@ public class RequisitionServiceTest {
             .map(r -> facilityReferenceDataService.findOne(r.getSupplyingDepotId()))
             .collect(toList());
 
-    when(requisitionForConvertBuilder.getAvailableSupplyingDepots(any(UUID.class)))
+    when(requisitionForConvertBuilder.getAvailableSupplyingDepots(any(UUID.class), any(UUID.class)))
             .thenReturn(facilities);
 
     // when
@@ -1280,7 +1364,7 @@ public class RequisitionServiceTest {
 
     when(fulfillmentFacilitiesReferenceDataService.getFulfillmentFacilities(user.getId(),
         convertToOrderRight.getId())).thenReturn(facilities);
-    when(requisitionForConvertBuilder.getAvailableSupplyingDepots(any(UUID.class)))
+    when(requisitionForConvertBuilder.getAvailableSupplyingDepots(any(UUID.class), any(UUID.class)))
         .thenReturn(facilities);
 
     // when
@@ -1291,6 +1375,44 @@ public class RequisitionServiceTest {
   }
 
 
+  @Test
+  public void shouldLoadRequisitionsAndSupplyingDepotsOnceWhenConvertingToOrders() {
+    // given
+    List<ReleasableRequisitionDto> list = setUpReleaseRequisitionsAsOrder(3, APPROVED);
+    List<Requisition> requisitions = new ArrayList<>();
+    for (ReleasableRequisitionDto dto : list) {
+      Requisition requisition = new Requisition(UUID.randomUUID(), program.getId(),
+          UUID.randomUUID(), APPROVED, false);
+      requisition.setId(dto.getRequisitionId());
+      requisition.setSupervisoryNodeId(supervisoryNode.getId());
+      requisition.setRequisitionLineItems(Lists.newArrayList());
+      requisition.setTemplate(requisitionTemplate);
+      requisitions.add(requisition);
+    }
+    when(requisitionRepository.findAllById(anySetOf(UUID.class))).thenReturn(requisitions);
+
+    List<FacilityDto> facilities = list.stream()
+        .map(r -> facilityReferenceDataService.findOne(r.getSupplyingDepotId()))
+        .collect(toList());
+    when(fulfillmentFacilitiesReferenceDataService.getFulfillmentFacilities(user.getId(),
+        convertToOrderRight.getId())).thenReturn(facilities);
+    when(requisitionForConvertBuilder
+        .getAvailableSupplyingDepots(program.getId(), supervisoryNode.getId()))
+        .thenReturn(facilities);
+
+    // when
+    requisitionService.convertToOrder(list, user);
+
+    // then
+    verify(requisitionRepository).findAllById(anySetOf(UUID.class));
+    verify(requisitionRepository, never()).findById(any(UUID.class));
+    verify(requisitionForConvertBuilder)
+        .getAvailableSupplyingDepots(program.getId(), supervisoryNode.getId());
+    verify(requisitionRepository).saveAll(requisitions);
+    verify(requisitionRepository, never()).save(any(Requisition.class));
+    verify(orderFulfillmentService).create(any(List.class));
+  }
+
   @Test(expected = ValidationMessageException.class)
   public void shouldNotSwallowExceptionsFromFulfillmentService() {
     // given
@@ -1320,7 +1442,7 @@ public class RequisitionServiceTest {
 
     when(fulfillmentFacilitiesReferenceDataService.getFulfillmentFacilities(user.getId(),
         convertToOrderRight.getId())).thenReturn(facilities);
-    when(requisitionForConvertBuilder.getAvailableSupplyingDepots(any(UUID.class)))
+    when(requisitionForConvertBuilder.getAvailableSupplyingDepots(any(UUID.class), any(UUID.class)))
         .thenReturn(facilities);
 
     requisitionService.convertToOrder(list, user);
@@ -1459,6 +1581,7 @@ public class RequisitionServiceTest {
     }
 
     List<ReleasableRequisitionDto> result = new ArrayList<>();
+    List<Requisition> requisitions = new ArrayList<>();
 
     for (int i = 0; i < amount; i++) {
       FacilityDto facility = mock(FacilityDto.class);
@@ -1472,13 +1595,14 @@ public class RequisitionServiceTest {
       requisition.setRequisitionLineItems(Lists.newArrayList());
       requisition.setTemplate(requisitionTemplate);
 
-      when(requisitionRepository.findById(requisition.getId()))
-          .thenReturn(Optional.of(requisition));
       when(facilityReferenceDataService.findOne(facility.getId())).thenReturn(facility);
 
+      requisitions.add(requisition);
       result.add(new ReleasableRequisitionDto(requisition.getId(), facility.getId()));
     }
 
+    when(requisitionRepository.findAllById(anySetOf(UUID.class))).thenReturn(requisitions);
+
     return result;
   }
 
@@ -1568,12 +1692,13 @@ public class RequisitionServiceTest {
         .withOrderable(PRODUCT_ID, 1L)
         .build();
     previousRequisition = new RequisitionDataBuilder()
+        .withProcessingPeriodId(PERIOD_ID)
         .withRequisitionLineItems(singletonList(previousRequisitionLineItem))
         .build();
 
     when(requisitionRepository
-        .findRegularRequisition(any(), eq(facility.getId()), eq(program.getId())))
-        .thenReturn(Optional.of(previousRequisition));
+        .findRegularRequisitions(any(), eq(facility.getId()), eq(program.getId())))
+        .thenReturn(singletonList(previousRequisition));
   }
 
   private ApproveProductsAggregator mockApprovedProduct(UUID[] products, boolean[] fullSupply) {
@@ -1601,6 +1726,11 @@ public class RequisitionServiceTest {
 
   private void prepareForTestInitiate(Integer numberOfPeriodsToAverage) {
     when(requisitionTemplate.getNumberOfPeriodsToAverage()).thenReturn(numberOfPeriodsToAverage);
+    when(availableProductSetRepository.findOrCreate(any()))
+        .thenAnswer(invocation -> new AvailableProductSet(
+            (Collection<ApprovedProductReference>) invocation.getArguments()[0]));
+    when(stockAdjustmentReasonRepository.findOrCreateSnapshots(any()))
+        .thenAnswer(invocation -> invocation.getArguments()[0]);
   }
 
   private List<Requisition> mockSearchRequisitionsForApproval() {
@@ -1639,35 +1769,30 @@ public class RequisitionServiceTest {
     when(periodService.searchByProgramAndFacility(any(), any()))
         .thenReturn(singletonList(processingPeriod));
 
-    when(requisitionRepository
-        .searchRequisitions(any(UUID.class), any(UUID.class), any(UUID.class), any(Boolean.class)))
-        .thenReturn(new ArrayList<>());
-
     when(idealStockAmountReferenceDataService.search(facility.getId(), processingPeriod.getId()))
         .thenReturn(Lists.newArrayList());
 
-    when(orderDtoBuilder.build(any(Requisition.class), any(UserDto.class)))
+    when(orderDtoBuilder.build(anyCollectionOf(Requisition.class), any(UserDto.class)))
         .thenAnswer(invocation -> {
-          Requisition requisition = (Requisition) invocation.getArguments()[0];
-
-          if (null == requisition) {
-            return null;
-          }
-
-          OrderDto order = new OrderDtoDataBuilder()
-              .withExternalId(requisition.getId())
-              .withEmergency(requisition.getEmergency())
-              .withQuotedCost(BigDecimal.ZERO)
-              .withOrderLineItems(
-                  requisition
-                      .getRequisitionLineItems()
-                      .stream()
-                      .map(line -> OrderLineItemDto.newOrderLineItem(line, null))
-                      .collect(toList())
-              )
-              .withCreatedBy((UserDto) invocation.getArguments()[1])
-              .buildAsDto();
-          return order;
+          Collection<Requisition> requisitions =
+              (Collection<Requisition>) invocation.getArguments()[0];
+
+          return requisitions
+              .stream()
+              .map(requisition -> new OrderDtoDataBuilder()
+                  .withExternalId(requisition.getId())
+                  .withEmergency(requisition.getEmergency())
+                  .withQuotedCost(BigDecimal.ZERO)
+                  .withOrderLineItems(
+                      requisition
+                          .getRequisitionLineItems()
+                          .stream()
+                          .map(line -> OrderLineItemDto.newOrderLineItem(line, null))
+                          .collect(toList())
+                  )
+                  .withCreatedBy((UserDto) invocation.getArguments()[1])
+                  .buildAsDto())
+              .collect(toList());
         });
 
     when(authenticationHelper.getCurrentUser()).thenReturn(user);
@@ -1682,9 +1807,13 @@ public class RequisitionServiceTest {
   private void stubRecentRequisition() {
     when(periodService.searchByProgramAndFacility(program.getId(), facility.getId()))
         .thenReturn(singleton(processingPeriod));
-    when(requisitionRepository
-        .searchRequisitions(processingPeriod.getId(), facility.getId(), program.getId(), false))
-        .thenReturn(singletonList(requisition));
+    stubRegularRequisitionPeriod(processingPeriod.getId(), requisition.getId());
+  }
+
+  private void stubRegularRequisitionPeriod(UUID periodId, UUID requisitionId) {
+    when(periodService.findRegularRequisitionPeriods(program.getId(), facility.getId()))
+        .thenReturn(singletonMap(periodId,
+            new RequisitionPeriod(requisitionId, INITIATED, periodId)));
   }
 
   private void stubPreviousPeriod() {
@@ -1698,11 +1827,7 @@ public class RequisitionServiceTest {
   private void prepareRequisitionIsNotNewest() {
     when(periodService.searchByProgramAndFacility(program.getId(), facility.getId()))
         .thenReturn(singleton(processingPeriod));
-    Requisition newestRequisition = mock(Requisition.class);
-    when(newestRequisition.getId()).thenReturn(UUID.randomUUID());
-    when(requisitionRepository
-        .searchRequisitions(processingPeriod.getId(), facility.getId(), program.getId(), false))
-        .thenReturn(singletonList(newestRequisition));
+    stubRegularRequisitionPeriod(processingPeriod.getId(), UUID.randomUUID());
   }
 
   private OngoingStubbing<List<StockCardSummaryDto>> whenGetStockCardSummaries() {
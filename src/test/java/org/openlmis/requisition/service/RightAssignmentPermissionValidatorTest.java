@@ -16,7 +16,10 @@
 package org.openlmis.requisition.service;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.util.UUID;
@@ -33,6 +36,7 @@ import org.openlmis.requisition.dto.ResultDto;
 import org.openlmis.requisition.dto.RightDto;
 import org.openlmis.requisition.dto.UserDto;
 import org.openlmis.requisition.errorhandling.ValidationResult;
+import org.openlmis.requisition.service.referencedata.PermissionStrings;
 import org.openlmis.requisition.service.referencedata.UserReferenceDataService;
 import org.openlmis.requisition.testutils.DtoGenerator;
 
@@ -51,6 +55,12 @@ public class RightAssignmentPermissionValidatorTest
   @Mock
   private UserReferenceDataService userReferenceDataService;
 
+  @Mock
+  private PermissionStrings permissionStrings;
+
+  @Mock
+  private PermissionStrings.Handler permissionStringsHandler;
+
   @InjectMocks
   private RightAssignmentPermissionValidator validator;
 
@@ -78,6 +88,37 @@ public class RightAssignmentPermissionValidatorTest
 
     when(authenticationHelper.getCurrentUser()).thenReturn(user);
     when(authenticationHelper.getRight(RIGHT_NAME)).thenReturn(right);
+    when(permissionStrings.forUser(user.getId())).thenReturn(permissionStringsHandler);
+  }
+
+  @Test
+  public void userShouldHavePermissionIfPermissionStringsContainRight() {
+    // given
+    given(permissionStringsHandler.hasPermission(RIGHT_NAME, FACILITY_ID, PROGRAM_ID))
+        .willReturn(true);
+
+    // when
+    ValidationResult result = validator.hasPermission(getDetailsForSupervisionPermission());
+
+    // then
+    assertThat(result.isSuccess()).isTrue();
+    verify(userReferenceDataService, never())
+        .hasRight(any(), any(), any(), any(), any());
+  }
+
+  @Test
+  public void shouldCheckWarehouseInPermissionStringsForFulfillmentRight() {
+    // given
+    given(permissionStringsHandler.hasPermission(RIGHT_NAME, WAREHOUSE_ID, null))
+        .willReturn(true);
+
+    // when
+    ValidationResult result = validator.hasPermission(getDetailsForFulfillmentPermission());
+
+    // then
+    assertThat(result.isSuccess()).isTrue();
+    verify(userReferenceDataService, never())
+        .hasRight(any(), any(), any(), any(), any());
   }
 
   @Test
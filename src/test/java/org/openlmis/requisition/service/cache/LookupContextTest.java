@@ -0,0 +1,176 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.requisition.service.cache;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.junit.After;
+import org.junit.Test;
+
+public class LookupContextTest {
+  private static final String KEY = "key";
+  private static final String VALUE = "value";
+
+  private AtomicInteger calls = new AtomicInteger();
+
+  @After
+  public void tearDown() {
+    LookupContext.close();
+  }
+
+  @Test
+  public void shouldCallLoaderEveryTimeWithoutContext() {
+    LookupContext.lookup(KEY, this::load, this::snapshot);
+    String found = LookupContext.lookup(KEY, this::load, this::snapshot);
+
+    assertThat(found, is(VALUE));
+    assertThat(calls.get(), is(2));
+  }
+
+  @Test
+  public void shouldMemoizeResultsInContext() {
+    final LookupContext context = LookupContext.open();
+
+    LookupContext.lookup(KEY, this::load, this::snapshot);
+    String found = LookupContext.lookup(KEY, this::load, this::snapshot);
+
+    assertThat(found, is(VALUE));
+    assertThat(calls.get(), is(1));
+    assertThat(context.getSavedCalls(), is(1));
+    assertThat(context.size(), is(1));
+  }
+
+  @Test
+  public void shouldMemoizeMissingResults() {
+    final LookupContext context = LookupContext.open();
+
+    LookupContext.lookup(KEY, this::loadMissing, this::snapshot);
+    String found = LookupContext.lookup(KEY, this::loadMissing, this::snapshot);
+
+    assertThat(found, is(nullValue()));
+    assertThat(calls.get(), is(1));
+    assertThat(context.getSavedCalls(), is(1));
+  }
+
+  @Test
+  public void shouldStopMemoizingWhenContextIsClosed() {
+    LookupContext.open();
+    LookupContext.lookup(KEY, this::load, this::snapshot);
+
+    LookupContext.close();
+    LookupContext.lookup(KEY, this::load, this::snapshot);
+
+    assertThat(LookupContext.current(), is(nullValue()));
+    assertThat(calls.get(), is(2));
+  }
+
+  @Test
+  public void shouldPropagateContextToOtherThread() {
+    final LookupContext context = LookupContext.open();
+    LookupContext.lookup(KEY, this::load, this::snapshot);
+
+    Runnable task = LookupContext.propagate(() -> {
+      assertThat(LookupContext.current(), is(sameInstance(context)));
+      LookupContext.lookup(KEY, this::load, this::snapshot);
+    });
+    CompletableFuture.runAsync(task).join();
+
+    assertThat(calls.get(), is(1));
+    assertThat(context.getSavedCalls(), is(1));
+  }
+
+  @Test
+  public void shouldRestorePreviousContextAfterPropagatedTask() {
+    final LookupContext context = LookupContext.open();
+    Runnable task = LookupContext.propagate(() -> { });
+
+    LookupContext other = LookupContext.open();
+    task.run();
+
+    assertThat(LookupContext.current(), is(sameInstance(other)));
+    assertThat(context.getSavedCalls(), is(0));
+  }
+
+  @Test
+  public void shouldNotWrapTaskWithoutContext() {
+    Runnable task = () -> { };
+
+    assertThat(LookupContext.propagate(task), is(sameInstance(task)));
+  }
+
+  private String load() {
+    calls.incrementAndGet();
+    return VALUE;
+  }
+
+  @Test
+  public void shouldReturnCopiesOfMemoizedResults() {
+    LookupContext.open();
+
+    List<String> loaded = LookupContext.lookup(KEY, this::loadList, this::snapshotList);
+    loaded.clear();
+    List<String> memoized = LookupContext.lookup(KEY, this::loadList, this::snapshotList);
+    memoized.clear();
+    List<String> found = LookupContext.lookup(KEY, this::loadList, this::snapshotList);
+
+    assertThat(found, contains(VALUE));
+    assertThat(calls.get(), is(1));
+  }
+
+  @Test
+  public void shouldSnapshotLoadedResultOnce() {
+    LookupContext.open();
+    AtomicInteger snapshots = new AtomicInteger();
+
+    for (int i = 0; i < 3; ++i) {
+      LookupContext.lookup(KEY, this::load, value -> {
+        snapshots.incrementAndGet();
+        return snapshot(value);
+      });
+    }
+
+    assertThat(snapshots.get(), is(1));
+  }
+
+  private List<String> loadList() {
+    calls.incrementAndGet();
+    return new ArrayList<>(Collections.singletonList(VALUE));
+  }
+
+  private Supplier<String> snapshot(String value) {
+    return () -> new String(value);
+  }
+
+  private Supplier<List<String>> snapshotList(List<String> value) {
+    List<String> copy = new ArrayList<>(value);
+    return () -> new ArrayList<>(copy);
+  }
+
+  private String loadMissing() {
+    calls.incrementAndGet();
+    return null;
+  }
+}
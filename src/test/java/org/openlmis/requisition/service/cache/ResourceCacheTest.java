@@ -0,0 +1,191 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.requisition.service.cache;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.openlmis.requisition.dto.FacilityDto;
+import org.openlmis.requisition.service.ServiceResponse;
+import org.openlmis.requisition.testutils.FacilityDtoDataBuilder;
+import org.openlmis.requisition.testutils.SupportedProgramDtoDataBuilder;
+import org.springframework.http.HttpHeaders;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ResourceCacheTest {
+  private static final String REGION = "facilities";
+  private static final String KEY = "key";
+  private static final String ETAG = "\"1\"";
+  private static final long TIME_TO_LIVE = 1000;
+
+  @Mock
+  private Clock clock;
+
+  @Mock
+  private ResourceCacheStore store;
+
+  private ResourceCache<String> cache;
+  private AtomicInteger calls = new AtomicInteger();
+
+  @Before
+  public void setUp() {
+    when(clock.millis()).thenReturn(0L);
+    cache = new ResourceCache<>(REGION, String.class, 2, TIME_TO_LIVE, clock, null);
+  }
+
+  @Test
+  public void shouldLoadResourceOnMiss() {
+    assertThat(cache.get(KEY, modified("value")), is("value"));
+
+    assertThat(calls.get(), is(1));
+    assertThat(cache.getStatistics().getMisses(), is(1L));
+  }
+
+  @Test
+  public void shouldReturnFreshResourceWithoutLoading() {
+    cache.get(KEY, modified("value"));
+
+    when(clock.millis()).thenReturn(TIME_TO_LIVE - 1);
+    assertThat(cache.get(KEY, modified("other")), is("value"));
+
+    assertThat(calls.get(), is(1));
+    assertThat(cache.getStatistics().getHits(), is(1L));
+  }
+
+  @Test
+  public void shouldRevalidateStaleResourceWithEntityTag() {
+    cache.get(KEY, modified("value"));
+
+    when(clock.millis()).thenReturn(TIME_TO_LIVE);
+    assertThat(cache.get(KEY, etag -> {
+      assertThat(etag, is(ETAG));
+      return new ServiceResponse<>(null, headers(), false);
+    }), is("value"));
+
+    when(clock.millis()).thenReturn(TIME_TO_LIVE + 1);
+    assertThat(cache.get(KEY, modified("other")), is("value"));
+
+    assertThat(cache.getStatistics().getRevalidations(), is(1L));
+    assertThat(cache.getStatistics().getHits(), is(1L));
+  }
+
+  @Test
+  public void shouldReplaceStaleResourceIfItWasModified() {
+    cache.get(KEY, modified("value"));
+
+    when(clock.millis()).thenReturn(TIME_TO_LIVE);
+    assertThat(cache.get(KEY, modified("other")), is("other"));
+    assertThat(cache.get(KEY, modified("another")), is("other"));
+  }
+
+  @Test
+  public void shouldEvictResourceThatNoLongerExists() {
+    cache.get(KEY, modified("value"));
+
+    when(clock.millis()).thenReturn(TIME_TO_LIVE);
+    assertThat(cache.get(KEY, etag -> null), is(nullValue()));
+    assertThat(cache.size(), is(0));
+  }
+
+  @Test
+  public void shouldEvictLeastRecentlyUsedResourceWhenFull() {
+    cache.get("first", modified("first"));
+    cache.get("second", modified("second"));
+    cache.get("first", modified("first"));
+    cache.get("third", modified("third"));
+
+    assertThat(cache.size(), is(2));
+    assertThat(cache.getStatistics().getEvictions(), is(1L));
+
+    cache.get("second", modified("second"));
+    assertThat(calls.get(), is(4));
+  }
+
+  @Test
+  public void shouldUseSecondLevelStore() {
+    cache = new ResourceCache<>(REGION, String.class, 2, TIME_TO_LIVE, clock, store);
+    when(store.get(REGION, KEY, String.class))
+        .thenReturn(new CachedResource<>("shared", ETAG, 0));
+
+    assertThat(cache.get(KEY, modified("value")), is("shared"));
+
+    assertThat(calls.get(), is(0));
+    verify(store, never()).put(anyString(), anyString(), any());
+  }
+
+  @Test
+  public void shouldPutLoadedResourceToSecondLevelStore() {
+    cache = new ResourceCache<>(REGION, String.class, 2, TIME_TO_LIVE, clock, store);
+
+    cache.get(KEY, modified("value"));
+
+    verify(store).put(eq(REGION), eq(KEY), eq(new CachedResource<>("value", ETAG, 0)));
+  }
+
+  @Test
+  public void shouldReturnCopiesOfCachedResource() {
+    ResourceCache<FacilityDto> facilities = new ResourceCache<>(REGION, FacilityDto.class, 2,
+        TIME_TO_LIVE, clock, null);
+    FacilityDto facility = new FacilityDtoDataBuilder()
+        .withSupportedPrograms(Collections.singletonList(
+            new SupportedProgramDtoDataBuilder().buildAsDto()))
+        .buildAsDto();
+
+    FacilityDto loaded = facilities.get(KEY,
+        etag -> new ServiceResponse<>(facility, headers(), true));
+    loaded.setSupportedPrograms(null);
+
+    FacilityDto cached = facilities.get(KEY, etag -> null);
+    assertThat(cached, is(not(sameInstance(loaded))));
+    assertThat(cached.getSupportedPrograms(), is(facility.getSupportedPrograms()));
+
+    cached.setName("changed");
+    assertThat(facilities.get(KEY, etag -> null).getName(), is(facility.getName()));
+  }
+
+  private Function<String, ServiceResponse<String>> modified(String value) {
+    return etag -> {
+      calls.incrementAndGet();
+      return new ServiceResponse<>(value, headers(), true);
+    };
+  }
+
+  private HttpHeaders headers() {
+    HttpHeaders headers = new HttpHeaders();
+    headers.setETag(ETAG);
+    return headers;
+  }
+}
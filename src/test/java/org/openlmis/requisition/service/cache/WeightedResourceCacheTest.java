@@ -0,0 +1,80 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.requisition.service.cache;
+
+import static org.hamcrest.Matchers.hasEntry;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import com.google.common.collect.Lists;
+import java.util.Map;
+import org.junit.Before;
+import org.junit.Test;
+
+public class WeightedResourceCacheTest {
+  private static final String KEY = "key";
+  private static final String OTHER_KEY = "other";
+  private static final String THIRD_KEY = "third";
+
+  private WeightedResourceCache<String, String> cache;
+
+  @Before
+  public void setUp() {
+    cache = new WeightedResourceCache<>("orderables", 10, String::length);
+  }
+
+  @Test
+  public void shouldReturnOnlyCachedResources() {
+    cache.put(KEY, "abc");
+
+    Map<String, String> found = cache.getAll(Lists.newArrayList(KEY, OTHER_KEY));
+
+    assertThat(found.size(), is(1));
+    assertThat(found, hasEntry(KEY, "abc"));
+    assertThat(cache.getStatistics().getHits(), is(1L));
+    assertThat(cache.getStatistics().getMisses(), is(1L));
+  }
+
+  @Test
+  public void shouldEvictLeastRecentlyUsedResourcesWhenWeightIsExceeded() {
+    cache.put(KEY, "abcd");
+    cache.put(OTHER_KEY, "abcd");
+    cache.getAll(Lists.newArrayList(KEY));
+    cache.put(THIRD_KEY, "abcd");
+
+    assertThat(cache.getAll(Lists.newArrayList(OTHER_KEY)).isEmpty(), is(true));
+    assertThat(cache.size(), is(2));
+    assertThat(cache.getWeight(), is(8L));
+    assertThat(cache.getStatistics().getEvictions(), is(1L));
+  }
+
+  @Test
+  public void shouldUpdateWeightWhenResourceIsReplaced() {
+    cache.put(KEY, "abcd");
+    cache.put(KEY, "ab");
+
+    assertThat(cache.size(), is(1));
+    assertThat(cache.getWeight(), is(2L));
+  }
+
+  @Test
+  public void shouldNotStoreResourceBiggerThanCache() {
+    cache.put(KEY, "abcdefghijk");
+
+    assertThat(cache.size(), is(0));
+    assertThat(cache.getWeight(), is(0L));
+  }
+}
@@ -16,20 +16,32 @@
 package org.openlmis.requisition.service.referencedata;
 
 import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.hasItems;
 import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import java.net.URI;
 import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 import org.junit.Before;
 import org.junit.Test;
 import org.openlmis.requisition.domain.requisition.VersionEntityReference;
 import org.openlmis.requisition.dto.OrderableDto;
 import org.openlmis.requisition.dto.VersionIdentityDto;
+import org.openlmis.requisition.service.cache.WeightedResourceCache;
 import org.openlmis.requisition.testutils.OrderableDtoDataBuilder;
+import org.openlmis.requisition.utils.DynamicPageTypeReference;
+import org.springframework.http.HttpMethod;
+import org.springframework.test.util.ReflectionTestUtils;
 
 public class OrderableReferenceDataServiceTest extends BaseReferenceDataServiceTest<OrderableDto> {
 
@@ -76,6 +88,63 @@ public class OrderableReferenceDataServiceTest extends BaseReferenceDataServiceT
         .hasBody(searchParams);
   }
 
+  @Test
+  public void shouldRequestOnlyOrderablesMissingInCache() {
+    // given
+    ReflectionTestUtils.setField(service, "identityCache", new WeightedResourceCache<>(
+        "orderables", Long.MAX_VALUE, OrderableReferenceDataService::estimateSize));
+
+    OrderableDto cached = new OrderableDtoDataBuilder().buildAsDto();
+    VersionEntityReference cachedReference = new VersionEntityReference(
+        cached.getId(), cached.getVersionNumber());
+
+    mockPageResponseEntity(cached);
+    service.findByIdentities(Collections.singleton(cachedReference));
+
+    OrderableDto missing = new OrderableDtoDataBuilder().buildAsDto();
+    VersionEntityReference missingReference = new VersionEntityReference(
+        missing.getId(), missing.getVersionNumber());
+    mockPageResponseEntity(missing);
+
+    // when
+    List<OrderableDto> response = service.findByIdentities(
+        Sets.newHashSet(cachedReference, missingReference));
+    List<OrderableDto> repeated = service.findByIdentities(
+        Sets.newHashSet(cachedReference, missingReference));
+
+    // then
+    assertThat(response, hasSize(2));
+    assertThat(response, hasItems(cached, missing));
+    assertThat(repeated, hasItems(cached, missing));
+
+    verify(restTemplate, times(2)).exchange(any(URI.class), any(HttpMethod.class),
+        entityCaptor.capture(), any(DynamicPageTypeReference.class));
+    assertThat(entityCaptor.getValue().getBody(), is(new OrderableSearchParams(null, null, null,
+        Lists.newArrayList(new VersionIdentityDto(missingReference)), 0, 1)));
+  }
+
+  @Test
+  public void shouldReturnCopiesOfCachedOrderables() {
+    // given
+    ReflectionTestUtils.setField(service, "identityCache", new WeightedResourceCache<>(
+        "orderables", Long.MAX_VALUE, OrderableReferenceDataService::estimateSize));
+
+    OrderableDto orderable = new OrderableDtoDataBuilder().buildAsDto();
+    final String productName = orderable.getFullProductName();
+    Set<VersionEntityReference> references = Collections.singleton(
+        new VersionEntityReference(orderable.getId(), orderable.getVersionNumber()));
+    mockPageResponseEntity(orderable);
+
+    // when
+    service.findByIdentities(references).get(0).setFullProductName("changed");
+    OrderableDto cached = service.findByIdentities(references).get(0);
+    cached.setFullProductName("changed again");
+
+    // then
+    assertThat(service.findByIdentities(references).get(0).getFullProductName(),
+        is(productName));
+  }
+
   @Test
   public void shouldReturnEmptyListIfEmptyParamProvided() {
     // given
@@ -15,6 +15,7 @@
 
 package org.openlmis.requisition.service.referencedata;
 
+import static java.util.Collections.emptyList;
 import static java.util.Collections.singletonList;
 import static java.util.UUID.randomUUID;
 import static org.apache.commons.lang3.RandomStringUtils.random;
@@ -24,24 +25,32 @@ import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.junit.Assert.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.lang.reflect.Field;
+import java.time.Clock;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 import org.openlmis.requisition.service.ServiceResponse;
+import org.springframework.test.util.ReflectionTestUtils;
 
 @RunWith(MockitoJUnitRunner.class)
 public class PermissionStringsTest {
   private static final String HANDLERS_FIELD_NAME = "handlers";
   private static final UUID USER = randomUUID();
+  private static final long IDLE_TIMEOUT = 1000;
+  private static final long REVALIDATION_INTERVAL = 100;
 
   @Mock
   private UserReferenceDataService userReferenceDataService;
@@ -49,9 +58,19 @@ public class PermissionStringsTest {
   @InjectMocks
   private PermissionStrings permissionStrings;
 
+  @Mock
+  private Clock clock;
+
   @Mock
   private ServiceResponse<List<String>> response;
 
+  @Before
+  public void setUp() {
+    ReflectionTestUtils.setField(permissionStrings, "maxSize", 2);
+    ReflectionTestUtils.setField(permissionStrings, "idleTimeout", IDLE_TIMEOUT);
+    ReflectionTestUtils.setField(permissionStrings, "revalidationInterval", 0L);
+  }
+
   @Test
   public void shouldCreateHandlerIfNotExist() throws Exception {
     Field handlers = PermissionStrings.class.getDeclaredField(HANDLERS_FIELD_NAME);
@@ -129,4 +148,98 @@ public class PermissionStringsTest {
 
     assertThat(one, is(equalTo(two)));
   }
+
+  @Test
+  public void shouldNotRevalidateDataBeforeRevalidationInterval() {
+    ReflectionTestUtils.setField(permissionStrings, "revalidationInterval",
+        REVALIDATION_INTERVAL);
+    final PermissionStrings.Handler handler = permissionStrings.forUser(USER);
+
+    when(userReferenceDataService.getPermissionStrings(USER, null)).thenReturn(response);
+    when(response.isModified()).thenReturn(true);
+    when(response.getBody()).thenReturn(singletonList(random(5)));
+
+    when(clock.millis()).thenReturn(0L);
+    handler.get();
+
+    when(clock.millis()).thenReturn(REVALIDATION_INTERVAL - 1);
+    handler.get();
+
+    verify(userReferenceDataService, times(1)).getPermissionStrings(any(UUID.class), any());
+
+    when(clock.millis()).thenReturn(REVALIDATION_INTERVAL);
+    handler.get();
+
+    verify(userReferenceDataService, times(2)).getPermissionStrings(any(UUID.class), any());
+  }
+
+  @Test
+  public void shouldCheckPermissionInSnapshot() {
+    UUID facility = randomUUID();
+    UUID program = randomUUID();
+    final PermissionStrings.Handler handler = permissionStrings.forUser(USER);
+
+    when(userReferenceDataService.getPermissionStrings(USER, null)).thenReturn(response);
+    when(response.isModified()).thenReturn(true);
+    when(response.getBody())
+        .thenReturn(singletonList("REQUISITION_VIEW|" + facility + "|" + program));
+
+    assertThat(handler.hasPermission("REQUISITION_VIEW", facility, program), is(true));
+    assertThat(handler.hasPermission("REQUISITION_VIEW", program, facility), is(false));
+    assertThat(handler.hasPermission("REQUISITION_CREATE", facility, program), is(false));
+  }
+
+  @Test
+  public void shouldGrantRevokedPermissionOnlyUntilRevalidation() {
+    ReflectionTestUtils.setField(permissionStrings, "revalidationInterval",
+        REVALIDATION_INTERVAL);
+    UUID facility = randomUUID();
+    UUID program = randomUUID();
+    final PermissionStrings.Handler handler = permissionStrings.forUser(USER);
+
+    when(userReferenceDataService.getPermissionStrings(USER, null)).thenReturn(response);
+    when(response.isModified()).thenReturn(true);
+    when(response.getBody())
+        .thenReturn(singletonList("REQUISITION_VIEW|" + facility + "|" + program))
+        .thenReturn(emptyList());
+
+    when(clock.millis()).thenReturn(0L);
+    assertThat(handler.hasPermission("REQUISITION_VIEW", facility, program), is(true));
+
+    when(clock.millis()).thenReturn(REVALIDATION_INTERVAL - 1);
+    assertThat(handler.hasPermission("REQUISITION_VIEW", facility, program), is(true));
+
+    when(clock.millis()).thenReturn(REVALIDATION_INTERVAL);
+    assertThat(handler.hasPermission("REQUISITION_VIEW", facility, program), is(false));
+  }
+
+  @Test
+  public void shouldEvictLeastRecentlyUsedHandlersAboveMaxSize() throws Exception {
+    final PermissionStrings.Handler handler = permissionStrings.forUser(USER);
+    permissionStrings.forUser(randomUUID());
+    permissionStrings.forUser(USER);
+    permissionStrings.forUser(randomUUID());
+
+    assertThat(getHandlers().size(), is(2));
+    assertThat(permissionStrings.forUser(USER), is(handler));
+  }
+
+  @Test
+  public void shouldEvictIdleHandlers() throws Exception {
+    when(clock.millis()).thenReturn(0L);
+    final PermissionStrings.Handler handler = permissionStrings.forUser(USER);
+
+    when(clock.millis()).thenReturn(IDLE_TIMEOUT + 1);
+    permissionStrings.forUser(randomUUID());
+
+    assertThat(getHandlers().size(), is(1));
+    assertThat(permissionStrings.forUser(USER), is(not(handler)));
+  }
+
+  private Map getHandlers() throws Exception {
+    Field handlers = PermissionStrings.class.getDeclaredField(HANDLERS_FIELD_NAME);
+    handlers.setAccessible(true);
+
+    return (Map) handlers.get(permissionStrings);
+  }
 }
@@ -67,4 +67,14 @@ public class StockAdjustmentReasonDataBuilder implements DataBuilder<StockAdjust
     this.name = name;
     return this;
   }
+
+  public StockAdjustmentReasonDataBuilder withDescription(String description) {
+    this.description = description;
+    return this;
+  }
+
+  public StockAdjustmentReasonDataBuilder withHidden(Boolean hidden) {
+    this.hidden = hidden;
+    return this;
+  }
 }
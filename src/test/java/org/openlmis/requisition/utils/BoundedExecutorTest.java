@@ -0,0 +1,88 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.requisition.utils;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.Assert.assertThat;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+public class BoundedExecutorTest {
+  private static final String NAME = "test";
+
+  private BoundedExecutor executor = new BoundedExecutor(NAME, 2, 1);
+
+  @After
+  public void tearDown() {
+    executor.shutdown();
+    SecurityContextHolder.clearContext();
+  }
+
+  @Test
+  public void shouldRunTasksWithSecurityContextOfCaller() {
+    Authentication authentication = new TestingAuthenticationToken("user", "password");
+    SecurityContextHolder.getContext().setAuthentication(authentication);
+
+    Authentication found = executor
+        .supplyAsync(() -> SecurityContextHolder.getContext().getAuthentication())
+        .join();
+
+    assertThat(found, is(authentication));
+    assertThat(SecurityContextHolder.getContext().getAuthentication(), is(authentication));
+  }
+
+  @Test
+  public void shouldRunTasksInNamedThreads() {
+    String threadName = executor.supplyAsync(() -> Thread.currentThread().getName()).join();
+
+    assertThat(threadName, startsWith(NAME + "-"));
+  }
+
+  @Test
+  public void shouldWaitForSpaceInQueueInsteadOfRejectingTasks() throws Exception {
+    CountDownLatch latch = new CountDownLatch(1);
+
+    // two running tasks and one waiting in the queue
+    for (int i = 0; i < 3; ++i) {
+      executor.runAsync(() -> await(latch));
+    }
+
+    CompletableFuture<CompletableFuture<Integer>> submission = CompletableFuture
+        .supplyAsync(() -> executor.supplyAsync(() -> 1));
+
+    Thread.sleep(100);
+    assertThat(submission.isDone(), is(false));
+
+    latch.countDown();
+    assertThat(submission.get(10, TimeUnit.SECONDS).get(10, TimeUnit.SECONDS), is(1));
+  }
+
+  private void await(CountDownLatch latch) {
+    try {
+      latch.await(10, TimeUnit.SECONDS);
+    } catch (InterruptedException exp) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -16,6 +16,7 @@
 package org.openlmis.requisition.utils;
 
 import static org.assertj.core.api.Java6Assertions.assertThat;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.openlmis.requisition.domain.requisition.RequisitionLineItem.STOCK_ON_HAND;
 import static org.openlmis.requisition.domain.requisition.RequisitionLineItem.TOTAL_CONSUMED_QUANTITY;
@@ -53,6 +54,7 @@ import org.openlmis.requisition.domain.requisition.StatusChange;
 import org.openlmis.requisition.domain.requisition.StockAdjustment;
 import org.openlmis.requisition.domain.requisition.StockAdjustmentDataBuilder;
 import org.openlmis.requisition.domain.requisition.StockAdjustmentReason;
+import org.openlmis.requisition.dto.ObjectReferenceDto;
 import org.openlmis.requisition.dto.OrderableDto;
 import org.openlmis.requisition.dto.ProcessingPeriodDto;
 import org.openlmis.requisition.dto.VersionIdentityDto;
@@ -434,6 +436,38 @@ public class StockEventBuilderTest {
     assertThat(result.getLineItems().get(0).getStockAdjustments().size()).isEqualTo(4);
   }
 
+  @Test
+  public void itShouldIgnoreStockCardsWithLots() {
+    lineItemOneDto.setBeginningBalance(20);
+    stockCards.add(0, StockCardDto.builder()
+        .lot(new ObjectReferenceDto(UUID.randomUUID()))
+        .orderable(new OrderableDtoDataBuilder()
+            .withId(lineItemOneDto.getOrderable().getId())
+            .buildAsDto())
+        .stockOnHand(5)
+        .build());
+
+    StockEventDto result = getStockEventDto();
+
+    assertThat(result.getLineItems().get(0).getStockAdjustments().size()).isEqualTo(5);
+    assertThat(result.getLineItems().get(0).getStockAdjustments().get(4))
+        .isEqualToComparingFieldByFieldRecursively(new StockEventAdjustmentDto(
+            beginningBalanceInsufficiency.getReasonId(), 10));
+  }
+
+  @Test
+  public void itShouldResolveConfiguredReasonsOncePerEvent() {
+    StockEventDto result = getStockEventDto();
+
+    assertThat(result.getLineItems().size()).isEqualTo(2);
+    verify(configurationSettingService).getReasonIdForConsumed();
+    verify(configurationSettingService).getReasonIdForReceipts();
+    verify(configurationSettingService).getReasonIdForBeginningBalanceExcess();
+    verify(configurationSettingService).getReasonIdForBeginningBalanceInsufficiency();
+    verify(stockCardStockManagementService)
+        .getStockCards(requisition.getFacilityId(), requisition.getProgramId());
+  }
+
   private RequisitionLineItem prepareLineItemOneDto() {
     lineItemOneDto = new RequisitionLineItemDataBuilder()
         .withSkippedFlag(false)
@@ -16,7 +16,9 @@
 package org.openlmis.requisition.web;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 
 import org.junit.Test;
 
@@ -43,4 +45,22 @@ public class ETagResourceTest {
 
     assertEquals(7L, version.longValue());
   }
+
+  @Test
+  public void shouldMatchVersionWithWeakStrongAndQuotedETags() {
+    assertTrue(ETagResource.matchesVersion("W/7", 7L));
+    assertTrue(ETagResource.matchesVersion("7", 7L));
+    assertTrue(ETagResource.matchesVersion("W/\"7\"", 7L));
+    assertTrue(ETagResource.matchesVersion("W/5, W/7", 7L));
+    assertTrue(ETagResource.matchesVersion("*", 7L));
+  }
+
+  @Test
+  public void shouldNotMatchVersionWithOtherOrMalformedETags() {
+    assertFalse(ETagResource.matchesVersion("W/6", 7L));
+    assertFalse(ETagResource.matchesVersion("W/abc, , 99999999999999999999", 7L));
+    assertFalse(ETagResource.matchesVersion("", 7L));
+    assertFalse(ETagResource.matchesVersion(null, 7L));
+    assertFalse(ETagResource.matchesVersion("W/7", null));
+  }
 }
@@ -0,0 +1,196 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org.
+ */
+
+package org.openlmis.requisition.web;
+
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anySetOf;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.openlmis.requisition.domain.requisition.Requisition;
+import org.openlmis.requisition.domain.requisition.RequisitionDataBuilder;
+import org.openlmis.requisition.domain.requisition.RequisitionLineItemDataBuilder;
+import org.openlmis.requisition.domain.requisition.StatusMessage;
+import org.openlmis.requisition.domain.requisition.VersionEntityReference;
+import org.openlmis.requisition.dto.FacilityDto;
+import org.openlmis.requisition.dto.OrderDto;
+import org.openlmis.requisition.dto.OrderableDto;
+import org.openlmis.requisition.dto.ProcessingPeriodDto;
+import org.openlmis.requisition.dto.ProgramDto;
+import org.openlmis.requisition.dto.UserDto;
+import org.openlmis.requisition.repository.StatusMessageRepository;
+import org.openlmis.requisition.service.referencedata.FacilityReferenceDataService;
+import org.openlmis.requisition.service.referencedata.OrderableReferenceDataService;
+import org.openlmis.requisition.service.referencedata.PeriodReferenceDataService;
+import org.openlmis.requisition.service.referencedata.ProgramReferenceDataService;
+import org.openlmis.requisition.testutils.FacilityDtoDataBuilder;
+import org.openlmis.requisition.testutils.OrderableDtoDataBuilder;
+import org.openlmis.requisition.testutils.ProcessingPeriodDtoDataBuilder;
+import org.openlmis.requisition.testutils.ProgramDtoDataBuilder;
+import org.openlmis.requisition.testutils.StatusMessageDataBuilder;
+import org.openlmis.requisition.testutils.UserDtoDataBuilder;
+
+@RunWith(MockitoJUnitRunner.class)
+public class OrderDtoBuilderTest {
+
+  @Mock
+  private FacilityReferenceDataService facilities;
+
+  @Mock
+  private PeriodReferenceDataService periods;
+
+  @Mock
+  private StatusMessageRepository statusMessageRepository;
+
+  @Mock
+  private ProgramReferenceDataService programs;
+
+  @Mock
+  private OrderableReferenceDataService products;
+
+  @InjectMocks
+  private OrderDtoBuilder orderDtoBuilder;
+
+  private FacilityDto facility = new FacilityDtoDataBuilder().buildAsDto();
+  private FacilityDto supplyingFacility = new FacilityDtoDataBuilder().buildAsDto();
+  private ProcessingPeriodDto period = new ProcessingPeriodDtoDataBuilder().buildAsDto();
+  private ProgramDto program = new ProgramDtoDataBuilder().buildAsDto();
+  private OrderableDto orderable = new OrderableDtoDataBuilder().buildAsDto();
+  private UserDto user = new UserDtoDataBuilder().buildAsDto();
+
+  private Requisition firstRequisition;
+  private Requisition secondRequisition;
+  private StatusMessage statusMessage;
+
+  @Before
+  public void setUp() {
+    firstRequisition = buildRequisition();
+    secondRequisition = buildRequisition();
+
+    statusMessage = new StatusMessageDataBuilder()
+        .withRequisition(secondRequisition)
+        .build();
+
+    when(facilities.search(anySetOf(UUID.class)))
+        .thenReturn(Lists.newArrayList(facility, supplyingFacility));
+    when(periods.search(anySetOf(UUID.class)))
+        .thenReturn(Collections.singletonList(period));
+    when(programs.search(anySetOf(UUID.class)))
+        .thenReturn(Collections.singletonList(program));
+    when(products.findByIdentities(anySetOf(VersionEntityReference.class)))
+        .thenReturn(Collections.singletonList(orderable));
+    when(statusMessageRepository.findByRequisitionIdIn(any()))
+        .thenReturn(Collections.singletonList(statusMessage));
+  }
+
+  @Test
+  public void shouldBuildOrdersWithSingleCallForEachResource() {
+    List<OrderDto> orders = orderDtoBuilder
+        .build(Lists.newArrayList(firstRequisition, secondRequisition), user);
+
+    assertThat(orders, hasSize(2));
+    assertOrder(orders.get(0), firstRequisition);
+    assertOrder(orders.get(1), secondRequisition);
+
+    assertThat(orders.get(0).getStatusMessages(), is(empty()));
+    assertThat(orders.get(1).getStatusMessages(), hasSize(1));
+    assertEquals(statusMessage.getBody(), orders.get(1).getStatusMessages().get(0).getBody());
+    assertNull(orders.get(1).getStatusMessages().get(0).getId());
+
+    verify(facilities).search(Sets.newHashSet(facility.getId(), supplyingFacility.getId()));
+    verify(periods).search(Sets.newHashSet(period.getId()));
+    verify(programs).search(Sets.newHashSet(program.getId()));
+    verify(products).findByIdentities(Sets.newHashSet(
+        new VersionEntityReference(orderable.getId(), orderable.getVersionNumber())));
+    verify(statusMessageRepository).findByRequisitionIdIn(
+        Sets.newHashSet(firstRequisition.getId(), secondRequisition.getId()));
+
+    verify(facilities, never()).findOne(any(UUID.class));
+    verify(periods, never()).findOne(any(UUID.class));
+    verify(programs, never()).findOne(any(UUID.class));
+  }
+
+  @Test
+  public void shouldBuildSingleOrder() {
+    OrderDto order = orderDtoBuilder.build(firstRequisition, user);
+
+    assertOrder(order, firstRequisition);
+  }
+
+  @Test
+  public void shouldReturnNullIfRequisitionIsNull() {
+    assertNull(orderDtoBuilder.build((Requisition) null, user));
+  }
+
+  @Test
+  public void shouldNotCallReferenceDataIfThereAreNoRequisitions() {
+    List<OrderDto> orders = orderDtoBuilder.build(Collections.emptyList(), user);
+
+    assertThat(orders, is(empty()));
+    verifyZeroInteractions(facilities, periods, programs, products, statusMessageRepository);
+  }
+
+  private Requisition buildRequisition() {
+    return new RequisitionDataBuilder()
+        .withFacilityId(facility.getId())
+        .withSupplyingFacilityId(supplyingFacility.getId())
+        .withProcessingPeriodId(period.getId())
+        .withProgramId(program.getId())
+        .withRequisitionLineItems(Lists.newArrayList(
+            new RequisitionLineItemDataBuilder()
+                .withOrderable(orderable.getId(), orderable.getVersionNumber())
+                .build(),
+            new RequisitionLineItemDataBuilder()
+                .withOrderable(orderable.getId(), orderable.getVersionNumber())
+                .withSkippedFlag(true)
+                .build()))
+        .build();
+  }
+
+  private void assertOrder(OrderDto order, Requisition requisition) {
+    assertEquals(requisition.getId(), order.getExternalId());
+    assertEquals(facility, order.getFacility());
+    assertEquals(facility, order.getReceivingFacility());
+    assertEquals(facility, order.getRequestingFacility());
+    assertEquals(supplyingFacility, order.getSupplyingFacility());
+    assertEquals(period, order.getProcessingPeriod());
+    assertEquals(program, order.getProgram());
+    assertEquals(user, order.getCreatedBy());
+    assertEquals(user.getId(), order.getLastUpdater().getId());
+
+    assertThat(order.getOrderLineItems(), hasSize(1));
+    assertEquals(orderable, order.getOrderLineItems().get(0).getOrderable());
+  }
+}
@@ -17,9 +17,12 @@ package org.openlmis.requisition.web;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.nullable;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.time.LocalDate;
@@ -37,19 +40,22 @@ import java.util.Random;
 import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
+import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
-import org.openlmis.requisition.domain.requisition.Requisition;
-import org.openlmis.requisition.domain.requisition.RequisitionStatus;
-import org.openlmis.requisition.domain.requisition.StatusChange;
+import org.openlmis.requisition.domain.requisition.RequisitionApproval;
 import org.openlmis.requisition.dto.BasicProcessingPeriodDto;
 import org.openlmis.requisition.dto.GeographicZoneDto;
 import org.openlmis.requisition.dto.MinimalFacilityDto;
 import org.openlmis.requisition.dto.ProcessingPeriodDto;
 import org.openlmis.requisition.dto.ProcessingScheduleDto;
+import org.openlmis.requisition.dto.ProgramDto;
+import org.openlmis.requisition.dto.ReportingRateReportDto;
+import org.openlmis.requisition.dto.RequisitionCompletionDto;
+import org.openlmis.requisition.repository.RequisitionRepository;
 import org.openlmis.requisition.service.referencedata.FacilityReferenceDataService;
 import org.openlmis.requisition.service.referencedata.GeographicZoneReferenceDataService;
 import org.openlmis.requisition.service.referencedata.PeriodReferenceDataService;
@@ -71,6 +77,16 @@ public class ReportingRateDtoBuilderTest {
   @Mock
   private GeographicZoneReferenceDataService geographicZoneReferenceDataService;
 
+  @Mock
+  private RequisitionRepository requisitionRepository;
+
+  private ProgramDto program = new ProgramDto();
+
+  @Before
+  public void setUp() {
+    program.setId(UUID.randomUUID());
+  }
+
   @Test
   public void shouldGetLatestPeriods() {
     // given
@@ -190,19 +206,16 @@ public class ReportingRateDtoBuilderTest {
     LocalDateTime dueDate = LocalDate.of(1994, 8, 10).atStartOfDay();
     ZoneId zoneId = ZoneId.systemDefault();
 
-    List<Requisition> requisitions = new ArrayList<>();
+    List<RequisitionApproval> requisitions = new ArrayList<>();
 
     // on-time requisition
-    requisitions.add(mockRequisitionWithStatusChanges(
-        RequisitionStatus.APPROVED, ZonedDateTime.of(dueDate, zoneId)));
+    requisitions.add(mockRequisitionApproval(ZonedDateTime.of(dueDate, zoneId)));
 
     // late requisition
-    requisitions.add(mockRequisitionWithStatusChanges(
-        RequisitionStatus.APPROVED, ZonedDateTime.of(dueDate.plusDays(5), zoneId)));
+    requisitions.add(mockRequisitionApproval(ZonedDateTime.of(dueDate.plusDays(5), zoneId)));
 
     // missed requisition
-    requisitions.add(mockRequisitionWithStatusChanges(
-        RequisitionStatus.SUBMITTED, ZonedDateTime.of(dueDate.minusDays(5), zoneId)));
+    requisitions.add(mockRequisitionApproval(null));
 
     // when
     ReportingRateReportDtoBuilder.CompletionCounter counter = builder.new CompletionCounter();
@@ -217,7 +230,7 @@ public class ReportingRateDtoBuilderTest {
   @Test
   public void shouldUpdateCompletionsWithMissedIfNoRequisitionsProvided() {
     // given
-    List<Requisition> requisitions = new ArrayList<>();
+    List<RequisitionApproval> requisitions = new ArrayList<>();
 
     // when
     ReportingRateReportDtoBuilder.CompletionCounter counter = builder.new CompletionCounter();
@@ -229,6 +242,66 @@ public class ReportingRateDtoBuilderTest {
     assertEquals(1, counter.getMissed());
   }
 
+  @Test
+  public void shouldBuildReportWithSingleRequisitionQuery() {
+    // given
+    ProcessingPeriodDto period = generateProcessingPeriods(1, null).get(0);
+    period.setName("period");
+    period.setEndDate(LocalDate.of(2017, 1, 31));
+
+    GeographicZoneDto zone = new GeographicZoneDto();
+    zone.setId(UUID.randomUUID());
+    zone.setName("zone");
+
+    MinimalFacilityDto onTimeFacility = mockActiveFacility();
+    MinimalFacilityDto lateFacility = mockActiveFacility();
+    MinimalFacilityDto missedFacility = mockActiveFacility();
+
+    when(geographicZoneReferenceDataService.search(GEOGRAPHIC_LEVEL_NUMBER, null))
+        .thenReturn(Collections.singletonList(zone));
+    when(facilityReferenceDataService.search(null, null, zone.getId(), true))
+        .thenReturn(Arrays.asList(onTimeFacility, lateFacility, missedFacility));
+
+    ZoneId zoneId = ZoneId.systemDefault();
+    when(requisitionRepository.searchRegularRequisitionApprovals(
+        eq(program.getId()), anyCollection(), anyCollection()))
+        .thenReturn(Arrays.asList(
+            new RequisitionApproval(UUID.randomUUID(), onTimeFacility.getId(), period.getId(),
+                ZonedDateTime.of(LocalDate.of(2017, 2, 1).atStartOfDay(), zoneId)),
+            new RequisitionApproval(UUID.randomUUID(), lateFacility.getId(), period.getId(),
+                ZonedDateTime.of(LocalDate.of(2017, 3, 1).atStartOfDay(), zoneId))));
+
+    // when
+    ReportingRateReportDto report = builder.build(program, period, null, 10);
+
+    // then
+    verify(requisitionRepository).searchRegularRequisitionApprovals(
+        eq(program.getId()), anyCollection(), anyCollection());
+
+    assertEquals(1, report.getCompletionByPeriod().size());
+    assertCompletion(report.getCompletionByPeriod().get(0), "period");
+
+    assertEquals(1, report.getCompletionByZone().size());
+    assertCompletion(report.getCompletionByZone().get(0), "zone");
+  }
+
+  private void assertCompletion(RequisitionCompletionDto completion, String grouping) {
+    assertEquals(grouping, completion.getGrouping());
+    assertEquals(1, completion.getOnTime());
+    assertEquals(1, completion.getLate());
+    assertEquals(1, completion.getMissed());
+    assertEquals(2, completion.getCompleted());
+    assertEquals(3, completion.getTotal());
+  }
+
+  private MinimalFacilityDto mockActiveFacility() {
+    MinimalFacilityDto facility = new MinimalFacilityDto();
+    facility.setId(UUID.randomUUID());
+    facility.setActive(true);
+
+    return facility;
+  }
+
   private GeographicZoneDto mockGeographicZoneWithFacility(boolean facilityActive) {
     GeographicZoneDto zone = mock(GeographicZoneDto.class);
     UUID zoneId = UUID.randomUUID();
@@ -247,17 +320,9 @@ public class ReportingRateDtoBuilderTest {
     return zone;
   }
 
-  private Requisition mockRequisitionWithStatusChanges(
-      RequisitionStatus status, ZonedDateTime date) {
-    StatusChange entry = mock(StatusChange.class);
-    when(entry.getStatus()).thenReturn(status);
-    when(entry.getCreatedDate()).thenReturn(date);
-    List<StatusChange> changes = Collections.singletonList(entry);
-
-    Requisition requisition = mock(Requisition.class);
-    when(requisition.getStatusChanges()).thenReturn(changes);
-
-    return requisition;
+  private RequisitionApproval mockRequisitionApproval(ZonedDateTime approvedDate) {
+    return new RequisitionApproval(
+        UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID(), approvedDate);
   }
 
   private List<ProcessingPeriodDto> generateProcessingPeriods(
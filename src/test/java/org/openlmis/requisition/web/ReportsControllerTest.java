@@ -15,8 +15,10 @@
 
 package org.openlmis.requisition.web;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -35,8 +37,11 @@ import org.openlmis.requisition.exception.ContentNotFoundMessageException;
 import org.openlmis.requisition.exception.JasperReportViewException;
 import org.openlmis.requisition.repository.RequisitionRepository;
 import org.openlmis.requisition.service.JasperReportsViewService;
+import org.openlmis.requisition.service.JasperReportsViewService.ReportOutput;
 import org.openlmis.requisition.service.JasperTemplateService;
 import org.openlmis.requisition.service.PermissionService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletResponse;
 
 @SuppressWarnings({"PMD.UnusedPrivateField"})
 public class ReportsControllerTest {
@@ -72,26 +77,35 @@ public class ReportsControllerTest {
     when(permissionService.canViewRequisition(any(UUID.class)))
         .thenReturn(ValidationResult.notFound("requisition.not.found"));
     // when
-    reportsController.print(UUID.randomUUID());
+    reportsController.print(UUID.randomUUID(), new MockHttpServletResponse());
   }
 
   @Test
   public void shouldPrintRequisition()
       throws JasperReportViewException, IOException, JRException {
     // given
-    byte[] reportData = new byte[1];
+    byte[] reportData = new byte[]{1, 2, 3};
+    final UUID requisitionId = UUID.randomUUID();
+    final MockHttpServletResponse response = new MockHttpServletResponse();
 
     when(requisitionRepository.findById(any(UUID.class)))
         .thenReturn(Optional.of(mock(Requisition.class)));
-    when(jasperReportsViewService.generateRequisitionReport(
-        any(Requisition.class))).thenReturn(reportData);
+    doAnswer(invocation -> {
+      ReportOutput output = invocation.getArgument(1);
+      output.open().write(reportData);
+      return null;
+    }).when(jasperReportsViewService)
+        .generateRequisitionReport(any(Requisition.class), any(ReportOutput.class));
     when(permissionService.canViewRequisition(any(UUID.class)))
         .thenReturn(ValidationResult.success());
 
     // when
-    byte[] actualReportData = reportsController.print(UUID.randomUUID()).getBody();
+    reportsController.print(requisitionId, response);
 
     // then
-    assertEquals(reportData, actualReportData);
+    assertArrayEquals(reportData, response.getContentAsByteArray());
+    assertEquals("application/pdf;charset=UTF-8", response.getContentType());
+    assertEquals("inline; filename=requisition" + requisitionId + ".pdf",
+        response.getHeader(HttpHeaders.CONTENT_DISPOSITION));
   }
 }
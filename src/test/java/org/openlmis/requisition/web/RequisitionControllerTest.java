@@ -21,6 +21,7 @@ import static java.util.Collections.singletonList;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.assertj.core.util.Maps.newHashMap;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
@@ -46,6 +47,7 @@ import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
 import static org.openlmis.requisition.domain.RequisitionTemplate.ORDER_RELATED_COLUMNS;
 import static org.openlmis.requisition.i18n.MessageKeys.ERROR_REQUISITION_PERIODS_FOR_INITIATE_MISSING_PARAMETERS;
+import static org.openlmis.requisition.i18n.MessageKeys.ERROR_SEARCH_CONTINUATION_TOKEN_PAGEABLE;
 import static org.openlmis.requisition.i18n.MessageKeys.IDEMPOTENCY_KEY_ALREADY_USED;
 import static org.openlmis.requisition.i18n.MessageKeys.IDEMPOTENCY_KEY_WRONG_FORMAT;
 import static org.openlmis.requisition.web.BaseController.API_URL;
@@ -57,6 +59,7 @@ import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import java.time.LocalDate;
+import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -108,6 +111,8 @@ import org.openlmis.requisition.exception.VersionMismatchException;
 import org.openlmis.requisition.repository.RequisitionRepository;
 import org.openlmis.requisition.repository.RequisitionTemplateRepository;
 import org.openlmis.requisition.repository.custom.ProcessedRequestsRedisRepository;
+import org.openlmis.requisition.repository.custom.RequisitionKeyset;
+import org.openlmis.requisition.repository.custom.RequisitionSearchParams;
 import org.openlmis.requisition.service.PeriodService;
 import org.openlmis.requisition.service.PermissionService;
 import org.openlmis.requisition.service.RequisitionService;
@@ -138,13 +143,19 @@ import org.openlmis.requisition.utils.AuthenticationHelper;
 import org.openlmis.requisition.utils.DateHelper;
 import org.openlmis.requisition.utils.DatePhysicalStockCountCompletedEnabledPredicate;
 import org.openlmis.requisition.utils.Message;
+import org.openlmis.requisition.utils.Pagination;
 import org.openlmis.requisition.utils.StockEventBuilder;
 import org.openlmis.requisition.validate.ReasonsValidator;
 import org.openlmis.requisition.validate.RequisitionVersionValidator;
 import org.slf4j.profiler.Profiler;
 import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpHeaders;
 import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.LinkedMultiValueMap;
 
 @SuppressWarnings({"PMD.TooManyMethods", "PMD.UnusedPrivateField"})
 public class RequisitionControllerTest {
@@ -1313,6 +1324,107 @@ public class RequisitionControllerTest {
     }
   }
 
+  @Test
+  public void shouldRejectSortWhenSearchingWithContinuationToken() {
+    assertThatThrownBy(() -> requisitionController.searchRequisitions(
+        new LinkedMultiValueMap<>(), "", PageRequest.of(0, 10, Sort.by("createdDate")),
+        response))
+        .isInstanceOf(ValidationMessageException.class)
+        .hasMessageContaining(ERROR_SEARCH_CONTINUATION_TOKEN_PAGEABLE);
+
+    verifyZeroInteractions(requisitionService);
+  }
+
+  @Test
+  public void shouldRejectPageNumberWhenSearchingWithContinuationToken() {
+    assertThatThrownBy(() -> requisitionController.searchRequisitions(
+        new LinkedMultiValueMap<>(), "", PageRequest.of(1, 10), response))
+        .isInstanceOf(ValidationMessageException.class)
+        .hasMessageContaining(ERROR_SEARCH_CONTINUATION_TOKEN_PAGEABLE);
+
+    verifyZeroInteractions(requisitionService);
+  }
+
+  @Test
+  public void shouldRejectSortWhenGettingRequisitionsForApprovalWithContinuationToken() {
+    assertThatThrownBy(() -> requisitionController.requisitionsForApproval(
+        programUuid, "", PageRequest.of(0, 10, Sort.by("createdDate")), response))
+        .isInstanceOf(ValidationMessageException.class)
+        .hasMessageContaining(ERROR_SEARCH_CONTINUATION_TOKEN_PAGEABLE);
+
+    verifyZeroInteractions(requisitionService);
+  }
+
+  @Test
+  public void shouldReturnPageDescribingOnlyKeysetSlice() {
+    when(initiatedRequsition.getCreatedDate()).thenReturn(ZonedDateTime.now());
+    when(requisitionService.searchRequisitions(any(RequisitionSearchParams.class), eq(null),
+        eq(2)))
+        .thenReturn(new SliceImpl<>(Lists.newArrayList(submittedRequsition, initiatedRequsition),
+            PageRequest.of(0, 2), true));
+    when(basicRequisitionDtoBuilder.build(anyCollection()))
+        .thenReturn(Lists.newArrayList(basicRequisitionDto, basicRequisitionDto));
+
+    Page<BasicRequisitionDto> page = requisitionController.searchRequisitions(
+        new LinkedMultiValueMap<>(), "", PageRequest.of(0, 2), response);
+
+    assertEquals(2, page.getContent().size());
+    assertEquals(2, page.getTotalElements());
+    assertEquals(1, page.getTotalPages());
+    assertTrue(page.isFirst());
+    assertFalse(page.isLast());
+    assertEquals(Sort.by("createdDate", "id"), page.getSort());
+    verify(response).setHeader(RequisitionController.CONTINUATION_TOKEN_HEADER,
+        RequisitionKeyset.of(initiatedRequsition).toToken());
+  }
+
+  @Test
+  public void shouldUseDefaultPageSizeWhenSearchingWithContinuationTokenWithoutSize() {
+    int size = RequisitionController.DEFAULT_KEYSET_PAGE_SIZE;
+    when(requisitionService.searchRequisitions(any(RequisitionSearchParams.class), eq(null),
+        eq(size)))
+        .thenReturn(new SliceImpl<>(emptyList(), PageRequest.of(0, size), false));
+
+    Page<BasicRequisitionDto> page = requisitionController.searchRequisitions(
+        new LinkedMultiValueMap<>(), "", PageRequest.of(0, Pagination.NO_PAGINATION), response);
+
+    assertEquals(size, page.getSize());
+    verify(requisitionService).searchRequisitions(any(RequisitionSearchParams.class), eq(null),
+        eq(size));
+  }
+
+  @Test
+  public void shouldUseDefaultPageSizeWhenGettingRequisitionsForApprovalWithoutSize() {
+    int size = RequisitionController.DEFAULT_KEYSET_PAGE_SIZE;
+    when(requisitionService.getRequisitionsForApproval(any(UserDto.class), eq(programUuid),
+        eq(null), eq(size)))
+        .thenReturn(new SliceImpl<>(emptyList(), PageRequest.of(0, size), false));
+
+    Page<BasicRequisitionDto> page = requisitionController.requisitionsForApproval(
+        programUuid, "", PageRequest.of(0, Pagination.NO_PAGINATION), response);
+
+    assertEquals(size, page.getSize());
+  }
+
+  @Test
+  public void shouldReturnLastKeysetPageWithoutContinuationToken() {
+    RequisitionKeyset keyset = new RequisitionKeyset(
+        ZonedDateTime.of(2021, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC), UUID.randomUUID());
+    when(requisitionService.searchRequisitions(any(RequisitionSearchParams.class), eq(keyset),
+        eq(2)))
+        .thenReturn(new SliceImpl<>(emptyList(), PageRequest.of(0, 2), false));
+
+    Page<BasicRequisitionDto> page = requisitionController.searchRequisitions(
+        new LinkedMultiValueMap<>(), keyset.toToken(), PageRequest.of(0, 2), response);
+
+    assertEquals(0, page.getTotalElements());
+    assertEquals(0, page.getTotalPages());
+    assertFalse(page.isFirst());
+    assertTrue(page.isLast());
+    verify(response, never()).setHeader(eq(RequisitionController.CONTINUATION_TOKEN_HEADER),
+        any(String.class));
+  }
+
   private void mockDependenciesForSubmit() {
     when(permissionService.canSubmitRequisition(initiatedRequsition))
         .thenReturn(ValidationResult.success());
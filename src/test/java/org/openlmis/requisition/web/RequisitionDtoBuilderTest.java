@@ -19,15 +19,19 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyListOf;
 import static org.mockito.Matchers.anyMap;
 import static org.mockito.Matchers.anySetOf;
 import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Lists;
+import java.net.URI;
+import java.time.Clock;
 import java.time.LocalDate;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
@@ -35,6 +39,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -58,8 +63,11 @@ import org.openlmis.requisition.dto.ReasonDto;
 import org.openlmis.requisition.dto.ReasonType;
 import org.openlmis.requisition.dto.RequisitionDto;
 import org.openlmis.requisition.dto.RequisitionLineItemDto;
+import org.openlmis.requisition.dto.SupportedProgramDto;
 import org.openlmis.requisition.dto.VersionIdentityDto;
+import org.openlmis.requisition.service.AuthService;
 import org.openlmis.requisition.service.PeriodService;
+import org.openlmis.requisition.service.cache.ResourceCache;
 import org.openlmis.requisition.service.referencedata.FacilityReferenceDataService;
 import org.openlmis.requisition.service.referencedata.FacilityTypeApprovedProductReferenceDataService;
 import org.openlmis.requisition.service.referencedata.OrderableReferenceDataService;
@@ -68,7 +76,15 @@ import org.openlmis.requisition.testutils.ApprovedProductDtoDataBuilder;
 import org.openlmis.requisition.testutils.DtoGenerator;
 import org.openlmis.requisition.testutils.OrderableDtoDataBuilder;
 import org.openlmis.requisition.testutils.StockAdjustmentReasonDataBuilder;
+import org.openlmis.requisition.testutils.SupportedProgramDtoDataBuilder;
+import org.openlmis.requisition.utils.DateHelper;
 import org.openlmis.requisition.utils.RequisitionExportHelper;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestOperations;
 
 @RunWith(MockitoJUnitRunner.class)
 public class RequisitionDtoBuilderTest {
@@ -263,6 +279,59 @@ public class RequisitionDtoBuilderTest {
     assertNull(requisitionDto.getProcessingPeriodId());
   }
 
+  @Test
+  public void shouldNotRemoveSupportedProgramsFromPassedFacility() {
+    List<SupportedProgramDto> supportedPrograms = Collections.singletonList(
+        new SupportedProgramDtoDataBuilder().withId(program.getId()).buildAsDto());
+    facility.setSupportedPrograms(supportedPrograms);
+
+    RequisitionDto requisitionDto = requisitionDtoBuilder
+        .buildBatch(requisition, facility, Collections.emptyMap(), Collections.emptyMap(),
+            processingPeriod);
+
+    assertEquals(facility.getId(), requisitionDto.getFacility().getId());
+    assertNull(requisitionDto.getFacility().getSupportedPrograms());
+    assertEquals(supportedPrograms, facility.getSupportedPrograms());
+  }
+
+  @Test
+  public void shouldAllowInitiateForCachedFacilityAfterBuildingDto() {
+    facility.setSupportedPrograms(Collections.singletonList(new SupportedProgramDtoDataBuilder()
+        .withId(program.getId())
+        .withProgramActive(true)
+        .withSupportActive(true)
+        .buildAsDto()));
+
+    RestOperations restTemplate = mock(RestOperations.class);
+    when(restTemplate.exchange(any(URI.class), eq(HttpMethod.GET), any(HttpEntity.class),
+        eq(FacilityDto.class)))
+        .thenReturn(new ResponseEntity<>(facility, HttpStatus.OK));
+
+    FacilityReferenceDataService cachedFacilities = new FacilityReferenceDataService();
+    cachedFacilities.setRestTemplate(restTemplate);
+    cachedFacilities.setAuthService(mock(AuthService.class));
+    ReflectionTestUtils.setField(cachedFacilities, "cache", new ResourceCache<>("facilities",
+        FacilityDto.class, 10, TimeUnit.MINUTES.toMillis(5), Clock.systemUTC(), null));
+    ReflectionTestUtils.setField(requisitionDtoBuilder, "facilityReferenceDataService",
+        cachedFacilities);
+
+    FacilitySupportsProgramHelper facilitySupportsProgramHelper =
+        new FacilitySupportsProgramHelper();
+    facilitySupportsProgramHelper.facilityReferenceDataService = cachedFacilities;
+    facilitySupportsProgramHelper.dateHelper = mock(DateHelper.class);
+    when(facilitySupportsProgramHelper.dateHelper.isDateBeforeNow(any(LocalDate.class)))
+        .thenReturn(true);
+
+    RequisitionDto requisitionDto = requisitionDtoBuilder.build(requisition);
+    assertNull(requisitionDto.getFacility().getSupportedPrograms());
+
+    facilitySupportsProgramHelper.checkIfFacilitySupportsProgram(facility.getId(),
+        program.getId());
+
+    verify(restTemplate).exchange(any(URI.class), eq(HttpMethod.GET), any(HttpEntity.class),
+        eq(FacilityDto.class));
+  }
+
   private Requisition buildRequisition() {
     Requisition requisition = new Requisition(facility.getId(), program.getId(),
         processingPeriod.getId(), RequisitionStatus.INITIATED, false);
@@ -275,7 +344,6 @@ public class RequisitionDtoBuilderTest {
     requisition.setRequisitionLineItems(Collections.singletonList(requisitionLineItem));
     requisition.setDatePhysicalStockCountCompleted(
         new DatePhysicalStockCountCompleted(LocalDate.now()));
-    requisition.setAvailableProducts(Collections.emptySet());
 
     StockAdjustmentReason reason = generateStockAdjustmentReason();
     requisition.setStockAdjustmentReasons(Collections.singletonList(reason));
@@ -22,6 +22,7 @@ import static org.junit.Assert.assertEquals;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.powermock.api.mockito.PowerMockito.when;
 
 import java.util.List;
@@ -203,4 +204,18 @@ public class RequisitionForConvertBuilderTest {
     assertEquals(2, result.size());
     assertEquals(requisitionDto.getFacilityId(), result.get(0).getId());
   }
+
+  @Test
+  public void shouldGetAvailableSupplyingDepotsForProgramAndSupervisoryNode() {
+    when(supplyLineReferenceDataService
+            .search(requisition1.getProgramId(), requisition1.getSupervisoryNodeId()))
+            .thenReturn(asList(supplyLine1, supplyLine4));
+
+    List<FacilityDto> result = requisitionForConvertBuilder.getAvailableSupplyingDepots(
+        requisition1.getProgramId(), requisition1.getSupervisoryNodeId());
+
+    assertEquals(2, result.size());
+    assertEquals(requisitionDto.getFacilityId(), result.get(0).getId());
+    verifyZeroInteractions(requisitionRepository);
+  }
 }
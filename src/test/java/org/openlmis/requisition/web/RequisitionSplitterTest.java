@@ -328,7 +328,7 @@ public class RequisitionSplitterTest {
         .isEqualToIgnoringGivenFields(
             originalRequisition,
             "id", "requisitionLineItems", "version", "draftStatusMessage", "statusChanges",
-            "supervisoryNodeId", "previousRequisitions", "availableProducts", "permissionStrings",
+            "supervisoryNodeId", "previousRequisitions", "availableProductSet", "permissionStrings",
             "extraData")
         .hasFieldOrPropertyWithValue("id", null)
         .hasFieldOrPropertyWithValue("version", 1L)
@@ -336,6 +336,7 @@ public class RequisitionSplitterTest {
         .hasFieldOrPropertyWithValue("statusChanges", Lists.newArrayList())
         .hasFieldOrPropertyWithValue("supervisoryNodeId", association.getSupervisoryNodeId())
         .hasFieldOrPropertyWithValue("previousRequisitions", Lists.newArrayList())
+        .hasFieldOrPropertyWithValue("availableProductSet", null)
         .hasFieldOrPropertyWithValue("availableProducts", Sets.newHashSet());
     assertThat(partnerRequisition.getOriginalRequisitionId())
         .isEqualTo(originalRequisition.getId());